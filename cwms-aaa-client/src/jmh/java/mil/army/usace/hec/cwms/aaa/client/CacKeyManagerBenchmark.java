@@ -0,0 +1,82 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.aaa.client;
+
+import java.security.GeneralSecurityException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Client alias selection as done on every TLS handshake, against a software keystore stand-in with a simulated
+ * per read hardware token latency.
+ * <p>
+ * Run with: gradlew :cwms-aaa-client:jmh
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CacKeyManagerBenchmark {
+
+    private static final String[] KEY_TYPES = {"RSA"};
+
+    @Param({"4"})
+    public int certificates;
+
+    @Param({"0", "200"})
+    public long readDelayMicros;
+
+    private CacKeyManager uncached;
+    private CacKeyManager cached;
+
+    @Setup
+    public void setUp() throws GeneralSecurityException {
+        SoftwareCacKeyStore cac = new SoftwareCacKeyStore(certificates, readDelayMicros);
+        uncached = cac.createKeyManager(0);
+        cached = cac.createKeyManager(TimeUnit.MINUTES.toMillis(5));
+    }
+
+    @Benchmark
+    public String chooseClientAliasUncached() {
+        return uncached.chooseClientAlias(KEY_TYPES, null, null);
+    }
+
+    @Benchmark
+    public String chooseClientAliasCached() {
+        return cached.chooseClientAlias(KEY_TYPES, null, null);
+    }
+}
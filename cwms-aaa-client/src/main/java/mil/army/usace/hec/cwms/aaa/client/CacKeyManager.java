@@ -32,9 +32,14 @@ import java.security.PrivateKey;
 import java.security.cert.Certificate;
 import java.security.cert.CertificateParsingException;
 import java.security.cert.X509Certificate;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.Enumeration;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
@@ -46,15 +51,41 @@ import org.bouncycastle.asn1.DLSequence;
 import org.bouncycastle.asn1.DLTaggedObject;
 import org.bouncycastle.cert.jcajce.JcaX509ExtensionUtils;
 
+/**
+ * Key manager that prefers the PIV authentication certificate on a CAC.
+ * <p>
+ * Finding the PIV certificate walks every alias on the card, which is slow with hardware tokens. The chosen alias is
+ * therefore cached per key types and issuers. The cache entry is dropped when the card no longer returns the alias,
+ * for example after the card was removed or swapped, when the certificate expires, after the configured time to live,
+ * or on {@link #invalidateAliasCache()}.
+ * <p>
+ * Configured through system properties:
+ * cwms.aaa.cac.alias.cache.millis - time to live of a chosen alias, default 300000, 0 disables the cache
+ */
 final class CacKeyManager implements X509KeyManager {
     static final Pattern EDIPI_PATTERN = Pattern.compile("\\d{16}@mil", Pattern.CASE_INSENSITIVE);
+    static final String ALIAS_CACHE_PROPERTY_KEY = "cwms.aaa.cac.alias.cache.millis";
     private static final Logger LOGGER = Logger.getLogger(CacKeyManager.class.getName());
     private final X509KeyManager delegate;
     private final KeyStore keystore;
+    private final long aliasCacheNanos;
+    private final Map<List<Object>, ChosenAlias> chosenAliases = new ConcurrentHashMap<>();
 
     CacKeyManager(X509KeyManager delegate, KeyStore keystore) {
+        this(delegate, keystore, Long.getLong(ALIAS_CACHE_PROPERTY_KEY, TimeUnit.MINUTES.toMillis(5)));
+    }
+
+    CacKeyManager(X509KeyManager delegate, KeyStore keystore, long aliasCacheMillis) {
         this.delegate = delegate;
         this.keystore = keystore;
+        this.aliasCacheNanos = TimeUnit.MILLISECONDS.toNanos(aliasCacheMillis);
+    }
+
+    /**
+     * Drops all cached alias choices, the next handshake selects the client certificate again.
+     */
+    void invalidateAliasCache() {
+        chosenAliases.clear();
     }
 
     @Override
@@ -64,7 +95,13 @@ final class CacKeyManager implements X509KeyManager {
 
     @Override
     public String chooseClientAlias(String[] keyTypes, Principal[] issuers, Socket socket) {
-        String retVal = delegate.chooseClientAlias(keyTypes, issuers, socket);
+        List<Object> key = Arrays.asList(keyTypes == null ? null : Arrays.asList(keyTypes),
+            issuers == null ? null : Arrays.asList(issuers));
+        ChosenAlias cached = chosenAliases.get(key);
+        if (cached != null && cached.isValid()) {
+            return cached.alias;
+        }
+        String retVal = null;
         if (keyTypes != null) {
             for (String keyType : keyTypes) {
                 String[] clientAliases = this.getClientAliases(keyType, issuers);
@@ -74,6 +111,12 @@ final class CacKeyManager implements X509KeyManager {
                 }
             }
         }
+        if (retVal == null) {
+            retVal = delegate.chooseClientAlias(keyTypes, issuers, socket);
+        }
+        if (retVal != null && aliasCacheNanos > 0) {
+            chosenAliases.put(key, new ChosenAlias(retVal, getNotAfter(retVal), System.nanoTime() + aliasCacheNanos));
+        }
         return retVal;
     }
 
@@ -89,12 +132,39 @@ final class CacKeyManager implements X509KeyManager {
 
     @Override
     public X509Certificate[] getCertificateChain(String alias) {
-        return delegate.getCertificateChain(alias);
+        X509Certificate[] retVal = delegate.getCertificateChain(alias);
+        if (retVal == null) {
+            invalidateAlias(alias);
+        }
+        return retVal;
     }
 
     @Override
     public PrivateKey getPrivateKey(String alias) {
-        return delegate.getPrivateKey(alias);
+        PrivateKey retVal = delegate.getPrivateKey(alias);
+        if (retVal == null) {
+            invalidateAlias(alias);
+        }
+        return retVal;
+    }
+
+    private void invalidateAlias(String alias) {
+        //card removed or changed since the alias was chosen
+        if (chosenAliases.values().removeIf(chosen -> chosen.alias.equals(alias))) {
+            LOGGER.log(Level.FINE, "Client certificate alias no longer available, selecting certificate again on next handshake");
+        }
+    }
+
+    private Date getNotAfter(String alias) {
+        try {
+            Certificate certificate = keystore.getCertificate(alias);
+            if (certificate instanceof X509Certificate) {
+                return ((X509Certificate) certificate).getNotAfter();
+            }
+        } catch (KeyStoreException e) {
+            LOGGER.log(Level.FINE, "Unable to read certificate expiry for alias", e);
+        }
+        return null;
     }
 
     private String getPivCertificate(String[] aliases) {
@@ -134,4 +204,20 @@ final class CacKeyManager implements X509KeyManager {
         }
     }
 
+    private static final class ChosenAlias {
+
+        private final String alias;
+        private final long notAfterMillis;
+        private final long expiresAtNanos;
+
+        private ChosenAlias(String alias, Date notAfter, long expiresAtNanos) {
+            this.alias = alias;
+            this.notAfterMillis = notAfter == null ? Long.MAX_VALUE : notAfter.getTime();
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        private boolean isValid() {
+            return System.nanoTime() - expiresAtNanos < 0 && System.currentTimeMillis() < notAfterMillis;
+        }
+    }
 }
@@ -37,18 +37,39 @@ import mil.army.usace.hec.cwms.http.client.HttpCookie;
 public final class CwmsAuthCookieCallback implements AuthCookieCallback {
 
     private static final Logger LOGGER = Logger.getLogger(CwmsAuthCookieCallback.class.getName());
-    private final ApiConnectionInfo apiConnectionInfo;
-    private final CookieJarFactory.CookieJarSupplier cookieJarSupplier;
+    private final CwmsAuthSessionManager sessionManager;
 
     public CwmsAuthCookieCallback(ApiConnectionInfo apiConnectionInfo, CookieJarFactory.CookieJarSupplier cookieJarSupplier) {
-        this.apiConnectionInfo = apiConnectionInfo;
-        this.cookieJarSupplier = cookieJarSupplier;
+        this(new CwmsAuthSessionManager(apiConnectionInfo, cookieJarSupplier));
+    }
+
+    /**
+     * @param sessionManager shared session, so concurrent 401 responses collapse into a single login
+     */
+    public CwmsAuthCookieCallback(CwmsAuthSessionManager sessionManager) {
+        this.sessionManager = sessionManager;
     }
 
     @Override
     public List<HttpCookie> authenticate() throws IOException {
-        new CwmsLoginController().login(apiConnectionInfo);
-        String apiRoot = apiConnectionInfo.getApiRoot();
+        sessionManager.renewSession();
+        return sessionCookies();
+    }
+
+    @Override
+    public List<HttpCookie> authenticate(List<HttpCookie> rejectedCookies) throws IOException {
+        String rejectedSession = rejectedCookies.stream()
+            .filter(cookie -> CwmsLoginController.JSESSIONIDSSO.equalsIgnoreCase(cookie.name()))
+            .map(HttpCookie::value)
+            .findFirst()
+            .orElse(null);
+        sessionManager.renewSession(rejectedSession);
+        return sessionCookies();
+    }
+
+    private List<HttpCookie> sessionCookies() throws IOException {
+        CookieJarFactory.CookieJarSupplier cookieJarSupplier = sessionManager.getCookieJarSupplier();
+        String apiRoot = sessionManager.getApiRoot();
         List<HttpCookie> retval = new ArrayList<>();
         LOGGER.log(Level.CONFIG, "Attempting to obtain CWMS_AAA login token");
         String message = "Attempted to obtain CWMS_AAA login token, but could not find auth cooke: %s for URL: %s";
@@ -0,0 +1,218 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.aaa.client;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import mil.army.usace.hec.cwms.http.client.ApiConnectionInfo;
+import mil.army.usace.hec.cwms.http.client.CookieJarFactory;
+import mil.army.usace.hec.cwms.http.client.HttpCookie;
+
+/**
+ * Caches the CWMS_AAA login session and logs in again when it is no longer valid.
+ * <p>
+ * Validity is checked locally against the JSESSIONIDSSO cookie in the cookie jar, without a server round trip.
+ * Logins are single-flight. Threads that need a session while a login is in progress wait on the same future, so
+ * there is never more than one login, and never more than one CAC PIN prompt, at a time. A renewal for a rejected
+ * JSESSIONIDSSO cookie reuses the current session when it already holds a different cookie. This covers requests that
+ * were already in flight with the old session when it was replaced, while a freshly issued session the server rejects
+ * still triggers a new login. A renewal that does not know the rejected cookie reuses a login within the grace period.
+ * <p>
+ * Configured through system properties:
+ * cwms.aaa.session.relogin.grace.millis - default 5000
+ */
+public final class CwmsAuthSessionManager {
+
+    static final String RELOGIN_GRACE_PROPERTY_KEY = "cwms.aaa.session.relogin.grace.millis";
+    private static final Logger LOGGER = Logger.getLogger(CwmsAuthSessionManager.class.getName());
+    private final ApiConnectionInfo apiConnectionInfo;
+    private final CookieJarFactory.CookieJarSupplier cookieJarSupplier;
+    private final Login login;
+    private final long reloginGraceMillis;
+    private final AtomicReference<CompletableFuture<Session>> inFlight = new AtomicReference<>();
+    private volatile Session current;
+
+    /**
+     * @param apiConnectionInfo connection to the CWMS_AAA login server, see {@link CwmsLoginController#login(ApiConnectionInfo)}
+     * @param cookieJarSupplier cookie jar the login cookies are stored in
+     */
+    public CwmsAuthSessionManager(ApiConnectionInfo apiConnectionInfo, CookieJarFactory.CookieJarSupplier cookieJarSupplier) {
+        this(apiConnectionInfo, cookieJarSupplier, () -> new CwmsLoginController().login(apiConnectionInfo),
+            Long.getLong(RELOGIN_GRACE_PROPERTY_KEY, 5_000L));
+    }
+
+    CwmsAuthSessionManager(ApiConnectionInfo apiConnectionInfo, CookieJarFactory.CookieJarSupplier cookieJarSupplier, Login login,
+                           long reloginGraceMillis) {
+        this.apiConnectionInfo = apiConnectionInfo;
+        this.cookieJarSupplier = cookieJarSupplier;
+        this.login = login;
+        this.reloginGraceMillis = reloginGraceMillis;
+    }
+
+    /**
+     * @return the cached session while its JSESSIONIDSSO cookie is present and unexpired, otherwise a new login
+     * @throws IOException if the login fails
+     */
+    public CwmsAuthToken getSession() throws IOException {
+        Session session = current;
+        if (session != null && isSessionCookieValid()) {
+            return session.token;
+        }
+        return login(null).token;
+    }
+
+    /**
+     * Logs in again after the server rejected the session, unless another thread did within the grace period. Prefer
+     * {@link #renewSession(String)} when the rejected cookie is known.
+     *
+     * @return renewed session
+     * @throws IOException if the login fails
+     */
+    public CwmsAuthToken renewSession() throws IOException {
+        Session session = current;
+        if (session != null && System.currentTimeMillis() - session.loginMillis < reloginGraceMillis && isSessionCookieValid()) {
+            return session.token;
+        }
+        return login(null).token;
+    }
+
+    /**
+     * Logs in again after the server rejected the session, unless the session was already replaced since the rejected
+     * request was sent.
+     *
+     * @param rejectedSessionCookie JSESSIONIDSSO value sent with the rejected request, null if unknown
+     * @return renewed session
+     * @throws IOException if the login fails
+     */
+    public CwmsAuthToken renewSession(String rejectedSessionCookie) throws IOException {
+        if (rejectedSessionCookie == null) {
+            return renewSession();
+        }
+        Session session = replacedSession(rejectedSessionCookie);
+        return session != null ? session.token : login(rejectedSessionCookie).token;
+    }
+
+    /**
+     * Drops the cached session so the next request logs in again.
+     */
+    public void invalidate() {
+        current = null;
+    }
+
+    String getApiRoot() {
+        return apiConnectionInfo.getApiRoot();
+    }
+
+    CookieJarFactory.CookieJarSupplier getCookieJarSupplier() {
+        return cookieJarSupplier;
+    }
+
+    private boolean isSessionCookieValid() {
+        return !cookieJarSupplier.isCookieExpired(apiConnectionInfo.getApiRoot(), CwmsLoginController.JSESSIONIDSSO);
+    }
+
+    /**
+     * @return the current session if it holds a valid JSESSIONIDSSO cookie other than the rejected one, otherwise null
+     */
+    private Session replacedSession(String rejectedSessionCookie) {
+        Session session = current;
+        if (session == null || !isSessionCookieValid()) {
+            return null;
+        }
+        String sessionCookie = cookieJarSupplier.getCookie(apiConnectionInfo.getApiRoot(), CwmsLoginController.JSESSIONIDSSO)
+            .map(HttpCookie::value)
+            .orElse(null);
+        return sessionCookie == null || sessionCookie.equals(rejectedSessionCookie) ? null : session;
+    }
+
+    private Session login(String rejectedSessionCookie) throws IOException {
+        while (true) {
+            CompletableFuture<Session> existing = inFlight.get();
+            if (existing != null) {
+                return await(existing);
+            }
+            CompletableFuture<Session> future = new CompletableFuture<>();
+            if (inFlight.compareAndSet(null, future)) {
+                try {
+                    //another thread may have finished a login since the rejected cookie was checked
+                    Session replaced = rejectedSessionCookie == null ? null : replacedSession(rejectedSessionCookie);
+                    if (replaced != null) {
+                        future.complete(replaced);
+                        return replaced;
+                    }
+                    LOGGER.log(Level.CONFIG, "Logging in to CWMS_AAA at: {0}", apiConnectionInfo.getApiRoot());
+                    Session session = new Session(login.login());
+                    current = session;
+                    future.complete(session);
+                    return session;
+                } catch (IOException | RuntimeException e) {
+                    future.completeExceptionally(e);
+                    throw e;
+                } finally {
+                    inFlight.set(null);
+                }
+            }
+        }
+    }
+
+    private static Session await(CompletableFuture<Session> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for CWMS_AAA login");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                //rethrow as is so callers can still distinguish e.g. a canceled CAC PIN prompt
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    @FunctionalInterface
+    interface Login {
+        CwmsAuthToken login() throws IOException;
+    }
+
+    private static final class Session {
+
+        private final CwmsAuthToken token;
+        private final long loginMillis = System.currentTimeMillis();
+
+        private Session(CwmsAuthToken token) {
+            this.token = token;
+        }
+    }
+}
@@ -24,9 +24,13 @@
 
 package mil.army.usace.hec.cwms.aaa.client;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.security.GeneralSecurityException;
 import org.junit.jupiter.api.Test;
 
 final class CacKeyManagerTest {
@@ -38,4 +42,38 @@ final class CacKeyManagerTest {
         assertFalse(CacKeyManager.EDIPI_PATTERN.matcher("1234567890123456@ARMY").matches());
         assertFalse(CacKeyManager.EDIPI_PATTERN.matcher("234567890123456@mil").matches());
     }
+
+    @Test
+    void testChooseClientAliasSelectsPiv() throws GeneralSecurityException {
+        SoftwareCacKeyStore cac = new SoftwareCacKeyStore(4, 0);
+        CacKeyManager keyManager = cac.createKeyManager(0);
+        assertEquals(SoftwareCacKeyStore.PIV_ALIAS, keyManager.chooseClientAlias(new String[] {"RSA"}, null, null));
+    }
+
+    @Test
+    void testChooseClientAliasMemoized() throws GeneralSecurityException {
+        SoftwareCacKeyStore cac = new SoftwareCacKeyStore(4, 0);
+        CacKeyManager keyManager = cac.createKeyManager(60_000);
+        String[] keyTypes = {"RSA"};
+        assertEquals(SoftwareCacKeyStore.PIV_ALIAS, keyManager.chooseClientAlias(keyTypes, null, null));
+        int reads = cac.getReads();
+        for (int i = 0; i < 10; i++) {
+            assertEquals(SoftwareCacKeyStore.PIV_ALIAS, keyManager.chooseClientAlias(keyTypes, null, null));
+        }
+        assertEquals(reads, cac.getReads());
+        keyManager.invalidateAliasCache();
+        assertEquals(SoftwareCacKeyStore.PIV_ALIAS, keyManager.chooseClientAlias(keyTypes, null, null));
+        assertNotEquals(reads, cac.getReads());
+    }
+
+    @Test
+    void testChooseClientAliasInvalidatedOnCardRemoval() throws GeneralSecurityException {
+        SoftwareCacKeyStore cac = new SoftwareCacKeyStore(1, 0);
+        CacKeyManager keyManager = cac.createKeyManager(60_000);
+        String[] keyTypes = {"RSA"};
+        assertEquals(SoftwareCacKeyStore.PIV_ALIAS, keyManager.chooseClientAlias(keyTypes, null, null));
+        cac.removeCard();
+        assertNull(keyManager.getCertificateChain(SoftwareCacKeyStore.PIV_ALIAS));
+        assertNull(keyManager.chooseClientAlias(keyTypes, null, null));
+    }
 }
@@ -0,0 +1,177 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.aaa.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import mil.army.usace.hec.cwms.http.client.ApiConnectionInfo;
+import mil.army.usace.hec.cwms.http.client.ApiConnectionInfoBuilder;
+import mil.army.usace.hec.cwms.http.client.CookieJarFactory;
+import mil.army.usace.hec.cwms.http.client.HttpCookie;
+import mil.army.usace.hec.cwms.http.client.HttpRequestBuilderImpl;
+import mil.army.usace.hec.cwms.http.client.HttpRequestResponse;
+import mil.army.usace.hec.cwms.http.client.MockHttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+final class CwmsAuthSessionManagerTest {
+
+    private final AtomicInteger logins = new AtomicInteger();
+    private MockHttpServer mockHttpServer;
+    private CookieJarFactory.CookieJarSupplier cookieJarSupplier;
+    private ApiConnectionInfo apiConnectionInfo;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockHttpServer = MockHttpServer.create();
+        mockHttpServer.start();
+        cookieJarSupplier = CookieJarFactory.inMemoryCookieJar();
+        apiConnectionInfo = new ApiConnectionInfoBuilder(String.format("http://localhost:%s/CWMSLogin/", mockHttpServer.getPort()))
+            .withCookieJarSupplier(cookieJarSupplier)
+            .build();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mockHttpServer.shutdown();
+    }
+
+    @Test
+    void testConcurrentRenewalsLoginOnce() throws Exception {
+        mockHttpServer.enqueue("{}", Arrays.asList("JSESSIONID=53693739C7450D5D5261ED35E2093458",
+            "JSESSIONIDSSO=8AAF8621FD4748C050814BE6D6AFDAFC"));
+        CountDownLatch release = new CountDownLatch(1);
+        CwmsAuthSessionManager sessionManager = new CwmsAuthSessionManager(apiConnectionInfo, cookieJarSupplier, () -> {
+            logins.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return login();
+        }, 5_000);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<CwmsAuthToken>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> sessionManager.renewSession()));
+            }
+            Thread.sleep(200);
+            release.countDown();
+            CwmsAuthToken token = futures.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<CwmsAuthToken> future : futures) {
+                assertSame(token, future.get(5, TimeUnit.SECONDS));
+            }
+            assertSame(token, sessionManager.getSession());
+            assertSame(token, sessionManager.renewSession());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, logins.get());
+    }
+
+    @Test
+    void testFailedLoginRetried() throws Exception {
+        mockHttpServer.enqueue("{}", Arrays.asList("JSESSIONIDSSO=8AAF8621FD4748C050814BE6D6AFDAFC"));
+        CwmsAuthSessionManager sessionManager = new CwmsAuthSessionManager(apiConnectionInfo, cookieJarSupplier, () -> {
+            if (logins.incrementAndGet() == 1) {
+                throw new IOException("PIN prompt canceled");
+            }
+            return login();
+        }, 5_000);
+        assertThrows(IOException.class, sessionManager::getSession);
+        CwmsAuthToken token = sessionManager.getSession();
+        assertSame(token, sessionManager.getSession());
+        sessionManager.invalidate();
+        mockHttpServer.enqueue("{}", Arrays.asList("JSESSIONIDSSO=8AAF8621FD4748C050814BE6D6AFDAFC"));
+        sessionManager.getSession();
+        assertEquals(3, logins.get());
+    }
+
+    @Test
+    void testRenewalForReplacedSessionReusesIt() throws Exception {
+        mockHttpServer.enqueue("{}", Arrays.asList("JSESSIONIDSSO=8AAF8621FD4748C050814BE6D6AFDAFC; Path=/"));
+        CwmsAuthSessionManager sessionManager = new CwmsAuthSessionManager(apiConnectionInfo, cookieJarSupplier, () -> {
+            logins.incrementAndGet();
+            return login();
+        }, 5_000);
+        CwmsAuthToken token = sessionManager.getSession();
+        //a request still in flight with the previous session was rejected
+        assertSame(token, sessionManager.renewSession("53693739C7450D5D5261ED35E2093458"));
+        assertEquals(1, logins.get());
+    }
+
+    @Test
+    void testRejectedFreshSessionLogsInAgain() throws Exception {
+        mockHttpServer.enqueue("{}", Arrays.asList("JSESSIONID=53693739C7450D5D5261ED35E2093458; Path=/",
+            "JSESSIONIDSSO=8AAF8621FD4748C050814BE6D6AFDAFC; Path=/"));
+        mockHttpServer.enqueue(401, "");
+        mockHttpServer.enqueue("{}", Arrays.asList("JSESSIONID=0E4F6C3A1B7D4E2F9A8B7C6D5E4F3A2B; Path=/",
+            "JSESSIONIDSSO=C1D2E3F4A5B6C7D8E9F0A1B2C3D4E5F6; Path=/"));
+        mockHttpServer.enqueue("{\"ok\":true}");
+        CwmsAuthSessionManager sessionManager = new CwmsAuthSessionManager(apiConnectionInfo, cookieJarSupplier, () -> {
+            logins.incrementAndGet();
+            return login();
+        }, 5_000);
+        sessionManager.getSession();
+        ApiConnectionInfo dataApi = new ApiConnectionInfoBuilder(String.format("http://localhost:%s/cwms-data/", mockHttpServer.getPort()))
+            .withCookieJarSupplier(cookieJarSupplier)
+            .withCookieAuthenticator(new CwmsAuthCookieCallback(sessionManager))
+            .build();
+        //the server rejects the session it just issued, well within the grace period
+        try (HttpRequestResponse response = new HttpRequestBuilderImpl(dataApi, "timeseries")
+            .get()
+            .withMediaType("application/json")
+            .execute()) {
+            assertEquals("{\"ok\":true}", response.getBody());
+        }
+        assertEquals(2, logins.get());
+        assertEquals("C1D2E3F4A5B6C7D8E9F0A1B2C3D4E5F6", cookieJarSupplier.getCookie(apiConnectionInfo.getApiRoot(),
+            CwmsLoginController.JSESSIONIDSSO).map(HttpCookie::value).orElse(null));
+    }
+
+    private CwmsAuthToken login() throws IOException {
+        try (HttpRequestResponse response = new HttpRequestBuilderImpl(apiConnectionInfo, "login")
+            .get()
+            .withMediaType("application/json")
+            .execute()) {
+            response.getBody();
+        }
+        return new CwmsAuthToken();
+    }
+}
@@ -0,0 +1,313 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.aaa.client;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.Socket;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.KeyStoreSpi;
+import java.security.Principal;
+import java.security.PrivateKey;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import javax.net.ssl.X509KeyManager;
+import org.bouncycastle.asn1.ASN1Encodable;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.DERSequence;
+import org.bouncycastle.asn1.DERTaggedObject;
+import org.bouncycastle.asn1.DERUTF8String;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.cert.X509v3CertificateBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+
+/**
+ * Software stand-in for a CAC: an in-memory keystore holding several certificates, the last of which carries an EDIPI
+ * principal name like a PIV authentication certificate. Every keystore read is counted and can be delayed to model
+ * the latency of a hardware token.
+ */
+final class SoftwareCacKeyStore {
+
+    static final String PIV_ALIAS = "piv-authentication";
+    private static final String UPN_OID = "1.3.6.1.4.1.311.20.2.3";
+    private static final char[] PASSWORD = new char[0];
+    private final KeyStore certificates;
+    private final KeyStore keystore;
+    private final AtomicInteger reads = new AtomicInteger();
+    private final long readDelayNanos;
+
+    SoftwareCacKeyStore(int otherCertificates, long readDelayMicros) throws GeneralSecurityException {
+        this.readDelayNanos = TimeUnit.MICROSECONDS.toNanos(readDelayMicros);
+        try {
+            certificates = KeyStore.getInstance("PKCS12");
+            certificates.load(null, null);
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(1024);
+            for (int i = 0; i < otherCertificates; i++) {
+                addCertificate(generator.generateKeyPair(), "certificate-" + i, i + 1, false);
+            }
+            addCertificate(generator.generateKeyPair(), PIV_ALIAS, otherCertificates + 1, true);
+            keystore = new KeyStore(new CountingKeyStoreSpi(), certificates.getProvider(), "PKCS12") {
+            };
+            keystore.load(null, null);
+        } catch (java.io.IOException | org.bouncycastle.operator.OperatorCreationException e) {
+            throw new GeneralSecurityException(e);
+        }
+    }
+
+    /**
+     * @param aliasCacheMillis alias cache time to live, 0 disables the cache
+     * @return key manager reading from this keystore through a plain keystore backed delegate
+     */
+    CacKeyManager createKeyManager(long aliasCacheMillis) {
+        return new CacKeyManager(new KeyStoreKeyManager(), keystore, aliasCacheMillis);
+    }
+
+    int getReads() {
+        return reads.get();
+    }
+
+    /**
+     * Simulates pulling the card, the certificates are no longer available.
+     */
+    void removeCard() throws KeyStoreException {
+        for (String alias : Collections.list(certificates.aliases())) {
+            certificates.deleteEntry(alias);
+        }
+    }
+
+    private void addCertificate(KeyPair keyPair, String alias, int serial, boolean piv)
+        throws org.bouncycastle.operator.OperatorCreationException, GeneralSecurityException, java.io.IOException {
+        X500Name name = new X500Name("CN=" + alias);
+        Date notBefore = new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1));
+        Date notAfter = new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(365));
+        X509v3CertificateBuilder builder = new JcaX509v3CertificateBuilder(name, BigInteger.valueOf(serial), notBefore, notAfter, name,
+            keyPair.getPublic());
+        if (piv) {
+            DERSequence otherName = new DERSequence(new ASN1Encodable[] {new ASN1ObjectIdentifier(UPN_OID),
+                new DERTaggedObject(true, 0, new DERUTF8String("1234567890123456@mil"))});
+            builder.addExtension(Extension.subjectAlternativeName, false, new GeneralNames(new GeneralName(GeneralName.otherName, otherName)));
+        }
+        X509Certificate certificate = new JcaX509CertificateConverter()
+            .getCertificate(builder.build(new JcaContentSignerBuilder("SHA256withRSA").build(keyPair.getPrivate())));
+        certificates.setKeyEntry(alias, keyPair.getPrivate(), PASSWORD, new Certificate[] {certificate});
+    }
+
+    private void read() {
+        reads.incrementAndGet();
+        if (readDelayNanos > 0) {
+            LockSupport.parkNanos(readDelayNanos);
+        }
+    }
+
+    private final class KeyStoreKeyManager implements X509KeyManager {
+
+        @Override
+        public String[] getClientAliases(String keyType, Principal[] issuers) {
+            try {
+                List<String> retval = new ArrayList<>();
+                for (String alias : Collections.list(keystore.aliases())) {
+                    Certificate certificate = keystore.getCertificate(alias);
+                    if (certificate != null && certificate.getPublicKey().getAlgorithm().equals(keyType)) {
+                        retval.add(alias);
+                    }
+                }
+                return retval.isEmpty() ? null : retval.toArray(new String[0]);
+            } catch (KeyStoreException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public String chooseClientAlias(String[] keyTypes, Principal[] issuers, Socket socket) {
+            return null;
+        }
+
+        @Override
+        public String[] getServerAliases(String keyType, Principal[] issuers) {
+            return null;
+        }
+
+        @Override
+        public String chooseServerAlias(String keyType, Principal[] issuers, Socket socket) {
+            return null;
+        }
+
+        @Override
+        public X509Certificate[] getCertificateChain(String alias) {
+            try {
+                Certificate[] chain = keystore.getCertificateChain(alias);
+                if (chain == null) {
+                    return null;
+                }
+                X509Certificate[] retval = new X509Certificate[chain.length];
+                System.arraycopy(chain, 0, retval, 0, chain.length);
+                return retval;
+            } catch (KeyStoreException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public PrivateKey getPrivateKey(String alias) {
+            try {
+                return (PrivateKey) keystore.getKey(alias, PASSWORD);
+            } catch (GeneralSecurityException e) {
+                return null;
+            }
+        }
+    }
+
+    private final class CountingKeyStoreSpi extends KeyStoreSpi {
+
+        @Override
+        public Key engineGetKey(String alias, char[] password) {
+            read();
+            try {
+                return certificates.getKey(alias, password);
+            } catch (GeneralSecurityException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public Certificate[] engineGetCertificateChain(String alias) {
+            read();
+            try {
+                return certificates.getCertificateChain(alias);
+            } catch (KeyStoreException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public Certificate engineGetCertificate(String alias) {
+            read();
+            try {
+                return certificates.getCertificate(alias);
+            } catch (KeyStoreException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public Date engineGetCreationDate(String alias) {
+            return null;
+        }
+
+        @Override
+        public void engineSetKeyEntry(String alias, Key key, char[] password, Certificate[] chain) throws KeyStoreException {
+            throw new KeyStoreException("Read only");
+        }
+
+        @Override
+        public void engineSetKeyEntry(String alias, byte[] key, Certificate[] chain) throws KeyStoreException {
+            throw new KeyStoreException("Read only");
+        }
+
+        @Override
+        public void engineSetCertificateEntry(String alias, Certificate cert) throws KeyStoreException {
+            throw new KeyStoreException("Read only");
+        }
+
+        @Override
+        public void engineDeleteEntry(String alias) throws KeyStoreException {
+            throw new KeyStoreException("Read only");
+        }
+
+        @Override
+        public Enumeration<String> engineAliases() {
+            read();
+            try {
+                return certificates.aliases();
+            } catch (KeyStoreException e) {
+                return Collections.emptyEnumeration();
+            }
+        }
+
+        @Override
+        public boolean engineContainsAlias(String alias) {
+            read();
+            try {
+                return certificates.containsAlias(alias);
+            } catch (KeyStoreException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public int engineSize() {
+            try {
+                return certificates.size();
+            } catch (KeyStoreException e) {
+                return 0;
+            }
+        }
+
+        @Override
+        public boolean engineIsKeyEntry(String alias) {
+            return engineContainsAlias(alias);
+        }
+
+        @Override
+        public boolean engineIsCertificateEntry(String alias) {
+            return false;
+        }
+
+        @Override
+        public String engineGetCertificateAlias(Certificate cert) {
+            return null;
+        }
+
+        @Override
+        public void engineStore(OutputStream stream, char[] password) {
+            //in memory only
+        }
+
+        @Override
+        public void engineLoad(InputStream stream, char[] password) {
+            //backed by the generated certificates
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Request;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Request construction as done by the controllers for every call, from the builder through createRequest(), with
+ * the per connection endpoint cache enabled and disabled.
+ * <p>
+ * Run with: gradlew :cwms-http-client:jmh
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HttpRequestBuilderBenchmark {
+
+    private static final String MEDIA_TYPE = "application/json;version=2";
+
+    @Param({"0", "512"})
+    public int endpointCacheSize;
+
+    private ApiConnectionInfo apiConnectionInfo;
+
+    @Setup
+    public void setUp() {
+        String previous = System.getProperty(EndpointTemplates.CACHE_SIZE_PROPERTY_KEY);
+        System.setProperty(EndpointTemplates.CACHE_SIZE_PROPERTY_KEY, Integer.toString(endpointCacheSize));
+        try {
+            apiConnectionInfo = new ApiConnectionInfoBuilder("https://cwms-data.usace.army.mil/cwms-data/").build();
+        } finally {
+            if (previous == null) {
+                System.clearProperty(EndpointTemplates.CACHE_SIZE_PROPERTY_KEY);
+            } else {
+                System.setProperty(EndpointTemplates.CACHE_SIZE_PROPERTY_KEY, previous);
+            }
+        }
+    }
+
+    @Benchmark
+    public Request createRequestConstantEndpoint() throws IOException {
+        return createRequest("levels");
+    }
+
+    @Benchmark
+    public Request createRequestIdentifierEndpoint() throws IOException {
+        return createRequest("levels/SWT.Elev.Inst.0.Top of Normal");
+    }
+
+    private Request createRequest(String endpoint) throws IOException {
+        HttpRequestBuilderImpl.HttpRequestExecutorImpl executor = (HttpRequestBuilderImpl.HttpRequestExecutorImpl)
+            new HttpRequestBuilderImpl(apiConnectionInfo, endpoint)
+                .addQueryParameter("office", "SWT")
+                .get()
+                .withMediaType(MEDIA_TYPE);
+        return executor.getInstance().createRequest();
+    }
+}
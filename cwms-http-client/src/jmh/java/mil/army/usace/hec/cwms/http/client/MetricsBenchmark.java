@@ -0,0 +1,87 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import rma.util.lookup.Lookups;
+import usace.metrics.services.MetricsServiceProvider;
+import usace.metrics.services.Timer;
+
+/**
+ * Metrics work done by every execute(), with metrics enabled and disabled, against the provider lookup and
+ * configuration read it used to do on each call.
+ * <p>
+ * Run with: gradlew :cwms-http-client:jmh
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-D" + CwmsHttpClientMetrics.ENABLED_REFRESH_PROPERTY_KEY + "=3600000")
+@State(Scope.Benchmark)
+public class MetricsBenchmark {
+
+    private static final String METRICS_PATH = "https://cwms-data.usace.army.mil/cwms-data/levels";
+
+    @Param({"false", "true"})
+    public boolean metricsEnabled;
+
+    @Setup
+    public void setUp() {
+        CwmsHttpClientMetrics.setMetricsEnabled(metricsEnabled);
+    }
+
+    @Benchmark
+    public boolean isMetricsEnabled() {
+        return CwmsHttpClientMetrics.isMetricsEnabled();
+    }
+
+    @Benchmark
+    public boolean isMetricsEnabledUncached() {
+        return Lookups.forPath(CwmsHttpMetricsServiceProvider.SERVICE_PATH)
+            .lookup(MetricsServiceProvider.class)
+            .getMetricsService()
+            .getConfig()
+            .isMetricsEnabled();
+    }
+
+    @Benchmark
+    public Timer.Context startTimer() throws Exception {
+        try (Timer.Context context = CwmsHttpClientMetrics.startTimer(METRICS_PATH, "GET")) {
+            return context;
+        }
+    }
+}
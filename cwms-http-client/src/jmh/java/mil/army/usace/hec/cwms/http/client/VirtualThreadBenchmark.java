@@ -0,0 +1,128 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Wall time for a burst of concurrent blocking calls through the client, each on its own task from
+ * {@link CwmsHttpExecutors}, against a local stand-in server answering after a fixed delay. Compares platform threads
+ * with virtual threads, the latter only runs on Java 21 or later.
+ * <p>
+ * Run with: gradlew :cwms-http-client:jmh -PjmhArgs="VirtualThreadBenchmark -p virtualThreads=false,true"
+ * Large bursts need an open file limit above twice the call count.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VirtualThreadBenchmark {
+
+    @Param({"false"})
+    public boolean virtualThreads;
+
+    @Param({"10000"})
+    public int calls;
+
+    @Param({"50"})
+    public long serverDelayMillis;
+
+    private MockWebServer mockWebServer;
+    private ApiConnectionInfo apiConnectionInfo;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if (virtualThreads && !VirtualThreads.isAvailable()) {
+            throw new IllegalStateException("Virtual threads require Java 21 or later");
+        }
+        mockWebServer = new MockWebServer();
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest recordedRequest) {
+                return new MockResponse()
+                    .setBody("{}")
+                    .setHeadersDelay(serverDelayMillis, TimeUnit.MILLISECONDS);
+            }
+        });
+        mockWebServer.start();
+        apiConnectionInfo = new ApiConnectionInfoBuilder(mockWebServer.url("/cwms-data/").toString()).build();
+        executor = CwmsHttpExecutors.newTaskExecutor("benchmark", virtualThreads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        executor.shutdownNow();
+        mockWebServer.shutdown();
+    }
+
+    @Benchmark
+    public int concurrentCalls() throws InterruptedException, ExecutionException {
+        List<Future<String>> futures = new ArrayList<>(calls);
+        for (int i = 0; i < calls; i++) {
+            futures.add(executor.submit(this::call));
+        }
+        int completed = 0;
+        for (Future<String> future : futures) {
+            future.get();
+            completed++;
+        }
+        return completed;
+    }
+
+    private String call() throws IOException {
+        try (HttpRequestResponse response = new HttpRequestBuilderImpl(apiConnectionInfo, "levels")
+            .get()
+            .withMediaType("application/json")
+            .execute()) {
+            return response.getBody();
+        }
+    }
+}
@@ -25,13 +25,14 @@
 package mil.army.usace.hec.cwms.http.client;
 
 import com.auth0.jwt.interfaces.DecodedJWT;
-import java.time.Instant;
-import java.util.Date;
 
 final class AccessTokenValidator {
 
     private static final String REFRESH_EXPIRED_BUFFER_PROPERTY_KEY = "cwms.http.client.token.refresh.buffer.millis";
-    private static final long DEFAULT_REFRESH_EXPIRED_BUFFER_SECONDS = 1;
+    private static final long DEFAULT_REFRESH_EXPIRED_BUFFER_MILLIS = 1_000;
+    //read once, expiry checks are on the request path
+    private static final long REFRESH_EXPIRED_BUFFER_MILLIS =
+        Long.getLong(REFRESH_EXPIRED_BUFFER_PROPERTY_KEY, DEFAULT_REFRESH_EXPIRED_BUFFER_MILLIS);
 
     private AccessTokenValidator() {
         throw new AssertionError("Utility class");
@@ -44,16 +45,18 @@ final class AccessTokenValidator {
      * @return boolean TRUE if expired, else FALSE
      */
     static boolean isTokenExpired(DecodedJWT jwt) {
-        long bufferMillis = Instant.ofEpochSecond(DEFAULT_REFRESH_EXPIRED_BUFFER_SECONDS)
-            .toEpochMilli(); //default 1 second buffer
-        String bufferStr = System.getProperty(REFRESH_EXPIRED_BUFFER_PROPERTY_KEY);
-        if (bufferStr != null) {
-            bufferMillis = Long.parseLong(bufferStr);
-        }
-        //take current time and subtract buffer. If token is expired at that time, then its no longer valid
-        Instant noLongerValid = Instant.now().minusMillis(bufferMillis);
-        return jwt.getExpiresAt().before(Date.from(noLongerValid));
+        return isExpired(jwt.getExpiresAt().getTime());
+    }
 
+    /**
+     * Checks if a token expiring at the given time is expired, allowing for the configured buffer.
+     *
+     * @param expiresAtEpochMillis - token expiry in epoch milliseconds.
+     * @return boolean TRUE if expired, else FALSE
+     */
+    static boolean isExpired(long expiresAtEpochMillis) {
+        //take current time and subtract buffer. If token is expired at that time, then its no longer valid
+        return expiresAtEpochMillis < System.currentTimeMillis() - REFRESH_EXPIRED_BUFFER_MILLIS;
     }
 
 }
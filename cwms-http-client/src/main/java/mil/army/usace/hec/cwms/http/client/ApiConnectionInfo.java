@@ -24,7 +24,10 @@
 
 package mil.army.usace.hec.cwms.http.client;
 
+import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import okhttp3.Authenticator;
 import okhttp3.CookieJar;
@@ -37,20 +40,106 @@ public final class ApiConnectionInfo {
     private final CookieJar cookieJar;
     private final List<Interceptor> interceptors;
     private final Authenticator authenticator;
+    private final ApiRootBalancer apiRootBalancer;
+    private final EndpointTemplates endpointTemplates;
+    private final Deadline deadline;
+    private final RequestPriority priority;
 
     ApiConnectionInfo(String apiRoot, SslSocketData sslSocketData, CookieJar cookieJar,
                       List<Interceptor> interceptors, Authenticator authenticator) {
+        this(apiRoot, sslSocketData, cookieJar, interceptors, authenticator, null);
+    }
+
+    ApiConnectionInfo(String apiRoot, SslSocketData sslSocketData, CookieJar cookieJar,
+                      List<Interceptor> interceptors, Authenticator authenticator, ApiRootBalancer apiRootBalancer) {
         this.apiRoot = apiRoot;
         this.sslSocketData = sslSocketData;
         this.interceptors = interceptors;
         this.authenticator = authenticator;
         this.cookieJar = cookieJar;
+        this.apiRootBalancer = apiRootBalancer;
+        this.endpointTemplates = new EndpointTemplates(apiRoot);
+        this.deadline = null;
+        this.priority = RequestPriority.NORMAL;
+    }
+
+    private ApiConnectionInfo(ApiConnectionInfo apiConnectionInfo, Deadline deadline, RequestPriority priority) {
+        this.apiRoot = apiConnectionInfo.apiRoot;
+        this.sslSocketData = apiConnectionInfo.sslSocketData;
+        this.interceptors = apiConnectionInfo.interceptors;
+        this.authenticator = apiConnectionInfo.authenticator;
+        this.cookieJar = apiConnectionInfo.cookieJar;
+        this.apiRootBalancer = apiConnectionInfo.apiRootBalancer;
+        this.endpointTemplates = apiConnectionInfo.endpointTemplates;
+        this.deadline = deadline;
+        this.priority = priority;
     }
 
     public String getApiRoot() {
         return apiRoot;
     }
 
+    /**
+     * Connection info for one operation that must complete before the deadline. Every request made with the returned
+     * connection info, for example by a controller issuing several requests, is limited to the time left. Connections,
+     * authentication and caches are shared with this connection info.
+     *
+     * @param deadline deadline for requests made with the returned connection info
+     * @return connection info applying the deadline, or the earlier of it and this connection info's deadline
+     */
+    public ApiConnectionInfo withDeadline(Deadline deadline) {
+        Objects.requireNonNull(deadline, "Missing required deadline");
+        return new ApiConnectionInfo(this, deadline.earlierOf(this.deadline), priority);
+    }
+
+    /**
+     * Connection info whose requests are scheduled with the given priority, for example for a background sync sharing
+     * the client with interactive use. Connections, authentication and caches are shared with this connection info.
+     *
+     * @param priority default priority for requests made with the returned connection info
+     * @return connection info applying the priority
+     */
+    public ApiConnectionInfo withPriority(RequestPriority priority) {
+        Objects.requireNonNull(priority, "Missing required priority");
+        return new ApiConnectionInfo(this, deadline, priority);
+    }
+
+    /**
+     * @return health and load of each API root when built with several roots, otherwise empty
+     */
+    public List<ApiRootStatus> getApiRootStatus() {
+        if (apiRootBalancer == null) {
+            return Collections.emptyList();
+        }
+        return apiRootBalancer.getStatus();
+    }
+
+    /**
+     * Opens connections to the API root ahead of the first request, so startup health checks and first calls do not
+     * pay DNS, TCP, TLS and HTTP/2 setup. Connections are opened concurrently with HEAD requests and remain idle in the
+     * shared connection pool for the pool keep-alive.
+     *
+     * @param connections number of connections to open
+     * @return number of distinct connections the HEAD requests completed over, fewer than requested when the server
+     *     multiplexes them over HTTP/2 or idle connections were reused
+     * @throws IOException if no connection could be opened
+     */
+    public int prewarm(int connections) throws IOException {
+        return ConnectionPrewarmer.prewarm(this, connections);
+    }
+
+    EndpointTemplates endpointTemplates() {
+        return endpointTemplates;
+    }
+
+    Optional<Deadline> deadline() {
+        return Optional.ofNullable(deadline);
+    }
+
+    RequestPriority priority() {
+        return priority;
+    }
+
     Optional<Authenticator> authenticator() {
         return Optional.ofNullable(authenticator);
     }
@@ -25,9 +25,12 @@
 package mil.army.usace.hec.cwms.http.client;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import mil.army.usace.hec.cwms.http.client.auth.OAuth2TokenProvider;
 import mil.army.usace.hec.cwms.http.client.auth.SimpleAuthKeyProvider;
+import mil.army.usace.hec.cwms.http.client.trace.SpanExporter;
+import mil.army.usace.hec.cwms.http.client.trace.TraceContextSupplier;
 import okhttp3.Authenticator;
 import okhttp3.CookieJar;
 import okhttp3.Interceptor;
@@ -36,16 +39,31 @@ public class ApiConnectionInfoBuilder {
 
     private static final String SINGLE_AUTH_ERROR_MESSAGE = "Only a single authentication type is supported at this time";
     private final String apiRoot;
+    private final List<String> additionalApiRoots = new ArrayList<>();
     private OAuth2TokenProvider tokenProvider;
     private SslSocketData sslSocketData;
     private CookieJarFactory.CookieJarSupplier cookieJarSupplier;
     private CookieAuthenticator cookieAuthenticator;
     private SimpleAuthKeyProvider simpleAuthKeyProvider;
+    private TraceContextSupplier traceContextSupplier;
+    private SpanExporter spanExporter;
 
     public ApiConnectionInfoBuilder(String apiRoot) {
         this.apiRoot = apiRoot;
     }
 
+    /**
+     * Balance requests across this builder's API root and additional equivalent roots, failing over idempotent requests
+     * when a root is unavailable. Requests are built against the builder's API root and sent to whichever root is chosen.
+     *
+     * @param apiRoots API roots serving the same data as the builder's API root
+     * @return this builder
+     */
+    public ApiConnectionInfoBuilder withAdditionalApiRoots(String... apiRoots) {
+        additionalApiRoots.addAll(Arrays.asList(apiRoots));
+        return this;
+    }
+
     public ApiConnectionInfoBuilder withSslSocketData(SslSocketData sslSocketData) {
         this.sslSocketData = sslSocketData;
         return this;
@@ -71,6 +89,29 @@ public class ApiConnectionInfoBuilder {
         return this;
     }
 
+    /**
+     * Propagate the caller's trace context as W3C traceparent/tracestate headers.
+     *
+     * @param traceContextSupplier supplies the active trace context, may return null to start a new trace per request
+     * @return this builder
+     */
+    public ApiConnectionInfoBuilder withTraceContextSupplier(TraceContextSupplier traceContextSupplier) {
+        this.traceContextSupplier = traceContextSupplier;
+        return this;
+    }
+
+    /**
+     * Record a client span for each request and export them periodically from a background thread.
+     * Setting an exporter also enables traceparent propagation.
+     *
+     * @param spanExporter receives batches of completed spans
+     * @return this builder
+     */
+    public ApiConnectionInfoBuilder withSpanExporter(SpanExporter spanExporter) {
+        this.spanExporter = spanExporter;
+        return this;
+    }
+
     public ApiConnectionInfo build() {
         CookieJar cookieJar = null;
         if (cookieJarSupplier != null) {
@@ -78,9 +119,22 @@ public class ApiConnectionInfoBuilder {
         }
         Authenticator authenticator = null;
         List<Interceptor> interceptors = new ArrayList<>();
+        if (traceContextSupplier != null || spanExporter != null) {
+            ClientSpanRecorder recorder = spanExporter == null ? null : ClientSpanRecorder.create(spanExporter);
+            interceptors.add(new TraceContextInterceptor(traceContextSupplier, recorder));
+        }
+        ApiRootBalancer apiRootBalancer = null;
+        if (!additionalApiRoots.isEmpty()) {
+            List<String> apiRoots = new ArrayList<>();
+            apiRoots.add(apiRoot);
+            apiRoots.addAll(additionalApiRoots);
+            apiRootBalancer = new ApiRootBalancer(apiRoots);
+            interceptors.add(apiRootBalancer);
+        }
         if (tokenProvider != null) {
-            authenticator = new OAuth2TokenAuthenticator(tokenProvider);
-            interceptors.add(new OAuth2TokenInterceptor(tokenProvider));
+            OAuth2TokenManager tokenManager = OAuth2TokenManager.forProvider(tokenProvider);
+            authenticator = new OAuth2TokenAuthenticator(tokenManager);
+            interceptors.add(new OAuth2TokenInterceptor(tokenManager));
         }
         if (simpleAuthKeyProvider != null) {
             if (tokenProvider != null) {
@@ -101,6 +155,6 @@ public class ApiConnectionInfoBuilder {
             }
             authenticator = cookieAuthenticator;
         }
-        return new ApiConnectionInfo(apiRoot, sslSocketData, cookieJar, interceptors, authenticator);
+        return new ApiConnectionInfo(apiRoot, sslSocketData, cookieJar, interceptors, authenticator, apiRootBalancer);
     }
 }
@@ -0,0 +1,263 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import usace.metrics.services.Timer;
+
+/**
+ * Spreads requests built against the first API root across several equivalent roots.
+ * <p>
+ * Each request goes to the cheaper of two randomly chosen healthy roots, cost being the moving average latency
+ * multiplied by the requests in flight, so roots without a latency sample are tried first. Health is passive: a root
+ * that fails with an I/O error or a 502, 503 or 504 response on consecutive requests is ejected for a period, after
+ * which it is tried again. Idempotent requests that fail are retried against a root not yet tried for the call.
+ * <p>
+ * Configured through system properties:
+ * cwms.http.client.balancer.failure.threshold - consecutive failures before a root is ejected, defaults to 2
+ * cwms.http.client.balancer.ejection.millis - how long an ejected root is skipped, defaults to 30000
+ */
+final class ApiRootBalancer implements Interceptor {
+
+    static final String FAILURE_THRESHOLD_PROPERTY_KEY = "cwms.http.client.balancer.failure.threshold";
+    static final int FAILURE_THRESHOLD_PROPERTY_DEFAULT = 2;
+    static final String EJECTION_PROPERTY_KEY = "cwms.http.client.balancer.ejection.millis";
+    static final long EJECTION_PROPERTY_DEFAULT = 30_000L;
+    static final String NODE_REQUEST_METRIC = "node-request";
+    private static final Logger LOGGER = Logger.getLogger(ApiRootBalancer.class.getName());
+    private static final Set<String> IDEMPOTENT_METHODS = new HashSet<>(Arrays.asList("GET", "HEAD", "PUT", "DELETE", "OPTIONS", "TRACE"));
+    private static final Set<Integer> UNAVAILABLE_CODES = new HashSet<>(Arrays.asList(502, 503, 504));
+    private final Node primary;
+    private final List<Node> nodes;
+    private final int failureThreshold;
+    private final long ejectionNanos;
+
+    ApiRootBalancer(List<String> apiRoots) {
+        this(apiRoots, Integer.getInteger(FAILURE_THRESHOLD_PROPERTY_KEY, FAILURE_THRESHOLD_PROPERTY_DEFAULT),
+            Long.getLong(EJECTION_PROPERTY_KEY, EJECTION_PROPERTY_DEFAULT));
+    }
+
+    ApiRootBalancer(List<String> apiRoots, int failureThreshold, long ejectionMillis) {
+        if (apiRoots.isEmpty()) {
+            throw new IllegalArgumentException("At least one API root must be defined");
+        }
+        List<Node> parsed = new ArrayList<>(apiRoots.size());
+        for (String apiRoot : apiRoots) {
+            HttpUrl url = apiRoot == null ? null : HttpUrl.parse(apiRoot);
+            if (url == null) {
+                throw new IllegalArgumentException("Invalid HTTP URL: " + apiRoot);
+            }
+            parsed.add(new Node(apiRoot, url));
+        }
+        this.nodes = Collections.unmodifiableList(parsed);
+        this.primary = nodes.get(0);
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.ejectionNanos = TimeUnit.MILLISECONDS.toNanos(ejectionMillis);
+    }
+
+    List<ApiRootStatus> getStatus() {
+        long now = System.nanoTime();
+        return nodes.stream()
+            .map(node -> node.status(now))
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        String relativePath = primary.relativePath(request.url());
+        if (relativePath == null) {
+            return chain.proceed(request);
+        }
+        boolean idempotent = IDEMPOTENT_METHODS.contains(request.method());
+        List<Node> tried = new ArrayList<>(1);
+        while (true) {
+            Node node = choose(tried);
+            tried.add(node);
+            boolean canFailover = idempotent && tried.size() < nodes.size();
+            Request nodeRequest = request.newBuilder()
+                .url(node.resolve(request.url(), relativePath))
+                .build();
+            Response response;
+            long start = System.nanoTime();
+            node.requests.incrementAndGet();
+            node.inFlight.incrementAndGet();
+            try (Timer.Context timer = CwmsHttpClientMetrics.startTimer(node.apiRoot, NODE_REQUEST_METRIC)) {
+                response = chain.proceed(nodeRequest);
+            } catch (IOException ex) {
+                if (chain.call().isCanceled()) {
+                    throw ex;
+                }
+                failed(node);
+                if (!canFailover) {
+                    throw ex;
+                }
+                LOGGER.log(Level.FINE, ex, () -> "Failing over " + request.method() + " " + nodeRequest.url() + " after error");
+                node.failovers.incrementAndGet();
+                continue;
+            } finally {
+                node.inFlight.decrementAndGet();
+            }
+            if (!UNAVAILABLE_CODES.contains(response.code())) {
+                node.succeeded(System.nanoTime() - start);
+                return response;
+            }
+            failed(node);
+            if (!canFailover) {
+                return response;
+            }
+            LOGGER.log(Level.FINE, () -> "Failing over " + request.method() + " " + nodeRequest.url() + " after " + response.code());
+            node.failovers.incrementAndGet();
+            response.close();
+        }
+    }
+
+    private Node choose(List<Node> tried) {
+        long now = System.nanoTime();
+        List<Node> candidates = new ArrayList<>(nodes.size());
+        for (Node node : nodes) {
+            if (!tried.contains(node) && node.isHealthy(now)) {
+                candidates.add(node);
+            }
+        }
+        if (candidates.isEmpty()) {
+            //every remaining root is ejected, trying one beats failing without a request
+            for (Node node : nodes) {
+                if (!tried.contains(node)) {
+                    candidates.add(node);
+                }
+            }
+        }
+        int size = candidates.size();
+        if (size == 1) {
+            return candidates.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        Node a = candidates.get(first);
+        Node b = candidates.get(second);
+        return b.cost() < a.cost() ? b : a;
+    }
+
+    private void failed(Node node) {
+        node.failures.incrementAndGet();
+        if (node.consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            boolean wasEjected = node.ejected;
+            node.ejectedUntilNanos = System.nanoTime() + ejectionNanos;
+            node.ejected = true;
+            if (!wasEjected) {
+                LOGGER.log(Level.WARNING, () -> "API root " + node.apiRoot + " marked unhealthy after "
+                    + node.consecutiveFailures.get() + " consecutive failures");
+            }
+        }
+    }
+
+    private static final class Node {
+
+        private final String apiRoot;
+        private final HttpUrl url;
+        private final String pathPrefix;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong failovers = new AtomicLong();
+        private final AtomicLong latencyNanos = new AtomicLong();
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private volatile boolean ejected;
+        private volatile long ejectedUntilNanos;
+
+        private Node(String apiRoot, HttpUrl url) {
+            this.apiRoot = apiRoot;
+            this.url = url;
+            String path = url.encodedPath();
+            this.pathPrefix = path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+        }
+
+        private String relativePath(HttpUrl requestUrl) {
+            if (!url.scheme().equals(requestUrl.scheme()) || !url.host().equals(requestUrl.host()) || url.port() != requestUrl.port()) {
+                return null;
+            }
+            String path = requestUrl.encodedPath();
+            if (!path.startsWith(pathPrefix) || (path.length() > pathPrefix.length() && path.charAt(pathPrefix.length()) != '/')) {
+                return null;
+            }
+            return path.substring(pathPrefix.length());
+        }
+
+        private HttpUrl resolve(HttpUrl requestUrl, String relativePath) {
+            String path = pathPrefix + relativePath;
+            return requestUrl.newBuilder()
+                .scheme(url.scheme())
+                .host(url.host())
+                .port(url.port())
+                .encodedPath(path.isEmpty() ? "/" : path)
+                .build();
+        }
+
+        private boolean isHealthy(long now) {
+            return !ejected || now - ejectedUntilNanos >= 0;
+        }
+
+        private long cost() {
+            return latencyNanos.get() * (inFlight.get() + 1);
+        }
+
+        private void succeeded(long elapsedNanos) {
+            consecutiveFailures.set(0);
+            if (ejected) {
+                ejected = false;
+                LOGGER.log(Level.INFO, () -> "API root " + apiRoot + " is healthy again");
+            }
+            //moving average weighting the latest sample by a quarter
+            latencyNanos.updateAndGet(average -> average == 0 ? elapsedNanos : average + (elapsedNanos - average) / 4);
+        }
+
+        private ApiRootStatus status(long now) {
+            return new ApiRootStatus(apiRoot, isHealthy(now), inFlight.get(), requests.get(), failures.get(), failovers.get(),
+                TimeUnit.NANOSECONDS.toMillis(latencyNanos.get()));
+        }
+    }
+}
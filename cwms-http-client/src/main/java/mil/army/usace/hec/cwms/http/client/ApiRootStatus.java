@@ -0,0 +1,99 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client;
+
+/**
+ * Point in time view of one API root of a multi-root {@link ApiConnectionInfo}.
+ */
+public final class ApiRootStatus {
+
+    private final String apiRoot;
+    private final boolean healthy;
+    private final int requestsInFlight;
+    private final long requests;
+    private final long failures;
+    private final long failovers;
+    private final long latencyMillis;
+
+    ApiRootStatus(String apiRoot, boolean healthy, int requestsInFlight, long requests, long failures, long failovers,
+                  long latencyMillis) {
+        this.apiRoot = apiRoot;
+        this.healthy = healthy;
+        this.requestsInFlight = requestsInFlight;
+        this.requests = requests;
+        this.failures = failures;
+        this.failovers = failovers;
+        this.latencyMillis = latencyMillis;
+    }
+
+    public String getApiRoot() {
+        return apiRoot;
+    }
+
+    /**
+     * @return false while the root is ejected after consecutive failures
+     */
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    public int getRequestsInFlight() {
+        return requestsInFlight;
+    }
+
+    /**
+     * @return total requests sent to this root, including failover attempts
+     */
+    public long getRequests() {
+        return requests;
+    }
+
+    /**
+     * @return requests that failed with an I/O error or a 502, 503 or 504 response
+     */
+    public long getFailures() {
+        return failures;
+    }
+
+    /**
+     * @return failed requests that were retried against another root
+     */
+    public long getFailovers() {
+        return failovers;
+    }
+
+    /**
+     * @return moving average time to response headers, 0 until the first response
+     */
+    public long getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    @Override
+    public String toString() {
+        return apiRoot + (healthy ? " healthy" : " unhealthy") + ", in flight: " + requestsInFlight + ", requests: " + requests
+            + ", failures: " + failures + ", failovers: " + failovers + ", latency: " + latencyMillis + "ms";
+    }
+}
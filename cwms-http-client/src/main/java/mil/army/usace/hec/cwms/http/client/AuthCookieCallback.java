@@ -36,4 +36,17 @@ public interface AuthCookieCallback {
      * @throws IOException when error occurs during authentication
      */
     List<HttpCookie> authenticate() throws IOException;
+
+    /**
+     * Callback authentication mechanism for when an unauthorized error code 401 is received, given the cookies the
+     * rejected request sent. Implementations can compare them with their current session, so a session the server
+     * already rejected is not handed out again.
+     *
+     * @param rejectedCookies cookies sent with the request the server rejected, empty if none were sent
+     * @return authentication token cookies to be added to the Cookie header
+     * @throws IOException when error occurs during authentication
+     */
+    default List<HttpCookie> authenticate(List<HttpCookie> rejectedCookies) throws IOException {
+        return authenticate();
+    }
 }
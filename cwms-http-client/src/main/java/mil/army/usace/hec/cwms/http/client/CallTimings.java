@@ -0,0 +1,73 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client;
+
+/**
+ * Phase timestamps of a single call, attached to the request as an OkHttp tag and filled in by
+ * {@link CallTimingsEventListener}. Timestamps are {@link System#nanoTime()} values, 0 when the phase did not occur.
+ */
+final class CallTimings {
+
+    private final String endpoint;
+    volatile long dnsStart;
+    volatile long dnsEnd;
+    volatile long connectStart;
+    volatile long connectEnd;
+    volatile long secureConnectStart;
+    volatile long secureConnectEnd;
+    volatile long requestHeadersStart;
+    volatile long responseHeadersStart;
+
+    CallTimings(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    String getEndpoint() {
+        return endpoint;
+    }
+
+    long dnsNanos() {
+        return elapsed(dnsStart, dnsEnd);
+    }
+
+    long connectNanos() {
+        return elapsed(connectStart, connectEnd);
+    }
+
+    long tlsNanos() {
+        return elapsed(secureConnectStart, secureConnectEnd);
+    }
+
+    long timeToFirstByteNanos() {
+        return elapsed(requestHeadersStart, responseHeadersStart);
+    }
+
+    private static long elapsed(long start, long end) {
+        if (start == 0 || end == 0) {
+            return -1;
+        }
+        return end - start;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+
+/**
+ * Records connection and exchange phase timestamps into the {@link CallTimings} tag of the call's request.
+ * Calls without the tag, such as those made outside of {@link HttpRequestBuilderImpl}, are not listened to.
+ */
+final class CallTimingsEventListener extends EventListener {
+
+    static final EventListener.Factory FACTORY = call -> {
+        CallTimings timings = call.request().tag(CallTimings.class);
+        if (timings == null) {
+            return EventListener.NONE;
+        }
+        return new CallTimingsEventListener(timings);
+    };
+    private final CallTimings timings;
+
+    private CallTimingsEventListener(CallTimings timings) {
+        this.timings = timings;
+    }
+
+    @Override
+    public void dnsStart(Call call, String domainName) {
+        timings.dnsStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+        timings.dnsEnd = System.nanoTime();
+    }
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+        timings.connectStart = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectStart(Call call) {
+        timings.secureConnectStart = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectEnd(Call call, Handshake handshake) {
+        timings.secureConnectEnd = System.nanoTime();
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+        timings.connectEnd = System.nanoTime();
+    }
+
+    @Override
+    public void requestHeadersStart(Call call) {
+        timings.requestHeadersStart = System.nanoTime();
+    }
+
+    @Override
+    public void responseHeadersStart(Call call) {
+        timings.responseHeadersStart = System.nanoTime();
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import mil.army.usace.hec.cwms.http.client.trace.ClientSpan;
+import mil.army.usace.hec.cwms.http.client.trace.SpanExporter;
+
+/**
+ * Lock-free ring buffer of completed client spans, periodically drained to a {@link SpanExporter} on a shared daemon thread.
+ * Recording never blocks; when the exporter falls behind, the oldest spans are overwritten.
+ */
+final class ClientSpanRecorder {
+
+    static final String BUFFER_SIZE_PROPERTY_KEY = "cwms.http.client.trace.buffer.size";
+    static final String EXPORT_INTERVAL_PROPERTY_KEY = "cwms.http.client.trace.export.interval.millis";
+    private static final Logger LOGGER = Logger.getLogger(ClientSpanRecorder.class.getName());
+    private static final ScheduledExecutorService EXPORT_EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "cwms-http-span-export");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final SpanExporter exporter;
+    private final AtomicReferenceArray<Slot> slots;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private long tail;
+
+    ClientSpanRecorder(SpanExporter exporter, int capacity) {
+        this.exporter = exporter;
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    static ClientSpanRecorder create(SpanExporter exporter) {
+        ClientSpanRecorder recorder = new ClientSpanRecorder(exporter, Integer.getInteger(BUFFER_SIZE_PROPERTY_KEY, 1024));
+        long interval = Long.getLong(EXPORT_INTERVAL_PROPERTY_KEY, 5_000L);
+        WeakReference<ClientSpanRecorder> reference = new WeakReference<>(recorder);
+        ScheduledFuture<?>[] task = new ScheduledFuture<?>[1];
+        task[0] = EXPORT_EXECUTOR.scheduleWithFixedDelay(() -> {
+            ClientSpanRecorder active = reference.get();
+            if (active == null) {
+                //connection info holding this recorder is no longer referenced
+                task[0].cancel(false);
+            } else {
+                active.export();
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+        return recorder;
+    }
+
+    void record(ClientSpan span) {
+        long sequence = head.getAndIncrement();
+        slots.set((int) (sequence & mask), new Slot(sequence, span));
+    }
+
+    /**
+     * Single consumer drain. Stops at the first slot that has been claimed but not yet published.
+     *
+     * @return spans recorded since the last drain, oldest first
+     */
+    synchronized List<ClientSpan> drain() {
+        long end = head.get();
+        if (end - tail > slots.length()) {
+            LOGGER.log(Level.FINE, "Client span buffer overflowed, {0} spans were dropped", end - tail - slots.length());
+            tail = end - slots.length();
+        }
+        List<ClientSpan> retval = new ArrayList<>();
+        while (tail < end) {
+            Slot slot = slots.get((int) (tail & mask));
+            if (slot == null || slot.sequence < tail) {
+                break;
+            }
+            if (slot.sequence == tail) {
+                retval.add(slot.span);
+            }
+            tail++;
+        }
+        return retval;
+    }
+
+    void export() {
+        List<ClientSpan> spans = drain();
+        if (!spans.isEmpty()) {
+            try {
+                exporter.export(spans);
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(Level.WARNING, e, () -> "Unable to export " + spans.size() + " client spans");
+            }
+        }
+    }
+
+    private static final class Slot {
+        private final long sequence;
+        private final ClientSpan span;
+
+        private Slot(long sequence, ClientSpan span) {
+            this.sequence = sequence;
+            this.span = span;
+        }
+    }
+}
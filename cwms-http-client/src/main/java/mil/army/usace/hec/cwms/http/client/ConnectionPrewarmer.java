@@ -0,0 +1,152 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import okhttp3.Connection;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Pays DNS, TCP, TLS and protocol negotiation for an API root before the first real request. Concurrent HEAD requests
+ * against the root each open a connection, which is then left idle in the shared connection pool. Any HTTP status
+ * counts, the response only proves the connection is up. HEAD requests multiplexed over one HTTP/2 connection, or
+ * served by a connection already idle in the pool, count as that one connection.
+ * <p>
+ * Warm connections are kept by the pool, sized through cwms.http.client.pool.max.idle.connections and
+ * cwms.http.client.pool.keepalive.seconds. Connections beyond the idle maximum are evicted once the prewarm completes.
+ */
+final class ConnectionPrewarmer {
+
+    private static final Logger LOGGER = Logger.getLogger(ConnectionPrewarmer.class.getName());
+
+    private ConnectionPrewarmer() {
+        throw new AssertionError("Utility class");
+    }
+
+    static int prewarm(ApiConnectionInfo apiConnectionInfo, int connections) throws IOException {
+        if (connections < 1) {
+            throw new IllegalArgumentException("Number of connections to prewarm must be positive: " + connections);
+        }
+        String apiRoot = apiConnectionInfo.getApiRoot();
+        HttpUrl url = apiRoot == null ? null : HttpUrl.parse(apiRoot);
+        if (url == null) {
+            throw new ServerNotFoundException("Invalid HTTP URL: " + apiRoot, apiRoot);
+        }
+        Http2Util.enableHttp2();
+        Set<Connection> opened = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        OkHttpClient client = OkHttpClientFactory.buildOkHttpClient(apiConnectionInfo)
+            .newBuilder()
+            .addNetworkInterceptor(chain -> {
+                Response response = chain.proceed(chain.request());
+                opened.add(chain.connection());
+                return response;
+            })
+            .build();
+        try {
+            client.dns().lookup(url.host());
+        } catch (UnknownHostException ex) {
+            throw new ServerNotFoundException(ex, apiRoot);
+        }
+        int maxIdleConnections = OkHttpClientInstance.getMaxIdleConnections();
+        if (connections > maxIdleConnections) {
+            LOGGER.log(Level.WARNING, () -> "Prewarming " + connections + " connections to " + apiRoot + " but only "
+                + maxIdleConnections + " are kept idle, see " + OkHttpClientInstance.POOL_MAX_IDLE_CONNECTIONS_PROPERTY_KEY);
+        }
+        //synchronous calls on their own threads, the dispatcher would limit concurrent calls per host
+        ExecutorService executor = CwmsHttpExecutors.newTaskExecutor("cwms-http-prewarm");
+        try {
+            List<Future<?>> heads = new ArrayList<>(connections);
+            for (int i = 0; i < connections; i++) {
+                heads.add(executor.submit(() -> head(client, url)));
+            }
+            awaitWarm(heads, apiRoot);
+        } finally {
+            executor.shutdownNow();
+        }
+        int warm = opened.size();
+        LOGGER.log(Level.FINE, () -> "Prewarmed " + warm + " connections to " + apiRoot);
+        return warm;
+    }
+
+    private static void awaitWarm(List<Future<?>> heads, String apiRoot) throws IOException {
+        boolean warm = false;
+        IOException failure = null;
+        for (Future<?> head : heads) {
+            try {
+                head.get();
+                warm = true;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted prewarming connections to " + apiRoot);
+            } catch (ExecutionException ex) {
+                Throwable cause = ex.getCause();
+                LOGGER.log(Level.FINE, cause, () -> "Failed to prewarm connection to " + apiRoot);
+                if (failure == null) {
+                    failure = toIOException(cause, apiRoot);
+                }
+            }
+        }
+        if (!warm && failure != null) {
+            throw failure;
+        }
+    }
+
+    private static IOException toIOException(Throwable cause, String apiRoot) {
+        if (cause instanceof ConnectException || cause instanceof UnknownHostException || cause instanceof SocketTimeoutException) {
+            return new ServerNotFoundException(cause, apiRoot);
+        } else if (cause instanceof IOException) {
+            return (IOException) cause;
+        }
+        return new IOException(cause);
+    }
+
+    private static Void head(OkHttpClient client, HttpUrl url) throws IOException {
+        Request request = new Request.Builder()
+            .url(url)
+            .head()
+            .build();
+        try (Response response = client.newCall(request).execute()) {
+            LOGGER.log(Level.FINEST, () -> "Prewarm HEAD " + url + " returned " + response.code() + " over " + response.protocol());
+        }
+        return null;
+    }
+}
@@ -25,8 +25,10 @@
 package mil.army.usace.hec.cwms.http.client;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import okhttp3.Authenticator;
+import okhttp3.Cookie;
 import okhttp3.Request;
 import okhttp3.Response;
 import okhttp3.Route;
@@ -41,7 +43,11 @@ final class CookieAuthenticator implements Authenticator {
 
     @Override
     public Request authenticate(Route route, Response response) throws IOException {
-        List<HttpCookie> newCookies = callback.authenticate();
+        List<HttpCookie> newCookies;
+        try (FlightRecording recording = CwmsHttpFlightRecorder.beginAuthRefresh(CookieAuthenticator.class.getSimpleName())) {
+            newCookies = callback.authenticate(rejectedCookies(response));
+            recording.detail("cookies: " + newCookies.size());
+        }
         Request.Builder builder = response.request()
             .newBuilder();
         for (HttpCookie cookie : newCookies) {
@@ -49,4 +55,21 @@ final class CookieAuthenticator implements Authenticator {
         }
         return builder.build();
     }
+
+    /**
+     * Cookies from the cookie jar are added by OkHttp on the network request, so read them from there.
+     */
+    private static List<HttpCookie> rejectedCookies(Response response) {
+        Request request = response.networkResponse() == null ? response.request() : response.networkResponse().request();
+        List<HttpCookie> retval = new ArrayList<>();
+        for (String header : request.headers("Cookie")) {
+            for (String pair : header.split(";")) {
+                Cookie cookie = Cookie.parse(request.url(), pair.trim());
+                if (cookie != null) {
+                    retval.add(new OkHttpCookieWrapper(cookie));
+                }
+            }
+        }
+        return retval;
+    }
 }
@@ -24,15 +24,44 @@
 
 package mil.army.usace.hec.cwms.http.client;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import rma.util.lookup.Lookup;
 import rma.util.lookup.Lookups;
+import usace.metrics.noop.NoOpTimer;
 import usace.metrics.services.Metrics;
 import usace.metrics.services.MetricsService;
 import usace.metrics.services.MetricsServiceProvider;
+import usace.metrics.services.Timer;
 
+/**
+ * Metrics access on the request path. The service provider is looked up once. The enabled flag is cached and re-read
+ * from the metrics configuration at most once per cwms.http.client.metrics.enabled.refresh.millis, default 5000, and
+ * listeners are told when it changes. Metrics handles are created once per metrics path, which for requests is the
+ * endpoint template's path, and reused until the enabled flag changes.
+ */
 final class CwmsHttpClientMetrics {
 
+    static final String ENABLED_REFRESH_PROPERTY_KEY = "cwms.http.client.metrics.enabled.refresh.millis";
+    //metrics paths embed request identifiers, the cache is cleared rather than grown past this
+    private static final int METRICS_CACHE_SIZE = 1024;
     private static final Lookup _lookup = Lookups.forPath(CwmsHttpMetricsServiceProvider.SERVICE_PATH);
+    private static final long ENABLED_REFRESH_NANOS = TimeUnit.MILLISECONDS.toNanos(Long.getLong(ENABLED_REFRESH_PROPERTY_KEY, 5_000L));
+    private static final AtomicLong NEXT_ENABLED_REFRESH = new AtomicLong(System.nanoTime() + ENABLED_REFRESH_NANOS);
+    private static final List<Consumer<Boolean>> ENABLED_LISTENERS = new CopyOnWriteArrayList<>();
+    private static final Map<List<String>, Metrics> METRICS = new ConcurrentHashMap<>();
+    private static volatile MetricsServiceProvider metricsServiceProvider;
+    private static volatile Boolean metricsEnabled;
+
+    static {
+        addMetricsEnabledListener(enabled -> METRICS.clear());
+    }
 
     private CwmsHttpClientMetrics() {
         throw new AssertionError("Instantiated a utility class.");
@@ -43,14 +72,80 @@ final class CwmsHttpClientMetrics {
     }
 
     private static MetricsServiceProvider getMetricsServiceProvider() {
-        return _lookup.lookup(MetricsServiceProvider.class);
+        MetricsServiceProvider provider = metricsServiceProvider;
+        if (provider == null) {
+            //racing first callers look up the same registered provider
+            provider = _lookup.lookup(MetricsServiceProvider.class);
+            metricsServiceProvider = provider;
+        }
+        return provider;
+    }
+
+    // package scoped for testing, null looks the registered provider up again
+    static void setMetricsServiceProvider(MetricsServiceProvider provider) {
+        metricsServiceProvider = provider;
+        METRICS.clear();
     }
 
     public static boolean isMetricsEnabled() {
-        return getMetricsService().getConfig().isMetricsEnabled();
+        Boolean enabled = metricsEnabled;
+        if (enabled == null) {
+            return refreshMetricsEnabled();
+        }
+        long next = NEXT_ENABLED_REFRESH.get();
+        long now = System.nanoTime();
+        if (now - next >= 0 && NEXT_ENABLED_REFRESH.compareAndSet(next, now + ENABLED_REFRESH_NANOS)) {
+            return refreshMetricsEnabled();
+        }
+        return enabled;
+    }
+
+    static boolean refreshMetricsEnabled() {
+        return setMetricsEnabled(getMetricsService().getConfig().isMetricsEnabled());
+    }
+
+    // package scoped for testing, the next refresh reads the configuration again
+    static boolean setMetricsEnabled(boolean enabled) {
+        Boolean previous = metricsEnabled;
+        metricsEnabled = enabled;
+        if (previous != null && previous != enabled) {
+            for (Consumer<Boolean> listener : ENABLED_LISTENERS) {
+                listener.accept(enabled);
+            }
+        }
+        return enabled;
+    }
+
+    /**
+     * @param listener told the new value whenever the metrics enabled flag changes
+     */
+    static void addMetricsEnabledListener(Consumer<Boolean> listener) {
+        ENABLED_LISTENERS.add(listener);
     }
 
     public static Metrics createMetrics(String... paths) {
-        return getMetricsService().createMetrics(paths);
+        List<String> key = Arrays.asList(paths);
+        Metrics metrics = METRICS.get(key);
+        if (metrics == null) {
+            metrics = getMetricsService().createMetrics(paths);
+            if (METRICS.size() >= METRICS_CACHE_SIZE) {
+                METRICS.clear();
+            }
+            METRICS.put(key, metrics);
+        }
+        return metrics;
+    }
+
+    /**
+     * Starts a timer for the given metrics path, or a no-op timer when metrics are disabled.
+     *
+     * @param paths metrics path elements
+     * @return started timer context, closing it records the elapsed time
+     */
+    static Timer.Context startTimer(String... paths) {
+        if (!isMetricsEnabled()) {
+            return new NoOpTimer().start();
+        }
+        return createMetrics(paths).createTimer().start();
     }
 }
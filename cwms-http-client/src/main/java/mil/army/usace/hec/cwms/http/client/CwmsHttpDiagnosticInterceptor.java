@@ -0,0 +1,261 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+/**
+ * Sampled diagnostic log for slow requests and large payloads.
+ * <p>
+ * Unlike {@link CwmsHttpLoggingInterceptor} this does not log every request. A request is logged once its response body
+ * has been consumed or closed, and only when the total time exceeds the latency threshold or the body exceeds the size
+ * threshold. Qualifying requests are further sampled by the configured rate. Each entry carries the time to response
+ * headers, the body read time and a capped excerpt of the body. Entries are handed to a single background thread through
+ * a bounded queue and are dropped if the queue is full, so logging never blocks the calling thread.
+ * <p>
+ * Configured through system properties:
+ * cwms.http.client.diagnostic.log - enables the diagnostic log, default false
+ * cwms.http.client.diagnostic.latency.threshold.millis - default 5000
+ * cwms.http.client.diagnostic.size.threshold.bytes - default 10485760
+ * cwms.http.client.diagnostic.sample.rate - fraction of qualifying requests logged, default 1.0
+ * cwms.http.client.diagnostic.excerpt.bytes - body excerpt cap, default 512
+ * cwms.http.client.diagnostic.queue.capacity - default 256
+ */
+final class CwmsHttpDiagnosticInterceptor implements Interceptor {
+
+    static final String ENABLED_PROPERTY_KEY = "cwms.http.client.diagnostic.log";
+    static final String LATENCY_THRESHOLD_PROPERTY_KEY = "cwms.http.client.diagnostic.latency.threshold.millis";
+    static final String SIZE_THRESHOLD_PROPERTY_KEY = "cwms.http.client.diagnostic.size.threshold.bytes";
+    static final String SAMPLE_RATE_PROPERTY_KEY = "cwms.http.client.diagnostic.sample.rate";
+    static final String EXCERPT_BYTES_PROPERTY_KEY = "cwms.http.client.diagnostic.excerpt.bytes";
+    static final String QUEUE_CAPACITY_PROPERTY_KEY = "cwms.http.client.diagnostic.queue.capacity";
+    private static final Logger LOGGER = Logger.getLogger(CwmsHttpDiagnosticInterceptor.class.getName());
+    private static CwmsHttpDiagnosticInterceptor instance;
+    private final boolean enabled;
+    private final long latencyThresholdNanos;
+    private final long sizeThresholdBytes;
+    private final double sampleRate;
+    private final int excerptBytes;
+    private final ExecutorService logExecutor;
+    private final AtomicLong droppedEntries = new AtomicLong();
+
+    CwmsHttpDiagnosticInterceptor(boolean enabled, long latencyThresholdMillis, long sizeThresholdBytes, double sampleRate,
+                                  int excerptBytes, int queueCapacity) {
+        this.enabled = enabled;
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMillis);
+        this.sizeThresholdBytes = sizeThresholdBytes;
+        this.sampleRate = sampleRate;
+        this.excerptBytes = excerptBytes;
+        if (enabled) {
+            this.logExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity), r -> {
+                Thread thread = new Thread(r, "cwms-http-diagnostic-log");
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.logExecutor = null;
+        }
+    }
+
+    static synchronized CwmsHttpDiagnosticInterceptor getInstance() {
+        if (instance == null) {
+            instance = new CwmsHttpDiagnosticInterceptor(Boolean.getBoolean(ENABLED_PROPERTY_KEY),
+                Long.getLong(LATENCY_THRESHOLD_PROPERTY_KEY, 5_000L),
+                Long.getLong(SIZE_THRESHOLD_PROPERTY_KEY, 10L * 1024 * 1024),
+                Double.parseDouble(System.getProperty(SAMPLE_RATE_PROPERTY_KEY, "1.0")),
+                Integer.getInteger(EXCERPT_BYTES_PROPERTY_KEY, 512),
+                Integer.getInteger(QUEUE_CAPACITY_PROPERTY_KEY, 256));
+        }
+        return instance;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        if (!enabled) {
+            return chain.proceed(chain.request());
+        }
+        Request request = chain.request();
+        long start = System.nanoTime();
+        Response response = chain.proceed(request);
+        long headersNanos = System.nanoTime() - start;
+        ResponseBody body = response.body();
+        if (body == null) {
+            complete(new DiagnosticEntry(request, response.code(), headersNanos, 0, 0, ""));
+            return response;
+        }
+        return response.newBuilder()
+            .body(new DiagnosticResponseBody(body, request, response.code(), start, headersNanos))
+            .build();
+    }
+
+    long getDroppedEntries() {
+        return droppedEntries.get();
+    }
+
+    private void complete(DiagnosticEntry entry) {
+        boolean slow = entry.totalNanos() >= latencyThresholdNanos;
+        boolean large = entry.bytes >= sizeThresholdBytes;
+        if ((slow || large) && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            try {
+                logExecutor.execute(() -> LOGGER.log(Level.INFO, entry::toLogMessage));
+            } catch (RejectedExecutionException e) {
+                droppedEntries.incrementAndGet();
+            }
+        }
+    }
+
+    private static final class DiagnosticEntry {
+
+        private final String method;
+        private final String url;
+        private final int status;
+        private final long headersNanos;
+        private final long bodyNanos;
+        private final long bytes;
+        private final String excerpt;
+
+        private DiagnosticEntry(Request request, int status, long headersNanos, long bodyNanos, long bytes, String excerpt) {
+            this.method = request.method();
+            this.url = request.url().toString();
+            this.status = status;
+            this.headersNanos = headersNanos;
+            this.bodyNanos = bodyNanos;
+            this.bytes = bytes;
+            this.excerpt = excerpt;
+        }
+
+        private long totalNanos() {
+            return headersNanos + bodyNanos;
+        }
+
+        private String toLogMessage() {
+            String bodyExcerpt = excerpt;
+            if (CwmsHttpLogger.containsToken(bodyExcerpt)) {
+                bodyExcerpt = "<redacted>";
+            }
+            return "CWMS HTTP diagnostic: " + method + " " + url + " -> " + status
+                + "\n    headers: " + TimeUnit.NANOSECONDS.toMillis(headersNanos) + " ms"
+                + ", body: " + TimeUnit.NANOSECONDS.toMillis(bodyNanos) + " ms"
+                + ", total: " + TimeUnit.NANOSECONDS.toMillis(totalNanos()) + " ms"
+                + ", bytes: " + bytes
+                + "\n    body excerpt: " + bodyExcerpt;
+        }
+    }
+
+    private final class DiagnosticResponseBody extends ResponseBody {
+
+        private final ResponseBody delegate;
+        private final Request request;
+        private final int status;
+        private final long start;
+        private final long headersNanos;
+        private final Buffer excerpt = new Buffer();
+        private final AtomicBoolean completed = new AtomicBoolean();
+        private long bytesRead;
+        private BufferedSource source;
+
+        private DiagnosticResponseBody(ResponseBody delegate, Request request, int status, long start, long headersNanos) {
+            this.delegate = delegate;
+            this.request = request;
+            this.status = status;
+            this.start = start;
+            this.headersNanos = headersNanos;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public BufferedSource source() {
+            if (source == null) {
+                source = Okio.buffer(new ForwardingSource(delegate.source()) {
+                    @Override
+                    public long read(Buffer sink, long byteCount) throws IOException {
+                        long read = super.read(sink, byteCount);
+                        if (read == -1) {
+                            finish();
+                        } else {
+                            bytesRead += read;
+                            long remaining = excerptBytes - excerpt.size();
+                            if (remaining > 0) {
+                                sink.copyTo(excerpt, sink.size() - read, Math.min(read, remaining));
+                            }
+                        }
+                        return read;
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        finish();
+                        super.close();
+                    }
+                });
+            }
+            return source;
+        }
+
+        @Override
+        public void close() {
+            finish();
+            delegate.close();
+        }
+
+        private void finish() {
+            if (completed.compareAndSet(false, true)) {
+                long bodyNanos = System.nanoTime() - start - headersNanos;
+                long bytes = Math.max(bytesRead, delegate.contentLength());
+                complete(new DiagnosticEntry(request, status, headersNanos, bodyNanos, bytes,
+                    excerpt.readString(StandardCharsets.UTF_8)));
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Executors for running the blocking client API concurrently, used by the client's own fan-out helpers and, when
+ * virtual threads are enabled, the OkHttp dispatcher.
+ * <p>
+ * With cwms.http.client.virtual.threads=true on Java 21 or later every task runs on its own virtual thread, so
+ * thousands of concurrent blocking calls do not need thousands of platform threads. Otherwise tasks run on a cached
+ * pool of daemon platform threads.
+ */
+public final class CwmsHttpExecutors {
+
+    static final String VIRTUAL_THREADS_PROPERTY_KEY = "cwms.http.client.virtual.threads";
+    private static final Logger LOGGER = Logger.getLogger(CwmsHttpExecutors.class.getName());
+    private static final boolean VIRTUAL_THREADS = useVirtualThreads();
+
+    private CwmsHttpExecutors() {
+        throw new AssertionError("Utility class");
+    }
+
+    private static boolean useVirtualThreads() {
+        boolean requested = Boolean.getBoolean(VIRTUAL_THREADS_PROPERTY_KEY);
+        if (requested && !VirtualThreads.isAvailable()) {
+            LOGGER.log(Level.WARNING, () -> VIRTUAL_THREADS_PROPERTY_KEY + " is set but virtual threads require Java 21 or later, "
+                + "using platform threads on Java " + System.getProperty("java.version"));
+        }
+        return requested && VirtualThreads.isAvailable();
+    }
+
+    /**
+     * @return true when executors from this class run tasks on virtual threads
+     */
+    public static boolean isVirtualThreadsEnabled() {
+        return VIRTUAL_THREADS;
+    }
+
+    /**
+     * Executor that starts each task right away, on a virtual thread when enabled, otherwise on a pooled daemon
+     * platform thread. The caller owns the executor and should shut it down when done.
+     *
+     * @param name thread name prefix
+     * @return new executor
+     */
+    public static ExecutorService newTaskExecutor(String name) {
+        return newTaskExecutor(name, VIRTUAL_THREADS);
+    }
+
+    static ExecutorService newTaskExecutor(String name, boolean virtualThreads) {
+        if (virtualThreads) {
+            return VirtualThreads.newVirtualThreadPerTaskExecutor(name);
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, name + "-" + threadCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
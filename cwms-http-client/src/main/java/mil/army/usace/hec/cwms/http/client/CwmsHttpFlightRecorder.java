@@ -0,0 +1,58 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client;
+
+/**
+ * Entry point for the Java Flight Recorder events emitted by the CWMS HTTP client.
+ * <p>
+ * jdk.jfr is not part of the Java 8 API, so this implementation records nothing. The jar is multi-release,
+ * Java 11+ runtimes load the JFR backed version of this class from META-INF/versions/11.
+ */
+public final class CwmsHttpFlightRecorder {
+
+    private CwmsHttpFlightRecorder() {
+        throw new AssertionError("Utility class");
+    }
+
+    static FlightRecording beginRequest(String endpoint, String method) {
+        return FlightRecording.NONE;
+    }
+
+    static void recordRetry(String endpoint, String method, int attempt, int priorStatus) {
+        //no-op on Java 8
+    }
+
+    static FlightRecording beginAuthRefresh(String authenticator) {
+        return FlightRecording.NONE;
+    }
+
+    public static FlightRecording beginDeserialization(Class<?> type, long size) {
+        return FlightRecording.NONE;
+    }
+
+    public static FlightRecording beginSerialization(Class<?> type) {
+        return FlightRecording.NONE;
+    }
+}
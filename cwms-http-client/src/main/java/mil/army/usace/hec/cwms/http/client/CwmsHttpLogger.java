@@ -34,10 +34,14 @@ final class CwmsHttpLogger implements HttpLoggingInterceptor.Logger {
 
     @Override
     public void log(String s) {
-        String lowerCaseS = s.toLowerCase();
-        if (!lowerCaseS.contains(ACCESS_TOKEN.toLowerCase()) && !lowerCaseS.contains(REFRESH_TOKEN.toLowerCase())) {
+        if (!containsToken(s)) {
             DELEGATE.log(s);
         }
     }
 
+    static boolean containsToken(String s) {
+        String lowerCaseS = s.toLowerCase();
+        return lowerCaseS.contains(ACCESS_TOKEN.toLowerCase()) || lowerCaseS.contains(REFRESH_TOKEN.toLowerCase());
+    }
+
 }
@@ -30,6 +30,7 @@ import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Properties;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import rma.services.annotations.ServiceProvider;
@@ -50,7 +51,8 @@ public final class CwmsHttpMetricsServiceProvider implements MetricsServiceProvi
     static final int SERVICE_POSITION = 0;
     private static final Logger LOGGER = Logger.getLogger(CwmsHttpMetricsServiceProvider.class.getName());
 
-    private MetricsService service;
+    private final ReentrantLock initLock = new ReentrantLock();
+    private volatile MetricsService service;
 
     private MetricsApp getMetricsApp() {
         return Lookup.getDefault().lookup(MetricsApp.class);
@@ -133,10 +135,21 @@ public final class CwmsHttpMetricsServiceProvider implements MetricsServiceProvi
     }
 
     @Override
-    public synchronized MetricsService getMetricsService() {
-        if (service == null) {
-            init();
+    public MetricsService getMetricsService() {
+        //read on every request, only the first call takes the lock. A lock rather than synchronized so the
+        //configuration file read does not pin a virtual thread's carrier
+        MetricsService retval = service;
+        if (retval == null) {
+            initLock.lock();
+            try {
+                if (service == null) {
+                    init();
+                }
+                retval = service;
+            } finally {
+                initLock.unlock();
+            }
         }
-        return service;
+        return retval;
     }
 }
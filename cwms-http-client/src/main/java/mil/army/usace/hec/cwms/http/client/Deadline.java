@@ -0,0 +1,94 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point in time by which a request, or a group of requests made for one operation, must complete. Applied to a request
+ * as its OkHttp call timeout, covering connecting, waiting for the server and reading the response body.
+ * <p>
+ * Pass one deadline down through every request of a multi-request operation, either per request with
+ * {@link HttpRequestBuilder#withDeadline(Deadline)} or for all requests through
+ * {@link ApiConnectionInfo#withDeadline(Deadline)}, so later requests get only the time left.
+ */
+public final class Deadline {
+
+    //about 146 years, keeps deadline arithmetic clear of overflow
+    private static final long MAX_TIMEOUT_NANOS = Long.MAX_VALUE / 2;
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * @param timeout time from now
+     * @return deadline that expires after the timeout
+     */
+    public static Deadline after(Duration timeout) {
+        Objects.requireNonNull(timeout, "Missing required timeout");
+        long timeoutNanos = timeout.compareTo(Duration.ofNanos(MAX_TIMEOUT_NANOS)) > 0 ? MAX_TIMEOUT_NANOS : timeout.toNanos();
+        return new Deadline(System.nanoTime() + timeoutNanos);
+    }
+
+    /**
+     * @param timeout time from now
+     * @return this deadline, or one after the timeout if that expires sooner
+     */
+    public Deadline withTimeout(Duration timeout) {
+        return earlierOf(after(timeout));
+    }
+
+    /**
+     * @param other another deadline, may be null
+     * @return whichever deadline expires first
+     */
+    public Deadline earlierOf(Deadline other) {
+        if (other == null || deadlineNanos - other.deadlineNanos <= 0) {
+            return this;
+        }
+        return other;
+    }
+
+    /**
+     * @return time left, zero once expired
+     */
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0, deadlineNanos - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    @Override
+    public String toString() {
+        long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+        return remainingMillis > 0 ? "Deadline in " + remainingMillis + "ms" : "Deadline expired " + -remainingMillis + "ms ago";
+    }
+}
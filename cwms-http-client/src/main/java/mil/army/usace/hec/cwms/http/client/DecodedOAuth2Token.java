@@ -0,0 +1,100 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.exceptions.JWTDecodeException;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import mil.army.usace.hec.cwms.http.client.auth.OAuth2Token;
+
+/**
+ * {@link OAuth2Token} with its access and refresh token expiries decoded once, so expiry checks on the request path
+ * are plain comparisons instead of a JWT decode.
+ */
+final class DecodedOAuth2Token {
+
+    private static final Logger LOGGER = Logger.getLogger(DecodedOAuth2Token.class.getName());
+    private final OAuth2Token token;
+    private final long accessExpiresAtMillis;
+    private final long refreshExpiresAtMillis;
+    private final String authorization;
+
+    private DecodedOAuth2Token(OAuth2Token token, long accessExpiresAtMillis, long refreshExpiresAtMillis) {
+        this.token = token;
+        this.accessExpiresAtMillis = accessExpiresAtMillis;
+        this.refreshExpiresAtMillis = refreshExpiresAtMillis;
+        this.authorization = token.getTokenType() + " " + token.getAccessToken();
+    }
+
+    static DecodedOAuth2Token decode(OAuth2Token token) {
+        long accessExpiresAt = decodeExpiry(token.getAccessToken(), Long.MAX_VALUE);
+        if (accessExpiresAt == Long.MAX_VALUE && token.getExpiresIn() > 0) {
+            //opaque access token, fall back to expires_in relative to when it was received
+            accessExpiresAt = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(token.getExpiresIn());
+        }
+        //a refresh token that cannot be decoded cannot be checked, treat it as expired so a new token is requested
+        long refreshExpiresAt = decodeExpiry(token.getRefreshToken(), Long.MIN_VALUE);
+        return new DecodedOAuth2Token(token, accessExpiresAt, refreshExpiresAt);
+    }
+
+    private static long decodeExpiry(String jwt, long undecodable) {
+        if (jwt == null) {
+            return undecodable;
+        }
+        try {
+            Date expiresAt = JWT.decode(jwt).getExpiresAt();
+            return expiresAt == null ? Long.MAX_VALUE : expiresAt.getTime();
+        } catch (JWTDecodeException e) {
+            LOGGER.log(Level.FINEST, "Token is not a JWT, expiry cannot be decoded");
+            return undecodable;
+        }
+    }
+
+    OAuth2Token getToken() {
+        return token;
+    }
+
+    long getAccessExpiresAtMillis() {
+        return accessExpiresAtMillis;
+    }
+
+    boolean isAccessTokenExpired() {
+        return System.currentTimeMillis() >= accessExpiresAtMillis;
+    }
+
+    boolean isRefreshTokenExpired() {
+        return AccessTokenValidator.isExpired(refreshExpiresAtMillis);
+    }
+
+    /**
+     * @return Authorization header value for this token
+     */
+    String getAuthorization() {
+        return authorization;
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+
+/**
+ * Parsed API root and endpoint URLs for one {@link ApiConnectionInfo}, so building a request does not re-parse the
+ * root or re-split the endpoint path. Controllers pass the same endpoint strings on every call, those resolve once.
+ * Endpoints embedding identifiers are cached too, the cache is cleared when it fills.
+ * <p>
+ * Configured through system property cwms.http.client.endpoint.cache.size - endpoints cached per connection, 0 disables
+ */
+final class EndpointTemplates {
+
+    static final String CACHE_SIZE_PROPERTY_KEY = "cwms.http.client.endpoint.cache.size";
+    static final int CACHE_SIZE_PROPERTY_DEFAULT = 512;
+    //media types are a handful of constants, the bound only guards against callers passing arbitrary strings
+    private static final int MEDIA_TYPE_CACHE_SIZE = 64;
+    private static final Map<String, MediaType> MEDIA_TYPES = new ConcurrentHashMap<>();
+    private final HttpUrl apiRootUrl;
+    private final int cacheSize;
+    private final Map<String, EndpointTemplate> templates = new ConcurrentHashMap<>();
+
+    EndpointTemplates(String apiRoot) {
+        this(apiRoot, Integer.getInteger(CACHE_SIZE_PROPERTY_KEY, CACHE_SIZE_PROPERTY_DEFAULT));
+    }
+
+    EndpointTemplates(String apiRoot, int cacheSize) {
+        this.apiRootUrl = apiRoot == null ? null : HttpUrl.parse(apiRoot);
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * @return parsed API root, null if the root is not a valid HTTP URL
+     */
+    HttpUrl getApiRootUrl() {
+        return apiRootUrl;
+    }
+
+    EndpointTemplate resolve(String endpoint) {
+        EndpointTemplate template = templates.get(endpoint);
+        if (template == null) {
+            template = new EndpointTemplate(apiRootUrl, endpoint);
+            if (cacheSize > 0) {
+                if (templates.size() >= cacheSize) {
+                    templates.clear();
+                }
+                templates.put(endpoint, template);
+            }
+        }
+        return template;
+    }
+
+    /**
+     * @return parsed media type, null if it is not a valid media type
+     */
+    static MediaType parseMediaType(String mediaType) {
+        MediaType type = MEDIA_TYPES.get(mediaType);
+        if (type == null) {
+            type = MediaType.parse(mediaType);
+            if (type != null && MEDIA_TYPES.size() < MEDIA_TYPE_CACHE_SIZE) {
+                MEDIA_TYPES.put(mediaType, type);
+            }
+        }
+        return type;
+    }
+
+    static final class EndpointTemplate {
+
+        private final HttpUrl url;
+        private final String metricsPath;
+
+        private EndpointTemplate(HttpUrl apiRootUrl, String endpoint) {
+            HttpUrl resolved = apiRootUrl;
+            if (!endpoint.isEmpty()) {
+                resolved = apiRootUrl.newBuilder()
+                    .addPathSegments(endpoint)
+                    .build();
+            }
+            this.url = resolved;
+            this.metricsPath = Objects.toString(apiRootUrl.resolve(endpoint));
+        }
+
+        HttpUrl getUrl() {
+            return url;
+        }
+
+        String getMetricsPath() {
+            return metricsPath;
+        }
+    }
+}
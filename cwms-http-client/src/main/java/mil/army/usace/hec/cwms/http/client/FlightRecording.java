@@ -0,0 +1,63 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client;
+
+/**
+ * Handle to an in-progress Java Flight Recorder event. The event duration runs from creation until {@link #close()}.
+ * When flight recording is not available or the event type is disabled, the handle is a no-op.
+ */
+public interface FlightRecording extends AutoCloseable {
+
+    FlightRecording NONE = new FlightRecording() {
+        @Override
+        public FlightRecording status(int status) {
+            return this;
+        }
+
+        @Override
+        public FlightRecording bytes(long bytes) {
+            return this;
+        }
+
+        @Override
+        public FlightRecording detail(String detail) {
+            return this;
+        }
+
+        @Override
+        public void close() {
+            //no-op
+        }
+    };
+
+    FlightRecording status(int status);
+
+    FlightRecording bytes(long bytes);
+
+    FlightRecording detail(String detail);
+
+    @Override
+    void close();
+}
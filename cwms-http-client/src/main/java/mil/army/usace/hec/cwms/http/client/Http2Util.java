@@ -24,12 +24,24 @@
 
 package mil.army.usace.hec.cwms.http.client;
 
+import java.security.Security;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.jsse.provider.BouncyCastleJsseProvider;
+
 final class Http2Util {
 
     private Http2Util() {
         throw new AssertionError("Utility class");
     }
 
+    static void enableHttp2() {
+        //if Java 8 less than minor version 251, then use BouncyCastle to allow for HTTP/2 requests
+        if (!isHttp2NativelySupported()) {
+            Security.insertProviderAt(new BouncyCastleProvider(), 1);
+            Security.insertProviderAt(new BouncyCastleJsseProvider(), 2);
+        }
+    }
+
     static boolean isHttp2NativelySupported() {
         boolean retVal = false;
         String version = System.getProperty("java.version");
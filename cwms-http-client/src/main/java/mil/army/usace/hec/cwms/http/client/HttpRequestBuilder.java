@@ -24,6 +24,7 @@
 
 package mil.army.usace.hec.cwms.http.client;
 
+import java.time.Duration;
 import mil.army.usace.hec.cwms.http.client.request.HttpPostRequest;
 import mil.army.usace.hec.cwms.http.client.request.HttpRequestMediaType;
 
@@ -36,6 +37,40 @@ public interface HttpRequestBuilder {
 
     HttpRequestBuilder enableHttp2();
 
+    /**
+     * Limit the whole request, from connecting through reading the response body, to the given time from now.
+     * Overrides the global call timeout. Combined with any other deadline, the earlier one applies.
+     *
+     * @param timeout time allowed for the request
+     * @return this builder
+     */
+    default HttpRequestBuilder withTimeout(Duration timeout) {
+        return withDeadline(Deadline.after(timeout));
+    }
+
+    /**
+     * Complete the whole request, from connecting through reading the response body, before the deadline.
+     * Overrides the global call timeout. Combined with any other deadline, the earlier one applies.
+     * Builders that cannot enforce a deadline ignore it.
+     *
+     * @param deadline deadline, usually shared by the requests of one operation
+     * @return this builder
+     */
+    default HttpRequestBuilder withDeadline(Deadline deadline) {
+        return this;
+    }
+
+    /**
+     * Scheduling class used when concurrent requests are limited, see {@link RequestPriorityLanes}.
+     * Builders that do not schedule requests ignore it.
+     *
+     * @param priority request priority, defaults to {@link RequestPriority#NORMAL}
+     * @return this builder
+     */
+    default HttpRequestBuilder withPriority(RequestPriority priority) {
+        return this;
+    }
+
     HttpPostRequest post();
 
     HttpPostRequest patch();
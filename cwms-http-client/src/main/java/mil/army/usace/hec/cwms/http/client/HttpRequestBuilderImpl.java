@@ -29,47 +29,55 @@ import mil.army.usace.hec.cwms.http.client.request.HttpRequestExecutor;
 import mil.army.usace.hec.cwms.http.client.request.HttpRequestMediaType;
 import mil.army.usace.hec.cwms.http.client.request.HttpRequestMethod;
 import okhttp3.*;
-import org.bouncycastle.jce.provider.BouncyCastleProvider;
-import org.bouncycastle.jsse.provider.BouncyCastleJsseProvider;
 import usace.metrics.noop.NoOpTimer;
 import usace.metrics.services.Metrics;
 import usace.metrics.services.Timer;
 
 import javax.net.ssl.SSLHandshakeException;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.ConnectException;
 import java.net.HttpURLConnection;
 import java.net.SocketTimeoutException;
 import java.net.UnknownHostException;
-import java.security.Security;
 import java.security.SignatureException;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import static java.util.stream.Collectors.toSet;
-import static mil.army.usace.hec.cwms.http.client.Http2Util.isHttp2NativelySupported;
 
 public class HttpRequestBuilderImpl implements HttpRequestBuilder {
 
+    private static final Logger LOGGER = Logger.getLogger(HttpRequestBuilderImpl.class.getName());
     private final String endpoint;
-    private final HttpUrl httpUrl;
+    private final EndpointTemplates.EndpointTemplate endpointTemplate;
     private final Map<String, String> queryParameters = new HashMap<>();
     private final Map<String, String> queryHeaders = new HashMap<>();
     private final ApiConnectionInfo apiConnectionInfo;
     private HttpRequestMethod method;
     private String body;
     private String mediaType;
+    private Deadline deadline;
+    private RequestPriority priority;
 
     public HttpRequestBuilderImpl(ApiConnectionInfo apiConnectionInfo, String endpoint) throws IOException {
         Objects.requireNonNull(apiConnectionInfo, "API connection info must be defined");
         String apiRoot = apiConnectionInfo.getApiRoot();
         Objects.requireNonNull(apiRoot, "API root must be defined");
-        HttpUrl url = HttpUrl.parse(apiRoot);
-        if (url == null) {
+        EndpointTemplates endpointTemplates = apiConnectionInfo.endpointTemplates();
+        if (endpointTemplates.getApiRootUrl() == null) {
             throw new ServerNotFoundException("Invalid HTTP URL: " + apiRoot, apiRoot);
         }
-        this.httpUrl = url;
         this.endpoint = Objects.requireNonNull(endpoint, "Cannot process request against the API root endpoint");
+        this.endpointTemplate = endpointTemplates.resolve(endpoint);
         this.apiConnectionInfo = apiConnectionInfo;
+        this.deadline = apiConnectionInfo.deadline().orElse(null);
+        this.priority = apiConnectionInfo.priority();
     }
 
     public HttpRequestBuilderImpl(ApiConnectionInfo apiConnectionInfo) throws IOException {
@@ -109,11 +117,24 @@ public class HttpRequestBuilderImpl implements HttpRequestBuilder {
      */
     @Override
     public HttpRequestBuilder enableHttp2() {
-        //if Java 8 less than minor version 251, then use BouncyCastle to allow for HTTP/2 requests
-        if (!isHttp2NativelySupported()) {
-            Security.insertProviderAt(new BouncyCastleProvider(), 1);
-            Security.insertProviderAt(new BouncyCastleJsseProvider(), 2);
-        }
+        Http2Util.enableHttp2();
+        return this;
+    }
+
+    @Override
+    public final HttpRequestBuilderImpl withTimeout(Duration timeout) {
+        return withDeadline(Deadline.after(timeout));
+    }
+
+    @Override
+    public final HttpRequestBuilderImpl withDeadline(Deadline deadline) {
+        this.deadline = Objects.requireNonNull(deadline, "Missing required deadline").earlierOf(this.deadline);
+        return this;
+    }
+
+    @Override
+    public final HttpRequestBuilderImpl withPriority(RequestPriority priority) {
+        this.priority = Objects.requireNonNull(priority, "Missing required priority");
         return this;
     }
 
@@ -147,26 +168,27 @@ public class HttpRequestBuilderImpl implements HttpRequestBuilder {
 
     //Packaged scope for testing
     Request createRequest() throws IOException {
-        HttpUrl resolve = httpUrl;
-        if (!endpoint.isEmpty()) {
-            resolve = httpUrl.newBuilder()
-                .addPathSegments(endpoint)
-                .build();
-        }
-        MediaType type = MediaType.parse(mediaType);
+        MediaType type = EndpointTemplates.parseMediaType(mediaType);
         if (type == null) {
             throw new IOException("Invalid Media Type: " + mediaType);
         }
-        HttpUrl.Builder urlBuilder = resolve.newBuilder();
-        queryParameters.forEach(urlBuilder::addQueryParameter);
+        HttpUrl url = endpointTemplate.getUrl();
+        if (!queryParameters.isEmpty()) {
+            HttpUrl.Builder urlBuilder = url.newBuilder();
+            queryParameters.forEach(urlBuilder::addQueryParameter);
+            url = urlBuilder.build();
+        }
         Request.Builder requestBuilder = new Request.Builder();
         RequestBody requestBody = null;
         if (body != null) {
             requestBody = RequestBody.create(body, null);
         }
         requestBuilder.header("Content-Type", type.toString());
-        requestBuilder.url(urlBuilder.build());
+        requestBuilder.url(url);
         requestBuilder.method(method.getName(), requestBody);
+        requestBuilder.tag(CallTimings.class, new CallTimings(endpoint));
+        requestBuilder.tag(RequestPriority.class, priority);
+        requestBuilder.tag(Deadline.class, deadline);
         queryHeaders.forEach(requestBuilder::addHeader);
         return requestBuilder.build();
     }
@@ -199,37 +221,174 @@ public class HttpRequestBuilderImpl implements HttpRequestBuilder {
 
         @Override
         public final HttpRequestResponse execute() throws IOException {
-            HttpRequestResponse retVal = null;
             Request request = createRequest();
             CwmsHttpLoggingInterceptor.getInstance().logStackTraceForRequest(request);
-            ResponseBody responseBody;
-            try (Timer.Context timer = createTimer().start()) {
+            try (FlightRecording recording = CwmsHttpFlightRecorder.beginRequest(endpoint, method.getName());
+                 Timer.Context timer = createTimer().start()) {
                 OkHttpClient client = buildOkHttpClient();
-                Response execute = client.newCall(request).execute();
-                if (execute.isSuccessful()) {
-                    responseBody = execute.body();
-                    if (responseBody == null) {
-                        throw new IOException("Error with request, body not returned for request: " + request);
-                    }
-                    Set<HttpCookie> cookies = client.cookieJar().loadForRequest(request.url())
-                        .stream()
-                        .map(OkHttpCookieWrapper::new)
-                        .collect(toSet());
-                    retVal = new HttpRequestResponse(responseBody, cookies);
+                Response execute = newCall(client, request).execute();
+                return handleResponse(client, request, execute, recording);
+            } catch (IOException ex) {
+                throw mapFailure(ex, request);
+            }
+        }
+
+        @Override
+        public final CompletableFuture<HttpRequestResponse> executeAsync() {
+            CompletableFuture<HttpRequestResponse> future = new CompletableFuture<>();
+            Request request;
+            try {
+                request = createRequest();
+            } catch (IOException ex) {
+                future.completeExceptionally(ex);
+                return future;
+            }
+            CwmsHttpLoggingInterceptor.getInstance().logStackTraceForRequest(request);
+            FlightRecording recording = CwmsHttpFlightRecorder.beginRequest(endpoint, method.getName());
+            Timer.Context timer = createTimer().start();
+            OkHttpClient client = buildOkHttpClient();
+            //reserved before enqueueing, so the call waits in its priority lane rather than on a dispatcher thread
+            CompletableFuture<PriorityLaneInterceptor.Slot> reservation = PriorityLaneInterceptor.getInstance().reserve(request);
+            AtomicReference<Call> call = new AtomicReference<>();
+            reservation.whenComplete((slot, error) -> {
+                if (error != null) {
+                    closeQuietly(recording, timer);
+                    future.completeExceptionally(error);
                 } else {
-                    handleExecutionError(execute, request);
+                    Request admitted = slot == null ? request : request.newBuilder().tag(PriorityLaneInterceptor.Slot.class, slot).build();
+                    enqueue(client, admitted, slot, recording, timer, future, call);
+                }
+            });
+            future.whenComplete((response, error) -> {
+                if (future.isCancelled()) {
+                    reservation.cancel(false);
+                    Call enqueued = call.get();
+                    if (enqueued != null) {
+                        enqueued.cancel();
+                    }
                 }
-            } catch (ConnectException | UnknownHostException | SocketTimeoutException connectException) {
-                throw new ServerNotFoundException(connectException, request.url().toString());
-            } catch (SSLHandshakeException ex) {
+            });
+            return future;
+        }
+
+        private void enqueue(OkHttpClient client, Request request, PriorityLaneInterceptor.Slot slot, FlightRecording recording,
+                             Timer.Context timer, CompletableFuture<HttpRequestResponse> future, AtomicReference<Call> callReference) {
+            Call call;
+            try {
+                call = newCall(client, request);
+            } catch (IOException ex) {
+                releaseSlot(slot);
+                closeQuietly(recording, timer);
+                future.completeExceptionally(ex);
+                return;
+            }
+            callReference.set(call);
+            call.enqueue(new Callback() {
+                @Override
+                public void onFailure(Call failedCall, IOException ex) {
+                    releaseSlot(slot);
+                    closeQuietly(recording, timer);
+                    future.completeExceptionally(mapFailure(ex, request));
+                }
+
+                @Override
+                public void onResponse(Call respondedCall, Response response) {
+                    releaseSlot(slot);
+                    try {
+                        HttpRequestResponse handled = handleResponse(client, request, response, recording);
+                        if (!future.complete(handled)) {
+                            //cancelled while the response arrived, nobody else will close it
+                            handled.close();
+                        }
+                    } catch (IOException ex) {
+                        future.completeExceptionally(mapFailure(ex, request));
+                    } catch (RuntimeException ex) {
+                        //thrown on a dispatcher thread, only the future can report it
+                        future.completeExceptionally(ex);
+                    } finally {
+                        closeQuietly(recording, timer);
+                    }
+                }
+            });
+            if (future.isCancelled()) {
+                //cancelled before the call was published
+                call.cancel();
+            }
+        }
+
+        private void releaseSlot(PriorityLaneInterceptor.Slot slot) {
+            if (slot != null) {
+                slot.release();
+            }
+        }
+
+        private HttpRequestResponse handleResponse(OkHttpClient client, Request request, Response execute, FlightRecording recording)
+            throws IOException {
+            recording.status(execute.code());
+            recordRetries(execute);
+            if (!execute.isSuccessful()) {
+                handleExecutionError(execute, request);
+            }
+            ResponseBody responseBody = execute.body();
+            if (responseBody == null) {
+                throw new IOException("Error with request, body not returned for request: " + request);
+            }
+            recording.bytes(responseBody.contentLength());
+            Set<HttpCookie> cookies = client.cookieJar().loadForRequest(request.url())
+                .stream()
+                .map(OkHttpCookieWrapper::new)
+                .collect(toSet());
+            return new HttpRequestResponse(responseBody, cookies, getMetricsPath());
+        }
+
+        private IOException mapFailure(IOException ex, Request request) {
+            if (ex instanceof ConnectException || ex instanceof UnknownHostException || ex instanceof SocketTimeoutException) {
+                return new ServerNotFoundException(ex, request.url().toString());
+            }
+            if (ex instanceof InterruptedIOException) {
+                if (!(ex instanceof DeadlineExceededException) && deadline != null && deadline.isExpired()) {
+                    return new DeadlineExceededException(request.url().toString(), deadline);
+                }
+                return ex;
+            }
+            if (ex instanceof SSLHandshakeException) {
                 Throwable cause = ex.getCause();
                 if (cause instanceof SignatureException && cause.getMessage().contains("The action was cancelled by the user.")) {
-                    throw new SslCanceledException(ex, request.url().toString());
-                } else {
-                    throw ex;
+                    return new SslCanceledException(ex, request.url().toString());
+                }
+            }
+            return ex;
+        }
+
+        private void closeQuietly(AutoCloseable... closeables) {
+            for (AutoCloseable closeable : closeables) {
+                try {
+                    closeable.close();
+                } catch (Exception ex) {
+                    LOGGER.log(Level.FINE, ex, () -> "Failed to close request instrumentation for " + endpoint);
+                }
+            }
+        }
+
+        private Call newCall(OkHttpClient client, Request request) throws DeadlineExceededException {
+            Call call = client.newCall(request);
+            if (deadline != null) {
+                if (deadline.isExpired()) {
+                    throw new DeadlineExceededException(request.url().toString(), deadline);
                 }
+                call.timeout().timeout(deadline.remaining().toNanos(), TimeUnit.NANOSECONDS);
+            }
+            return call;
+        }
+
+        private void recordRetries(Response response) {
+            int attempt = 0;
+            Response prior = response.priorResponse();
+            while (prior != null) {
+                attempt++;
+                CwmsHttpFlightRecorder.recordRetry(endpoint, method.getName(), attempt, prior.code());
+                prior = prior.priorResponse();
             }
-            return retVal;
         }
 
         private void handleExecutionError(Response execute, Request request) throws IOException {
@@ -256,7 +415,7 @@ public class HttpRequestBuilderImpl implements HttpRequestBuilder {
             if (!CwmsHttpClientMetrics.isMetricsEnabled()) {
                 return new NoOpTimer();
             }
-            Metrics metrics = CwmsHttpClientMetrics.createMetrics(Objects.toString(httpUrl.resolve(endpoint)));
+            Metrics metrics = CwmsHttpClientMetrics.createMetrics(getMetricsPath());
             Timer timer = metrics.createTimer();
             Properties metricsProperties = new Properties();
             metricsProperties.putAll(queryParameters);
@@ -265,6 +424,10 @@ public class HttpRequestBuilderImpl implements HttpRequestBuilder {
             return timer;
         }
 
+        private String getMetricsPath() {
+            return endpointTemplate.getMetricsPath();
+        }
+
         HttpRequestBuilderImpl getInstance() {
             return getCurrentInstance();
         }
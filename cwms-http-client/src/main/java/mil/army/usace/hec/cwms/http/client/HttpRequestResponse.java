@@ -29,19 +29,65 @@ import java.io.InputStream;
 import java.util.HashSet;
 import java.util.Set;
 import okhttp3.ResponseBody;
+import usace.metrics.noop.NoOpTimer;
+import usace.metrics.services.Timer;
 
 public final class HttpRequestResponse implements AutoCloseable {
 
+    static final String BODY_READ_METRIC = "body-read";
+    static final String BIND_METRIC = "bind";
     private final ResponseBody body;
     private final Set<HttpCookie> cookies;
+    private final String metricsPath;
 
     HttpRequestResponse(ResponseBody body, Set<HttpCookie> cookies) {
+        this(body, cookies, "");
+    }
+
+    HttpRequestResponse(ResponseBody body, Set<HttpCookie> cookies, String metricsPath) {
         this.body = body;
         this.cookies = cookies;
+        this.metricsPath = metricsPath;
     }
 
     public String getBody() throws IOException {
-        return body.string();
+        try (Timer.Context timer = startTimer(BODY_READ_METRIC)) {
+            return body.string();
+        }
+    }
+
+    /**
+     * Reads the body and binds it with the given mapper. Body read and bind are timed separately
+     * in the metrics service, keyed by the request endpoint and model type.
+     *
+     * @param type   model type the body is bound to, used to key the metrics
+     * @param mapper binds the body to the model object
+     * @param <T>    result type
+     * @return bound model object
+     * @throws IOException if reading or binding the body fails
+     */
+    public <T> T mapBody(Class<?> type, ResponseBodyMapper<T> mapper) throws IOException {
+        String typeName = type.getSimpleName();
+        String json;
+        try (Timer.Context timer = startTimer(BODY_READ_METRIC, typeName)) {
+            json = body.string();
+        }
+        try (Timer.Context timer = startTimer(BIND_METRIC, typeName);
+             FlightRecording recording = CwmsHttpFlightRecorder.beginDeserialization(type, json.length())) {
+            return mapper.map(json);
+        }
+    }
+
+    private Timer.Context startTimer(String metric, String... names) {
+        //without the request's metrics path the timings of every endpoint would be recorded together
+        if (metricsPath == null || metricsPath.isEmpty()) {
+            return new NoOpTimer().start();
+        }
+        String[] paths = new String[names.length + 2];
+        paths[0] = metricsPath;
+        paths[1] = metric;
+        System.arraycopy(names, 0, paths, 2, names.length);
+        return CwmsHttpClientMetrics.startTimer(paths);
     }
 
     public InputStream getStream() {
@@ -0,0 +1,58 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a request cannot be admitted because the global in-flight response byte budget stayed exhausted
+ * for longer than the configured wait.
+ */
+public class InFlightBudgetExceededException extends IOException {
+
+    private final String url;
+    private final long budgetBytes;
+    private final long bytesInFlight;
+
+    InFlightBudgetExceededException(String url, long budgetBytes, long bytesInFlight) {
+        super("In-flight response budget of " + budgetBytes + " bytes exhausted (" + bytesInFlight
+            + " bytes in flight), request not admitted: " + url);
+        this.url = url;
+        this.budgetBytes = budgetBytes;
+        this.bytesInFlight = bytesInFlight;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    public long getBytesInFlight() {
+        return bytesInFlight;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client;
+
+/**
+ * Gauges for the global in-flight response byte budget. Budget configuration is described on the system properties
+ * cwms.http.client.inflight.budget.bytes, cwms.http.client.inflight.budget.wait.millis and
+ * cwms.http.client.inflight.budget.reserve.bytes.
+ */
+public final class InFlightByteBudget {
+
+    private InFlightByteBudget() {
+        throw new AssertionError("Utility class");
+    }
+
+    /**
+     * @return configured budget in bytes, 0 when the budget is disabled
+     */
+    public static long getBudgetBytes() {
+        return InFlightByteBudgetInterceptor.getInstance().getBudgetBytes();
+    }
+
+    /**
+     * @return bytes currently reserved by admitted requests whose response body has not yet been read or closed
+     */
+    public static long getBytesInFlight() {
+        return InFlightByteBudgetInterceptor.getInstance().getBytesInFlight();
+    }
+
+    /**
+     * @return requests currently holding a reservation
+     */
+    public static int getRequestsInFlight() {
+        return InFlightByteBudgetInterceptor.getInstance().getRequestsInFlight();
+    }
+
+    /**
+     * @return requests currently blocked waiting for budget
+     */
+    public static int getWaitingRequests() {
+        return InFlightByteBudgetInterceptor.getInstance().getWaitingRequests();
+    }
+
+    /**
+     * @return total requests rejected because the budget stayed exhausted
+     */
+    public static long getRejectedRequests() {
+        return InFlightByteBudgetInterceptor.getInstance().getRejectedRequests();
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+/**
+ * Global budget on response bytes in flight across all requests made through the shared client.
+ * <p>
+ * Each request reserves a minimum number of bytes when it is admitted. The reservation is raised to the response
+ * Content-Length once headers arrive, and to the actual streamed size when the body turns out larger or has no length.
+ * The reservation is released when the response body is closed or fully read. New requests wait for reservations to be
+ * released while the budget is exhausted, and fail with {@link InFlightBudgetExceededException} once the wait elapses,
+ * or with {@link DeadlineExceededException} when the request's {@link Deadline} passes first.
+ * A wait of 0 fails fast. A request is always admitted when nothing else is in flight, so a single response larger
+ * than the budget cannot stall the client.
+ * <p>
+ * Configured through system properties:
+ * cwms.http.client.inflight.budget.bytes - total budget, default 0 which disables the budget
+ * cwms.http.client.inflight.budget.wait.millis - default 30000
+ * cwms.http.client.inflight.budget.reserve.bytes - minimum reservation per request, default 65536
+ */
+final class InFlightByteBudgetInterceptor implements Interceptor {
+
+    static final String BUDGET_PROPERTY_KEY = "cwms.http.client.inflight.budget.bytes";
+    static final String WAIT_PROPERTY_KEY = "cwms.http.client.inflight.budget.wait.millis";
+    static final String RESERVE_PROPERTY_KEY = "cwms.http.client.inflight.budget.reserve.bytes";
+    private static final Logger LOGGER = Logger.getLogger(InFlightByteBudgetInterceptor.class.getName());
+    private static InFlightByteBudgetInterceptor instance;
+    private final long budgetBytes;
+    private final long waitNanos;
+    private final long reserveBytes;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private final AtomicLong bytesInFlight = new AtomicLong();
+    private final AtomicInteger requestsInFlight = new AtomicInteger();
+    private final AtomicInteger waitingRequests = new AtomicInteger();
+    private final AtomicLong rejectedRequests = new AtomicLong();
+
+    InFlightByteBudgetInterceptor(long budgetBytes, long waitMillis, long reserveBytes) {
+        this.budgetBytes = budgetBytes;
+        this.waitNanos = TimeUnit.MILLISECONDS.toNanos(waitMillis);
+        this.reserveBytes = reserveBytes;
+    }
+
+    static synchronized InFlightByteBudgetInterceptor getInstance() {
+        if (instance == null) {
+            instance = new InFlightByteBudgetInterceptor(Long.getLong(BUDGET_PROPERTY_KEY, 0L),
+                Long.getLong(WAIT_PROPERTY_KEY, 30_000L),
+                Long.getLong(RESERVE_PROPERTY_KEY, 64L * 1024));
+        }
+        return instance;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        if (budgetBytes <= 0) {
+            return chain.proceed(chain.request());
+        }
+        Request request = chain.request();
+        Reservation reservation = acquire(request);
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException | RuntimeException e) {
+            reservation.release();
+            throw e;
+        }
+        ResponseBody body = response.body();
+        if (body == null) {
+            reservation.release();
+            return response;
+        }
+        reservation.grow(body.contentLength());
+        return response.newBuilder()
+            .body(new BudgetedResponseBody(body, reservation))
+            .build();
+    }
+
+    long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    long getBytesInFlight() {
+        return bytesInFlight.get();
+    }
+
+    int getRequestsInFlight() {
+        return requestsInFlight.get();
+    }
+
+    int getWaitingRequests() {
+        return waitingRequests.get();
+    }
+
+    long getRejectedRequests() {
+        return rejectedRequests.get();
+    }
+
+    private Reservation acquire(Request request) throws IOException {
+        Deadline deadline = request.tag(Deadline.class);
+        //a request never waits past its own deadline
+        boolean deadlineBound = deadline != null && deadline.remaining().toNanos() < waitNanos;
+        lock.lock();
+        try {
+            long remaining = deadlineBound ? deadline.remaining().toNanos() : waitNanos;
+            waitingRequests.incrementAndGet();
+            try {
+                while (bytesInFlight.get() > 0 && bytesInFlight.get() + reserveBytes > budgetBytes) {
+                    if (remaining <= 0 && deadlineBound) {
+                        throw new DeadlineExceededException(request.url().toString(), deadline);
+                    }
+                    if (remaining <= 0) {
+                        rejectedRequests.incrementAndGet();
+                        LOGGER.log(Level.FINE, () -> "In-flight budget exhausted, rejecting " + request.url());
+                        throw new InFlightBudgetExceededException(request.url().toString(), budgetBytes, bytesInFlight.get());
+                    }
+                    remaining = released.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for in-flight budget: " + request.url());
+            } finally {
+                waitingRequests.decrementAndGet();
+            }
+            bytesInFlight.addAndGet(reserveBytes);
+            requestsInFlight.incrementAndGet();
+            return new Reservation(reserveBytes);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private final class Reservation {
+
+        private final AtomicLong reserved;
+
+        private Reservation(long reserved) {
+            this.reserved = new AtomicLong(reserved);
+        }
+
+        /**
+         * Raises the reservation to the given size. Never blocks, a response already admitted may overshoot the budget.
+         */
+        private void grow(long size) {
+            long current = reserved.get();
+            while (current >= 0 && size > current) {
+                if (reserved.compareAndSet(current, size)) {
+                    bytesInFlight.addAndGet(size - current);
+                    return;
+                }
+                current = reserved.get();
+            }
+        }
+
+        private void release() {
+            long bytes = reserved.getAndSet(-1);
+            if (bytes >= 0) {
+                lock.lock();
+                try {
+                    bytesInFlight.addAndGet(-bytes);
+                    requestsInFlight.decrementAndGet();
+                    released.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    private static final class BudgetedResponseBody extends ResponseBody {
+
+        private final ResponseBody delegate;
+        private final Reservation reservation;
+        private long bytesRead;
+        private BufferedSource source;
+
+        private BudgetedResponseBody(ResponseBody delegate, Reservation reservation) {
+            this.delegate = delegate;
+            this.reservation = reservation;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public BufferedSource source() {
+            if (source == null) {
+                source = Okio.buffer(new ForwardingSource(delegate.source()) {
+                    @Override
+                    public long read(Buffer sink, long byteCount) throws IOException {
+                        long read = super.read(sink, byteCount);
+                        if (read == -1) {
+                            reservation.release();
+                        } else {
+                            bytesRead += read;
+                            reservation.grow(bytesRead);
+                        }
+                        return read;
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        reservation.release();
+                        super.close();
+                    }
+                });
+            }
+            return source;
+        }
+
+        @Override
+        public void close() {
+            reservation.release();
+            delegate.close();
+        }
+    }
+}
@@ -24,11 +24,7 @@
 
 package mil.army.usace.hec.cwms.http.client;
 
-import com.auth0.jwt.JWT;
-import com.auth0.jwt.interfaces.DecodedJWT;
 import java.io.IOException;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 import mil.army.usace.hec.cwms.http.client.auth.OAuth2Token;
 import mil.army.usace.hec.cwms.http.client.auth.OAuth2TokenProvider;
 import okhttp3.Authenticator;
@@ -38,47 +34,26 @@ import okhttp3.Route;
 
 final class OAuth2TokenAuthenticator implements Authenticator {
 
-    private static final Logger LOGGER = Logger.getLogger(OAuth2TokenAuthenticator.class.getName());
     private static final String AUTHORIZATION_HEADER = "Authorization";
-    private final OAuth2TokenProvider tokenProvider;
+    private final OAuth2TokenManager tokenManager;
 
     OAuth2TokenAuthenticator(OAuth2TokenProvider tokenProvider) {
-        this.tokenProvider = tokenProvider;
+        this(new OAuth2TokenManager(tokenProvider));
+    }
+
+    OAuth2TokenAuthenticator(OAuth2TokenManager tokenManager) {
+        this.tokenManager = tokenManager;
         CwmsHttpLoggingInterceptor.getInstance().redactHeader(AUTHORIZATION_HEADER);
     }
 
     @Override
-    public synchronized Request authenticate(Route route, Response response) throws IOException {
-        OAuth2Token token = tokenProvider.getToken();
-        if (token == null) {
-            throw new IOException("Attempt to refresh token failed: No token retrieved from " + OAuth2TokenProvider.class.getName());
-        }
+    public Request authenticate(Route route, Response response) throws IOException {
         // Check if the request made was made as an authenticated request.
-        if (response.request().header(AUTHORIZATION_HEADER) == null) {
+        String rejectedAuthorization = response.request().header(AUTHORIZATION_HEADER);
+        if (rejectedAuthorization == null) {
             throw new IOException("Cannot refresh authentication token due to missing " + AUTHORIZATION_HEADER + " header");
         }
-        OAuth2Token updatedToken;
-        //check if refresh token on current token is still valid
-        String refreshToken = token.getRefreshToken();
-        DecodedJWT jwt = JWT.decode(refreshToken);
-        if (AccessTokenValidator.isTokenExpired(jwt)) {
-            //if expired we need to get a new token
-            LOGGER.log(Level.INFO, () -> "Refresh token issued by " + jwt.getIssuer() + " is expired. Re-authenticating with new token");
-            updatedToken = tokenProvider.newToken();
-            validateNewToken(updatedToken);
-        } else {
-            //if refresh token is still valid, refresh using refresh token
-            LOGGER.log(Level.FINE, "Refreshing OAuth2 Token");
-            updatedToken = tokenProvider.refreshToken();
-            if(updatedToken == null) {
-                throw new IOException("No access token present in refreshed authentication token");
-            }
-            String accessToken = updatedToken.getAccessToken();
-            if (accessToken == null || accessToken.isEmpty()) {
-                throw new IOException("No access token present in refreshed authentication token");
-            }
-            LOGGER.log(Level.FINE, "OAuth2 Token refreshed");
-        }
+        OAuth2Token updatedToken = tokenManager.renewToken(rejectedAuthorization);
         // Retry the request with the new token.
         return newRequestWithAccessTokenAsHeader(response, updatedToken);
     }
@@ -91,14 +66,4 @@ final class OAuth2TokenAuthenticator implements Authenticator {
             .build();
     }
 
-    private void validateNewToken(OAuth2Token updatedToken) throws IOException {
-        if (updatedToken == null) {
-            throw new IOException("Authentication failed: No token retrieved from " + OAuth2TokenProvider.class.getName());
-        }
-        String accessToken = updatedToken.getAccessToken();
-        if (accessToken == null || accessToken.isEmpty()) {
-            throw new IOException("Authentication failed: No access token present");
-        }
-    }
-
 }
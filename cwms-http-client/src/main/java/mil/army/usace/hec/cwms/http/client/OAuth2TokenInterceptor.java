@@ -38,23 +38,21 @@ final class OAuth2TokenInterceptor implements Interceptor {
 
     private static final Logger LOGGER = Logger.getLogger(OAuth2TokenInterceptor.class.getName());
     private static final String AUTHORIZATION_HEADER = "Authorization";
-    private final OAuth2TokenProvider tokenProvider;
+    private final OAuth2TokenManager tokenManager;
 
     OAuth2TokenInterceptor(OAuth2TokenProvider tokenProvider) {
-        this.tokenProvider = tokenProvider;
+        this(new OAuth2TokenManager(tokenProvider));
+    }
+
+    OAuth2TokenInterceptor(OAuth2TokenManager tokenManager) {
+        this.tokenManager = tokenManager;
         CwmsHttpLoggingInterceptor.getInstance().redactHeader(AUTHORIZATION_HEADER);
     }
 
     @Override
     public Response intercept(Chain chain) throws IOException {
-        OAuth2Token oauth2Token = tokenProvider.getToken();
-        if (oauth2Token == null) {
-            throw new IOException("Authentication failed: No token retrieved from " + OAuth2TokenProvider.class.getName());
-        }
-        String accessToken = oauth2Token.getAccessToken();
-        if (accessToken == null || accessToken.isEmpty()) {
-            throw new IOException("Authentication failed: No access token present");
-        }
+        //cached and validated by the token manager, only blocks when the token must be loaded or has expired
+        OAuth2Token oauth2Token = tokenManager.getToken();
         LOGGER.log(Level.FINEST, "Authenticating request with OAuth2 Token");
         //if need to support tokens as parameters, add logic checking if token provider is using header/param,
         //then call appropriate method.
@@ -0,0 +1,268 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import mil.army.usace.hec.cwms.http.client.auth.OAuth2Token;
+import mil.army.usace.hec.cwms.http.client.auth.OAuth2TokenProvider;
+
+/**
+ * Caches the current OAuth2 token for an {@link OAuth2TokenProvider} and keeps it fresh.
+ * <p>
+ * Access and refresh token expiries are decoded once when a token is loaded, see {@link DecodedOAuth2Token}. A background refresh is scheduled ahead of expiry,
+ * with jitter so that many clients do not refresh at the same instant. Reading the cached token never locks. Loads and
+ * refreshes are single-flight: concurrent callers share one in-flight future instead of each calling the provider.
+ * Connections built from the same provider share one manager, see {@link #forProvider(OAuth2TokenProvider)}.
+ * <p>
+ * Configured through system properties:
+ * cwms.http.client.token.refresh.ahead.millis - how long before expiry to refresh, default 60000, negative disables
+ * cwms.http.client.token.refresh.jitter.millis - maximum random amount refreshed earlier still, default 10000
+ */
+final class OAuth2TokenManager {
+
+    static final String REFRESH_AHEAD_PROPERTY_KEY = "cwms.http.client.token.refresh.ahead.millis";
+    static final String REFRESH_JITTER_PROPERTY_KEY = "cwms.http.client.token.refresh.jitter.millis";
+    private static final Logger LOGGER = Logger.getLogger(OAuth2TokenManager.class.getName());
+    private static final ScheduledExecutorService REFRESH_EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "cwms-http-token-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    //values are weak as each manager strongly references its provider key
+    private static final Map<OAuth2TokenProvider, WeakReference<OAuth2TokenManager>> MANAGERS = new WeakHashMap<>();
+    private final OAuth2TokenProvider tokenProvider;
+    private final long refreshAheadMillis;
+    private final long refreshJitterMillis;
+    private final AtomicReference<CompletableFuture<DecodedOAuth2Token>> inFlight = new AtomicReference<>();
+    private volatile DecodedOAuth2Token current;
+
+    OAuth2TokenManager(OAuth2TokenProvider tokenProvider) {
+        this(tokenProvider, Long.getLong(REFRESH_AHEAD_PROPERTY_KEY, 60_000L), Long.getLong(REFRESH_JITTER_PROPERTY_KEY, 10_000L));
+    }
+
+    OAuth2TokenManager(OAuth2TokenProvider tokenProvider, long refreshAheadMillis, long refreshJitterMillis) {
+        this.tokenProvider = tokenProvider;
+        this.refreshAheadMillis = refreshAheadMillis;
+        this.refreshJitterMillis = refreshJitterMillis;
+    }
+
+    /**
+     * @param tokenProvider provider of the tokens to manage
+     * @return the manager already in use for the provider, or a new one if there is none
+     */
+    static OAuth2TokenManager forProvider(OAuth2TokenProvider tokenProvider) {
+        synchronized (MANAGERS) {
+            WeakReference<OAuth2TokenManager> reference = MANAGERS.get(tokenProvider);
+            OAuth2TokenManager manager = reference == null ? null : reference.get();
+            if (manager == null) {
+                manager = new OAuth2TokenManager(tokenProvider);
+                MANAGERS.put(tokenProvider, new WeakReference<>(manager));
+            }
+            return manager;
+        }
+    }
+
+    /**
+     * @return the cached token while it is unexpired, otherwise a freshly loaded one
+     * @throws IOException if no valid token could be retrieved
+     */
+    OAuth2Token getToken() throws IOException {
+        DecodedOAuth2Token cached = current;
+        if (cached == null) {
+            return load(this::fetchToken, null).getToken();
+        }
+        if (cached.isAccessTokenExpired()) {
+            return load(this::renewToken, cached).getToken();
+        }
+        return cached.getToken();
+    }
+
+    /**
+     * Renews the token after the server rejected it. If another thread already replaced the rejected token, the
+     * replacement is returned without calling the provider again.
+     *
+     * @param rejectedAuthorization Authorization header value the server rejected
+     * @return renewed token
+     * @throws IOException if the token could not be renewed
+     */
+    OAuth2Token renewToken(String rejectedAuthorization) throws IOException {
+        DecodedOAuth2Token cached = current;
+        if (cached != null && !cached.isAccessTokenExpired() && !cached.getAuthorization().equals(rejectedAuthorization)) {
+            return cached.getToken();
+        }
+        return load(this::renewToken, cached).getToken();
+    }
+
+    /**
+     * @param stale token the caller found unusable, null if there was none
+     * @return token loaded through the loader, or the replacement for the stale token if another thread loaded one first
+     */
+    private DecodedOAuth2Token load(TokenLoader loader, DecodedOAuth2Token stale) throws IOException {
+        while (true) {
+            CompletableFuture<DecodedOAuth2Token> existing = inFlight.get();
+            if (existing != null) {
+                return await(existing);
+            }
+            CompletableFuture<DecodedOAuth2Token> future = new CompletableFuture<>();
+            if (inFlight.compareAndSet(null, future)) {
+                try {
+                    DecodedOAuth2Token latest = current;
+                    if (latest != null && latest != stale && !latest.isAccessTokenExpired()) {
+                        //replaced between the caller's check and claiming the refresh
+                        future.complete(latest);
+                        return latest;
+                    }
+                    DecodedOAuth2Token loaded = DecodedOAuth2Token.decode(loader.load());
+                    current = loaded;
+                    scheduleRefresh(loaded);
+                    future.complete(loaded);
+                    return loaded;
+                } catch (IOException | RuntimeException e) {
+                    future.completeExceptionally(e);
+                    throw e;
+                } finally {
+                    inFlight.set(null);
+                }
+            }
+        }
+    }
+
+    private static DecodedOAuth2Token await(CompletableFuture<DecodedOAuth2Token> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for OAuth2 token refresh");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        }
+    }
+
+    private void scheduleRefresh(DecodedOAuth2Token loaded) {
+        if (refreshAheadMillis < 0 || loaded.getAccessExpiresAtMillis() == Long.MAX_VALUE) {
+            return;
+        }
+        long jitter = refreshJitterMillis > 0 ? ThreadLocalRandom.current().nextLong(refreshJitterMillis) : 0;
+        long delay = loaded.getAccessExpiresAtMillis() - System.currentTimeMillis() - refreshAheadMillis - jitter;
+        if (delay <= 0) {
+            //expires too soon to refresh ahead of time, the next request will renew it
+            return;
+        }
+        WeakReference<OAuth2TokenManager> reference = new WeakReference<>(this);
+        REFRESH_EXECUTOR.schedule(() -> {
+            OAuth2TokenManager manager = reference.get();
+            if (manager != null) {
+                manager.backgroundRefresh(loaded);
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void backgroundRefresh(DecodedOAuth2Token scheduledFor) {
+        if (current != scheduledFor) {
+            //already replaced by an on-demand refresh, which scheduled its own
+            return;
+        }
+        try {
+            LOGGER.log(Level.FINE, "Refreshing OAuth2 Token ahead of expiry");
+            load(this::renewToken, scheduledFor);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, e, () -> "Background OAuth2 token refresh failed, token will be renewed on next request");
+        }
+    }
+
+    private OAuth2Token fetchToken() throws IOException {
+        OAuth2Token token = tokenProvider.getToken();
+        if (token == null) {
+            throw new IOException("Authentication failed: No token retrieved from " + OAuth2TokenProvider.class.getName());
+        }
+        validateAccessToken(token, "Authentication failed: No access token present");
+        return token;
+    }
+
+    private OAuth2Token renewToken() throws IOException {
+        DecodedOAuth2Token token = current;
+        if (token == null) {
+            OAuth2Token providedToken = tokenProvider.getToken();
+            if (providedToken == null) {
+                throw new IOException("Attempt to refresh token failed: No token retrieved from " + OAuth2TokenProvider.class.getName());
+            }
+            token = DecodedOAuth2Token.decode(providedToken);
+        }
+        OAuth2Token updatedToken;
+        try (FlightRecording recording = CwmsHttpFlightRecorder.beginAuthRefresh(OAuth2TokenManager.class.getSimpleName())) {
+            //check if refresh token on current token is still valid
+            if (token.isRefreshTokenExpired()) {
+                //if expired we need to get a new token
+                LOGGER.log(Level.INFO, "Refresh token is expired. Re-authenticating with new token");
+                recording.detail("new token");
+                updatedToken = tokenProvider.newToken();
+                if (updatedToken == null) {
+                    throw new IOException("Authentication failed: No token retrieved from " + OAuth2TokenProvider.class.getName());
+                }
+                validateAccessToken(updatedToken, "Authentication failed: No access token present");
+            } else {
+                //if refresh token is still valid, refresh using refresh token
+                LOGGER.log(Level.FINE, "Refreshing OAuth2 Token");
+                recording.detail("refresh token");
+                updatedToken = tokenProvider.refreshToken();
+                if (updatedToken == null) {
+                    throw new IOException("No access token present in refreshed authentication token");
+                }
+                validateAccessToken(updatedToken, "No access token present in refreshed authentication token");
+                LOGGER.log(Level.FINE, "OAuth2 Token refreshed");
+            }
+        }
+        return updatedToken;
+    }
+
+    private static void validateAccessToken(OAuth2Token token, String message) throws IOException {
+        String accessToken = token.getAccessToken();
+        if (accessToken == null || accessToken.isEmpty()) {
+            throw new IOException(message);
+        }
+    }
+
+    @FunctionalInterface
+    private interface TokenLoader {
+        OAuth2Token load() throws IOException;
+    }
+}
@@ -41,7 +41,7 @@ final class OkHttpClientFactory {
         Optional<SslSocketData> optionalSslSocketData = apiConnectionInfo.sslSocketData();
         if (optionalSslSocketData.isPresent()) {
             SslSocketData sslSocketData = optionalSslSocketData.get();
-            builder = builder.sslSocketFactory(sslSocketData.getSslSocketFactory(), sslSocketData.getX509TrustManager());
+            builder = builder.sslSocketFactory(sslSocketData.getSharedSslSocketFactory(), sslSocketData.getX509TrustManager());
         }
         List<Interceptor> interceptors = apiConnectionInfo.interceptors();
         for (Interceptor interceptor : interceptors) {
@@ -25,8 +25,11 @@
 package mil.army.usace.hec.cwms.http.client;
 
 import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
 
 final class OkHttpClientInstance {
@@ -40,7 +43,18 @@ final class OkHttpClientInstance {
     static final Duration READ_TIMEOUT_PROPERTY_DEFAULT = Duration.ofMinutes(5);
     static final String WRITE_TIMEOUT_PROPERTY_KEY = "cwms.http.client.writetimeout.seconds";
     static final Duration WRITE_TIMEOUT_PROPERTY_DEFAULT = Duration.ofMinutes(1);
+    static final String POOL_MAX_IDLE_CONNECTIONS_PROPERTY_KEY = "cwms.http.client.pool.max.idle.connections";
+    static final int POOL_MAX_IDLE_CONNECTIONS_PROPERTY_DEFAULT = 5;
+    static final String POOL_KEEP_ALIVE_PROPERTY_KEY = "cwms.http.client.pool.keepalive.seconds";
+    static final Duration POOL_KEEP_ALIVE_PROPERTY_DEFAULT = Duration.ofMinutes(5);
+    static final String DISPATCHER_MAX_REQUESTS_PROPERTY_KEY = "cwms.http.client.dispatcher.max.requests";
+    static final int DISPATCHER_MAX_REQUESTS_PROPERTY_DEFAULT = 64;
+    static final String DISPATCHER_MAX_REQUESTS_PER_HOST_PROPERTY_KEY = "cwms.http.client.dispatcher.max.requests.per.host";
+    static final int DISPATCHER_MAX_REQUESTS_PER_HOST_PROPERTY_DEFAULT = 16;
     private static final CwmsHttpLoggingInterceptor LOGGING_INTERCEPTOR = CwmsHttpLoggingInterceptor.getInstance();
+    private static final PriorityLaneInterceptor PRIORITY_LANE_INTERCEPTOR = PriorityLaneInterceptor.getInstance();
+    private static final InFlightByteBudgetInterceptor BUDGET_INTERCEPTOR = InFlightByteBudgetInterceptor.getInstance();
+    private static final CwmsHttpDiagnosticInterceptor DIAGNOSTIC_INTERCEPTOR = CwmsHttpDiagnosticInterceptor.getInstance();
 
     private static final OkHttpClient INSTANCE = createClient();
 
@@ -52,14 +66,40 @@ final class OkHttpClientInstance {
     // package scoped for testing only
     static OkHttpClient createClient() {
         return new OkHttpClient.Builder()
+            .dispatcher(createDispatcher())
             .callTimeout(getCallTimeout())
             .connectTimeout(getConnectTimeout())
             .readTimeout(getReadTimeout())
             .writeTimeout(getWriteTimeout())
+            .connectionPool(createConnectionPool())
+            .eventListenerFactory(CallTimingsEventListener.FACTORY)
+            .addInterceptor(PRIORITY_LANE_INTERCEPTOR)
+            .addInterceptor(BUDGET_INTERCEPTOR)
+            .addInterceptor(DIAGNOSTIC_INTERCEPTOR)
             .addInterceptor(LOGGING_INTERCEPTOR)
             .build();
     }
 
+    private static Dispatcher createDispatcher() {
+        Dispatcher dispatcher = CwmsHttpExecutors.isVirtualThreadsEnabled()
+            ? new Dispatcher(CwmsHttpExecutors.newTaskExecutor("cwms-http-dispatcher"))
+            : new Dispatcher();
+        //limits only apply to asynchronous calls
+        dispatcher.setMaxRequests(Integer.getInteger(DISPATCHER_MAX_REQUESTS_PROPERTY_KEY, DISPATCHER_MAX_REQUESTS_PROPERTY_DEFAULT));
+        dispatcher.setMaxRequestsPerHost(
+            Integer.getInteger(DISPATCHER_MAX_REQUESTS_PER_HOST_PROPERTY_KEY, DISPATCHER_MAX_REQUESTS_PER_HOST_PROPERTY_DEFAULT));
+        return dispatcher;
+    }
+
+    private static ConnectionPool createConnectionPool() {
+        Duration keepAlive = getDurationProperty(POOL_KEEP_ALIVE_PROPERTY_KEY, POOL_KEEP_ALIVE_PROPERTY_DEFAULT);
+        return new ConnectionPool(getMaxIdleConnections(), keepAlive.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    static int getMaxIdleConnections() {
+        return Integer.getInteger(POOL_MAX_IDLE_CONNECTIONS_PROPERTY_KEY, POOL_MAX_IDLE_CONNECTIONS_PROPERTY_DEFAULT);
+    }
+
     private static Duration getReadTimeout() {
         return getDurationProperty(READ_TIMEOUT_PROPERTY_KEY, READ_TIMEOUT_PROPERTY_DEFAULT);
     }
@@ -21,143 +21,435 @@
  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
  * SOFTWARE.
  */
-
 package mil.army.usace.hec.cwms.http.client;
 
-import java.io.IOException;
-import java.net.CookieManager;
+import java.lang.ref.WeakReference;
 import java.net.CookieStore;
 import java.net.HttpCookie;
 import java.net.URI;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.prefs.BackingStoreException;
 import java.util.prefs.Preferences;
-import okhttp3.Cookie;
-import okhttp3.HttpUrl;
 
 /**
- * Follows example from <a href="https://docs.oracle.com/javase/tutorial/networking/cookies/custom.html">Custom CookieManager</a>
- * for persisting cookies in Java. Delegate to default java.net.InMemoryCookieStore and add hooks for storing to preferences.
+ * Cookie store persisted to {@link Preferences}, so a session survives restarts without a new login.
+ * <p>
+ * Cookies are indexed by domain in concurrent maps. Lookups walk the request host and its parent domains, so reads
+ * never lock. Every change marks the store dirty and schedules a debounced flush to preferences on a background
+ * thread. Changes are therefore persisted shortly after they happen rather than only at JVM shutdown. Expired cookies
+ * are swept in the background and skipped on lookup.
+ * <p>
+ * Several stores may share one preferences node. A flush only overwrites this store's cookies and deletes the entries
+ * of cookies this store removed, so the sessions persisted by other stores are kept.
+ * <p>
+ * Configured through system properties:
+ * cwms.http.client.cookie.flush.delay.millis - debounce before writing changes, default 1000
+ * cwms.http.client.cookie.sweep.interval.millis - expired cookie sweep interval, default 60000
  */
 public final class PreferencesBackedCookieStore implements CookieStore {
+    static final String FLUSH_DELAY_PROPERTY_KEY = "cwms.http.client.cookie.flush.delay.millis";
+    static final String SWEEP_INTERVAL_PROPERTY_KEY = "cwms.http.client.cookie.sweep.interval.millis";
     private static final Logger LOGGER = Logger.getLogger(PreferencesBackedCookieStore.class.getName());
+    private static final ScheduledExecutorService PERSISTENCE_EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "cwms-http-cookie-store");
+        thread.setDaemon(true);
+        return thread;
+    });
     //Used for preference readability only. Since the keys aren't read on restore this can be changed to anything
     private static final String DOMAIN_COOKIE_DELIMITER = " | ";
     private static final String URI_KEY = "URI";
+    private static final String LOCAL_DOMAIN = ".local";
+    //stores may share a preferences node, serialize writes across all of them
+    private static final ReentrantLock WRITE_LOCK = new ReentrantLock();
+    //weakly held so unused stores can be collected, one shutdown hook writes whatever is still pending
+    private static final Set<PreferencesBackedCookieStore> OPEN_STORES = Collections.synchronizedSet(
+        Collections.newSetFromMap(new WeakHashMap<>()));
     private final Preferences preferences;
-    private final CookieManager cookieManager;
+    private final Map<String, Map<String, StoredCookie>> cookiesByDomain = new ConcurrentHashMap<>();
+    //entries this store removed from its cookies that are still to be deleted from preferences
+    private final Set<PersistedEntry> pendingRemovals = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final long flushDelayMillis;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(PreferencesBackedCookieStore::flushOpenStores, "cwms-http-cookie-store-shutdown"));
+    }
 
     public PreferencesBackedCookieStore(Preferences preferences) {
         this.preferences = preferences.node("cwms_http_client_cookies");
-        this.cookieManager = new CookieManager();
+        this.flushDelayMillis = Long.getLong(FLUSH_DELAY_PROPERTY_KEY, 1_000L);
         restoreCookiesFromPreferences();
-        Runtime.getRuntime().addShutdownHook(new Thread(this::writeCookiesToPreferences));
+        scheduleSweep(this, Long.getLong(SWEEP_INTERVAL_PROPERTY_KEY, 60_000L));
+        OPEN_STORES.add(this);
+    }
+
+    /**
+     * The sweep only holds the store weakly and cancels itself once the store has been collected.
+     */
+    private static void scheduleSweep(PreferencesBackedCookieStore store, long sweepInterval) {
+        WeakReference<PreferencesBackedCookieStore> reference = new WeakReference<>(store);
+        AtomicReference<ScheduledFuture<?>> self = new AtomicReference<>();
+        self.set(PERSISTENCE_EXECUTOR.scheduleWithFixedDelay(() -> {
+            PreferencesBackedCookieStore referent = reference.get();
+            if (referent != null) {
+                referent.removeExpiredCookies();
+            } else if (self.get() != null) {
+                self.get().cancel(false);
+            }
+        }, sweepInterval, sweepInterval, TimeUnit.MILLISECONDS));
+    }
+
+    private static void flushOpenStores() {
+        List<PreferencesBackedCookieStore> stores;
+        synchronized (OPEN_STORES) {
+            stores = new ArrayList<>(OPEN_STORES);
+        }
+        for (PreferencesBackedCookieStore store : stores) {
+            store.flushIfDirty();
+        }
     }
 
     @Override
     public void add(URI uri, HttpCookie cookie) {
-        cookieManager.getCookieStore().add(uri, cookie);
+        String domain = domainKey(uri, cookie);
+        String key = cookieKey(cookie);
+        if (cookie.hasExpired()) {
+            Map<String, StoredCookie> cookies = cookiesByDomain.get(domain);
+            StoredCookie removed = cookies == null ? null : cookies.remove(key);
+            if (removed != null) {
+                removed(removed);
+            }
+            return;
+        }
+        StoredCookie storedCookie = new StoredCookie(uri, cookie);
+        StoredCookie replaced = cookiesByDomain.computeIfAbsent(domain, d -> new ConcurrentHashMap<>())
+            .put(key, storedCookie);
+        if (replaced != null && !replaced.persistedEntry().equals(storedCookie.persistedEntry())) {
+            pendingRemovals.add(replaced.persistedEntry());
+        }
+        markDirty();
     }
 
     @Override
     public List<HttpCookie> get(URI uri) {
-        return cookieManager.getCookieStore().get(uri);
+        String host = uri.getHost();
+        if (host == null) {
+            return Collections.emptyList();
+        }
+        List<HttpCookie> retval = new ArrayList<>();
+        for (String domain : candidateDomains(host.toLowerCase(Locale.ROOT))) {
+            Map<String, StoredCookie> cookies = cookiesByDomain.get(domain);
+            if (cookies != null) {
+                addUnexpired(cookies, retval);
+            }
+        }
+        return retval;
     }
 
     @Override
     public List<HttpCookie> getCookies() {
-        return cookieManager.getCookieStore().getCookies();
+        List<HttpCookie> retval = new ArrayList<>();
+        for (Map<String, StoredCookie> cookies : cookiesByDomain.values()) {
+            addUnexpired(cookies, retval);
+        }
+        return retval;
     }
 
     @Override
     public List<URI> getURIs() {
-        return cookieManager.getCookieStore().getURIs();
+        Set<URI> retval = new LinkedHashSet<>();
+        for (Map<String, StoredCookie> cookies : cookiesByDomain.values()) {
+            for (StoredCookie storedCookie : cookies.values()) {
+                retval.add(storedCookie.uri);
+            }
+        }
+        return new ArrayList<>(retval);
     }
 
     @Override
     public boolean remove(URI uri, HttpCookie cookie) {
-        return cookieManager.getCookieStore().remove(uri, cookie);
+        Map<String, StoredCookie> cookies = cookiesByDomain.get(domainKey(uri, cookie));
+        StoredCookie removed = cookies == null ? null : cookies.remove(cookieKey(cookie));
+        if (removed != null) {
+            removed(removed);
+        }
+        return removed != null;
     }
 
     @Override
     public boolean removeAll() {
-        return cookieManager.getCookieStore().removeAll();
+        boolean removed = !getCookies().isEmpty();
+        for (Map<String, StoredCookie> cookies : cookiesByDomain.values()) {
+            for (Iterator<StoredCookie> iterator = cookies.values().iterator(); iterator.hasNext(); ) {
+                pendingRemovals.add(iterator.next().persistedEntry());
+                iterator.remove();
+            }
+        }
+        markDirty();
+        return removed;
     }
 
-    private void restoreCookiesFromPreferences() {
+    /**
+     * Writes the current cookies to preferences immediately rather than waiting for the scheduled flush.
+     */
+    public void writeCookiesToPreferences() {
+        WRITE_LOCK.lock();
         try {
-            Map<URI, List<String>> uriToCookie = extractCookiesFromPreferences();
-            for (Map.Entry<URI, List<String>> entry : uriToCookie.entrySet()) {
-                try {
-                    Map<String, List<String>> storingCookies = new HashMap<>();
-                    storingCookies.put("Set-Cookie", entry.getValue());
-                    cookieManager.put(entry.getKey(), storingCookies);
-                } catch (IOException e) {
-                    LOGGER.log(Level.WARNING, e, () -> "Unable to store preference cookies to cookie manager for URL: " + entry.getKey());
+            dirty.set(false);
+            Set<PersistedEntry> written = new HashSet<>();
+            for (Map<String, StoredCookie> cookies : cookiesByDomain.values()) {
+                for (StoredCookie storedCookie : cookies.values()) {
+                    if (!storedCookie.cookie.hasExpired()) {
+                        storeCookieForUrl(storedCookie);
+                        written.add(storedCookie.persistedEntry());
+                    }
                 }
             }
-        } catch (BackingStoreException e) {
-            LOGGER.log(Level.CONFIG, e, () -> "Unable to obtain cookies stored in preferences at node: " + preferences.absolutePath());
+            for (PersistedEntry removal : pendingRemovals) {
+                pendingRemovals.remove(removal);
+                if (!written.contains(removal)) {
+                    deletePersistedEntry(removal);
+                }
+            }
+            preferences.flush();
+        } catch (BackingStoreException | IllegalStateException e) {
+            LOGGER.log(Level.WARNING, e, () -> "Unable to write cookies to preferences node: " + preferences.absolutePath());
+        } finally {
+            WRITE_LOCK.unlock();
+        }
+    }
+
+    private void markDirty() {
+        if (dirty.compareAndSet(false, true)) {
+            PERSISTENCE_EXECUTOR.schedule(this::flushIfDirty, flushDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flushIfDirty() {
+        if (dirty.get()) {
+            writeCookiesToPreferences();
         }
     }
 
-    private Map<URI, List<String>> extractCookiesFromPreferences() throws BackingStoreException {
-        Map<URI, List<String>> uriToCookie = new HashMap<>();
-        for (String child : preferences.childrenNames()) {
-            Preferences node = preferences.node(child);
-            String uriAddress = node.get(URI_KEY, "");
-            URI uri = URI.create(uriAddress);
-            List<String> cookies = uriToCookie.computeIfAbsent(uri, u -> new ArrayList<>());
-            for (String cookieName : node.keys()) {
-                if (!URI_KEY.equals(cookieName)) {
-                    cookies.add(node.get(cookieName, ""));
+    private void removed(StoredCookie storedCookie) {
+        pendingRemovals.add(storedCookie.persistedEntry());
+        markDirty();
+    }
+
+    private void removeExpiredCookies() {
+        boolean removed = false;
+        for (Map<String, StoredCookie> cookies : cookiesByDomain.values()) {
+            for (Iterator<StoredCookie> iterator = cookies.values().iterator(); iterator.hasNext(); ) {
+                StoredCookie storedCookie = iterator.next();
+                if (storedCookie.cookie.hasExpired()) {
+                    pendingRemovals.add(storedCookie.persistedEntry());
+                    iterator.remove();
+                    removed = true;
                 }
             }
         }
-        return uriToCookie;
+        if (removed) {
+            markDirty();
+        }
     }
 
-    public void writeCookiesToPreferences() {
+    private void deletePersistedEntry(PersistedEntry entry) throws BackingStoreException {
+        if (!preferences.nodeExists(entry.nodeName)) {
+            return;
+        }
+        Preferences node = preferences.node(entry.nodeName);
+        node.remove(entry.key);
+        String[] keys = node.keys();
+        if (keys.length == 0 || (keys.length == 1 && URI_KEY.equals(keys[0]))) {
+            node.removeNode();
+        }
+    }
+
+    private void restoreCookiesFromPreferences() {
         try {
-            List<URI> urIs = cookieManager.getCookieStore().getURIs();
-            for (URI key : urIs) {
-                try {
-                    for (List<String> value : cookieManager.get(key, new HashMap<>()).values()) {
-                        storeCookiesForUrl(key, value);
-                    }
-                    //The InMemoryCookieStore strips out the 's' in "https" on storage. Need to check cookies for both URI's
-                    if (key.toString().contains("http:")) {
-                        URI https = URI.create(key.toString().replace("http:", "https:"));
-                        for (List<String> value : cookieManager.get(https, new HashMap<>()).values()) {
-                            storeCookiesForUrl(https, value);
-                        }
+            for (String child : preferences.childrenNames()) {
+                Preferences node = preferences.node(child);
+                URI uri = URI.create(node.get(URI_KEY, ""));
+                for (String cookieName : node.keys()) {
+                    if (!URI_KEY.equals(cookieName) && !restoreCookie(uri, node.get(cookieName, ""))) {
+                        pendingRemovals.add(new PersistedEntry(child, cookieName));
                     }
-                } catch (IOException e) {
-                    LOGGER.log(Level.WARNING, e, () -> "Unable to obtain cookies for url: " + key);
                 }
             }
-            preferences.flush();
         } catch (BackingStoreException e) {
-            LOGGER.log(Level.WARNING, e, () -> "Unable to write cookies to preferences node: " + preferences.absolutePath());
+            LOGGER.log(Level.CONFIG, e, () -> "Unable to obtain cookies stored in preferences at node: " + preferences.absolutePath());
+        }
+        dirty.set(false);
+        if (!pendingRemovals.isEmpty()) {
+            //delete the entries that expired while persisted
+            markDirty();
         }
     }
 
-    private void storeCookiesForUrl(URI key, List<String> value) {
-        Preferences node = preferences.node(key.getHost());
-        node.put(URI_KEY, key.toString());
-        for (String cookie : value) {
-            HttpUrl httpUrl = HttpUrl.get(key);
-            if (httpUrl != null) {
-                Cookie parse = Cookie.parse(httpUrl, cookie);
-                if (parse != null) {
-                    node.put((parse.domain() + DOMAIN_COOKIE_DELIMITER + parse.name()).toLowerCase(), cookie);
+    /**
+     * @return false if the persisted cookie has expired
+     */
+    private boolean restoreCookie(URI uri, String header) {
+        boolean restored = false;
+        try {
+            for (HttpCookie cookie : HttpCookie.parse(header)) {
+                //Max-Age makes HttpCookie guess RFC 2965, keep the Netscape format the cookies were received in
+                cookie.setVersion(0);
+                //defaults applied by java.net.CookieManager when a cookie is received
+                if (cookie.getPath() == null) {
+                    cookie.setPath("/");
+                }
+                if (cookie.getDomain() == null && uri.getHost() != null) {
+                    String host = uri.getHost();
+                    cookie.setDomain(host.contains(".") ? host : host + LOCAL_DOMAIN);
                 }
+                restored |= !cookie.hasExpired();
+                add(uri, cookie);
+            }
+        } catch (IllegalArgumentException e) {
+            LOGGER.log(Level.WARNING, e, () -> "Unable to restore preference cookie for URL: " + uri);
+            return true;
+        }
+        return restored;
+    }
+
+    private void storeCookieForUrl(StoredCookie storedCookie) {
+        PersistedEntry entry = storedCookie.persistedEntry();
+        Preferences node = preferences.node(entry.nodeName);
+        node.put(URI_KEY, storedCookie.uri.toString());
+        node.put(entry.key, storedCookie.toSetCookieHeader());
+    }
+
+    private static void addUnexpired(Map<String, StoredCookie> cookies, List<HttpCookie> retval) {
+        for (StoredCookie storedCookie : cookies.values()) {
+            if (!storedCookie.cookie.hasExpired()) {
+                retval.add(storedCookie.cookie);
+            }
+        }
+    }
+
+    /**
+     * The request host and each of its parent domains, plus the ".local" domain java.net.CookieManager assigns to
+     * cookies from dotless hosts.
+     */
+    private static List<String> candidateDomains(String host) {
+        List<String> retval = new ArrayList<>();
+        if (!host.contains(".")) {
+            retval.add(host + LOCAL_DOMAIN);
+        }
+        String domain = host;
+        while (true) {
+            retval.add(domain);
+            int dot = domain.indexOf('.');
+            if (dot < 0) {
+                return retval;
             }
+            domain = domain.substring(dot + 1);
+        }
+    }
+
+    private static String domainKey(URI uri, HttpCookie cookie) {
+        String domain = cookie.getDomain();
+        if (domain == null) {
+            domain = uri.getHost() == null ? "" : uri.getHost();
+        }
+        if (domain.startsWith(".")) {
+            domain = domain.substring(1);
+        }
+        return domain.toLowerCase(Locale.ROOT);
+    }
+
+    private static String cookieKey(HttpCookie cookie) {
+        //same identity as HttpCookie.equals
+        return cookie.getName().toLowerCase(Locale.ROOT) + ";" + cookie.getPath();
+    }
+
+    private static final class StoredCookie {
+
+        private final URI uri;
+        private final HttpCookie cookie;
+        private final long addedAtMillis = System.currentTimeMillis();
+
+        private StoredCookie(URI uri, HttpCookie cookie) {
+            this.uri = uri;
+            this.cookie = cookie;
+        }
+
+        private PersistedEntry persistedEntry() {
+            return new PersistedEntry(uri.getHost(),
+                (cookie.getDomain() + DOMAIN_COOKIE_DELIMITER + cookie.getName()).toLowerCase(Locale.ROOT));
+        }
+
+        private String toSetCookieHeader() {
+            StringBuilder header = new StringBuilder(cookie.getName()).append('=').append(cookie.getValue());
+            if (cookie.getDomain() != null) {
+                header.append("; Domain=").append(cookie.getDomain());
+            }
+            if (cookie.getPath() != null) {
+                header.append("; Path=").append(cookie.getPath());
+            }
+            if (cookie.getMaxAge() >= 0) {
+                long remaining = cookie.getMaxAge() - TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - addedAtMillis);
+                header.append("; Max-Age=").append(Math.max(0, remaining));
+            }
+            if (cookie.getSecure()) {
+                header.append("; Secure");
+            }
+            if (cookie.isHttpOnly()) {
+                header.append("; HttpOnly");
+            }
+            return header.toString();
+        }
+    }
+
+    /**
+     * Location of a cookie in preferences, the child node named for the request host and the key within it.
+     */
+    private static final class PersistedEntry {
+
+        private final String nodeName;
+        private final String key;
+
+        private PersistedEntry(String nodeName, String key) {
+            this.nodeName = nodeName;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PersistedEntry)) {
+                return false;
+            }
+            PersistedEntry that = (PersistedEntry) o;
+            return Objects.equals(nodeName, that.nodeName) && key.equals(that.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(nodeName, key);
         }
     }
 }
@@ -0,0 +1,336 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import usace.metrics.services.Timer;
+
+/**
+ * Limits the requests in progress through the shared client and admits waiting requests by {@link RequestPriority}.
+ * <p>
+ * Synchronous requests wait for their slot on the caller's thread. Asynchronous requests reserve their slot through
+ * {@link #reserve(Request)} before they are enqueued with OkHttp's dispatcher, so they wait in their lane without
+ * holding a dispatcher thread and cannot get ahead of higher priority requests in the dispatcher's queue. Keep the
+ * dispatcher limits at or above the lane limit so admitted requests start right away. A request holds its slot until
+ * response headers arrive. Bandwidth spent reading bodies is governed by the in-flight byte budget.
+ * <p>
+ * When a slot frees, interactive requests are admitted first, then normal, then bulk. While bulk requests are waiting
+ * they accumulate credit on every admission of another class, and are admitted whenever that credit reaches a full
+ * admission. This guarantees them the configured share of admissions. A request waits at most until its
+ * {@link Deadline}.
+ * <p>
+ * Configured through system properties:
+ * cwms.http.client.lanes.max.requests - concurrent requests, default 0 which disables the limit
+ * cwms.http.client.lanes.bulk.share.percent - share of admissions reserved for waiting bulk requests, default 20
+ */
+final class PriorityLaneInterceptor implements Interceptor {
+
+    static final String MAX_REQUESTS_PROPERTY_KEY = "cwms.http.client.lanes.max.requests";
+    static final String BULK_SHARE_PROPERTY_KEY = "cwms.http.client.lanes.bulk.share.percent";
+    static final String QUEUE_WAIT_METRIC = "queue-wait";
+    private static final Logger LOGGER = Logger.getLogger(PriorityLaneInterceptor.class.getName());
+    private static final int FULL_CREDIT = 100;
+    private static final ScheduledExecutorService DEADLINE_EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "cwms-http-lane-deadline");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static PriorityLaneInterceptor instance;
+    private final int maxRequests;
+    private final int bulkSharePercent;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<RequestPriority, Queue<Waiter>> lanes = new EnumMap<>(RequestPriority.class);
+    private final Map<RequestPriority, AtomicLong> admitted = new EnumMap<>(RequestPriority.class);
+    private int requestsInFlight;
+    private int bulkCredit;
+
+    PriorityLaneInterceptor(int maxRequests, int bulkSharePercent) {
+        this.maxRequests = maxRequests;
+        this.bulkSharePercent = Math.max(0, Math.min(FULL_CREDIT, bulkSharePercent));
+        for (RequestPriority priority : RequestPriority.values()) {
+            lanes.put(priority, new ArrayDeque<>());
+            admitted.put(priority, new AtomicLong());
+        }
+    }
+
+    static synchronized PriorityLaneInterceptor getInstance() {
+        if (instance == null) {
+            instance = new PriorityLaneInterceptor(Integer.getInteger(MAX_REQUESTS_PROPERTY_KEY, 0),
+                Integer.getInteger(BULK_SHARE_PROPERTY_KEY, 20));
+        }
+        return instance;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        if (maxRequests <= 0) {
+            return chain.proceed(chain.request());
+        }
+        Request request = chain.request();
+        if (request.tag(Slot.class) != null) {
+            //reserved before the call was enqueued, the caller releases it
+            return chain.proceed(request);
+        }
+        RequestPriority priority = priorityOf(request);
+        try (Timer.Context timer = CwmsHttpClientMetrics.startTimer(QUEUE_WAIT_METRIC, priority.name().toLowerCase(Locale.ROOT))) {
+            acquire(request, priority);
+        }
+        try {
+            return chain.proceed(request);
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Reserves a slot for an asynchronous call before it is enqueued with OkHttp's dispatcher. Tag the request with the
+     * reserved slot so it is not admitted again, and release the slot once response headers arrive or the call fails.
+     * The reservation fails with a {@link DeadlineExceededException} when the request's deadline passes first.
+     *
+     * @param request request about to be enqueued
+     * @return reserved slot, null when requests are not limited. Cancelling the future gives up the reservation.
+     */
+    CompletableFuture<Slot> reserve(Request request) {
+        if (maxRequests <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        RequestPriority priority = priorityOf(request);
+        Timer.Context timer = CwmsHttpClientMetrics.startTimer(QUEUE_WAIT_METRIC, priority.name().toLowerCase(Locale.ROOT));
+        Waiter waiter = new Waiter(null, new CompletableFuture<>());
+        lock.lock();
+        try {
+            if (requestsInFlight < maxRequests && isIdle()) {
+                admit(priority);
+                timer.close();
+                return CompletableFuture.completedFuture(new Slot());
+            }
+            lanes.get(priority).add(waiter);
+        } finally {
+            lock.unlock();
+        }
+        CompletableFuture<Slot> reservation = waiter.reservation;
+        Deadline deadline = request.tag(Deadline.class);
+        ScheduledFuture<?> expiry = deadline == null ? null : DEADLINE_EXECUTOR.schedule(
+            () -> reservation.completeExceptionally(new DeadlineExceededException(request.url().toString(), deadline)),
+            deadline.remaining().toNanos(), TimeUnit.NANOSECONDS);
+        reservation.whenComplete((slot, error) -> {
+            timer.close();
+            if (expiry != null) {
+                expiry.cancel(false);
+            }
+            if (error != null) {
+                withdraw(waiter, priority);
+            }
+        });
+        return reservation;
+    }
+
+    private static RequestPriority priorityOf(Request request) {
+        RequestPriority priority = request.tag(RequestPriority.class);
+        return priority == null ? RequestPriority.NORMAL : priority;
+    }
+
+    private void withdraw(Waiter waiter, RequestPriority priority) {
+        lock.lock();
+        try {
+            if (!waiter.admitted) {
+                lanes.get(priority).remove(waiter);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getMaxRequests() {
+        return maxRequests;
+    }
+
+    int getRequestsInFlight() {
+        lock.lock();
+        try {
+            return requestsInFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getQueuedRequests(RequestPriority priority) {
+        lock.lock();
+        try {
+            return lanes.get(priority).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long getAdmittedRequests(RequestPriority priority) {
+        return admitted.get(priority).get();
+    }
+
+    private void acquire(Request request, RequestPriority priority) throws IOException {
+        Deadline deadline = request.tag(Deadline.class);
+        lock.lock();
+        try {
+            if (requestsInFlight < maxRequests && isIdle()) {
+                admit(priority);
+                return;
+            }
+            Waiter waiter = new Waiter(lock.newCondition(), null);
+            lanes.get(priority).add(waiter);
+            try {
+                while (!waiter.admitted) {
+                    if (deadline == null) {
+                        waiter.condition.await();
+                    } else if (deadline.isExpired()) {
+                        throw new DeadlineExceededException(request.url().toString(), deadline);
+                    } else {
+                        waiter.condition.awaitNanos(deadline.remaining().toNanos());
+                    }
+                }
+            } catch (InterruptedException e) {
+                if (waiter.admitted) {
+                    //admitted while being interrupted, hand the slot on
+                    release();
+                }
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for a request slot: " + request.url());
+            } finally {
+                if (!waiter.admitted) {
+                    lanes.get(priority).remove(waiter);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release() {
+        Waiter reserved = null;
+        lock.lock();
+        try {
+            requestsInFlight--;
+            if (requestsInFlight < maxRequests && !isIdle()) {
+                RequestPriority priority = nextPriority();
+                Waiter next = lanes.get(priority).poll();
+                admit(priority);
+                next.admitted = true;
+                if (next.condition != null) {
+                    next.condition.signal();
+                } else {
+                    reserved = next;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        //completed outside the lock, completing the reservation enqueues its call
+        if (reserved != null && !reserved.reservation.complete(new Slot())) {
+            //cancelled or expired while being admitted, hand the slot on
+            release();
+        }
+    }
+
+    private boolean isIdle() {
+        for (Queue<Waiter> lane : lanes.values()) {
+            if (!lane.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private RequestPriority nextPriority() {
+        boolean bulkWaiting = !lanes.get(RequestPriority.BULK).isEmpty();
+        if (bulkWaiting) {
+            //every admission while bulk waits earns it a share, bulk is admitted whenever a full admission accrues
+            bulkCredit += bulkSharePercent;
+            if (bulkCredit >= FULL_CREDIT) {
+                bulkCredit -= FULL_CREDIT;
+                return RequestPriority.BULK;
+            }
+        } else {
+            bulkCredit = 0;
+        }
+        if (!lanes.get(RequestPriority.INTERACTIVE).isEmpty()) {
+            return RequestPriority.INTERACTIVE;
+        } else if (!lanes.get(RequestPriority.NORMAL).isEmpty()) {
+            return RequestPriority.NORMAL;
+        }
+        return RequestPriority.BULK;
+    }
+
+    private void admit(RequestPriority priority) {
+        requestsInFlight++;
+        admitted.get(priority).incrementAndGet();
+        LOGGER.log(Level.FINEST, () -> "Admitted " + priority + " request, " + requestsInFlight + " in flight");
+    }
+
+    /**
+     * Slot reserved for an asynchronous call, released at most once.
+     */
+    final class Slot {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                PriorityLaneInterceptor.this.release();
+            }
+        }
+    }
+
+    private static final class Waiter {
+
+        //synchronous waiters are signalled, asynchronous ones have their reservation completed
+        private final Condition condition;
+        private final CompletableFuture<Slot> reservation;
+        private boolean admitted;
+
+        private Waiter(Condition condition, CompletableFuture<Slot> reservation) {
+            this.condition = condition;
+            this.reservation = reservation;
+        }
+    }
+}
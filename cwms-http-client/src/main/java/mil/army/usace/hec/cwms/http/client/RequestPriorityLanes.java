@@ -0,0 +1,67 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client;
+
+/**
+ * Gauges for request admission by {@link RequestPriority}. Scheduling is configured through the system properties
+ * cwms.http.client.lanes.max.requests and cwms.http.client.lanes.bulk.share.percent. Time spent queued is recorded
+ * per priority under the queue-wait metric.
+ */
+public final class RequestPriorityLanes {
+
+    private RequestPriorityLanes() {
+        throw new AssertionError("Utility class");
+    }
+
+    /**
+     * @return configured concurrent request limit, 0 when requests are not limited
+     */
+    public static int getMaxRequests() {
+        return PriorityLaneInterceptor.getInstance().getMaxRequests();
+    }
+
+    /**
+     * @return requests admitted and waiting for response headers
+     */
+    public static int getRequestsInFlight() {
+        return PriorityLaneInterceptor.getInstance().getRequestsInFlight();
+    }
+
+    /**
+     * @param priority request priority
+     * @return requests of the priority currently waiting for a slot
+     */
+    public static int getQueuedRequests(RequestPriority priority) {
+        return PriorityLaneInterceptor.getInstance().getQueuedRequests(priority);
+    }
+
+    /**
+     * @param priority request priority
+     * @return total requests of the priority admitted
+     */
+    public static long getAdmittedRequests(RequestPriority priority) {
+        return PriorityLaneInterceptor.getInstance().getAdmittedRequests(priority);
+    }
+}
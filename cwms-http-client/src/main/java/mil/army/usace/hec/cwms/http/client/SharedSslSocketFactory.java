@@ -0,0 +1,174 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+
+/**
+ * One socket factory per underlying {@link SSLContext} or {@link SSLSocketFactory}, shared by every OkHttp client
+ * built for it. Sharing the factory instance lets OkHttp pool connections across clients and lets JSSE resume TLS
+ * sessions from the context's client session cache instead of performing a full handshake, which with a CAC means
+ * touching the smart card.
+ * <p>
+ * Completed handshakes are counted as full or resumed. JSSE does not report resumption directly, so a handshake counts
+ * as resumed when it completes with a session that was created before the socket, or that this factory has already
+ * seen.
+ * <p>
+ * Configured through system properties, applied to contexts passed to {@link SslSocketData#fromSslContext(SSLContext,
+ * javax.net.ssl.X509TrustManager)}. When unset the JSSE defaults apply.
+ * cwms.http.client.tls.session.cache.size - client session cache size
+ * cwms.http.client.tls.session.timeout.seconds - client session lifetime
+ */
+final class SharedSslSocketFactory extends SSLSocketFactory {
+
+    static final String SESSION_CACHE_SIZE_PROPERTY_KEY = "cwms.http.client.tls.session.cache.size";
+    static final String SESSION_TIMEOUT_PROPERTY_KEY = "cwms.http.client.tls.session.timeout.seconds";
+    private static final Logger LOGGER = Logger.getLogger(SharedSslSocketFactory.class.getName());
+    //values held weakly, the factory references its key. Entries live as long as an SslSocketData uses them
+    private static final Map<Object, WeakReference<SharedSslSocketFactory>> SHARED = new WeakHashMap<>();
+    private final SSLSocketFactory delegate;
+    private final Map<SSLSession, Boolean> seenSessions = Collections.synchronizedMap(new WeakHashMap<>());
+    private final AtomicLong fullHandshakes = new AtomicLong();
+    private final AtomicLong resumedHandshakes = new AtomicLong();
+
+    private SharedSslSocketFactory(SSLSocketFactory delegate) {
+        this.delegate = delegate;
+    }
+
+    static SharedSslSocketFactory forContext(SSLContext sslContext) {
+        return shared(sslContext, () -> {
+            configureSessionCache(sslContext.getClientSessionContext());
+            return new SharedSslSocketFactory(sslContext.getSocketFactory());
+        });
+    }
+
+    static SharedSslSocketFactory forSocketFactory(SSLSocketFactory sslSocketFactory) {
+        return shared(sslSocketFactory, () -> new SharedSslSocketFactory(sslSocketFactory));
+    }
+
+    private static synchronized SharedSslSocketFactory shared(Object key, Supplier<SharedSslSocketFactory> factory) {
+        WeakReference<SharedSslSocketFactory> reference = SHARED.get(key);
+        SharedSslSocketFactory retval = reference == null ? null : reference.get();
+        if (retval == null) {
+            retval = factory.get();
+            SHARED.put(key, new WeakReference<>(retval));
+        }
+        return retval;
+    }
+
+    private static void configureSessionCache(SSLSessionContext sessionContext) {
+        if (sessionContext == null) {
+            return;
+        }
+        Integer cacheSize = Integer.getInteger(SESSION_CACHE_SIZE_PROPERTY_KEY);
+        if (cacheSize != null) {
+            sessionContext.setSessionCacheSize(cacheSize);
+        }
+        Integer timeout = Integer.getInteger(SESSION_TIMEOUT_PROPERTY_KEY);
+        if (timeout != null) {
+            sessionContext.setSessionTimeout(timeout);
+        }
+    }
+
+    long getFullHandshakes() {
+        return fullHandshakes.get();
+    }
+
+    long getResumedHandshakes() {
+        return resumedHandshakes.get();
+    }
+
+    @Override
+    public String[] getDefaultCipherSuites() {
+        return delegate.getDefaultCipherSuites();
+    }
+
+    @Override
+    public String[] getSupportedCipherSuites() {
+        return delegate.getSupportedCipherSuites();
+    }
+
+    @Override
+    public Socket createSocket() throws IOException {
+        return listen(delegate.createSocket());
+    }
+
+    @Override
+    public Socket createSocket(Socket socket, String host, int port, boolean autoClose) throws IOException {
+        return listen(delegate.createSocket(socket, host, port, autoClose));
+    }
+
+    @Override
+    public Socket createSocket(String host, int port) throws IOException {
+        return listen(delegate.createSocket(host, port));
+    }
+
+    @Override
+    public Socket createSocket(String host, int port, InetAddress localHost, int localPort) throws IOException {
+        return listen(delegate.createSocket(host, port, localHost, localPort));
+    }
+
+    @Override
+    public Socket createSocket(InetAddress host, int port) throws IOException {
+        return listen(delegate.createSocket(host, port));
+    }
+
+    @Override
+    public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort) throws IOException {
+        return listen(delegate.createSocket(address, port, localAddress, localPort));
+    }
+
+    private Socket listen(Socket socket) {
+        if (socket instanceof SSLSocket) {
+            long createdMillis = System.currentTimeMillis();
+            ((SSLSocket) socket).addHandshakeCompletedListener(event -> {
+                SSLSession session = event.getSession();
+                boolean resumed = session.getCreationTime() < createdMillis || seenSessions.put(session, Boolean.TRUE) != null;
+                if (resumed) {
+                    resumedHandshakes.incrementAndGet();
+                } else {
+                    fullHandshakes.incrementAndGet();
+                }
+                LOGGER.log(Level.FINE, () -> (resumed ? "Resumed" : "Full") + " TLS handshake with " + session.getPeerHost());
+            });
+        }
+        return socket;
+    }
+}
@@ -50,7 +50,10 @@ final class SimpleAuthHeaderAuthenticator implements Authenticator {
     @Override
     public Request authenticate(Route route, Response response) throws IOException {
         LOGGER.log(Level.FINE, () -> "Authentication required for: " + response.request().url() + " attempting acquiring authorization key");
-        String authorizationKey = keyProvider.getAuthorizationKey();
+        String authorizationKey;
+        try (FlightRecording recording = CwmsHttpFlightRecorder.beginAuthRefresh(SimpleAuthHeaderAuthenticator.class.getSimpleName())) {
+            authorizationKey = keyProvider.getAuthorizationKey();
+        }
         if (authorizationKey == null) {
             throw new IOException("No Authorization key retrieved from " + keyProvider.getClass().getName());
         }
@@ -25,6 +25,7 @@
 package mil.army.usace.hec.cwms.http.client;
 
 import java.util.Objects;
+import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSocketFactory;
 import javax.net.ssl.X509TrustManager;
 
@@ -32,17 +33,56 @@ public final class SslSocketData {
 
     private final SSLSocketFactory sslSocketFactory;
     private final X509TrustManager x509TrustManager;
+    private final SharedSslSocketFactory sharedSslSocketFactory;
 
     public SslSocketData(SSLSocketFactory sslSocketFactory, X509TrustManager x509TrustManager) {
         this.sslSocketFactory = Objects.requireNonNull(sslSocketFactory, "Missing required SSLSocketFactory");
         this.x509TrustManager = Objects.requireNonNull(x509TrustManager, "Missing required X509TrustManager");
+        this.sharedSslSocketFactory = SharedSslSocketFactory.forSocketFactory(sslSocketFactory);
+    }
+
+    private SslSocketData(SharedSslSocketFactory sharedSslSocketFactory, X509TrustManager x509TrustManager) {
+        this.sslSocketFactory = sharedSslSocketFactory;
+        this.x509TrustManager = Objects.requireNonNull(x509TrustManager, "Missing required X509TrustManager");
+        this.sharedSslSocketFactory = sharedSslSocketFactory;
+    }
+
+    /**
+     * Preferred over the socket factory constructor. All SslSocketData built from the same context share one socket
+     * factory and its TLS session cache, so reconnects resume sessions instead of performing full handshakes.
+     *
+     * @param sslContext       initialized context, e.g. holding the CAC key manager
+     * @param x509TrustManager trust manager the context was initialized with
+     * @return socket data sharing the context's socket factory
+     */
+    public static SslSocketData fromSslContext(SSLContext sslContext, X509TrustManager x509TrustManager) {
+        Objects.requireNonNull(sslContext, "Missing required SSLContext");
+        return new SslSocketData(SharedSslSocketFactory.forContext(sslContext), x509TrustManager);
     }
 
     SSLSocketFactory getSslSocketFactory() {
         return sslSocketFactory;
     }
 
+    SSLSocketFactory getSharedSslSocketFactory() {
+        return sharedSslSocketFactory;
+    }
+
     X509TrustManager getX509TrustManager() {
         return x509TrustManager;
     }
+
+    /**
+     * @return full TLS handshakes completed through this socket factory
+     */
+    public long getFullHandshakeCount() {
+        return sharedSslSocketFactory.getFullHandshakes();
+    }
+
+    /**
+     * @return TLS handshakes completed by resuming a cached session
+     */
+    public long getResumedHandshakeCount() {
+        return sharedSslSocketFactory.getResumedHandshakes();
+    }
 }
@@ -0,0 +1,118 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import mil.army.usace.hec.cwms.http.client.trace.ClientSpan;
+import mil.army.usace.hec.cwms.http.client.trace.TraceContext;
+import mil.army.usace.hec.cwms.http.client.trace.TraceContextSupplier;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Propagates the caller's W3C trace context on outgoing requests and records a client span for each call.
+ * Each call gets a new span id that is sent as the traceparent parent-id, so the server side span is a child of it.
+ */
+final class TraceContextInterceptor implements Interceptor {
+
+    static final String TRACEPARENT_HEADER = "traceparent";
+    static final String TRACESTATE_HEADER = "tracestate";
+    private final TraceContextSupplier traceContextSupplier;
+    private final ClientSpanRecorder recorder;
+
+    TraceContextInterceptor(TraceContextSupplier traceContextSupplier, ClientSpanRecorder recorder) {
+        this.traceContextSupplier = traceContextSupplier;
+        this.recorder = recorder;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        TraceContext parent = Optional.ofNullable(traceContextSupplier)
+            .map(TraceContextSupplier::getTraceContext)
+            .orElse(null);
+        String traceId = parent == null ? randomId() + randomId() : parent.getTraceId();
+        String spanId = randomId();
+        boolean sampled = parent == null || parent.isSampled();
+        Request.Builder builder = request.newBuilder()
+            .header(TRACEPARENT_HEADER, "00-" + traceId + "-" + spanId + (sampled ? "-01" : "-00"));
+        if (parent != null && parent.getTraceState().isPresent()) {
+            builder.header(TRACESTATE_HEADER, parent.getTraceState().get());
+        }
+        if (recorder == null) {
+            return chain.proceed(builder.build());
+        }
+        ClientSpan.Builder span = new ClientSpan.Builder()
+            .traceId(traceId)
+            .spanId(spanId)
+            .parentSpanId(parent == null ? null : parent.getParentId())
+            .method(request.method())
+            .startEpochMillis(System.currentTimeMillis());
+        long start = System.nanoTime();
+        try {
+            Response response = chain.proceed(builder.build());
+            span.status(response.code())
+                .retryCount(retryCount(response));
+            return response;
+        } catch (IOException | RuntimeException e) {
+            span.error(e.getClass().getName());
+            throw e;
+        } finally {
+            span.durationNanos(System.nanoTime() - start);
+            CallTimings timings = request.tag(CallTimings.class);
+            if (timings == null) {
+                span.endpoint(request.url().encodedPath());
+            } else {
+                span.endpoint(timings.getEndpoint())
+                    .dnsNanos(timings.dnsNanos())
+                    .connectNanos(timings.connectNanos())
+                    .tlsNanos(timings.tlsNanos())
+                    .timeToFirstByteNanos(timings.timeToFirstByteNanos());
+            }
+            recorder.record(span.build());
+        }
+    }
+
+    private static int retryCount(Response response) {
+        int retval = 0;
+        Response prior = response.priorResponse();
+        while (prior != null) {
+            retval++;
+            prior = prior.priorResponse();
+        }
+        return retval;
+    }
+
+    private static String randomId() {
+        long id = 0;
+        while (id == 0) {
+            id = ThreadLocalRandom.current().nextLong();
+        }
+        return String.format("%016x", id);
+    }
+}
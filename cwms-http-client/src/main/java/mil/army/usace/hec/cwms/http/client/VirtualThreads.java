@@ -0,0 +1,48 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Virtual thread support for {@link CwmsHttpExecutors}.
+ * <p>
+ * Virtual threads are not part of the Java 8 API, so this implementation reports them unavailable. The jar is
+ * multi-release, Java 21+ runtimes load the virtual thread backed version of this class from META-INF/versions/21.
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+        throw new AssertionError("Utility class");
+    }
+
+    static boolean isAvailable() {
+        return false;
+    }
+
+    static ExecutorService newVirtualThreadPerTaskExecutor(String name) {
+        throw new UnsupportedOperationException("Virtual threads require Java 21 or later");
+    }
+}
@@ -25,10 +25,27 @@
 package mil.army.usace.hec.cwms.http.client.request;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 import mil.army.usace.hec.cwms.http.client.HttpRequestResponse;
 
 public interface HttpRequestExecutor {
 
     HttpRequestResponse execute() throws IOException;
 
+    /**
+     * Sends the request without blocking the calling thread. Cancelling the returned future cancels the call.
+     * Executors without an asynchronous path execute on the calling thread and return a completed future.
+     *
+     * @return future completed with the response, which the caller must close, or with the failure
+     *     {@link #execute()} would have thrown
+     */
+    default CompletableFuture<HttpRequestResponse> executeAsync() {
+        CompletableFuture<HttpRequestResponse> future = new CompletableFuture<>();
+        try {
+            future.complete(execute());
+        } catch (IOException | RuntimeException ex) {
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
 }
@@ -0,0 +1,220 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client.trace;
+
+import java.util.Optional;
+
+/**
+ * Client side span of a single request made through the CWMS HTTP client. The span ends when the response headers
+ * have been received. Phase durations are in nanoseconds and are -1 when the phase did not occur, such as DNS and
+ * connect for a pooled connection.
+ */
+public final class ClientSpan {
+
+    private final String traceId;
+    private final String spanId;
+    private final String parentSpanId;
+    private final String endpoint;
+    private final String method;
+    private final int status;
+    private final String error;
+    private final int retryCount;
+    private final long startEpochMillis;
+    private final long durationNanos;
+    private final long dnsNanos;
+    private final long connectNanos;
+    private final long tlsNanos;
+    private final long timeToFirstByteNanos;
+
+    private ClientSpan(Builder builder) {
+        this.traceId = builder.traceId;
+        this.spanId = builder.spanId;
+        this.parentSpanId = builder.parentSpanId;
+        this.endpoint = builder.endpoint;
+        this.method = builder.method;
+        this.status = builder.status;
+        this.error = builder.error;
+        this.retryCount = builder.retryCount;
+        this.startEpochMillis = builder.startEpochMillis;
+        this.durationNanos = builder.durationNanos;
+        this.dnsNanos = builder.dnsNanos;
+        this.connectNanos = builder.connectNanos;
+        this.tlsNanos = builder.tlsNanos;
+        this.timeToFirstByteNanos = builder.timeToFirstByteNanos;
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getSpanId() {
+        return spanId;
+    }
+
+    public Optional<String> getParentSpanId() {
+        return Optional.ofNullable(parentSpanId);
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * HTTP status of the final response.
+     *
+     * @return status code, or -1 if the request failed without a response
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    public Optional<String> getError() {
+        return Optional.ofNullable(error);
+    }
+
+    public int getRetryCount() {
+        return retryCount;
+    }
+
+    public long getStartEpochMillis() {
+        return startEpochMillis;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public long getDnsNanos() {
+        return dnsNanos;
+    }
+
+    public long getConnectNanos() {
+        return connectNanos;
+    }
+
+    public long getTlsNanos() {
+        return tlsNanos;
+    }
+
+    public long getTimeToFirstByteNanos() {
+        return timeToFirstByteNanos;
+    }
+
+    public static final class Builder {
+
+        private String traceId;
+        private String spanId;
+        private String parentSpanId;
+        private String endpoint;
+        private String method;
+        private int status = -1;
+        private String error;
+        private int retryCount;
+        private long startEpochMillis;
+        private long durationNanos;
+        private long dnsNanos = -1;
+        private long connectNanos = -1;
+        private long tlsNanos = -1;
+        private long timeToFirstByteNanos = -1;
+
+        public Builder traceId(String traceId) {
+            this.traceId = traceId;
+            return this;
+        }
+
+        public Builder spanId(String spanId) {
+            this.spanId = spanId;
+            return this;
+        }
+
+        public Builder parentSpanId(String parentSpanId) {
+            this.parentSpanId = parentSpanId;
+            return this;
+        }
+
+        public Builder endpoint(String endpoint) {
+            this.endpoint = endpoint;
+            return this;
+        }
+
+        public Builder method(String method) {
+            this.method = method;
+            return this;
+        }
+
+        public Builder status(int status) {
+            this.status = status;
+            return this;
+        }
+
+        public Builder error(String error) {
+            this.error = error;
+            return this;
+        }
+
+        public Builder retryCount(int retryCount) {
+            this.retryCount = retryCount;
+            return this;
+        }
+
+        public Builder startEpochMillis(long startEpochMillis) {
+            this.startEpochMillis = startEpochMillis;
+            return this;
+        }
+
+        public Builder durationNanos(long durationNanos) {
+            this.durationNanos = durationNanos;
+            return this;
+        }
+
+        public Builder dnsNanos(long dnsNanos) {
+            this.dnsNanos = dnsNanos;
+            return this;
+        }
+
+        public Builder connectNanos(long connectNanos) {
+            this.connectNanos = connectNanos;
+            return this;
+        }
+
+        public Builder tlsNanos(long tlsNanos) {
+            this.tlsNanos = tlsNanos;
+            return this;
+        }
+
+        public Builder timeToFirstByteNanos(long timeToFirstByteNanos) {
+            this.timeToFirstByteNanos = timeToFirstByteNanos;
+            return this;
+        }
+
+        public ClientSpan build() {
+            return new ClientSpan(this);
+        }
+    }
+}
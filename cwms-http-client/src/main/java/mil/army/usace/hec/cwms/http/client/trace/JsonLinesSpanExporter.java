@@ -0,0 +1,80 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client.trace;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Appends spans to a local file, one JSON object per line.
+ */
+public final class JsonLinesSpanExporter implements SpanExporter {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private final Path file;
+
+    public JsonLinesSpanExporter(Path file) {
+        this.file = Objects.requireNonNull(file, "Missing required span export file");
+    }
+
+    @Override
+    public void export(List<ClientSpan> spans) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE)) {
+            for (ClientSpan span : spans) {
+                writer.write(OBJECT_MAPPER.writeValueAsString(toMap(span)));
+                writer.newLine();
+            }
+        }
+    }
+
+    private static Map<String, Object> toMap(ClientSpan span) {
+        Map<String, Object> retval = new LinkedHashMap<>();
+        retval.put("traceId", span.getTraceId());
+        retval.put("spanId", span.getSpanId());
+        retval.put("parentSpanId", span.getParentSpanId().orElse(null));
+        retval.put("endpoint", span.getEndpoint());
+        retval.put("method", span.getMethod());
+        retval.put("status", span.getStatus());
+        retval.put("error", span.getError().orElse(null));
+        retval.put("retryCount", span.getRetryCount());
+        retval.put("startEpochMillis", span.getStartEpochMillis());
+        retval.put("durationNanos", span.getDurationNanos());
+        retval.put("dnsNanos", span.getDnsNanos());
+        retval.put("connectNanos", span.getConnectNanos());
+        retval.put("tlsNanos", span.getTlsNanos());
+        retval.put("timeToFirstByteNanos", span.getTimeToFirstByteNanos());
+        return retval;
+    }
+}
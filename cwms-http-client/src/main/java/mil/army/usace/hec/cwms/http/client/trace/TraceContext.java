@@ -0,0 +1,86 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client.trace;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * W3C trace context of the caller. See <a href="https://www.w3.org/TR/trace-context/">Trace Context</a>.
+ */
+public final class TraceContext {
+
+    private static final Pattern TRACEPARENT_PATTERN = Pattern.compile("^00-([0-9a-f]{32})-([0-9a-f]{16})-([0-9a-f]{2})$");
+    private static final String INVALID_TRACE_ID = "00000000000000000000000000000000";
+    private static final String INVALID_PARENT_ID = "0000000000000000";
+    private final String traceId;
+    private final String parentId;
+    private final boolean sampled;
+    private final String traceState;
+
+    public TraceContext(String traceId, String parentId, boolean sampled, String traceState) {
+        this.traceId = Objects.requireNonNull(traceId, "Missing required trace id");
+        this.parentId = Objects.requireNonNull(parentId, "Missing required parent id");
+        this.sampled = sampled;
+        this.traceState = traceState;
+    }
+
+    /**
+     * Parse the traceparent and tracestate headers of an inbound request.
+     *
+     * @param traceparent traceparent header value
+     * @param tracestate  tracestate header value, may be null
+     * @return the parsed context, or empty if the traceparent header is missing or invalid
+     */
+    public static Optional<TraceContext> fromHeaders(String traceparent, String tracestate) {
+        if (traceparent == null) {
+            return Optional.empty();
+        }
+        Matcher matcher = TRACEPARENT_PATTERN.matcher(traceparent.trim());
+        if (!matcher.matches() || INVALID_TRACE_ID.equals(matcher.group(1)) || INVALID_PARENT_ID.equals(matcher.group(2))) {
+            return Optional.empty();
+        }
+        boolean sampled = (Integer.parseInt(matcher.group(3), 16) & 0x01) == 0x01;
+        return Optional.of(new TraceContext(matcher.group(1), matcher.group(2), sampled, tracestate));
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getParentId() {
+        return parentId;
+    }
+
+    public boolean isSampled() {
+        return sampled;
+    }
+
+    public Optional<String> getTraceState() {
+        return Optional.ofNullable(traceState);
+    }
+}
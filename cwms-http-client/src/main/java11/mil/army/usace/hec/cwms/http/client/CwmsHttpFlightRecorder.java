@@ -0,0 +1,138 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client;
+
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+import jdk.jfr.Event;
+
+/**
+ * Entry point for the Java Flight Recorder events emitted by the CWMS HTTP client.
+ * <p>
+ * Java 11+ version of this class, packaged in META-INF/versions/11 of the multi-release jar.
+ * Events are only allocated and timed when their type is enabled in the active recording.
+ */
+public final class CwmsHttpFlightRecorder {
+
+    private static final IntConsumer IGNORE_STATUS = s -> {
+    };
+    private static final LongConsumer IGNORE_BYTES = b -> {
+    };
+    private static final Consumer<String> IGNORE_DETAIL = d -> {
+    };
+
+    private CwmsHttpFlightRecorder() {
+        throw new AssertionError("Utility class");
+    }
+
+    static FlightRecording beginRequest(String endpoint, String method) {
+        HttpRequestEvent event = new HttpRequestEvent();
+        if (!event.isEnabled()) {
+            return FlightRecording.NONE;
+        }
+        event.endpoint = endpoint;
+        event.method = method;
+        return new EventRecording(event, s -> event.status = s, b -> event.bytes = b, IGNORE_DETAIL);
+    }
+
+    static void recordRetry(String endpoint, String method, int attempt, int priorStatus) {
+        HttpRetryEvent event = new HttpRetryEvent();
+        if (event.shouldCommit()) {
+            event.endpoint = endpoint;
+            event.method = method;
+            event.attempt = attempt;
+            event.priorStatus = priorStatus;
+            event.commit();
+        }
+    }
+
+    static FlightRecording beginAuthRefresh(String authenticator) {
+        AuthRefreshEvent event = new AuthRefreshEvent();
+        if (!event.isEnabled()) {
+            return FlightRecording.NONE;
+        }
+        event.authenticator = authenticator;
+        return new EventRecording(event, IGNORE_STATUS, IGNORE_BYTES, d -> event.outcome = d);
+    }
+
+    public static FlightRecording beginDeserialization(Class<?> type, long size) {
+        DeserializationEvent event = new DeserializationEvent();
+        if (!event.isEnabled()) {
+            return FlightRecording.NONE;
+        }
+        event.type = type;
+        event.bytes = size;
+        return new EventRecording(event, IGNORE_STATUS, b -> event.bytes = b, IGNORE_DETAIL);
+    }
+
+    public static FlightRecording beginSerialization(Class<?> type) {
+        SerializationEvent event = new SerializationEvent();
+        if (!event.isEnabled()) {
+            return FlightRecording.NONE;
+        }
+        event.type = type;
+        return new EventRecording(event, IGNORE_STATUS, b -> event.bytes = b, IGNORE_DETAIL);
+    }
+
+    private static final class EventRecording implements FlightRecording {
+
+        private final Event event;
+        private final IntConsumer status;
+        private final LongConsumer bytes;
+        private final Consumer<String> detail;
+
+        private EventRecording(Event event, IntConsumer status, LongConsumer bytes, Consumer<String> detail) {
+            this.event = event;
+            this.status = status;
+            this.bytes = bytes;
+            this.detail = detail;
+            event.begin();
+        }
+
+        @Override
+        public FlightRecording status(int status) {
+            this.status.accept(status);
+            return this;
+        }
+
+        @Override
+        public FlightRecording bytes(long bytes) {
+            this.bytes.accept(bytes);
+            return this;
+        }
+
+        @Override
+        public FlightRecording detail(String detail) {
+            this.detail.accept(detail);
+            return this;
+        }
+
+        @Override
+        public void close() {
+            event.commit();
+        }
+    }
+}
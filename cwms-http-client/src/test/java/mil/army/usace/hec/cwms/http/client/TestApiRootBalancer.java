@@ -0,0 +1,158 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.Test;
+
+class TestApiRootBalancer {
+
+    @Test
+    void testRequestsSpreadAcrossRoots() throws Exception {
+        try (MockWebServer first = respondingWith(200, "first"); MockWebServer second = respondingWith(200, "second")) {
+            ApiConnectionInfo apiConnectionInfo = new ApiConnectionInfoBuilder(root(first)).withAdditionalApiRoots(root(second)).build();
+            assertEquals(root(first), apiConnectionInfo.getApiRoot());
+            for (int i = 0; i < 40; i++) {
+                get(apiConnectionInfo);
+            }
+            assertTrue(first.getRequestCount() > 0);
+            assertTrue(second.getRequestCount() > 0);
+            assertEquals(40, first.getRequestCount() + second.getRequestCount());
+            List<ApiRootStatus> status = apiConnectionInfo.getApiRootStatus();
+            assertEquals(2, status.size());
+            assertEquals(first.getRequestCount(), status.get(0).getRequests());
+            assertEquals(second.getRequestCount(), status.get(1).getRequests());
+            assertTrue(status.get(0).isHealthy());
+            assertEquals(0, status.get(1).getFailures());
+        }
+    }
+
+    @Test
+    void testFailoverOnUnavailableRoot() throws Exception {
+        try (MockWebServer unavailable = respondingWith(503, "down"); MockWebServer available = respondingWith(200, "up")) {
+            ApiConnectionInfo apiConnectionInfo = new ApiConnectionInfoBuilder(root(unavailable)).withAdditionalApiRoots(root(available)).build();
+            for (int i = 0; i < 20; i++) {
+                assertEquals("up", get(apiConnectionInfo));
+            }
+            ApiRootStatus status = apiConnectionInfo.getApiRootStatus().get(0);
+            assertFalse(status.isHealthy());
+            //ejected once the failure threshold is reached
+            assertEquals(ApiRootBalancer.FAILURE_THRESHOLD_PROPERTY_DEFAULT, unavailable.getRequestCount());
+            assertEquals(unavailable.getRequestCount(), status.getFailures());
+            assertEquals(unavailable.getRequestCount(), status.getFailovers());
+            assertEquals(20, available.getRequestCount());
+        }
+    }
+
+    @Test
+    void testFailoverOnConnectionError() throws Exception {
+        MockWebServer stopped = new MockWebServer();
+        stopped.start();
+        String stoppedRoot = root(stopped);
+        stopped.shutdown();
+        try (MockWebServer available = respondingWith(200, "up")) {
+            ApiConnectionInfo apiConnectionInfo = new ApiConnectionInfoBuilder(stoppedRoot).withAdditionalApiRoots(root(available)).build();
+            for (int i = 0; i < 10; i++) {
+                assertEquals("up", get(apiConnectionInfo));
+            }
+            assertFalse(apiConnectionInfo.getApiRootStatus().get(0).isHealthy());
+        }
+    }
+
+    @Test
+    void testNoFailoverForPost() throws Exception {
+        MockWebServer stopped = new MockWebServer();
+        stopped.start();
+        String stoppedRoot = root(stopped);
+        stopped.shutdown();
+        ApiConnectionInfo apiConnectionInfo = new ApiConnectionInfoBuilder(stoppedRoot).withAdditionalApiRoots(stoppedRoot + "other/").build();
+        assertThrows(ServerNotFoundException.class, () -> new HttpRequestBuilderImpl(apiConnectionInfo, "timeseries")
+            .post()
+            .withBody("{}")
+            .withMediaType("application/json")
+            .execute());
+        assertEquals(1, apiConnectionInfo.getApiRootStatus().stream().mapToLong(ApiRootStatus::getRequests).sum());
+        assertThrows(ServerNotFoundException.class, () -> get(apiConnectionInfo));
+        assertEquals(3, apiConnectionInfo.getApiRootStatus().stream().mapToLong(ApiRootStatus::getRequests).sum());
+    }
+
+    @Test
+    void testPathRewrittenPerRoot() throws Exception {
+        try (MockWebServer unavailable = respondingWith(503, "down"); MockWebServer available = respondingWith(200, "up")) {
+            String availableRoot = available.url("/other/cwms-data").toString();
+            ApiConnectionInfo apiConnectionInfo = new ApiConnectionInfoBuilder(root(unavailable)).withAdditionalApiRoots(availableRoot).build();
+            try (HttpRequestResponse response = new HttpRequestBuilderImpl(apiConnectionInfo, "catalog/TIMESERIES")
+                .addQueryParameter("office", "SWT")
+                .get()
+                .withMediaType("text/plain")
+                .execute()) {
+                assertEquals("up", response.getBody());
+            }
+            assertEquals("/other/cwms-data/catalog/TIMESERIES?office=SWT", available.takeRequest().getPath());
+        }
+    }
+
+    @Test
+    void testSingleRootHasNoStatus() {
+        assertTrue(new ApiConnectionInfoBuilder("http://localhost:11524/cwms-data/").build().getApiRootStatus().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> new ApiConnectionInfoBuilder("not a url").withAdditionalApiRoots(
+            "http://localhost:11524/cwms-data/").build());
+    }
+
+    private static String get(ApiConnectionInfo apiConnectionInfo) throws IOException {
+        try (HttpRequestResponse response = new HttpRequestBuilderImpl(apiConnectionInfo, "catalog")
+            .get()
+            .withMediaType("text/plain")
+            .execute()) {
+            return response.getBody();
+        }
+    }
+
+    private static String root(MockWebServer mockWebServer) {
+        return mockWebServer.url("/cwms-data/").toString();
+    }
+
+    private static MockWebServer respondingWith(int code, String body) throws IOException {
+        MockWebServer mockWebServer = new MockWebServer();
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest recordedRequest) {
+                return new MockResponse().setResponseCode(code).setBody(body);
+            }
+        });
+        mockWebServer.start();
+        return mockWebServer;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.Test;
+
+class TestConnectionPrewarmer {
+
+    @Test
+    void testPrewarmOpensConnections() throws Exception {
+        try (MockWebServer mockWebServer = new MockWebServer()) {
+            //delayed so the HEAD requests overlap and each needs its own connection
+            for (int i = 0; i < 3; i++) {
+                mockWebServer.enqueue(new MockResponse().setHeadersDelay(250, TimeUnit.MILLISECONDS));
+            }
+            mockWebServer.enqueue(new MockResponse().setBody("warm"));
+            mockWebServer.start();
+            ApiConnectionInfo apiConnectionInfo = new ApiConnectionInfoBuilder(mockWebServer.url("/cwms-data/").toString()).build();
+            assertEquals(3, apiConnectionInfo.prewarm(3));
+            for (int i = 0; i < 3; i++) {
+                RecordedRequest head = mockWebServer.takeRequest();
+                assertEquals("HEAD", head.getMethod());
+                assertEquals("/cwms-data/", head.getPath());
+                assertEquals(0, head.getSequenceNumber());
+            }
+            try (HttpRequestResponse response = new HttpRequestBuilderImpl(apiConnectionInfo, "catalog")
+                .get()
+                .withMediaType("text/plain")
+                .execute()) {
+                assertEquals("warm", response.getBody());
+            }
+            assertEquals(1, mockWebServer.takeRequest().getSequenceNumber());
+        }
+    }
+
+    @Test
+    void testPrewarmFailure() throws Exception {
+        ApiConnectionInfo apiConnectionInfo = new ApiConnectionInfoBuilder("http://localhost:1/cwms-data/").build();
+        assertThrows(ServerNotFoundException.class, () -> apiConnectionInfo.prewarm(2));
+        assertThrows(IllegalArgumentException.class, () -> apiConnectionInfo.prewarm(0));
+        ApiConnectionInfo invalid = new ApiConnectionInfoBuilder("not a url").build();
+        assertThrows(ServerNotFoundException.class, () -> invalid.prewarm(1));
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import usace.metrics.services.Metrics;
+import usace.metrics.services.Timer;
+
+class TestCwmsHttpClientMetrics {
+
+    @AfterEach
+    void restoreConfiguredFlag() {
+        CwmsHttpClientMetrics.refreshMetricsEnabled();
+    }
+
+    @Test
+    void testMetricsHandleReused() {
+        Metrics metrics = CwmsHttpClientMetrics.createMetrics("http://localhost:11524/cwms-data/levels", "GET");
+        assertSame(metrics, CwmsHttpClientMetrics.createMetrics("http://localhost:11524/cwms-data/levels", "GET"));
+        assertNotSame(metrics, CwmsHttpClientMetrics.createMetrics("http://localhost:11524/cwms-data/levels", "POST"));
+    }
+
+    @Test
+    void testEnabledChangeNotifiesListeners() {
+        CwmsHttpClientMetrics.setMetricsEnabled(true);
+        List<Boolean> changes = new CopyOnWriteArrayList<>();
+        CwmsHttpClientMetrics.addMetricsEnabledListener(changes::add);
+        Metrics metrics = CwmsHttpClientMetrics.createMetrics("http://localhost:11524/cwms-data/catalog");
+        CwmsHttpClientMetrics.setMetricsEnabled(true);
+        assertEquals(0, changes.size());
+        assertSame(metrics, CwmsHttpClientMetrics.createMetrics("http://localhost:11524/cwms-data/catalog"));
+        CwmsHttpClientMetrics.setMetricsEnabled(false);
+        assertEquals(1, changes.size());
+        assertEquals(false, changes.get(0));
+        assertEquals(false, CwmsHttpClientMetrics.isMetricsEnabled());
+        //handles are recreated after a change so they pick up the new configuration
+        assertNotSame(metrics, CwmsHttpClientMetrics.createMetrics("http://localhost:11524/cwms-data/catalog"));
+    }
+
+    @Test
+    void testStartTimerDisabled() throws Exception {
+        CwmsHttpClientMetrics.setMetricsEnabled(false);
+        try (Timer.Context context = CwmsHttpClientMetrics.startTimer("http://localhost:11524/cwms-data/catalog")) {
+            assertNotNull(context);
+        }
+    }
+}
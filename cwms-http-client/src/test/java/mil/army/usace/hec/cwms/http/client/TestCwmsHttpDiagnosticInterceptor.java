@@ -0,0 +1,119 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestCwmsHttpDiagnosticInterceptor {
+
+    private final BlockingQueue<String> messages = new ArrayBlockingQueue<>(10);
+    private final Handler handler = new Handler() {
+        @Override
+        public void publish(LogRecord record) {
+            messages.offer(record.getMessage());
+        }
+
+        @Override
+        public void flush() {
+
+        }
+
+        @Override
+        public void close() throws SecurityException {
+
+        }
+    };
+    private MockWebServer mockWebServer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Logger.getLogger(CwmsHttpDiagnosticInterceptor.class.getName()).addHandler(handler);
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Logger.getLogger(CwmsHttpDiagnosticInterceptor.class.getName()).removeHandler(handler);
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    void testLargePayloadLogged() throws Exception {
+        String body = "0123456789abcdefghij";
+        mockWebServer.enqueue(new MockResponse().setBody(body));
+        CwmsHttpDiagnosticInterceptor interceptor = new CwmsHttpDiagnosticInterceptor(true, 60_000, 10, 1.0, 5, 4);
+        assertEquals(body, execute(interceptor));
+        String message = messages.poll(5, TimeUnit.SECONDS);
+        assertNotNull(message);
+        assertTrue(message.contains("bytes: 20"));
+        assertTrue(message.endsWith("body excerpt: 01234"));
+    }
+
+    @Test
+    void testBelowThresholdNotLogged() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setBody("small"));
+        CwmsHttpDiagnosticInterceptor interceptor = new CwmsHttpDiagnosticInterceptor(true, 60_000, 1024, 1.0, 5, 4);
+        assertEquals("small", execute(interceptor));
+        assertNull(messages.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void testTokensRedacted() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setBody("{\"access_token\":\"secret\"}"));
+        CwmsHttpDiagnosticInterceptor interceptor = new CwmsHttpDiagnosticInterceptor(true, 0, 0, 1.0, 512, 4);
+        execute(interceptor);
+        String message = messages.poll(5, TimeUnit.SECONDS);
+        assertNotNull(message);
+        assertTrue(message.contains("<redacted>"));
+    }
+
+    private String execute(CwmsHttpDiagnosticInterceptor interceptor) throws IOException {
+        OkHttpClient client = new OkHttpClient.Builder().addInterceptor(interceptor).build();
+        Request request = new Request.Builder().url(mockWebServer.url("/diagnostic")).build();
+        try (Response response = client.newCall(request).execute()) {
+            return response.body().string();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class TestCwmsHttpExecutors {
+
+    @Test
+    void testPlatformTaskExecutor() throws Exception {
+        ExecutorService executor = CwmsHttpExecutors.newTaskExecutor("test-task", false);
+        try {
+            //every task starts right away, none waits for a pool slot
+            int tasks = 32;
+            CountDownLatch started = new CountDownLatch(tasks);
+            List<Future<Thread>> futures = new ArrayList<>();
+            for (int i = 0; i < tasks; i++) {
+                futures.add(executor.submit(() -> {
+                    started.countDown();
+                    started.await(5, TimeUnit.SECONDS);
+                    return Thread.currentThread();
+                }));
+            }
+            for (Future<Thread> future : futures) {
+                Thread thread = future.get(10, TimeUnit.SECONDS);
+                assertTrue(thread.isDaemon());
+                assertTrue(thread.getName().startsWith("test-task-"));
+            }
+            assertEquals(0, started.getCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testVirtualThreadsDisabledByDefault() {
+        assertFalse(CwmsHttpExecutors.isVirtualThreadsEnabled());
+        if (!VirtualThreads.isAvailable()) {
+            assertThrows(UnsupportedOperationException.class, () -> CwmsHttpExecutors.newTaskExecutor("test-virtual", true));
+        }
+    }
+}
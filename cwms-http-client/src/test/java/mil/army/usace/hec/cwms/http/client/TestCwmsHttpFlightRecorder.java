@@ -0,0 +1,45 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+class TestCwmsHttpFlightRecorder {
+
+    @Test
+    void testJava8RecorderIsNoOp() {
+        assertSame(FlightRecording.NONE, CwmsHttpFlightRecorder.beginRequest("offices", "GET"));
+        assertSame(FlightRecording.NONE, CwmsHttpFlightRecorder.beginAuthRefresh("authenticator"));
+        assertSame(FlightRecording.NONE, CwmsHttpFlightRecorder.beginDeserialization(String.class, 16));
+        assertSame(FlightRecording.NONE, CwmsHttpFlightRecorder.beginSerialization(String.class));
+        assertDoesNotThrow(() -> CwmsHttpFlightRecorder.recordRetry("offices", "GET", 1, 401));
+        try (FlightRecording recording = CwmsHttpFlightRecorder.beginRequest("offices", "GET")) {
+            assertSame(FlightRecording.NONE, recording.status(200).bytes(16).detail("detail"));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.Test;
+
+class TestDeadline {
+
+    @Test
+    void testDeadline() {
+        Deadline soon = Deadline.after(Duration.ofSeconds(1));
+        Deadline later = Deadline.after(Duration.ofHours(1));
+        assertFalse(soon.isExpired());
+        assertTrue(soon.remaining().compareTo(Duration.ofSeconds(1)) <= 0);
+        assertSame(soon, soon.earlierOf(later));
+        assertSame(soon, later.earlierOf(soon));
+        assertSame(soon, soon.earlierOf(null));
+        assertSame(soon, soon.withTimeout(Duration.ofMinutes(1)));
+        assertTrue(Deadline.after(Duration.ZERO).isExpired());
+        assertEquals(Duration.ZERO, Deadline.after(Duration.ofSeconds(-1)).remaining());
+        assertFalse(Deadline.after(Duration.ofSeconds(Long.MAX_VALUE)).isExpired());
+    }
+
+    @Test
+    void testRequestTimeout() throws Exception {
+        try (MockWebServer mockWebServer = new MockWebServer()) {
+            mockWebServer.enqueue(new MockResponse().setBody("slow").setHeadersDelay(2, TimeUnit.SECONDS));
+            mockWebServer.enqueue(new MockResponse().setBody("fast"));
+            mockWebServer.start();
+            ApiConnectionInfo apiConnectionInfo = new ApiConnectionInfoBuilder(mockWebServer.url("/").toString()).build();
+            long start = System.nanoTime();
+            DeadlineExceededException ex = assertThrows(DeadlineExceededException.class, () -> new HttpRequestBuilderImpl(apiConnectionInfo, "levels")
+                .withTimeout(Duration.ofMillis(200))
+                .get()
+                .withMediaType("text/plain")
+                .execute());
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+            assertEquals(mockWebServer.url("/levels").toString(), ex.getUrl());
+            try (HttpRequestResponse response = new HttpRequestBuilderImpl(apiConnectionInfo, "levels")
+                .withTimeout(Duration.ofSeconds(10))
+                .get()
+                .withMediaType("text/plain")
+                .execute()) {
+                assertEquals("fast", response.getBody());
+            }
+        }
+    }
+
+    @Test
+    void testConnectionInfoDeadline() throws Exception {
+        try (MockWebServer mockWebServer = new MockWebServer()) {
+            mockWebServer.start();
+            ApiConnectionInfo apiConnectionInfo = new ApiConnectionInfoBuilder(mockWebServer.url("/").toString()).build();
+            ApiConnectionInfo expired = apiConnectionInfo.withDeadline(Deadline.after(Duration.ZERO));
+            assertEquals(apiConnectionInfo.getApiRoot(), expired.getApiRoot());
+            assertThrows(DeadlineExceededException.class, () -> new HttpRequestBuilderImpl(expired, "levels")
+                .withTimeout(Duration.ofHours(1))
+                .get()
+                .withMediaType("text/plain")
+                .execute());
+            //failed fast without sending the request
+            assertEquals(0, mockWebServer.getRequestCount());
+            Deadline deadline = Deadline.after(Duration.ofMinutes(1));
+            assertSame(deadline, apiConnectionInfo.withDeadline(Deadline.after(Duration.ofHours(1))).withDeadline(deadline).deadline().get());
+        }
+    }
+}
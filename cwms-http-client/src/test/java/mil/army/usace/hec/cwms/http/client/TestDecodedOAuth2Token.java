@@ -0,0 +1,73 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import java.time.Instant;
+import java.util.Date;
+import mil.army.usace.hec.cwms.http.client.auth.OAuth2Token;
+import org.junit.jupiter.api.Test;
+
+class TestDecodedOAuth2Token {
+
+    @Test
+    void testDecodesJwtExpiries() {
+        Instant accessExpiry = Instant.ofEpochSecond(Instant.now().plusSeconds(600).getEpochSecond());
+        OAuth2Token token = createToken(jwt(accessExpiry), jwt(Instant.now().minusSeconds(600)));
+        DecodedOAuth2Token decoded = DecodedOAuth2Token.decode(token);
+        assertEquals(accessExpiry.toEpochMilli(), decoded.getAccessExpiresAtMillis());
+        assertFalse(decoded.isAccessTokenExpired());
+        assertTrue(decoded.isRefreshTokenExpired());
+        assertEquals("Bearer " + token.getAccessToken(), decoded.getAuthorization());
+    }
+
+    @Test
+    void testOpaqueTokens() {
+        OAuth2Token token = createToken("opaque-access", "opaque-refresh");
+        long before = System.currentTimeMillis();
+        DecodedOAuth2Token decoded = DecodedOAuth2Token.decode(token);
+        assertTrue(decoded.getAccessExpiresAtMillis() >= before + 3_600_000L);
+        assertFalse(decoded.isAccessTokenExpired());
+        assertTrue(decoded.isRefreshTokenExpired());
+    }
+
+    private static String jwt(Instant expiresAt) {
+        return JWT.create().withExpiresAt(Date.from(expiresAt)).sign(Algorithm.HMAC256("secret"));
+    }
+
+    private static OAuth2Token createToken(String accessToken, String refreshToken) {
+        OAuth2Token token = new OAuth2Token();
+        token.setTokenType("Bearer");
+        token.setAccessToken(accessToken);
+        token.setRefreshToken(refreshToken);
+        token.setExpiresIn(3600);
+        return token;
+    }
+}
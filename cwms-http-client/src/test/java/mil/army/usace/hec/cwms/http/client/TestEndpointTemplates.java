@@ -0,0 +1,71 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import okhttp3.MediaType;
+import org.junit.jupiter.api.Test;
+
+class TestEndpointTemplates {
+
+    @Test
+    void testEndpointResolvedOnce() {
+        EndpointTemplates templates = new EndpointTemplates("http://localhost:11524/cwms-data/", 2);
+        EndpointTemplates.EndpointTemplate levels = templates.resolve("levels/SWT.Elev.Inst.0.Top of Normal");
+        assertEquals("http://localhost:11524/cwms-data/levels/SWT.Elev.Inst.0.Top%20of%20Normal", levels.getUrl().toString());
+        assertEquals("http://localhost:11524/cwms-data/levels/SWT.Elev.Inst.0.Top%20of%20Normal", levels.getMetricsPath());
+        assertSame(levels, templates.resolve("levels/SWT.Elev.Inst.0.Top of Normal"));
+        assertEquals("http://localhost:11524/cwms-data/", templates.resolve("").getUrl().toString());
+        //full cache is cleared rather than growing with identifier endpoints
+        templates.resolve("catalog");
+        assertNotSame(levels, templates.resolve("levels/SWT.Elev.Inst.0.Top of Normal"));
+    }
+
+    @Test
+    void testUncached() {
+        EndpointTemplates templates = new EndpointTemplates("http://localhost:11524/cwms-data", 0);
+        assertNotSame(templates.resolve("catalog"), templates.resolve("catalog"));
+        assertEquals("http://localhost:11524/cwms-data/catalog", templates.resolve("catalog").getUrl().toString());
+        assertEquals("http://localhost:11524/catalog", templates.resolve("catalog").getMetricsPath());
+    }
+
+    @Test
+    void testInvalidRoot() {
+        assertNull(new EndpointTemplates("not a url").getApiRootUrl());
+        assertNull(new EndpointTemplates(null).getApiRootUrl());
+    }
+
+    @Test
+    void testMediaTypeCache() {
+        MediaType json = EndpointTemplates.parseMediaType("application/json;version=2");
+        assertEquals("application/json;version=2", json.toString());
+        assertSame(json, EndpointTemplates.parseMediaType("application/json;version=2"));
+        assertNull(EndpointTemplates.parseMediaType("not a media type"));
+    }
+}
@@ -26,6 +26,9 @@ package mil.army.usace.hec.cwms.http.client;
 
 import mil.army.usace.hec.cwms.http.client.HttpRequestBuilderImpl.HttpRequestExecutorImpl;
 import mil.army.usace.hec.cwms.http.client.request.HttpRequestExecutor;
+import okhttp3.Cookie;
+import okhttp3.CookieJar;
+import okhttp3.HttpUrl;
 import okhttp3.Request;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
@@ -41,6 +44,13 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.Provider;
 import java.security.Security;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -488,6 +498,94 @@ class TestHttpRequestBuilderImpl {
         }
     }
 
+    @Test
+    void testHttpRequestBuilderExecuteAsyncGetSuccess() throws Exception {
+        MockWebServer mockWebServer = new MockWebServer();
+        try {
+            String body = readJsonFile("success.json");
+            mockWebServer.enqueue(new MockResponse().setBody(body).setResponseCode(200));
+            mockWebServer.start();
+            String baseUrl = String.format("http://localhost:%s", mockWebServer.getPort());
+            ApiConnectionInfo apiConnectionInfo = new ApiConnectionInfoBuilder(baseUrl).build();
+            HttpRequestExecutor executor = new HttpRequestBuilderImpl(apiConnectionInfo, "success")
+                .get()
+                .withMediaType(ACCEPT_HEADER_V1);
+            CompletableFuture<HttpRequestResponse> future = executor.executeAsync();
+            try (HttpRequestResponse response = future.get(30, TimeUnit.SECONDS)) {
+                assertNotNull(response.getBody());
+            }
+        } finally {
+            mockWebServer.shutdown();
+        }
+    }
+
+    @Test
+    void testHttpRequestBuilderExecuteAsyncGetNoDataFound() throws IOException, InterruptedException, TimeoutException {
+        MockWebServer mockWebServer = new MockWebServer();
+        try {
+            String body = readJsonFile("nodatafound.json");
+            mockWebServer.enqueue(new MockResponse().setBody(body).setResponseCode(404));
+            mockWebServer.start();
+            String baseUrl = String.format("http://localhost:%s", mockWebServer.getPort());
+            ApiConnectionInfo apiConnectionInfo = new ApiConnectionInfoBuilder(baseUrl).build();
+            HttpRequestExecutor executor = new HttpRequestBuilderImpl(apiConnectionInfo, "success")
+                .get()
+                .withMediaType(ACCEPT_HEADER_V1);
+            CompletableFuture<HttpRequestResponse> future = executor.executeAsync();
+            try {
+                future.get(30, TimeUnit.SECONDS).close();
+                fail("Expected a NoDataFoundException");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof NoDataFoundException);
+                assertEquals(404, ((NoDataFoundException) e.getCause()).getErrorCode());
+            }
+        } finally {
+            mockWebServer.shutdown();
+        }
+    }
+
+    @Test
+    void testHttpRequestBuilderExecuteAsyncRuntimeFailure() throws Exception {
+        MockWebServer mockWebServer = new MockWebServer();
+        try {
+            mockWebServer.enqueue(new MockResponse().setBody(readJsonFile("success.json")).setResponseCode(200));
+            mockWebServer.start();
+            String baseUrl = String.format("http://localhost:%s", mockWebServer.getPort());
+            AtomicInteger loads = new AtomicInteger();
+            CookieJar failingJar = new CookieJar() {
+                @Override
+                public void saveFromResponse(HttpUrl url, List<Cookie> cookies) {
+                    //nothing to save
+                }
+
+                @Override
+                public List<Cookie> loadForRequest(HttpUrl url) {
+                    //the first load adds the request headers, the next one is made while handling the response
+                    if (loads.incrementAndGet() > 1) {
+                        throw new IllegalStateException("cookie store unavailable");
+                    }
+                    return Collections.emptyList();
+                }
+            };
+            ApiConnectionInfo apiConnectionInfo = new ApiConnectionInfoBuilder(baseUrl)
+                .withCookieJarSupplier(new CookieJarFactory.CookieJarSupplier() {
+                    @Override
+                    CookieJar getCookieJar() {
+                        return failingJar;
+                    }
+                })
+                .build();
+            CompletableFuture<HttpRequestResponse> future = new HttpRequestBuilderImpl(apiConnectionInfo, "success")
+                .get()
+                .withMediaType(ACCEPT_HEADER_V1)
+                .executeAsync();
+            ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(30, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        } finally {
+            mockWebServer.shutdown();
+        }
+    }
+
     @Test
     void testHttpRequestBuilderExecuteWithMetrics() throws IOException {
         CwmsHttpClientMetrics.isMetricsEnabled();
@@ -25,16 +25,24 @@
 package mil.army.usace.hec.cwms.http.client;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 import okhttp3.MediaType;
 import okhttp3.ResponseBody;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import usace.metrics.services.Metrics;
+import usace.metrics.services.MetricsService;
+import usace.metrics.services.config.MetricsConfigBuilder;
 
 class TestHttpRequestResponse {
 
@@ -60,4 +68,56 @@ class TestHttpRequestResponse {
         }
     }
 
+    @AfterEach
+    void restoreMetricsService() {
+        CwmsHttpClientMetrics.setMetricsServiceProvider(null);
+        CwmsHttpClientMetrics.refreshMetricsEnabled();
+    }
+
+    @Test
+    void testHttpRequestResponseMapBody() throws IOException {
+        RecordingMetricsService metricsService = recordMetrics();
+        String bodyStr = "Hello World";
+        ResponseBody body = ResponseBody.create(bodyStr, MediaType.parse("text/plain"));
+        HttpRequestResponse httpRequestResponse = new HttpRequestResponse(body, Collections.emptySet(), "http://localhost/test");
+        int length = httpRequestResponse.mapBody(String.class, String::length);
+        assertEquals(bodyStr.length(), length);
+        assertEquals(Arrays.asList(
+            Arrays.asList("http://localhost/test", HttpRequestResponse.BODY_READ_METRIC, "String"),
+            Arrays.asList("http://localhost/test", HttpRequestResponse.BIND_METRIC, "String")), metricsService.paths);
+    }
+
+    @Test
+    void testHttpRequestResponseWithoutMetricsPath() throws IOException {
+        RecordingMetricsService metricsService = recordMetrics();
+        ResponseBody body = ResponseBody.create("Hello World", MediaType.parse("text/plain"));
+        HttpRequestResponse httpRequestResponse = new HttpRequestResponse(body, Collections.emptySet());
+        assertEquals("Hello World", httpRequestResponse.getBody());
+        assertTrue(metricsService.paths.isEmpty());
+    }
+
+    private static RecordingMetricsService recordMetrics() {
+        RecordingMetricsService metricsService = new RecordingMetricsService();
+        CwmsHttpClientMetrics.setMetricsServiceProvider(() -> metricsService);
+        //reading the flag first starts a new refresh period, so the configuration does not override it mid-test
+        CwmsHttpClientMetrics.isMetricsEnabled();
+        CwmsHttpClientMetrics.setMetricsEnabled(true);
+        return metricsService;
+    }
+
+    private static final class RecordingMetricsService extends MetricsService {
+
+        private final List<List<String>> paths = new CopyOnWriteArrayList<>();
+
+        private RecordingMetricsService() {
+            super(new MetricsConfigBuilder().build());
+        }
+
+        @Override
+        public Metrics createMetrics(String... paths) {
+            this.paths.add(Arrays.asList(paths));
+            return super.createMetrics(paths);
+        }
+    }
+
 }
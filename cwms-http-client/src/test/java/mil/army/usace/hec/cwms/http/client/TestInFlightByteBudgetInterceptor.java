@@ -0,0 +1,148 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okio.Buffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestInFlightByteBudgetInterceptor {
+
+    private static final String BODY = new String(new char[200]).replace('\0', 'x');
+    private MockWebServer mockWebServer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    void testFailFastWhenExhausted() throws IOException {
+        InFlightByteBudgetInterceptor budget = new InFlightByteBudgetInterceptor(100, 0, 10);
+        OkHttpClient client = createClient(budget);
+        mockWebServer.enqueue(new MockResponse().setBody(BODY));
+        mockWebServer.enqueue(new MockResponse().setBody(BODY));
+        Response first = client.newCall(request()).execute();
+        assertEquals(200, budget.getBytesInFlight());
+        assertEquals(1, budget.getRequestsInFlight());
+        assertThrows(InFlightBudgetExceededException.class, () -> client.newCall(request()).execute());
+        assertEquals(1, budget.getRejectedRequests());
+        assertEquals(BODY, first.body().string());
+        first.close();
+        assertEquals(0, budget.getBytesInFlight());
+        assertEquals(0, budget.getRequestsInFlight());
+        try (Response second = client.newCall(request()).execute()) {
+            assertEquals(BODY, second.body().string());
+        }
+        assertEquals(0, budget.getBytesInFlight());
+    }
+
+    @Test
+    void testBlocksUntilReleased() throws Exception {
+        InFlightByteBudgetInterceptor budget = new InFlightByteBudgetInterceptor(100, 10_000, 10);
+        OkHttpClient client = createClient(budget);
+        mockWebServer.enqueue(new MockResponse().setBody(BODY));
+        mockWebServer.enqueue(new MockResponse().setBody(BODY));
+        Response first = client.newCall(request()).execute();
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> {
+            try (Response response = client.newCall(request()).execute()) {
+                return response.body().string();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (budget.getWaitingRequests() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, budget.getWaitingRequests());
+        assertFalse(second.isDone());
+        first.close();
+        assertEquals(BODY, second.get(5, TimeUnit.SECONDS));
+        assertEquals(0, budget.getBytesInFlight());
+    }
+
+    @Test
+    void testWaitEndsAtDeadline() throws IOException {
+        InFlightByteBudgetInterceptor budget = new InFlightByteBudgetInterceptor(100, 30_000, 10);
+        OkHttpClient client = createClient(budget);
+        mockWebServer.enqueue(new MockResponse().setBody(BODY));
+        try (Response first = client.newCall(request()).execute()) {
+            Request late = request().newBuilder().tag(Deadline.class, Deadline.after(Duration.ofMillis(100))).build();
+            long start = System.nanoTime();
+            assertThrows(DeadlineExceededException.class, () -> client.newCall(late).execute());
+            assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(10)) < 0);
+            assertEquals(0, budget.getWaitingRequests());
+            assertEquals(0, budget.getRejectedRequests());
+            assertEquals(BODY, first.body().string());
+        }
+        assertEquals(1, mockWebServer.getRequestCount());
+        assertEquals(0, budget.getBytesInFlight());
+    }
+
+    @Test
+    void testStreamedBytesWithoutContentLength() throws IOException {
+        InFlightByteBudgetInterceptor budget = new InFlightByteBudgetInterceptor(1_000, 0, 10);
+        OkHttpClient client = createClient(budget);
+        mockWebServer.enqueue(new MockResponse().setChunkedBody(new Buffer().writeUtf8(BODY), 50));
+        try (Response response = client.newCall(request()).execute()) {
+            assertEquals(10, budget.getBytesInFlight());
+            response.body().source().require(BODY.length());
+            assertEquals(BODY.length(), budget.getBytesInFlight());
+        }
+        assertEquals(0, budget.getBytesInFlight());
+    }
+
+    private OkHttpClient createClient(InFlightByteBudgetInterceptor budget) {
+        return new OkHttpClient.Builder()
+            .addInterceptor(budget)
+            .build();
+    }
+
+    private Request request() {
+        return new Request.Builder().url(mockWebServer.url("/test")).build();
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import mil.army.usace.hec.cwms.http.client.auth.OAuth2Token;
+import mil.army.usace.hec.cwms.http.client.auth.OAuth2TokenProvider;
+import org.junit.jupiter.api.Test;
+
+class TestOAuth2TokenManager {
+
+    @Test
+    void testCachedTokenReadWithoutProvider() throws IOException {
+        CountingTokenProvider provider = new CountingTokenProvider(Instant.now().plusSeconds(3600));
+        OAuth2TokenManager manager = new OAuth2TokenManager(provider, -1, 0);
+        OAuth2Token token = manager.getToken();
+        for (int i = 0; i < 10; i++) {
+            assertSame(token, manager.getToken());
+        }
+        assertEquals(1, provider.getTokenCalls.get());
+        assertEquals(0, provider.refreshCalls.get());
+    }
+
+    @Test
+    void testExpiredTokenRenewedOnRead() throws IOException {
+        CountingTokenProvider provider = new CountingTokenProvider(Instant.now().minusSeconds(60));
+        OAuth2TokenManager manager = new OAuth2TokenManager(provider, -1, 0);
+        manager.getToken();
+        manager.getToken();
+        assertEquals(1, provider.refreshCalls.get());
+    }
+
+    @Test
+    void testConcurrentRenewalsCollapse() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountingTokenProvider provider = new CountingTokenProvider(Instant.now().plusSeconds(3600)) {
+            @Override
+            public OAuth2Token refreshToken() throws IOException {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.refreshToken();
+            }
+        };
+        OAuth2TokenManager manager = new OAuth2TokenManager(provider, -1, 0);
+        String rejected = "Bearer " + manager.getToken().getAccessToken();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<OAuth2Token>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> manager.renewToken(rejected)));
+            }
+            Thread.sleep(200);
+            release.countDown();
+            OAuth2Token renewed = futures.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<OAuth2Token> future : futures) {
+                assertSame(renewed, future.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, provider.refreshCalls.get());
+    }
+
+    @Test
+    void testProactiveRefreshAheadOfExpiry() throws Exception {
+        CountDownLatch refreshed = new CountDownLatch(1);
+        CountingTokenProvider provider = new CountingTokenProvider(Instant.now().plusSeconds(4)) {
+            @Override
+            public OAuth2Token refreshToken() throws IOException {
+                refreshed.countDown();
+                return super.refreshToken();
+            }
+        };
+        OAuth2TokenManager manager = new OAuth2TokenManager(provider, 2_500, 0);
+        OAuth2Token initial = manager.getToken();
+        assertTrue(refreshed.await(5, TimeUnit.SECONDS));
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (manager.getToken() == initial && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, provider.refreshCalls.get());
+        assertTrue(manager.getToken() != initial);
+    }
+
+    @Test
+    void testConnectionsSharingProviderShareTokens() throws Exception {
+        CountingTokenProvider provider = new CountingTokenProvider(Instant.now().plusSeconds(3600));
+        MockHttpServer mockHttpServer = MockHttpServer.create();
+        try {
+            mockHttpServer.start();
+            String root = String.format("http://localhost:%s/cwms-data/", mockHttpServer.getPort());
+            ApiConnectionInfo first = new ApiConnectionInfoBuilder(root).withTokenProvider(provider).build();
+            ApiConnectionInfo second = new ApiConnectionInfoBuilder(root).withTokenProvider(provider).build();
+            for (ApiConnectionInfo apiConnectionInfo : new ApiConnectionInfo[] {first, second}) {
+                mockHttpServer.enqueue("{}");
+                try (HttpRequestResponse response = new HttpRequestBuilderImpl(apiConnectionInfo, "catalog")
+                    .get()
+                    .withMediaType("application/json")
+                    .execute()) {
+                    assertEquals("{}", response.getBody());
+                }
+            }
+            assertSame(OAuth2TokenManager.forProvider(provider), OAuth2TokenManager.forProvider(provider));
+        } finally {
+            mockHttpServer.shutdown();
+        }
+        assertEquals(1, provider.getTokenCalls.get());
+        assertEquals(0, provider.refreshCalls.get());
+    }
+
+    private static class CountingTokenProvider implements OAuth2TokenProvider {
+
+        private final AtomicInteger getTokenCalls = new AtomicInteger();
+        private final AtomicInteger refreshCalls = new AtomicInteger();
+        private final Instant expiresAt;
+
+        private CountingTokenProvider(Instant expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+
+        @Override
+        public OAuth2Token getToken() throws IOException {
+            getTokenCalls.incrementAndGet();
+            return createToken(expiresAt);
+        }
+
+        @Override
+        public OAuth2Token refreshToken() throws IOException {
+            refreshCalls.incrementAndGet();
+            return createToken(Instant.now().plusSeconds(3600));
+        }
+
+        @Override
+        public OAuth2Token newToken() throws IOException {
+            return createToken(Instant.now().plusSeconds(3600));
+        }
+
+        private static OAuth2Token createToken(Instant expiresAt) {
+            OAuth2Token token = new OAuth2Token();
+            token.setTokenType("Bearer");
+            token.setAccessToken(JWT.create().withExpiresAt(Date.from(expiresAt)).sign(Algorithm.HMAC256("secret")));
+            token.setRefreshToken(JWT.create().withExpiresAt(Date.from(Instant.now().plusSeconds(7200))).sign(Algorithm.HMAC256("secret")));
+            token.setExpiresIn(3600);
+            return token;
+        }
+    }
+}
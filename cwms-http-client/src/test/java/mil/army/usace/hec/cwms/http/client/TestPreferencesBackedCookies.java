@@ -24,14 +24,19 @@
 
 package mil.army.usace.hec.cwms.http.client;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
+import java.lang.ref.WeakReference;
 import java.net.URI;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.prefs.BackingStoreException;
 import java.util.prefs.Preferences;
 import okhttp3.Cookie;
 import okhttp3.CookieJar;
@@ -102,4 +107,101 @@ final class TestPreferencesBackedCookies {
         urIs = preferencesBackedCookieStore.getURIs();
         assertTrue(urIs.isEmpty());
     }
+
+    @Test
+    void testDomainIndexedLookup() throws BackingStoreException {
+        Preferences node = Preferences.userRoot().node("test").node("cwms").node("http_client_domain_lookup");
+        node.removeNode();
+        node = Preferences.userRoot().node("test").node("cwms").node("http_client_domain_lookup");
+        PreferencesBackedCookieStore store = new PreferencesBackedCookieStore(node);
+        URI uri = URI.create("https://cwms-data.example.com/cwms-data/");
+        java.net.HttpCookie domainCookie = new java.net.HttpCookie("session", "abc");
+        domainCookie.setDomain(".example.com");
+        domainCookie.setPath("/");
+        java.net.HttpCookie hostCookie = new java.net.HttpCookie("host", "def");
+        hostCookie.setDomain("cwms-data.example.com");
+        hostCookie.setPath("/");
+        store.add(uri, domainCookie);
+        store.add(uri, hostCookie);
+        assertEquals(2, store.get(uri).size());
+        assertEquals(1, store.get(URI.create("https://other.example.com/")).size());
+        assertTrue(store.get(URI.create("https://example.org/")).isEmpty());
+        java.net.HttpCookie expired = new java.net.HttpCookie("session", "");
+        expired.setDomain(".example.com");
+        expired.setPath("/");
+        expired.setMaxAge(0);
+        store.add(uri, expired);
+        assertEquals(Arrays.asList(hostCookie), store.get(uri));
+    }
+
+    @Test
+    void testPersistedWithoutShutdown() throws BackingStoreException, InterruptedException {
+        Preferences node = Preferences.userRoot().node("test").node("cwms").node("http_client_persisted");
+        node.removeNode();
+        node = Preferences.userRoot().node("test").node("cwms").node("http_client_persisted");
+        PreferencesBackedCookieStore store = new PreferencesBackedCookieStore(node);
+        URI uri = URI.create("https://cwms-data.example.com/cwms-data/");
+        java.net.HttpCookie cookie = new java.net.HttpCookie("session", "abc");
+        cookie.setDomain("cwms-data.example.com");
+        cookie.setPath("/");
+        cookie.setMaxAge(3600);
+        cookie.setHttpOnly(true);
+        store.add(uri, cookie);
+        long deadline = System.currentTimeMillis() + 10_000;
+        List<java.net.HttpCookie> restored = new PreferencesBackedCookieStore(node).get(uri);
+        while (restored.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            restored = new PreferencesBackedCookieStore(node).get(uri);
+        }
+        assertEquals(1, restored.size());
+        java.net.HttpCookie restoredCookie = restored.get(0);
+        assertEquals("abc", restoredCookie.getValue());
+        assertEquals("/", restoredCookie.getPath());
+        assertTrue(restoredCookie.isHttpOnly());
+        assertTrue(restoredCookie.getMaxAge() > 3500);
+    }
+
+    @Test
+    void testStoresSharingPreferencesKeepEachOthersCookies() throws BackingStoreException {
+        Preferences node = Preferences.userRoot().node("test").node("cwms").node("http_client_shared");
+        node.removeNode();
+        node = Preferences.userRoot().node("test").node("cwms").node("http_client_shared");
+        PreferencesBackedCookieStore first = new PreferencesBackedCookieStore(node);
+        PreferencesBackedCookieStore second = new PreferencesBackedCookieStore(node);
+        URI firstUri = URI.create("https://first.example.com/cwms-data/");
+        URI secondUri = URI.create("https://second.example.com/cwms-data/");
+        java.net.HttpCookie firstCookie = new java.net.HttpCookie("first", "abc");
+        firstCookie.setDomain("first.example.com");
+        firstCookie.setPath("/");
+        java.net.HttpCookie secondCookie = new java.net.HttpCookie("second", "def");
+        secondCookie.setDomain("second.example.com");
+        secondCookie.setPath("/");
+        first.add(firstUri, firstCookie);
+        second.add(secondUri, secondCookie);
+        first.writeCookiesToPreferences();
+        second.writeCookiesToPreferences();
+        assertEquals(2, new PreferencesBackedCookieStore(node).getCookies().size());
+        //removing its own cookie must not delete the cookie persisted by the other store
+        assertTrue(first.remove(firstUri, firstCookie));
+        first.writeCookiesToPreferences();
+        second.writeCookiesToPreferences();
+        List<java.net.HttpCookie> restored = new PreferencesBackedCookieStore(node).getCookies();
+        assertEquals(1, restored.size());
+        assertEquals("def", restored.get(0).getValue());
+        assertTrue(second.removeAll());
+        second.writeCookiesToPreferences();
+        assertTrue(new PreferencesBackedCookieStore(node).getCookies().isEmpty());
+    }
+
+    @Test
+    void testUnreferencedStoreCollected() throws InterruptedException {
+        Preferences node = Preferences.userRoot().node("test").node("cwms").node("http_client_collected");
+        WeakReference<PreferencesBackedCookieStore> reference = new WeakReference<>(new PreferencesBackedCookieStore(node));
+        //neither the expired cookie sweep nor the shutdown flush may keep the store reachable
+        for (int i = 0; i < 20 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        assertNull(reference.get());
+    }
 }
@@ -0,0 +1,246 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.Test;
+
+class TestPriorityLaneInterceptor {
+
+    @Test
+    void testInteractiveFirstBulkShare() throws Exception {
+        PriorityLaneInterceptor lanes = new PriorityLaneInterceptor(1, 50);
+        try (MockWebServer mockWebServer = slowFirstServer()) {
+            OkHttpClient client = new OkHttpClient.Builder().addInterceptor(lanes).build();
+            List<CompletableFuture<String>> calls = new ArrayList<>();
+            calls.add(call(client, mockWebServer, "blocker", RequestPriority.NORMAL, null));
+            awaitInFlight(lanes, 1);
+            String[] paths = {"bulk1", "bulk2", "bulk3", "bulk4", "interactive1", "interactive2"};
+            for (String path : paths) {
+                RequestPriority priority = path.startsWith("bulk") ? RequestPriority.BULK : RequestPriority.INTERACTIVE;
+                int queued = lanes.getQueuedRequests(priority);
+                calls.add(call(client, mockWebServer, path, priority, null));
+                awaitQueued(lanes, priority, queued + 1);
+            }
+            for (CompletableFuture<String> call : calls) {
+                call.get(10, TimeUnit.SECONDS);
+            }
+            List<String> order = new ArrayList<>();
+            for (int i = 0; i < calls.size(); i++) {
+                order.add(mockWebServer.takeRequest().getPath().substring(1));
+            }
+            //half of the admissions go to waiting bulk requests, interactive ones go first otherwise
+            assertEquals(Arrays.asList("blocker", "interactive1", "bulk1", "interactive2", "bulk2", "bulk3", "bulk4"), order);
+            assertEquals(4, lanes.getAdmittedRequests(RequestPriority.BULK));
+            assertEquals(2, lanes.getAdmittedRequests(RequestPriority.INTERACTIVE));
+            assertEquals(0, lanes.getRequestsInFlight());
+        }
+    }
+
+    @Test
+    void testNormalAheadOfBulk() throws Exception {
+        PriorityLaneInterceptor lanes = new PriorityLaneInterceptor(1, 0);
+        try (MockWebServer mockWebServer = slowFirstServer()) {
+            OkHttpClient client = new OkHttpClient.Builder().addInterceptor(lanes).build();
+            List<CompletableFuture<String>> calls = new ArrayList<>();
+            calls.add(call(client, mockWebServer, "blocker", RequestPriority.BULK, null));
+            awaitInFlight(lanes, 1);
+            calls.add(call(client, mockWebServer, "bulk", RequestPriority.BULK, null));
+            awaitQueued(lanes, RequestPriority.BULK, 1);
+            calls.add(call(client, mockWebServer, "normal", null, null));
+            awaitQueued(lanes, RequestPriority.NORMAL, 1);
+            for (CompletableFuture<String> call : calls) {
+                call.get(10, TimeUnit.SECONDS);
+            }
+            assertEquals("/blocker", mockWebServer.takeRequest().getPath());
+            assertEquals("/normal", mockWebServer.takeRequest().getPath());
+            assertEquals("/bulk", mockWebServer.takeRequest().getPath());
+        }
+    }
+
+    @Test
+    void testQueuedUntilDeadline() throws Exception {
+        PriorityLaneInterceptor lanes = new PriorityLaneInterceptor(1, 20);
+        try (MockWebServer mockWebServer = slowFirstServer()) {
+            OkHttpClient client = new OkHttpClient.Builder().addInterceptor(lanes).build();
+            CompletableFuture<String> blocker = call(client, mockWebServer, "blocker", RequestPriority.NORMAL, null);
+            awaitInFlight(lanes, 1);
+            Deadline deadline = Deadline.after(Duration.ofMillis(100));
+            Request request = request(mockWebServer, "late", RequestPriority.INTERACTIVE, deadline);
+            assertThrows(DeadlineExceededException.class, () -> client.newCall(request).execute());
+            assertEquals(0, lanes.getQueuedRequests(RequestPriority.INTERACTIVE));
+            blocker.get(10, TimeUnit.SECONDS);
+            assertEquals(1, mockWebServer.getRequestCount());
+        }
+    }
+
+    @Test
+    void testAsyncInteractiveAheadOfAsyncBulk() throws Exception {
+        PriorityLaneInterceptor lanes = new PriorityLaneInterceptor(1, 0);
+        try (MockWebServer mockWebServer = slowFirstServer()) {
+            //a single dispatcher thread, bulk calls waiting there would hold it ahead of the interactive call
+            okhttp3.Dispatcher dispatcher = new okhttp3.Dispatcher();
+            dispatcher.setMaxRequests(1);
+            OkHttpClient client = new OkHttpClient.Builder().dispatcher(dispatcher).addInterceptor(lanes).build();
+            List<CompletableFuture<String>> calls = new ArrayList<>();
+            calls.add(enqueue(client, lanes, mockWebServer, "blocker", RequestPriority.BULK));
+            awaitInFlight(lanes, 1);
+            calls.add(enqueue(client, lanes, mockWebServer, "bulk1", RequestPriority.BULK));
+            calls.add(enqueue(client, lanes, mockWebServer, "bulk2", RequestPriority.BULK));
+            calls.add(enqueue(client, lanes, mockWebServer, "interactive", RequestPriority.INTERACTIVE));
+            calls.add(call(client, mockWebServer, "sync-interactive", RequestPriority.INTERACTIVE, null));
+            awaitQueued(lanes, RequestPriority.INTERACTIVE, 2);
+            assertEquals(2, lanes.getQueuedRequests(RequestPriority.BULK));
+            //queued in their lanes, not on dispatcher threads, only the blocker and the synchronous call are running
+            assertEquals(2, dispatcher.runningCallsCount());
+            assertEquals(0, dispatcher.queuedCallsCount());
+            for (CompletableFuture<String> call : calls) {
+                call.get(10, TimeUnit.SECONDS);
+            }
+            assertEquals("/blocker", mockWebServer.takeRequest().getPath());
+            List<String> interactive = Arrays.asList(mockWebServer.takeRequest().getPath(), mockWebServer.takeRequest().getPath());
+            assertTrue(interactive.contains("/interactive"));
+            assertTrue(interactive.contains("/sync-interactive"));
+            assertEquals("/bulk1", mockWebServer.takeRequest().getPath());
+            assertEquals("/bulk2", mockWebServer.takeRequest().getPath());
+            assertEquals(0, lanes.getRequestsInFlight());
+        }
+    }
+
+    @Test
+    void testReservationExpiresAtDeadline() throws Exception {
+        PriorityLaneInterceptor lanes = new PriorityLaneInterceptor(1, 20);
+        try (MockWebServer mockWebServer = slowFirstServer()) {
+            OkHttpClient client = new OkHttpClient.Builder().addInterceptor(lanes).build();
+            CompletableFuture<String> blocker = enqueue(client, lanes, mockWebServer, "blocker", RequestPriority.NORMAL);
+            awaitInFlight(lanes, 1);
+            Request request = request(mockWebServer, "late", RequestPriority.BULK, Deadline.after(Duration.ofMillis(100)));
+            CompletableFuture<PriorityLaneInterceptor.Slot> reservation = lanes.reserve(request);
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> reservation.get(10, TimeUnit.SECONDS));
+            assertTrue(failure.getCause() instanceof DeadlineExceededException);
+            assertEquals(0, lanes.getQueuedRequests(RequestPriority.BULK));
+            CompletableFuture<PriorityLaneInterceptor.Slot> cancelled = lanes.reserve(request(mockWebServer, "gone", RequestPriority.BULK, null));
+            assertEquals(1, lanes.getQueuedRequests(RequestPriority.BULK));
+            cancelled.cancel(false);
+            assertEquals(0, lanes.getQueuedRequests(RequestPriority.BULK));
+            blocker.get(10, TimeUnit.SECONDS);
+            assertEquals(1, mockWebServer.getRequestCount());
+            assertEquals(0, lanes.getRequestsInFlight());
+        }
+    }
+
+    private static MockWebServer slowFirstServer() throws IOException {
+        MockWebServer mockWebServer = new MockWebServer();
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest recordedRequest) {
+                MockResponse response = new MockResponse().setBody(recordedRequest.getPath());
+                if ("/blocker".equals(recordedRequest.getPath())) {
+                    response.setHeadersDelay(500, TimeUnit.MILLISECONDS);
+                }
+                return response;
+            }
+        });
+        mockWebServer.start();
+        return mockWebServer;
+    }
+
+    private static CompletableFuture<String> call(OkHttpClient client, MockWebServer mockWebServer, String path,
+                                                  RequestPriority priority, Deadline deadline) {
+        Request request = request(mockWebServer, path, priority, deadline);
+        return CompletableFuture.supplyAsync(() -> {
+            try (Response response = client.newCall(request).execute()) {
+                return response.body().string();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }, runnable -> new Thread(runnable, "priority-lane-test-" + path).start());
+    }
+
+    private static CompletableFuture<String> enqueue(OkHttpClient client, PriorityLaneInterceptor lanes, MockWebServer mockWebServer,
+                                                     String path, RequestPriority priority) {
+        Request request = request(mockWebServer, path, priority, null);
+        CompletableFuture<String> future = new CompletableFuture<>();
+        lanes.reserve(request).thenAccept(slot -> client.newCall(request.newBuilder().tag(PriorityLaneInterceptor.Slot.class, slot).build())
+            .enqueue(new Callback() {
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    slot.release();
+                    future.completeExceptionally(e);
+                }
+
+                @Override
+                public void onResponse(Call call, Response response) throws IOException {
+                    slot.release();
+                    try (Response body = response) {
+                        future.complete(body.body().string());
+                    }
+                }
+            }));
+        return future;
+    }
+
+    private static Request request(MockWebServer mockWebServer, String path, RequestPriority priority, Deadline deadline) {
+        return new Request.Builder()
+            .url(mockWebServer.url("/" + path))
+            .tag(RequestPriority.class, priority)
+            .tag(Deadline.class, deadline)
+            .build();
+    }
+
+    private static void awaitInFlight(PriorityLaneInterceptor lanes, int requests) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (lanes.getRequestsInFlight() < requests && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static void awaitQueued(PriorityLaneInterceptor lanes, RequestPriority priority, int requests) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (lanes.getQueuedRequests(priority) < requests && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
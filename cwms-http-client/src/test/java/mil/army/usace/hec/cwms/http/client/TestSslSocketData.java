@@ -27,10 +27,19 @@ package mil.army.usace.hec.cwms.http.client;
 import static mil.army.usace.hec.cwms.http.client.TestApiConnectionInfo.getTestSslSocketFactory;
 import static mil.army.usace.hec.cwms.http.client.TestApiConnectionInfo.getTestX509TrustManager;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.io.IOException;
+import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSocketFactory;
 import javax.net.ssl.X509TrustManager;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+import okhttp3.tls.HandshakeCertificates;
+import okhttp3.tls.HeldCertificate;
 import org.junit.jupiter.api.Test;
 
 class TestSslSocketData {
@@ -50,4 +59,62 @@ class TestSslSocketData {
         assertThrows(NullPointerException.class, () -> new SslSocketData(getTestSslSocketFactory(), null));
     }
 
+    @Test
+    void testSharedPerContext() throws Exception {
+        SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(null, null, null);
+        X509TrustManager trustManager = getTestX509TrustManager();
+        SslSocketData first = SslSocketData.fromSslContext(sslContext, trustManager);
+        SslSocketData second = SslSocketData.fromSslContext(sslContext, trustManager);
+        assertSame(first.getSharedSslSocketFactory(), second.getSharedSslSocketFactory());
+        SSLContext otherContext = SSLContext.getInstance("TLS");
+        otherContext.init(null, null, null);
+        assertNotSame(first.getSharedSslSocketFactory(), SslSocketData.fromSslContext(otherContext, trustManager).getSharedSslSocketFactory());
+    }
+
+    @Test
+    void testSessionResumedAcrossClients() throws Exception {
+        HeldCertificate localhost = new HeldCertificate.Builder()
+            .addSubjectAlternativeName("localhost")
+            .build();
+        HandshakeCertificates serverCertificates = new HandshakeCertificates.Builder()
+            .heldCertificate(localhost)
+            .build();
+        HandshakeCertificates clientCertificates = new HandshakeCertificates.Builder()
+            .addTrustedCertificate(localhost.certificate())
+            .build();
+        try (MockWebServer mockWebServer = new MockWebServer()) {
+            mockWebServer.useHttps(serverCertificates.sslSocketFactory(), false);
+            mockWebServer.enqueue(new MockResponse().setBody("first").setSocketPolicy(SocketPolicy.DISCONNECT_AT_END));
+            mockWebServer.enqueue(new MockResponse().setBody("second").setSocketPolicy(SocketPolicy.DISCONNECT_AT_END));
+            mockWebServer.start();
+            String apiRoot = "https://localhost:" + mockWebServer.getPort();
+            SSLContext sslContext = clientCertificates.sslContext();
+            for (String expected : new String[] {"first", "second"}) {
+                //a new SslSocketData and client per request, as callers building ApiConnectionInfo per call do
+                SslSocketData sslSocketData = SslSocketData.fromSslContext(sslContext, clientCertificates.trustManager());
+                assertEquals(expected, get(apiRoot, sslSocketData));
+            }
+            SslSocketData sslSocketData = SslSocketData.fromSslContext(sslContext, clientCertificates.trustManager());
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (sslSocketData.getFullHandshakeCount() + sslSocketData.getResumedHandshakeCount() < 2
+                && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, sslSocketData.getFullHandshakeCount());
+            assertEquals(1, sslSocketData.getResumedHandshakeCount());
+        }
+    }
+
+    private static String get(String apiRoot, SslSocketData sslSocketData) throws IOException {
+        ApiConnectionInfo apiConnectionInfo = new ApiConnectionInfoBuilder(apiRoot)
+            .withSslSocketData(sslSocketData)
+            .build();
+        try (HttpRequestResponse response = new HttpRequestBuilderImpl(apiConnectionInfo, "test")
+            .get()
+            .withMediaType("text/plain")
+            .execute()) {
+            return response.getBody();
+        }
+    }
 }
@@ -0,0 +1,128 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import mil.army.usace.hec.cwms.http.client.trace.ClientSpan;
+import mil.army.usace.hec.cwms.http.client.trace.TraceContext;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestTraceContextInterceptor {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final String PARENT_ID = "00f067aa0ba902b7";
+    private MockWebServer mockWebServer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    void testTraceContextParsing() {
+        assertTrue(TraceContext.fromHeaders("00-" + TRACE_ID + "-" + PARENT_ID + "-01", null).isPresent());
+        assertFalse(TraceContext.fromHeaders("00-" + TRACE_ID + "-" + PARENT_ID, null).isPresent());
+        assertFalse(TraceContext.fromHeaders("00-" + TRACE_ID.toUpperCase() + "-" + PARENT_ID + "-01", null).isPresent());
+        assertFalse(TraceContext.fromHeaders(null, null).isPresent());
+    }
+
+    @Test
+    void testPropagatesCallerContext() throws Exception {
+        TraceContext parent = TraceContext.fromHeaders("00-" + TRACE_ID + "-" + PARENT_ID + "-01", "vendor=value")
+            .orElseThrow(AssertionError::new);
+        ClientSpanRecorder recorder = new ClientSpanRecorder(spans -> {
+        }, 8);
+        mockWebServer.enqueue(new MockResponse().setBody("body"));
+        execute(new TraceContextInterceptor(() -> parent, recorder));
+        RecordedRequest request = mockWebServer.takeRequest();
+        String traceparent = request.getHeader(TraceContextInterceptor.TRACEPARENT_HEADER);
+        assertTrue(traceparent.startsWith("00-" + TRACE_ID + "-"));
+        assertTrue(traceparent.endsWith("-01"));
+        assertEquals("vendor=value", request.getHeader(TraceContextInterceptor.TRACESTATE_HEADER));
+        List<ClientSpan> spans = recorder.drain();
+        assertEquals(1, spans.size());
+        ClientSpan span = spans.get(0);
+        assertEquals(TRACE_ID, span.getTraceId());
+        assertEquals(Optional.of(PARENT_ID), span.getParentSpanId());
+        assertNotEquals(PARENT_ID, span.getSpanId());
+        assertEquals(traceparent, "00-" + TRACE_ID + "-" + span.getSpanId() + "-01");
+        assertEquals(200, span.getStatus());
+        assertEquals(0, span.getRetryCount());
+        assertTrue(recorder.drain().isEmpty());
+    }
+
+    @Test
+    void testStartsNewTraceWithoutContext() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setBody("body"));
+        execute(new TraceContextInterceptor(() -> null, null));
+        String traceparent = mockWebServer.takeRequest().getHeader(TraceContextInterceptor.TRACEPARENT_HEADER);
+        assertTrue(TraceContext.fromHeaders(traceparent, null).isPresent());
+        assertFalse(traceparent.startsWith("00-" + TRACE_ID));
+    }
+
+    @Test
+    void testRecorderOverwritesOldestSpans() {
+        ClientSpanRecorder recorder = new ClientSpanRecorder(spans -> {
+        }, 4);
+        for (int i = 0; i < 6; i++) {
+            recorder.record(new ClientSpan.Builder().traceId(TRACE_ID).spanId(String.valueOf(i)).build());
+        }
+        List<ClientSpan> spans = recorder.drain();
+        assertEquals(4, spans.size());
+        assertEquals("2", spans.get(0).getSpanId());
+        assertEquals("5", spans.get(3).getSpanId());
+    }
+
+    private void execute(TraceContextInterceptor interceptor) throws IOException {
+        OkHttpClient client = new OkHttpClient.Builder()
+            .addInterceptor(interceptor)
+            .build();
+        Request request = new Request.Builder().url(mockWebServer.url("/test")).build();
+        try (Response response = client.newCall(request).execute()) {
+            assertEquals("body", response.body().string());
+        }
+    }
+}
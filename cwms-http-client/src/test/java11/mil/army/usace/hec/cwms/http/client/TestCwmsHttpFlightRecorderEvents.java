@@ -0,0 +1,127 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.http.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+class TestCwmsHttpFlightRecorderEvents {
+
+    private static final String REQUEST_EVENT = "mil.army.usace.hec.cwms.http.Request";
+    private static final String RETRY_EVENT = "mil.army.usace.hec.cwms.http.Retry";
+    private static final String AUTH_REFRESH_EVENT = "mil.army.usace.hec.cwms.http.AuthRefresh";
+    private static final String DESERIALIZATION_EVENT = "mil.army.usace.hec.cwms.http.Deserialization";
+    private static final String BODY = "{\"office\":\"SWT\"}";
+
+    @Test
+    void testEventsRecorded() throws IOException {
+        MockHttpServer mockHttpServer = MockHttpServer.create();
+        mockHttpServer.enqueue(401, "");
+        mockHttpServer.enqueue(BODY);
+        mockHttpServer.start();
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            for (String event : new String[] {REQUEST_EVENT, RETRY_EVENT, AUTH_REFRESH_EVENT, DESERIALIZATION_EVENT}) {
+                recording.enable(event).withoutThreshold();
+            }
+            recording.start();
+            ApiConnectionInfo apiConnectionInfo = new ApiConnectionInfoBuilder(String.format("http://localhost:%s", mockHttpServer.getPort()))
+                .withCookieAuthenticator(ArrayList::new)
+                .build();
+            try (HttpRequestResponse response = new HttpRequestBuilderImpl(apiConnectionInfo, "offices")
+                .get()
+                .withMediaType("application/json")
+                .execute()) {
+                assertEquals(BODY, response.mapBody(String.class, json -> json));
+            }
+            recording.stop();
+            events = readEvents(recording);
+        } finally {
+            mockHttpServer.shutdown();
+        }
+
+        RecordedEvent request = single(events, REQUEST_EVENT);
+        assertEquals("offices", request.getString("endpoint"));
+        assertEquals("GET", request.getString("method"));
+        assertEquals(200, request.getInt("status"));
+        assertEquals(BODY.length(), request.getLong("bytes"));
+
+        RecordedEvent retry = single(events, RETRY_EVENT);
+        assertEquals("offices", retry.getString("endpoint"));
+        assertEquals(1, retry.getInt("attempt"));
+        assertEquals(401, retry.getInt("priorStatus"));
+
+        RecordedEvent authRefresh = single(events, AUTH_REFRESH_EVENT);
+        assertEquals(CookieAuthenticator.class.getSimpleName(), authRefresh.getString("authenticator"));
+        assertEquals("cookies: 0", authRefresh.getString("outcome"));
+
+        RecordedEvent deserialization = single(events, DESERIALIZATION_EVENT);
+        assertEquals(String.class.getName(), deserialization.getClass("type").getName());
+        assertEquals(BODY.length(), deserialization.getLong("bytes"));
+    }
+
+    @Test
+    void testDisabledEventsNotRecorded() {
+        //without a recording enabling them, no event is allocated
+        assertEquals(FlightRecording.NONE, CwmsHttpFlightRecorder.beginRequest("offices", "GET"));
+        assertEquals(FlightRecording.NONE, CwmsHttpFlightRecorder.beginAuthRefresh("authenticator"));
+        try (Recording recording = new Recording()) {
+            recording.enable(REQUEST_EVENT);
+            recording.start();
+            try (FlightRecording flightRecording = CwmsHttpFlightRecorder.beginRequest("offices", "GET")) {
+                assertNotSame(FlightRecording.NONE, flightRecording);
+            }
+        }
+    }
+
+    private static List<RecordedEvent> readEvents(Recording recording) throws IOException {
+        Path dump = Files.createTempFile("cwms-http-client", ".jfr");
+        try {
+            recording.dump(dump);
+            return RecordingFile.readAllEvents(dump);
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+    }
+
+    private static RecordedEvent single(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = events.stream()
+            .filter(event -> event.getEventType().getName().equals(name))
+            .collect(Collectors.toList());
+        assertEquals(1, matching.size(), () -> "Expected one " + name + " event, found " + matching.size());
+        return matching.get(0);
+    }
+}
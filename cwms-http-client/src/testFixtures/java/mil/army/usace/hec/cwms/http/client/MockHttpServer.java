@@ -25,9 +25,12 @@
 package mil.army.usace.hec.cwms.http.client;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
 
 public final class MockHttpServer {
 
@@ -50,6 +53,32 @@ public final class MockHttpServer {
         mockWebServer.enqueue(new MockResponse().setResponseCode(responseCode).setBody(body));
     }
 
+    /**
+     * Enqueues a response whose headers are only sent after the delay, keeping the request in flight until then.
+     */
+    public void enqueueDelayed(String body, Duration delay) {
+        mockWebServer.enqueue(new MockResponse().setBody(body).setHeadersDelay(delay.toMillis(), TimeUnit.MILLISECONDS));
+    }
+
+    public int getRequestCount() {
+        return mockWebServer.getRequestCount();
+    }
+
+    /**
+     * @return path and query of the next request received, in arrival order, or null if none arrives within 10 seconds
+     */
+    public String takeRequestPath() throws InterruptedException {
+        RecordedRequest request = mockWebServer.takeRequest(10, TimeUnit.SECONDS);
+        return request == null ? null : request.getPath();
+    }
+
+    /**
+     * @return number of asynchronous calls the shared http client is running, cancelled calls are no longer counted
+     */
+    public static int getRunningAsyncCallCount() {
+        return OkHttpClientInstance.getInstance().dispatcher().runningCallsCount();
+    }
+
     public void enqueue(String body, List<String> cookies) {
         MockResponse mockResponse = new MockResponse().setBody(body);
         for (String cookie : cookies) {
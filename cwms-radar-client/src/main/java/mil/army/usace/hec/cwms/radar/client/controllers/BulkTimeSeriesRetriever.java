@@ -0,0 +1,179 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.radar.client.controllers;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import mil.army.usace.hec.cwms.http.client.ApiConnectionInfo;
+import mil.army.usace.hec.cwms.http.client.Deadline;
+import mil.army.usace.hec.cwms.radar.client.model.TimeSeries;
+
+/**
+ * Retrieves many time series through the asynchronous request path, starting the next request as each one completes
+ * so no thread waits on a response. Failures are captured per series.
+ */
+final class BulkTimeSeriesRetriever {
+
+    private final TimeSeriesController timeSeriesController;
+    private final ApiConnectionInfo apiConnectionInfo;
+    private final List<TimeSeriesEndpointInput.GetOne> inputs;
+    //set by retrieveAll, results are only queued in completion order when streaming
+    private volatile TimeSeriesRetrievalResult[] results;
+    private final BlockingQueue<TimeSeriesRetrievalResult> completed = new LinkedBlockingQueue<>();
+    private final CountDownLatch remaining;
+    private final Set<CompletableFuture<TimeSeries>> inFlight = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger freeSlots;
+    private final AtomicInteger wip = new AtomicInteger();
+    private volatile boolean cancelled;
+    //only touched while launching
+    private int nextInput;
+
+    BulkTimeSeriesRetriever(TimeSeriesController timeSeriesController, ApiConnectionInfo apiConnectionInfo,
+                            List<TimeSeriesEndpointInput.GetOne> inputs, TimeSeriesBulkRetrieval settings) {
+        this.timeSeriesController = timeSeriesController;
+        Deadline deadline = settings.startDeadline();
+        this.apiConnectionInfo = deadline == null ? apiConnectionInfo : apiConnectionInfo.withDeadline(deadline);
+        this.inputs = inputs;
+        this.remaining = new CountDownLatch(inputs.size());
+        this.freeSlots = new AtomicInteger(settings.maxConcurrency());
+    }
+
+    /**
+     * @return results in input order, once every series has completed
+     */
+    List<TimeSeriesRetrievalResult> retrieveAll() throws IOException {
+        TimeSeriesRetrievalResult[] all = new TimeSeriesRetrievalResult[inputs.size()];
+        results = all;
+        launch();
+        try {
+            remaining.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel();
+            throw new InterruptedIOException("Interrupted retrieving time series");
+        }
+        return Arrays.asList(all);
+    }
+
+    /**
+     * @return results in completion order, closing the stream cancels the series still in flight
+     */
+    Stream<TimeSeriesRetrievalResult> streamCompleted() {
+        launch();
+        Iterator<TimeSeriesRetrievalResult> iterator = new Iterator<TimeSeriesRetrievalResult>() {
+            private int taken;
+
+            @Override
+            public boolean hasNext() {
+                return taken < inputs.size() && !cancelled;
+            }
+
+            @Override
+            public TimeSeriesRetrievalResult next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    TimeSeriesRetrievalResult result = completed.take();
+                    taken++;
+                    return result;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    cancel();
+                    throw new UncheckedIOException(new InterruptedIOException("Interrupted retrieving time series"));
+                }
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliterator(iterator, inputs.size(), Spliterator.NONNULL), false)
+            .onClose(this::cancel);
+    }
+
+    private void cancel() {
+        cancelled = true;
+        new ArrayList<>(inFlight).forEach(future -> future.cancel(true));
+    }
+
+    private void launch() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        //completions on the calling thread come back here through the wip counter instead of recursing
+        do {
+            while (!cancelled && nextInput < inputs.size() && freeSlots.get() > 0) {
+                freeSlots.decrementAndGet();
+                retrieve(nextInput++);
+            }
+        } while (wip.decrementAndGet() != 0);
+    }
+
+    private void retrieve(int index) {
+        TimeSeriesEndpointInput.GetOne input = inputs.get(index);
+        CompletableFuture<TimeSeries> future = timeSeriesController.retrieveTimeSeriesAsync(apiConnectionInfo, input);
+        inFlight.add(future);
+        if (cancelled) {
+            //cancel() may have run before the future was added
+            future.cancel(true);
+        }
+        future.whenComplete((timeSeries, error) -> {
+            inFlight.remove(future);
+            TimeSeriesRetrievalResult result = new TimeSeriesRetrievalResult(index, input, timeSeries, error == null ? null : toIOException(error));
+            TimeSeriesRetrievalResult[] all = results;
+            if (all != null) {
+                all[index] = result;
+            } else {
+                completed.add(result);
+            }
+            remaining.countDown();
+            freeSlots.incrementAndGet();
+            launch();
+        });
+    }
+
+    private static IOException toIOException(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof IOException) {
+            return (IOException) cause;
+        }
+        return new IOException("Failed to retrieve time series", cause);
+    }
+}
@@ -32,6 +32,8 @@ import mil.army.usace.hec.cwms.radar.client.model.*;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.stream.Stream;
+import org.reactivestreams.Publisher;
 
 import static mil.army.usace.hec.cwms.radar.client.controllers.RadarEndpointConstants.ACCEPT_HEADER_V2;
 
@@ -50,7 +52,7 @@ public final class CatalogController {
             .get()
             .withMediaType(ACCEPT_HEADER_V2);
         try (HttpRequestResponse response = executor.execute()) {
-            retVal = RadarObjectMapper.mapJsonToObject(response.getBody(), TimeSeriesCatalog.class);
+            retVal = InstrumentedObjectMapper.mapJsonToObject(response, TimeSeriesCatalog.class);
         }
         return retVal;
     }
@@ -62,18 +64,52 @@ public final class CatalogController {
                 .get()
                 .withMediaType(ACCEPT_HEADER_V2);
         try (HttpRequestResponse response = executor.execute()) {
-            retVal = RadarObjectMapper.mapJsonToObject(response.getBody(), LocationCatalog.class);
+            retVal = InstrumentedObjectMapper.mapJsonToObject(response, LocationCatalog.class);
         }
         return retVal;
     }
 
+    public Publisher<TimeSeriesCatalogEntry> publishTimeSeriesCatalog(ApiConnectionInfo apiConnectionInfo,
+                                                                      TimeSeriesCatalogEndpointInput input) {
+        return new PagedPublisher<>(cursor -> retrieveTimeSeriesCatalog(apiConnectionInfo, cursor == null ? input : input.atCursor(cursor)),
+            TimeSeriesCatalog::getNextPage, TimeSeriesCatalog::getEntries);
+    }
+
+    /**
+     * Streams the catalog entries, fetching up to two pages ahead of the consumer.
+     * See {@link #streamTimeSeriesCatalog(ApiConnectionInfo, TimeSeriesCatalogEndpointInput, int)}.
+     */
+    public Stream<TimeSeriesCatalogEntry> streamTimeSeriesCatalog(ApiConnectionInfo apiConnectionInfo, TimeSeriesCatalogEndpointInput input) {
+        return streamTimeSeriesCatalog(apiConnectionInfo, input, PrefetchingPageIterator.DEFAULT_PREFETCH_PAGES);
+    }
+
+    /**
+     * Streams the catalog entries while a background thread fetches the following pages. The input is not changed,
+     * pages after the first are fetched with a copy of it, so the same input can be streamed again. Close the stream
+     * to stop fetching when it is not read to the end.
+     *
+     * @param input         catalog filters and the cursor of the first page
+     * @param prefetchPages most pages fetched ahead of the consumer
+     * @return entries of every page in order
+     */
+    public Stream<TimeSeriesCatalogEntry> streamTimeSeriesCatalog(ApiConnectionInfo apiConnectionInfo, TimeSeriesCatalogEndpointInput input,
+                                                                  int prefetchPages) {
+        return new PrefetchingPageIterator<>(cursor -> retrieveTimeSeriesCatalog(apiConnectionInfo, cursor == null ? input : input.atCursor(cursor)),
+            TimeSeriesCatalog::getNextPage, TimeSeriesCatalog::getEntries, prefetchPages).stream();
+    }
+
+    public Publisher<LocationCatalogEntry> publishLocationCatalog(ApiConnectionInfo apiConnectionInfo, LocationCatalogEndpointInput input) {
+        return new PagedPublisher<>(cursor -> retrieveLocationCatalog(apiConnectionInfo, cursor == null ? input : input.atCursor(cursor)),
+            LocationCatalog::getNextPage, LocationCatalog::getEntries);
+    }
+
     public List<Parameter> retrieveParameterCatalog(ApiConnectionInfo apiConnectionInfo) throws IOException {
         HttpRequestExecutor executor = new HttpRequestBuilderImpl(apiConnectionInfo, CATALOG_PARAMETERS_ENDPOINT)
                 .addEndpointInput(new ParameterCatalogEndpointInput())
                 .get()
                 .withMediaType(ACCEPT_HEADER_V2);
         try (HttpRequestResponse response = executor.execute()) {
-            return RadarObjectMapper.mapJsonToListOfObjects(response.getBody(), Parameter.class, "parameters", "parameters");
+            return InstrumentedObjectMapper.mapJsonToListOfObjects(response, Parameter.class, "parameters", "parameters");
         }
     }
 
@@ -83,7 +119,7 @@ public final class CatalogController {
                 .get()
                 .withMediaType(ACCEPT_HEADER_V2);
         try (HttpRequestResponse response = executor.execute()) {
-            return RadarObjectMapper.mapJsonToListOfObjects(response.getBody(), Unit.class, "units", "units");
+            return InstrumentedObjectMapper.mapJsonToListOfObjects(response, Unit.class, "units", "units");
         }
     }
 }
@@ -0,0 +1,172 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.radar.client.controllers;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import mil.army.usace.hec.cwms.http.client.ApiConnectionInfo;
+import mil.army.usace.hec.cwms.http.client.NoDataFoundException;
+import mil.army.usace.hec.cwms.radar.client.model.TimeSeries;
+import mil.army.usace.hec.cwms.radar.client.model.TimeSeriesValues;
+
+/**
+ * Retrieves [begin, end] of a time series as consecutive windows with bounded parallelism and merges them back into
+ * one {@link TimeSeries}. Window ends are inclusive on the server, so a value on a boundary is returned by both
+ * windows and kept once.
+ */
+final class ChunkedTimeSeriesRetriever {
+
+    private final TimeSeriesController timeSeriesController;
+    private final ApiConnectionInfo apiConnectionInfo;
+    private final TimeSeriesChunking chunking;
+
+    ChunkedTimeSeriesRetriever(TimeSeriesController timeSeriesController, ApiConnectionInfo apiConnectionInfo, TimeSeriesChunking chunking) {
+        this.timeSeriesController = timeSeriesController;
+        this.apiConnectionInfo = apiConnectionInfo;
+        this.chunking = chunking;
+    }
+
+    TimeSeries retrieve(TimeSeriesEndpointInput.GetOne input) throws IOException {
+        Instant begin = input.begin();
+        Instant end = input.end();
+        if (begin == null || end == null || !begin.isBefore(end)) {
+            //server default time window
+            return timeSeriesController.retrieveTimeSeries(apiConnectionInfo, input);
+        }
+        List<Instant> boundaries = chunking.windowBoundaries(input.timeSeriesId(), begin, end);
+        List<TimeSeriesEndpointInput.GetOne> windows = new ArrayList<>(boundaries.size() - 1);
+        for (int i = 0; i < boundaries.size() - 1; i++) {
+            windows.add(input.window(boundaries.get(i), boundaries.get(i + 1))
+                .pageSize(chunking.maxValuesPerWindow() + 1));
+        }
+        return merge(retrieveWindows(windows));
+    }
+
+    private WindowResult[] retrieveWindows(List<TimeSeriesEndpointInput.GetOne> windows) throws IOException {
+        WindowResult[] results = new WindowResult[windows.size()];
+        AtomicInteger nextWindow = new AtomicInteger();
+        int workerCount = Math.min(chunking.maxConcurrency(), windows.size());
+        CompletionService<Void> completion = new ExecutorCompletionService<>(ControllerExecutors.TASK_EXECUTOR);
+        List<Future<Void>> workers = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            workers.add(completion.submit(() -> {
+                int window;
+                while ((window = nextWindow.getAndIncrement()) < results.length) {
+                    results[window] = retrieveWindow(windows.get(window));
+                }
+                return null;
+            }));
+        }
+        try {
+            //completion order, so a failed window is seen without waiting on the others
+            for (int i = 0; i < workerCount; i++) {
+                completion.take().get();
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Failed to retrieve time series window", cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted retrieving time series windows");
+        } finally {
+            //stop the remaining windows after a failure
+            nextWindow.set(results.length);
+            workers.forEach(worker -> worker.cancel(true));
+        }
+        return results;
+    }
+
+    private WindowResult retrieveWindow(TimeSeriesEndpointInput.GetOne window) throws IOException {
+        try {
+            return new WindowResult(new TimeSeriesPageFollower(timeSeriesController, apiConnectionInfo, window).retrieveAll(), null);
+        } catch (NoDataFoundException e) {
+            return new WindowResult(null, e);
+        }
+    }
+
+    private static TimeSeries merge(WindowResult[] results) throws IOException {
+        TimeSeries merged = null;
+        TimeSeries last = null;
+        int valueCount = 0;
+        for (WindowResult result : results) {
+            if (result.timeSeries != null) {
+                merged = merged == null ? result.timeSeries : merged;
+                last = result.timeSeries;
+                valueCount += result.timeSeries.getValues().size();
+            }
+        }
+        if (merged == null) {
+            throw results[0].noData;
+        }
+        List<TimeSeriesValues> values = new ArrayList<>(valueCount);
+        long lastTime = Long.MIN_VALUE;
+        for (WindowResult result : results) {
+            if (result.timeSeries == null) {
+                continue;
+            }
+            TimeSeries window = result.timeSeries;
+            for (TimeSeriesValues value : window.getValues()) {
+                if (value.getDateTime() > lastTime) {
+                    values.add(value);
+                    lastTime = value.getDateTime();
+                }
+            }
+            if (merged.getUnits() == null) {
+                merged.setUnits(window.getUnits());
+            }
+            if (merged.getVerticalDatumInfo() == null) {
+                merged.setVerticalDatumInfo(window.getVerticalDatumInfo());
+            }
+        }
+        merged.setEnd(last.getEnd());
+        merged.setValues(values);
+        merged.setTotal(values.size());
+        merged.setPageSize(values.size());
+        merged.setPage(null);
+        merged.setNextPage(null);
+        return merged;
+    }
+
+    private static final class WindowResult {
+        private final TimeSeries timeSeries;
+        private final NoDataFoundException noData;
+
+        private WindowResult(TimeSeries timeSeries, NoDataFoundException noData) {
+            this.timeSeries = timeSeries;
+            this.noData = noData;
+        }
+    }
+}
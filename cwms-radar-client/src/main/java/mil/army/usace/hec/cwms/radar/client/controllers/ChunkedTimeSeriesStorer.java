@@ -0,0 +1,221 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.radar.client.controllers;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import mil.army.usace.hec.cwms.http.client.ApiConnectionInfo;
+import mil.army.usace.hec.cwms.http.client.CwmsHttpResponseException;
+import mil.army.usace.hec.cwms.http.client.SslCanceledException;
+import mil.army.usace.hec.cwms.radar.client.model.TimeSeries;
+import mil.army.usace.hec.cwms.radar.client.model.TimeSeriesValues;
+
+/**
+ * Stores a time series as chunks of consecutive values with bounded parallelism and retries. Once a chunk fails for
+ * good no further chunks are started, the chunks already in flight finish so the result reports what was committed.
+ */
+final class ChunkedTimeSeriesStorer {
+
+    private static final Logger LOGGER = Logger.getLogger(ChunkedTimeSeriesStorer.class.getName());
+    private final TimeSeriesController timeSeriesController;
+    private final ApiConnectionInfo apiConnectionInfo;
+    private final TimeSeriesStoreChunking chunking;
+
+    ChunkedTimeSeriesStorer(TimeSeriesController timeSeriesController, ApiConnectionInfo apiConnectionInfo,
+                            TimeSeriesStoreChunking chunking) {
+        this.timeSeriesController = timeSeriesController;
+        this.apiConnectionInfo = apiConnectionInfo;
+        this.chunking = chunking;
+    }
+
+    TimeSeriesStoreResult store(TimeSeriesEndpointInput.Post input) throws IOException {
+        List<PendingChunk> chunks = split(input);
+        TimeSeriesStoreResult.Chunk[] outcomes = new TimeSeriesStoreResult.Chunk[chunks.size()];
+        AtomicInteger nextChunk = new AtomicInteger();
+        AtomicBoolean failed = new AtomicBoolean();
+        int workerCount = Math.min(chunking.maxConcurrency(), chunks.size());
+        List<Future<?>> workers = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            workers.add(ControllerExecutors.TASK_EXECUTOR.submit(() -> {
+                int chunk;
+                while (!failed.get() && (chunk = nextChunk.getAndIncrement()) < outcomes.length) {
+                    outcomes[chunk] = storeChunk(chunks.get(chunk));
+                    if (!outcomes[chunk].isCommitted()) {
+                        failed.set(true);
+                    }
+                }
+            }));
+        }
+        awaitWorkers(workers);
+        List<TimeSeriesStoreResult.Chunk> reported = new ArrayList<>(outcomes.length);
+        IOException firstError = null;
+        for (int i = 0; i < outcomes.length; i++) {
+            TimeSeriesStoreResult.Chunk outcome = outcomes[i] == null ? chunks.get(i).outcome(0, false, null) : outcomes[i];
+            reported.add(outcome);
+            firstError = firstError == null ? outcome.getError() : firstError;
+        }
+        TimeSeriesStoreResult result = new TimeSeriesStoreResult(reported);
+        if (!result.isComplete()) {
+            throw new TimeSeriesStoreException("Stored " + result.getCommittedChunks().size() + " of " + reported.size()
+                + " chunks of time series " + input.timeSeries().getName(), result, firstError);
+        }
+        return result;
+    }
+
+    private static void awaitWorkers(List<Future<?>> workers) throws IOException {
+        try {
+            //every worker runs to the end of its current chunk, so the outcomes are complete
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            workers.forEach(worker -> worker.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted storing time series chunks");
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to store time series chunk", e.getCause());
+        }
+    }
+
+    private TimeSeriesStoreResult.Chunk storeChunk(PendingChunk chunk) {
+        Duration backoff = chunking.retryBackoff();
+        IOException error = null;
+        int attempt = 0;
+        while (attempt < chunking.maxAttempts()) {
+            attempt++;
+            try {
+                timeSeriesController.storeTimeSeries(apiConnectionInfo, chunk.input);
+                return chunk.outcome(attempt, true, null);
+            } catch (IOException e) {
+                error = e;
+            } catch (RuntimeException e) {
+                return chunk.outcome(attempt, false, new IOException("Failed to store time series chunk " + chunk, e));
+            }
+            if (attempt == chunking.maxAttempts() || !isRetryable(error)) {
+                break;
+            }
+            Duration wait = backoff;
+            LOGGER.log(Level.FINE, error, () -> "Retrying time series chunk " + chunk + " in " + wait);
+            try {
+                Thread.sleep(wait.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                error = new InterruptedIOException("Interrupted retrying time series chunk " + chunk);
+                break;
+            }
+            backoff = backoff.multipliedBy(2);
+        }
+        return chunk.outcome(attempt, false, error);
+    }
+
+    static boolean isRetryable(IOException error) {
+        if (error instanceof CwmsHttpResponseException) {
+            int code = ((CwmsHttpResponseException) error).getErrorCode();
+            return code >= 500 || code == 408 || code == 429;
+        }
+        //deadline exceeded and interrupted, socket timeouts are mapped to ServerNotFoundException
+        if (error instanceof InterruptedIOException && !(error instanceof SocketTimeoutException)) {
+            return false;
+        }
+        return !(error instanceof SslCanceledException);
+    }
+
+    private List<PendingChunk> split(TimeSeriesEndpointInput.Post input) {
+        TimeSeries timeSeries = input.timeSeries();
+        List<TimeSeriesValues> values = timeSeries.getValues() == null ? new ArrayList<>() : timeSeries.getValues();
+        List<PendingChunk> chunks = new ArrayList<>();
+        //Delete Insert replaces the span of the values in each request, chunks would keep the values between them
+        if (values.isEmpty() || input.isDeleteInsert()) {
+            Instant begin = timeSeries.getBegin() == null ? null : timeSeries.getBegin().toInstant();
+            Instant end = timeSeries.getEnd() == null ? null : timeSeries.getEnd().toInstant();
+            chunks.add(new PendingChunk(input, begin, end, values.size()));
+            return chunks;
+        }
+        ZoneId zone = timeSeries.getBegin() == null ? ZoneOffset.UTC : timeSeries.getBegin().getZone();
+        for (int from = 0; from < values.size(); from += chunking.maxValuesPerChunk()) {
+            List<TimeSeriesValues> part = values.subList(from, Math.min(from + chunking.maxValuesPerChunk(), values.size()));
+            long first = Long.MAX_VALUE;
+            long last = Long.MIN_VALUE;
+            for (TimeSeriesValues value : part) {
+                first = Math.min(first, value.getDateTime());
+                last = Math.max(last, value.getDateTime());
+            }
+            Instant begin = Instant.ofEpochMilli(first);
+            Instant end = Instant.ofEpochMilli(last);
+            TimeSeries chunk = new TimeSeries()
+                .name(timeSeries.getName())
+                .officeId(timeSeries.getOfficeId())
+                .units(timeSeries.getUnits())
+                .interval(timeSeries.getInterval())
+                .intervalOffset(timeSeries.getIntervalOffset())
+                .timeZone(timeSeries.getTimeZone())
+                .verticalDatumInfo(timeSeries.getVerticalDatumInfo())
+                .valueColumns(timeSeries.getValueColumns())
+                .begin(ZonedDateTime.ofInstant(begin, zone))
+                .end(ZonedDateTime.ofInstant(end, zone))
+                .total(part.size())
+                .values(new ArrayList<>(part));
+            chunks.add(new PendingChunk(input.withTimeSeries(chunk), begin, end, part.size()));
+        }
+        return chunks;
+    }
+
+    private static final class PendingChunk {
+        private final TimeSeriesEndpointInput.Post input;
+        private final Instant begin;
+        private final Instant end;
+        private final int valueCount;
+
+        private PendingChunk(TimeSeriesEndpointInput.Post input, Instant begin, Instant end, int valueCount) {
+            this.input = input;
+            this.begin = begin;
+            this.end = end;
+            this.valueCount = valueCount;
+        }
+
+        private TimeSeriesStoreResult.Chunk outcome(int attempts, boolean committed, IOException error) {
+            return new TimeSeriesStoreResult.Chunk(begin, end, valueCount, attempts, committed, error);
+        }
+
+        @Override
+        public String toString() {
+            return "[" + begin + ", " + end + "]";
+        }
+    }
+}
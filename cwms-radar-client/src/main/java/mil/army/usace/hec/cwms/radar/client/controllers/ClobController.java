@@ -33,7 +33,7 @@ import mil.army.usace.hec.cwms.http.client.HttpRequestResponse;
 import mil.army.usace.hec.cwms.http.client.request.HttpRequestExecutor;
 import mil.army.usace.hec.cwms.radar.client.model.Clob;
 import mil.army.usace.hec.cwms.radar.client.model.Clobs;
-import mil.army.usace.hec.cwms.radar.client.model.RadarObjectMapper;
+import org.reactivestreams.Publisher;
 
 public final class ClobController {
 
@@ -47,7 +47,7 @@ public final class ClobController {
             .get()
             .withMediaType(ACCEPT_HEADER_V2);
         try (HttpRequestResponse response = executor.execute()) {
-            return RadarObjectMapper.mapJsonToObject(response.getBody(), Clob.class);
+            return InstrumentedObjectMapper.mapJsonToObject(response, Clob.class);
         }
     }
 
@@ -58,13 +58,18 @@ public final class ClobController {
             .get()
             .withMediaType(ACCEPT_HEADER_V2);
         try (HttpRequestResponse response = executor.execute()) {
-            return RadarObjectMapper.mapJsonToObject(response.getBody(), Clobs.class);
+            return InstrumentedObjectMapper.mapJsonToObject(response, Clobs.class);
         }
     }
 
+    public Publisher<Clob> publishClobs(ApiConnectionInfo apiConnectionInfo, ClobEndpointInput.GetAll input) {
+        return new PagedPublisher<>(cursor -> retrieveClobs(apiConnectionInfo, cursor == null ? input : input.atPage(cursor)),
+            Clobs::getNextPage, Clobs::getClobs);
+    }
+
     public void updateClob(ApiConnectionInfo apiConnectionInfo, ClobEndpointInput.Patch input) throws IOException {
         Clob clob = input.clob();
-        String body = RadarObjectMapper.mapObjectToJson(clob);
+        String body = InstrumentedObjectMapper.mapObjectToJson(clob);
         String endpoint = CLOB_ENDPOINT + "/" + clob.getId();
         new HttpRequestBuilderImpl(apiConnectionInfo, endpoint)
             .addEndpointInput(input)
@@ -76,7 +81,7 @@ public final class ClobController {
     }
 
     public void storeClob(ApiConnectionInfo apiConnectionInfo, ClobEndpointInput.Post input) throws IOException {
-        String body = RadarObjectMapper.mapObjectToJson(input.clob());
+        String body = InstrumentedObjectMapper.mapObjectToJson(input.clob());
         new HttpRequestBuilderImpl(apiConnectionInfo, CLOB_ENDPOINT)
             .addEndpointInput(input)
             .post()
@@ -132,6 +132,19 @@ public final class ClobEndpointInput {
             this.includeValues = includeValues;
             return this;
         }
+
+        /**
+         * @return copy of this input for the given page, leaving this input unchanged
+         */
+        GetAll atPage(String page) {
+            GetAll copy = new GetAll();
+            copy.office = office;
+            copy.clobIdMask = clobIdMask;
+            copy.includeValues = includeValues;
+            copy.page = page;
+            copy.pageSize = pageSize;
+            return copy;
+        }
     }
 
     public static final class Patch extends EndpointInput {
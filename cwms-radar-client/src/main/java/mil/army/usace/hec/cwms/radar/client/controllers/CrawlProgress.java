@@ -0,0 +1,115 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.radar.client.controllers;
+
+import java.time.Duration;
+
+/**
+ * Snapshot of a catalog crawl's progress.
+ */
+public final class CrawlProgress {
+
+    private final int officeCount;
+    private final int shardCount;
+    private final int completedShardCount;
+    private final long pageCount;
+    private final long entryCount;
+    private final long duplicateCount;
+    private final Duration elapsed;
+
+    CrawlProgress(int officeCount, int shardCount, int completedShardCount, long pageCount, long entryCount, long duplicateCount,
+                  Duration elapsed) {
+        this.officeCount = officeCount;
+        this.shardCount = shardCount;
+        this.completedShardCount = completedShardCount;
+        this.pageCount = pageCount;
+        this.entryCount = entryCount;
+        this.duplicateCount = duplicateCount;
+        this.elapsed = elapsed;
+    }
+
+    /**
+     * @return number of offices being crawled
+     */
+    public int getOfficeCount() {
+        return officeCount;
+    }
+
+    /**
+     * @return number of office and location filter combinations being paged
+     */
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * @return number of shards that have been paged to the end
+     */
+    public int getCompletedShardCount() {
+        return completedShardCount;
+    }
+
+    /**
+     * @return number of pages retrieved
+     */
+    public long getPageCount() {
+        return pageCount;
+    }
+
+    /**
+     * @return number of distinct entries retrieved
+     */
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * @return number of entries dropped because an overlapping shard already returned them
+     */
+    public long getDuplicateCount() {
+        return duplicateCount;
+    }
+
+    /**
+     * @return time since the crawl started
+     */
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * @return distinct entries retrieved per second since the crawl started
+     */
+    public double getEntriesPerSecond() {
+        long millis = elapsed.toMillis();
+        return millis == 0 ? 0.0 : entryCount * 1000.0 / millis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d/%d shards from %d offices, %d pages, %d entries, %d duplicates in %s (%.1f entries/s)",
+            completedShardCount, shardCount, officeCount, pageCount, entryCount, duplicateCount, elapsed, getEntriesPerSecond());
+    }
+}
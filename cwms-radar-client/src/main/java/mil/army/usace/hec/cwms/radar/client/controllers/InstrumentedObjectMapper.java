@@ -0,0 +1,69 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.radar.client.controllers;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import mil.army.usace.hec.cwms.http.client.CwmsHttpFlightRecorder;
+import mil.army.usace.hec.cwms.http.client.FlightRecording;
+import mil.army.usace.hec.cwms.http.client.HttpRequestResponse;
+import mil.army.usace.hec.cwms.radar.client.model.RadarObjectMapper;
+
+/**
+ * Wraps {@link RadarObjectMapper} calls made by the controllers. Responses are bound through
+ * {@link HttpRequestResponse#mapBody(Class, mil.army.usace.hec.cwms.http.client.ResponseBodyMapper)} so body read
+ * and bind time are reported per endpoint and model type, separately from the network time of the request.
+ */
+final class InstrumentedObjectMapper {
+
+    private InstrumentedObjectMapper() {
+        throw new AssertionError("Utility class");
+    }
+
+    static <T> T mapJsonToObject(HttpRequestResponse response, Class<T> classObject) throws IOException {
+        return response.mapBody(classObject, json -> RadarObjectMapper.mapJsonToObject(json, classObject));
+    }
+
+    static <T> List<T> mapJsonToListOfObjects(HttpRequestResponse response, Class<T> classObject) throws IOException {
+        return response.mapBody(classObject, json -> RadarObjectMapper.mapJsonToListOfObjects(json, classObject));
+    }
+
+    static <T> List<T> mapJsonToListOfObjects(HttpRequestResponse response, Class<T> classObject, String... path) throws IOException {
+        return response.mapBody(classObject, json -> RadarObjectMapper.mapJsonToListOfObjects(json, classObject, path));
+    }
+
+    static <T> Set<T> mapJsonToSetOfObjects(HttpRequestResponse response, Class<T> classObject) throws IOException {
+        return response.mapBody(classObject, json -> RadarObjectMapper.mapJsonToSetOfObjects(json, classObject));
+    }
+
+    static String mapObjectToJson(Object object) throws IOException {
+        try (FlightRecording recording = CwmsHttpFlightRecorder.beginSerialization(object.getClass())) {
+            String json = RadarObjectMapper.mapObjectToJson(object);
+            recording.bytes(json.length());
+            return json;
+        }
+    }
+}
@@ -30,11 +30,11 @@ import mil.army.usace.hec.cwms.http.client.HttpRequestResponse;
 import mil.army.usace.hec.cwms.http.client.request.HttpRequestExecutor;
 import mil.army.usace.hec.cwms.radar.client.model.LocationLevel;
 import mil.army.usace.hec.cwms.radar.client.model.LocationLevels;
-import mil.army.usace.hec.cwms.radar.client.model.RadarObjectMapper;
 import mil.army.usace.hec.cwms.radar.client.model.SpecifiedLevel;
 
 import java.io.IOException;
 import java.util.Set;
+import org.reactivestreams.Publisher;
 
 import static mil.army.usace.hec.cwms.radar.client.controllers.RadarEndpointConstants.ACCEPT_HEADER_V1;
 import static mil.army.usace.hec.cwms.radar.client.controllers.RadarEndpointConstants.ACCEPT_HEADER_V2;
@@ -51,13 +51,13 @@ public final class LevelController {
                 .get()
                 .withMediaType(ACCEPT_HEADER_V2);
         try (HttpRequestResponse response = executor.execute()) {
-            return RadarObjectMapper.mapJsonToSetOfObjects(response.getBody(), SpecifiedLevel.class);
+            return InstrumentedObjectMapper.mapJsonToSetOfObjects(response, SpecifiedLevel.class);
         }
     }
 
     public void storeSpecifiedLevel(ApiConnectionInfo apiConnectionInfo, SpecifiedLevelEndpointInput.Post input)
             throws IOException {
-        String body = RadarObjectMapper.mapObjectToJson(input.specifiedLevel());
+        String body = InstrumentedObjectMapper.mapObjectToJson(input.specifiedLevel());
         new HttpRequestBuilderImpl(apiConnectionInfo, SPECIFIED_LEVEL_ENDPOINT)
                 .addEndpointInput(input)
                 .post()
@@ -96,7 +96,7 @@ public final class LevelController {
                 .get()
                 .withMediaType(ACCEPT_HEADER_V2);
         try (HttpRequestResponse response = executor.execute()) {
-            return RadarObjectMapper.mapJsonToObject(response.getBody(), LocationLevel.class);
+            return InstrumentedObjectMapper.mapJsonToObject(response, LocationLevel.class);
         }
     }
 
@@ -107,12 +107,17 @@ public final class LevelController {
             .get()
             .withMediaType(ACCEPT_HEADER_V2);
         try (HttpRequestResponse response = executor.execute()) {
-            return RadarObjectMapper.mapJsonToObject(response.getBody(), LocationLevels.class);
+            return InstrumentedObjectMapper.mapJsonToObject(response, LocationLevels.class);
         }
     }
 
+    public Publisher<LocationLevel> publishLocationLevels(ApiConnectionInfo apiConnectionInfo, LocationLevelEndpointInput.GetAll input) {
+        return new PagedPublisher<>(cursor -> retrieveLocationLevels(apiConnectionInfo, cursor == null ? input : input.atPage(cursor)),
+            LocationLevels::getNextPage, LocationLevels::getLevels);
+    }
+
     public void storeLevel(ApiConnectionInfo apiConnectionInfo, LocationLevelEndpointInput.Post input) throws IOException {
-        String body = RadarObjectMapper.mapObjectToJson(input.level());
+        String body = InstrumentedObjectMapper.mapObjectToJson(input.level());
         new HttpRequestBuilderImpl(apiConnectionInfo, LOCATION_LEVEL_ENDPOINT)
             .addEndpointInput(input)
             .post()
@@ -0,0 +1,318 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.radar.client.controllers;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import mil.army.usace.hec.cwms.http.client.ApiConnectionInfo;
+import mil.army.usace.hec.cwms.radar.client.model.LocationCatalog;
+import mil.army.usace.hec.cwms.radar.client.model.LocationCatalogEntry;
+import mil.army.usace.hec.cwms.radar.client.model.Office;
+
+/**
+ * Crawls the location catalog of many offices at once. Each office, optionally split further by location id
+ * filters, is a shard paged on its own, with at most maxConcurrency shards paged at a time. Entries from all shards
+ * are merged into one stream, and an entry returned by overlapping shards is emitted once. The stream is in no
+ * particular order. Closing it stops the crawl.
+ * <pre>
+ * try (Stream&lt;LocationCatalogEntry&gt; locations = new LocationCatalogCrawler()
+ *     .maxConcurrency(8)
+ *     .progressListener(progress -&gt; LOGGER.fine(progress::toString))
+ *     .crawl(apiConnectionInfo)) {
+ *     ...
+ * }
+ * </pre>
+ */
+public final class LocationCatalogCrawler {
+
+    static final int DEFAULT_MAX_CONCURRENCY = 4;
+    private static final Logger LOGGER = Logger.getLogger(LocationCatalogCrawler.class.getName());
+    private static final Object SHARD_COMPLETE = new Object();
+    private final CatalogController catalogController = new CatalogController();
+    private final OfficeController officeController = new OfficeController();
+    private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+    private List<String> officeIds;
+    private List<String> locationIdFilters = Collections.singletonList(null);
+    private Integer pageSize;
+    private String unitSystem = "SI";
+    private Consumer<CrawlProgress> progressListener = progress -> {
+    };
+
+    /**
+     * @param maxConcurrency maximum number of shards paged at the same time
+     * @return this crawler
+     */
+    public LocationCatalogCrawler maxConcurrency(int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("At least one shard must be paged at a time, requested: " + maxConcurrency);
+        }
+        this.maxConcurrency = maxConcurrency;
+        return this;
+    }
+
+    /**
+     * @param officeIds offices to crawl, by default every office returned by the offices endpoint
+     * @return this crawler
+     */
+    public LocationCatalogCrawler officeIds(String... officeIds) {
+        this.officeIds = Arrays.asList(officeIds);
+        return this;
+    }
+
+    /**
+     * Splits each office into one shard per filter. Filters use the catalog's like syntax, for example one per
+     * leading character, and need not be disjoint since duplicate entries are dropped.
+     *
+     * @param locationIdFilters location id filters
+     * @return this crawler
+     */
+    public LocationCatalogCrawler shardLocationIdFilters(String... locationIdFilters) {
+        this.locationIdFilters = locationIdFilters.length == 0 ? Collections.singletonList(null) : Arrays.asList(locationIdFilters);
+        return this;
+    }
+
+    public LocationCatalogCrawler pageSize(int pageSize) {
+        this.pageSize = pageSize;
+        return this;
+    }
+
+    public LocationCatalogCrawler unitSystem(String unitSystem) {
+        this.unitSystem = unitSystem;
+        return this;
+    }
+
+    /**
+     * @param progressListener told the crawl's progress after each page from the crawling threads, then once more from
+     *                         the consuming thread when the crawl completes
+     * @return this crawler
+     */
+    public LocationCatalogCrawler progressListener(Consumer<CrawlProgress> progressListener) {
+        this.progressListener = Objects.requireNonNull(progressListener, "Cannot crawl with a null progress listener");
+        return this;
+    }
+
+    /**
+     * Starts the crawl. Offices are looked up before this returns. Page failures are thrown from the stream as
+     * {@link UncheckedIOException}.
+     *
+     * @param apiConnectionInfo connection info
+     * @return distinct location catalog entries, closing the stream stops the crawl
+     * @throws IOException if the offices could not be retrieved
+     */
+    public Stream<LocationCatalogEntry> crawl(ApiConnectionInfo apiConnectionInfo) throws IOException {
+        List<String> offices = officeIds;
+        if (offices == null) {
+            offices = officeController.retrieveOffices(apiConnectionInfo).stream()
+                .map(Office::getName)
+                .collect(Collectors.toList());
+        }
+        Queue<LocationCatalogEndpointInput> shards = new ConcurrentLinkedQueue<>();
+        for (String office : offices) {
+            for (String filter : locationIdFilters) {
+                LocationCatalogEndpointInput input = new LocationCatalogEndpointInput()
+                    .officeId(office)
+                    .unitSystem(unitSystem)
+                    .locationIdFilter(filter);
+                if (pageSize != null) {
+                    input.pageSize(pageSize);
+                }
+                shards.add(input);
+            }
+        }
+        Crawl crawl = new Crawl(apiConnectionInfo, shards, offices.size());
+        crawl.start();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(crawl, Spliterator.DISTINCT | Spliterator.NONNULL), false)
+            .onClose(crawl::close);
+    }
+
+    private final class Crawl implements Iterator<LocationCatalogEntry> {
+
+        private final ApiConnectionInfo apiConnectionInfo;
+        private final Queue<LocationCatalogEndpointInput> shards;
+        private final int officeCount;
+        private final int shardCount;
+        //pages and shard completions, bounded so the crawl waits on a slow consumer
+        private final BlockingQueue<Object> results;
+        private final Set<String> seen = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger completedShards = new AtomicInteger();
+        private final AtomicLong pages = new AtomicLong();
+        private final AtomicLong entries = new AtomicLong();
+        private final AtomicLong duplicates = new AtomicLong();
+        private final long startNanos = System.nanoTime();
+        private final List<Future<?>> workers = new ArrayList<>();
+        private volatile boolean closed;
+        private int consumedShards;
+        private Iterator<LocationCatalogEntry> current = Collections.emptyIterator();
+
+        private Crawl(ApiConnectionInfo apiConnectionInfo, Queue<LocationCatalogEndpointInput> shards, int officeCount) {
+            this.apiConnectionInfo = apiConnectionInfo;
+            this.shards = shards;
+            this.officeCount = officeCount;
+            this.shardCount = shards.size();
+            this.results = new ArrayBlockingQueue<>(maxConcurrency * 2);
+        }
+
+        private void start() {
+            int workerCount = Math.min(maxConcurrency, shardCount);
+            for (int i = 0; i < workerCount; i++) {
+                workers.add(ControllerExecutors.TASK_EXECUTOR.submit(this::crawlShards));
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                if (closed) {
+                    return false;
+                }
+                if (consumedShards == shardCount) {
+                    CrawlProgress progress = progress();
+                    LOGGER.log(Level.FINE, () -> "Completed location catalog crawl: " + progress);
+                    close();
+                    progressListener.accept(progress);
+                    return false;
+                }
+                Object result = takeResult();
+                if (result == SHARD_COMPLETE) {
+                    consumedShards++;
+                } else if (result instanceof IOException) {
+                    close();
+                    throw new UncheckedIOException((IOException) result);
+                } else {
+                    @SuppressWarnings("unchecked")
+                    List<LocationCatalogEntry> page = (List<LocationCatalogEntry>) result;
+                    current = page.iterator();
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public LocationCatalogEntry next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+
+        private void close() {
+            closed = true;
+            current = Collections.emptyIterator();
+            workers.forEach(worker -> worker.cancel(true));
+            results.clear();
+        }
+
+        private Object takeResult() {
+            try {
+                return results.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new UncheckedIOException(new InterruptedIOException("Interrupted waiting for location catalog pages"));
+            }
+        }
+
+        private void crawlShards() {
+            try {
+                LocationCatalogEndpointInput shard;
+                while (!closed && (shard = shards.poll()) != null) {
+                    crawlShard(shard);
+                    completedShards.incrementAndGet();
+                    results.put(SHARD_COMPLETE);
+                }
+            } catch (IOException e) {
+                if (!closed) {
+                    putQuietly(e);
+                }
+            } catch (RuntimeException e) {
+                if (!closed) {
+                    putQuietly(new IOException("Location catalog crawl failed", e));
+                }
+            } catch (InterruptedException e) {
+                //closed
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void crawlShard(LocationCatalogEndpointInput shard) throws IOException, InterruptedException {
+            String cursor = null;
+            do {
+                LocationCatalog page = catalogController.retrieveLocationCatalog(apiConnectionInfo, cursor == null ? shard : shard.cursor(cursor));
+                List<LocationCatalogEntry> pageEntries = page.getEntries() == null ? Collections.emptyList() : page.getEntries();
+                List<LocationCatalogEntry> distinct = new ArrayList<>(pageEntries.size());
+                for (LocationCatalogEntry entry : pageEntries) {
+                    if (seen.add(entry.getOffice() + "/" + entry.getName())) {
+                        distinct.add(entry);
+                    }
+                }
+                pages.incrementAndGet();
+                entries.addAndGet(distinct.size());
+                duplicates.addAndGet(pageEntries.size() - distinct.size());
+                progressListener.accept(progress());
+                results.put(distinct);
+                cursor = page.getNextPage();
+            } while (cursor != null && !closed);
+        }
+
+        private void putQuietly(Object result) {
+            try {
+                results.put(result);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private CrawlProgress progress() {
+            return new CrawlProgress(officeCount, shardCount, completedShards.get(), pages.get(), entries.get(), duplicates.get(),
+                Duration.ofNanos(System.nanoTime() - startNanos));
+        }
+    }
+}
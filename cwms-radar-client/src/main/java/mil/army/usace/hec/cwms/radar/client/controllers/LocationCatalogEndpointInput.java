@@ -54,6 +54,21 @@ public final class LocationCatalogEndpointInput extends EndpointInput {
         return this;
     }
 
+    /**
+     * @return copy of this input for the given cursor, leaving this input unchanged
+     */
+    LocationCatalogEndpointInput atCursor(String cursor) {
+        LocationCatalogEndpointInput copy = new LocationCatalogEndpointInput();
+        copy.cursor = cursor;
+        copy.pageSize = pageSize;
+        copy.unitSystem = unitSystem;
+        copy.officeId = officeId;
+        copy.locationIdFilter = locationIdFilter;
+        copy.categoryIdFilter = categoryIdFilter;
+        copy.groupIdFilter = groupIdFilter;
+        return copy;
+    }
+
     public LocationCatalogEndpointInput pageSize(int pageSize) {
         this.pageSize = pageSize;
         return this;
@@ -29,7 +29,6 @@ import mil.army.usace.hec.cwms.http.client.HttpRequestBuilderImpl;
 import mil.army.usace.hec.cwms.http.client.HttpRequestResponse;
 import mil.army.usace.hec.cwms.http.client.request.HttpRequestExecutor;
 import mil.army.usace.hec.cwms.radar.client.model.LocationCategory;
-import mil.army.usace.hec.cwms.radar.client.model.RadarObjectMapper;
 
 import java.io.IOException;
 import java.util.List;
@@ -57,7 +56,7 @@ public final class LocationCategoryController {
                 .get()
                 .withMediaType(ACCEPT_HEADER_V1);
         try (HttpRequestResponse response = executor.execute()) {
-            retVal = RadarObjectMapper.mapJsonToObject(response.getBody(), LocationCategory.class);
+            retVal = InstrumentedObjectMapper.mapJsonToObject(response, LocationCategory.class);
         }
         return retVal;
     }
@@ -79,14 +78,14 @@ public final class LocationCategoryController {
                 .get()
                 .withMediaType(ACCEPT_HEADER_V1);
         try (HttpRequestResponse response = executor.execute()) {
-            retVal = RadarObjectMapper.mapJsonToListOfObjects(response.getBody(), LocationCategory.class);
+            retVal = InstrumentedObjectMapper.mapJsonToListOfObjects(response, LocationCategory.class);
         }
         return retVal;
     }
 
     public void storeLocationCategory(ApiConnectionInfo apiConnectionInfo, LocationCategoryEndpointInput.Post input)
             throws IOException {
-        String body = RadarObjectMapper.mapObjectToJson(input.locationCategory());
+        String body = InstrumentedObjectMapper.mapObjectToJson(input.locationCategory());
         new HttpRequestBuilderImpl(apiConnectionInfo, LOCATION_CATEGORY)
                 .addEndpointInput(input)
                 .post()
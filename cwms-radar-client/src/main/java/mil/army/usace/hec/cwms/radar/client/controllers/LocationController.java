@@ -33,7 +33,6 @@ import mil.army.usace.hec.cwms.http.client.HttpRequestBuilderImpl;
 import mil.army.usace.hec.cwms.http.client.HttpRequestResponse;
 import mil.army.usace.hec.cwms.http.client.request.HttpRequestExecutor;
 import mil.army.usace.hec.cwms.radar.client.model.Location;
-import mil.army.usace.hec.cwms.radar.client.model.RadarObjectMapper;
 
 public final class LocationController {
 
@@ -47,13 +46,13 @@ public final class LocationController {
             .get()
             .withMediaType(ACCEPT_HEADER_V2);
         try (HttpRequestResponse response = executor.execute()) {
-            retVal = RadarObjectMapper.mapJsonToObject(response.getBody(), Location.class);
+            retVal = InstrumentedObjectMapper.mapJsonToObject(response, Location.class);
         }
         return retVal;
     }
 
     public void storeLocation(ApiConnectionInfo apiConnectionInfo, LocationEndPointInput.Post endpointInput) throws IOException {
-        String body = RadarObjectMapper.mapObjectToJson(endpointInput.location());
+        String body = InstrumentedObjectMapper.mapObjectToJson(endpointInput.location());
         HttpRequestExecutor executor = new HttpRequestBuilderImpl(apiConnectionInfo, LOCATION_ENDPOINT)
             .addEndpointInput(endpointInput)
             .post()
@@ -63,7 +62,7 @@ public final class LocationController {
     }
 
     public void updateLocation(ApiConnectionInfo apiConnectionInfo, LocationEndPointInput.Patch endpointInput) throws IOException {
-        String body = RadarObjectMapper.mapObjectToJson(endpointInput.location());
+        String body = InstrumentedObjectMapper.mapObjectToJson(endpointInput.location());
         new HttpRequestBuilderImpl(apiConnectionInfo, LOCATION_ENDPOINT + "/" + endpointInput.originalLocationId())
             .addEndpointInput(endpointInput)
             .patch()
@@ -29,7 +29,6 @@ import mil.army.usace.hec.cwms.http.client.HttpRequestBuilderImpl;
 import mil.army.usace.hec.cwms.http.client.HttpRequestResponse;
 import mil.army.usace.hec.cwms.http.client.request.HttpRequestExecutor;
 import mil.army.usace.hec.cwms.radar.client.model.LocationGroup;
-import mil.army.usace.hec.cwms.radar.client.model.RadarObjectMapper;
 
 import java.io.IOException;
 import java.util.List;
@@ -55,7 +54,7 @@ public final class LocationGroupController {
                 .get()
                 .withMediaType(ACCEPT_HEADER_V1);
         try (HttpRequestResponse response = executor.execute()) {
-            retVal = RadarObjectMapper.mapJsonToObject(response.getBody(), LocationGroup.class);
+            retVal = InstrumentedObjectMapper.mapJsonToObject(response, LocationGroup.class);
         }
         return retVal;
     }
@@ -74,14 +73,14 @@ public final class LocationGroupController {
                 .get()
                 .withMediaType(ACCEPT_HEADER_V1);
         try (HttpRequestResponse response = executor.execute()) {
-            retVal = RadarObjectMapper.mapJsonToListOfObjects(response.getBody(), LocationGroup.class);
+            retVal = InstrumentedObjectMapper.mapJsonToListOfObjects(response, LocationGroup.class);
         }
         return retVal;
     }
 
     public void storeLocationGroup(ApiConnectionInfo apiConnectionInfo, LocationGroupEndpointInput.Post input)
             throws IOException {
-        String body = RadarObjectMapper.mapObjectToJson(input.locationGroup());
+        String body = InstrumentedObjectMapper.mapObjectToJson(input.locationGroup());
         new HttpRequestBuilderImpl(apiConnectionInfo, LOCATION_GROUP)
                 .addEndpointInput(input)
                 .post()
@@ -94,7 +93,7 @@ public final class LocationGroupController {
 
     public void updateLocationGroup(ApiConnectionInfo apiConnectionInfo, LocationGroupEndpointInput.Patch input)
             throws IOException {
-        String body = RadarObjectMapper.mapObjectToJson(input.locationGroup());
+        String body = InstrumentedObjectMapper.mapObjectToJson(input.locationGroup());
         new HttpRequestBuilderImpl(apiConnectionInfo, LOCATION_GROUP + "/" + input.originalGroupId())
                 .addEndpointInput(input)
                 .patch()
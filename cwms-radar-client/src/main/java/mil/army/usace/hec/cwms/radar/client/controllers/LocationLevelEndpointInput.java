@@ -157,6 +157,21 @@ public final class LocationLevelEndpointInput {
             this.unit = unit;
             return this;
         }
+
+        /**
+         * @return copy of this input for the given page, leaving this input unchanged
+         */
+        GetAll atPage(String page) {
+            GetAll copy = new GetAll();
+            copy.officeId = officeId;
+            copy.levelIdMask = levelIdMask;
+            copy.begin = begin;
+            copy.end = end;
+            copy.unit = unit;
+            copy.page = page;
+            copy.pageSize = pageSize;
+            return copy;
+        }
     }
 
     public static final class Post extends EndpointInput {
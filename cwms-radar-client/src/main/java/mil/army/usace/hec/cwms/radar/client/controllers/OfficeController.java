@@ -34,7 +34,6 @@ import mil.army.usace.hec.cwms.http.client.HttpRequestBuilderImpl;
 import mil.army.usace.hec.cwms.http.client.HttpRequestResponse;
 import mil.army.usace.hec.cwms.http.client.request.HttpRequestExecutor;
 import mil.army.usace.hec.cwms.radar.client.model.Office;
-import mil.army.usace.hec.cwms.radar.client.model.RadarObjectMapper;
 
 public final class OfficeController {
 
@@ -53,7 +52,7 @@ public final class OfficeController {
             .get()
             .withMediaType(ACCEPT_HEADER_V2);
         try (HttpRequestResponse response = executor.execute()) {
-            return RadarObjectMapper.mapJsonToListOfObjects(response.getBody(), Office.class);
+            return InstrumentedObjectMapper.mapJsonToListOfObjects(response, Office.class);
         }
     }
 }
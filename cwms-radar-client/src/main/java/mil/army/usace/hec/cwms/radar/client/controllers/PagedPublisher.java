@@ -0,0 +1,206 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.radar.client.controllers;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * Publishes the entries of a paged resource one at a time as the subscriber requests them. The first page is
+ * fetched on the first request, and the page after the one being emitted is fetched in the background, so at most
+ * two pages are held at once. Pages are fetched in sequence since each cursor comes from the previous page.
+ * <p>
+ * Each page after the first is fetched with a copy of the endpoint input for that page's cursor, so the caller's
+ * input is never changed and can be published again. A publisher supports a single subscriber, later subscribers
+ * receive an {@link IllegalStateException}.
+ *
+ * @param <P> page type
+ * @param <T> entry type
+ */
+final class PagedPublisher<P, T> implements Publisher<T> {
+
+    private final PageFetcher<P> pageFetcher;
+    private final Function<P, String> nextPage;
+    private final Function<P, List<T>> entries;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    PagedPublisher(PageFetcher<P> pageFetcher, Function<P, String> nextPage, Function<P, List<T>> entries) {
+        this.pageFetcher = Objects.requireNonNull(pageFetcher, "Cannot publish pages without a page fetcher");
+        this.nextPage = Objects.requireNonNull(nextPage, "Cannot publish pages without a next page accessor");
+        this.entries = Objects.requireNonNull(entries, "Cannot publish pages without an entries accessor");
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber, "Cannot subscribe a null subscriber");
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Subscription() {
+                @Override
+                public void request(long n) {
+                    //already terminated
+                }
+
+                @Override
+                public void cancel() {
+                    //already terminated
+                }
+            });
+            subscriber.onError(new IllegalStateException("Paged resources can only be published to a single subscriber"));
+            return;
+        }
+        subscriber.onSubscribe(new PageSubscription(subscriber));
+    }
+
+    private final class PageSubscription implements Subscription {
+
+        private final Subscriber<? super T> subscriber;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile Throwable requestError;
+        //only touched while draining
+        private boolean started;
+        private boolean done;
+        private Iterator<T> current = Collections.emptyIterator();
+        private CompletableFuture<P> pendingPage;
+
+        private PageSubscription(Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                requestError = new IllegalArgumentException("Subscribers must request a positive number of entries, requested: " + n);
+            } else {
+                requested.getAndUpdate(r -> r + n < 0 ? Long.MAX_VALUE : r + n);
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            drain();
+        }
+
+        private CompletableFuture<P> fetch(String cursor) {
+            CompletableFuture<P> page = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return pageFetcher.fetch(cursor);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, ControllerExecutors.TASK_EXECUTOR);
+            page.whenComplete((p, t) -> drain());
+            return page;
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                if (!done) {
+                    emit();
+                }
+                if (done || cancelled) {
+                    current = Collections.emptyIterator();
+                    pendingPage = null;
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void emit() {
+            long demand = requested.get();
+            long emitted = 0;
+            while (!cancelled) {
+                Throwable error = requestError;
+                if (error != null) {
+                    terminate(error);
+                    return;
+                }
+                if (!started) {
+                    if (demand == 0) {
+                        return;
+                    }
+                    started = true;
+                    pendingPage = fetch(null);
+                }
+                if (current.hasNext()) {
+                    if (emitted == demand) {
+                        break;
+                    }
+                    subscriber.onNext(current.next());
+                    emitted++;
+                } else if (pendingPage == null) {
+                    terminate(null);
+                    return;
+                } else if (emitted == demand || !pendingPage.isDone()) {
+                    //the page after the prefetched one is only fetched once the subscriber wants its entries
+                    break;
+                } else {
+                    P page;
+                    try {
+                        page = pendingPage.join();
+                    } catch (CompletionException e) {
+                        terminate(e.getCause() == null ? e : e.getCause());
+                        return;
+                    }
+                    List<T> pageEntries = entries.apply(page);
+                    current = pageEntries == null ? Collections.emptyIterator() : pageEntries.iterator();
+                    String cursor = nextPage.apply(page);
+                    pendingPage = cursor == null ? null : fetch(cursor);
+                }
+            }
+            if (emitted != 0 && demand != Long.MAX_VALUE) {
+                requested.addAndGet(-emitted);
+            }
+        }
+
+        private void terminate(Throwable error) {
+            done = true;
+            if (error == null) {
+                subscriber.onComplete();
+            } else {
+                subscriber.onError(error);
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.radar.client.controllers;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Iterates the entries of a paged resource while the following pages are fetched in the background. Up to
+ * prefetchPages pages are fetched ahead of the page being iterated. Pages are still fetched in sequence since each
+ * cursor comes from the previous page, but the requests overlap with the caller's processing instead of waiting for
+ * it. Closing the iterator stops the background fetching.
+ * <p>
+ * Page failures are thrown from {@link #hasNext()} as {@link UncheckedIOException}.
+ *
+ * @param <P> page type
+ * @param <T> entry type
+ */
+final class PrefetchingPageIterator<P, T> implements Iterator<T>, AutoCloseable {
+
+    static final int DEFAULT_PREFETCH_PAGES = 2;
+    private static final PageResult<?> END = new PageResult<>(Collections.emptyList(), null);
+    private final PageFetcher<P> pageFetcher;
+    private final Function<P, String> nextPage;
+    private final Function<P, List<T>> entries;
+    //the fetching thread holds one page while the queue holds the rest
+    private final BlockingQueue<PageResult<T>> pages;
+    private volatile boolean closed;
+    private Future<?> fetching;
+    private boolean finished;
+    private Iterator<T> current = Collections.emptyIterator();
+
+    PrefetchingPageIterator(PageFetcher<P> pageFetcher, Function<P, String> nextPage, Function<P, List<T>> entries, int prefetchPages) {
+        if (prefetchPages < 1) {
+            throw new IllegalArgumentException("At least one page must be prefetched, requested: " + prefetchPages);
+        }
+        this.pageFetcher = Objects.requireNonNull(pageFetcher, "Cannot iterate pages without a page fetcher");
+        this.nextPage = Objects.requireNonNull(nextPage, "Cannot iterate pages without a next page accessor");
+        this.entries = Objects.requireNonNull(entries, "Cannot iterate pages without an entries accessor");
+        this.pages = prefetchPages == 1 ? new SynchronousQueue<>() : new ArrayBlockingQueue<>(prefetchPages - 1);
+    }
+
+    /**
+     * @return sequential stream of the entries, closing it stops the background fetching
+     */
+    Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED), false)
+            .onClose(this::close);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed) {
+            return false;
+        }
+        if (fetching == null) {
+            fetching = ControllerExecutors.TASK_EXECUTOR.submit(this::fetchPages);
+        }
+        while (!current.hasNext()) {
+            if (finished) {
+                return false;
+            }
+            PageResult<T> page = takePage();
+            if (page == END) {
+                finished = true;
+                close();
+                return false;
+            }
+            if (page.error != null) {
+                finished = true;
+                close();
+                throw new UncheckedIOException(page.error);
+            }
+            current = page.entries.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        current = Collections.emptyIterator();
+        if (fetching != null) {
+            fetching.cancel(true);
+        }
+        pages.clear();
+    }
+
+    private PageResult<T> takePage() {
+        try {
+            return pages.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new UncheckedIOException(new InterruptedIOException("Interrupted waiting for the next page"));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void fetchPages() {
+        try {
+            String cursor = null;
+            do {
+                P page = pageFetcher.fetch(cursor);
+                List<T> pageEntries = entries.apply(page);
+                pages.put(new PageResult<>(pageEntries == null ? Collections.emptyList() : pageEntries, null));
+                cursor = nextPage.apply(page);
+            } while (cursor != null && !closed);
+            pages.put((PageResult<T>) END);
+        } catch (IOException e) {
+            if (!closed) {
+                putQuietly(new PageResult<>(Collections.emptyList(), e));
+            }
+        } catch (RuntimeException e) {
+            if (!closed) {
+                putQuietly(new PageResult<>(Collections.emptyList(), new IOException(e)));
+            }
+        } catch (InterruptedException e) {
+            //closed
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void putQuietly(PageResult<T> result) {
+        try {
+            pages.put(result);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class PageResult<T> {
+        private final List<T> entries;
+        private final IOException error;
+
+        private PageResult(List<T> entries, IOException error) {
+            this.entries = entries;
+            this.error = error;
+        }
+    }
+}
@@ -31,7 +31,6 @@ import mil.army.usace.hec.cwms.http.client.ApiConnectionInfo;
 import mil.army.usace.hec.cwms.http.client.HttpRequestBuilderImpl;
 import mil.army.usace.hec.cwms.http.client.HttpRequestResponse;
 import mil.army.usace.hec.cwms.http.client.request.HttpRequestExecutor;
-import mil.army.usace.hec.cwms.radar.client.model.RadarObjectMapper;
 import mil.army.usace.hec.cwms.radar.client.model.RatingMetadataList;
 
 public final class RatingController {
@@ -84,8 +83,7 @@ public final class RatingController {
             .get()
             .withMediaType(ACCEPT_XML_HEADER_V2);
         try (HttpRequestResponse response = executor.execute()) {
-            String body = response.getBody();
-            return RadarObjectMapper.mapJsonToObject(body, RatingMetadataList.class);
+            return InstrumentedObjectMapper.mapJsonToObject(response, RatingMetadataList.class);
         }
     }
 }
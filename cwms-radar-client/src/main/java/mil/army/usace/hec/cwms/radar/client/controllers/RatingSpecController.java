@@ -28,11 +28,11 @@ import mil.army.usace.hec.cwms.http.client.ApiConnectionInfo;
 import mil.army.usace.hec.cwms.http.client.HttpRequestBuilderImpl;
 import mil.army.usace.hec.cwms.http.client.HttpRequestResponse;
 import mil.army.usace.hec.cwms.http.client.request.HttpRequestExecutor;
-import mil.army.usace.hec.cwms.radar.client.model.RadarObjectMapper;
 import mil.army.usace.hec.cwms.radar.client.model.RatingSpec;
 import mil.army.usace.hec.cwms.radar.client.model.RatingSpecs;
 
 import java.io.IOException;
+import org.reactivestreams.Publisher;
 
 import static mil.army.usace.hec.cwms.radar.client.controllers.RadarEndpointConstants.ACCEPT_HEADER_V2;
 import static mil.army.usace.hec.cwms.radar.client.controllers.RadarEndpointConstants.ACCEPT_XML_HEADER_V2;
@@ -58,7 +58,7 @@ public final class RatingSpecController {
                 .get()
                 .withMediaType(ACCEPT_HEADER_V2);
         try (HttpRequestResponse response = executor.execute()) {
-            retVal = RadarObjectMapper.mapJsonToObject(response.getBody(), RatingSpec.class);
+            retVal = InstrumentedObjectMapper.mapJsonToObject(response, RatingSpec.class);
         }
         return retVal;
     }
@@ -79,11 +79,23 @@ public final class RatingSpecController {
                 .get()
                 .withMediaType(ACCEPT_HEADER_V2);
         try (HttpRequestResponse response = executor.execute()) {
-            retVal = RadarObjectMapper.mapJsonToObject(response.getBody(), RatingSpecs.class);
+            retVal = InstrumentedObjectMapper.mapJsonToObject(response, RatingSpecs.class);
         }
         return retVal;
     }
 
+    /**
+     * Publish Rating Specs page by page, fetching the next page as the subscriber requests more.
+     *
+     * @param apiConnectionInfo connection info
+     * @param input             rating-id mask and office, its page is advanced as pages are fetched
+     * @return single subscriber publisher of the RatingSpecs for office id
+     */
+    public Publisher<RatingSpec> publishRatingSpecs(ApiConnectionInfo apiConnectionInfo, RatingSpecEndpointInput.GetAll input) {
+        return new PagedPublisher<>(cursor -> retrieveRatingSpecs(apiConnectionInfo, cursor == null ? input : input.atPage(cursor)),
+            RatingSpecs::getNextPage, RatingSpecs::getSpecs);
+    }
+
     /**
      * Retrieve Rating Spec.
      *
@@ -28,11 +28,11 @@ import mil.army.usace.hec.cwms.http.client.ApiConnectionInfo;
 import mil.army.usace.hec.cwms.http.client.HttpRequestBuilderImpl;
 import mil.army.usace.hec.cwms.http.client.HttpRequestResponse;
 import mil.army.usace.hec.cwms.http.client.request.HttpRequestExecutor;
-import mil.army.usace.hec.cwms.radar.client.model.RadarObjectMapper;
 import mil.army.usace.hec.cwms.radar.client.model.RatingTemplate;
 import mil.army.usace.hec.cwms.radar.client.model.RatingTemplates;
 
 import java.io.IOException;
+import org.reactivestreams.Publisher;
 
 import static mil.army.usace.hec.cwms.radar.client.controllers.RadarEndpointConstants.ACCEPT_HEADER_V2;
 import static mil.army.usace.hec.cwms.radar.client.controllers.RadarEndpointConstants.ACCEPT_XML_HEADER_V2;
@@ -58,7 +58,7 @@ public final class RatingTemplateController {
                 .get()
                 .withMediaType(ACCEPT_HEADER_V2);
         try (HttpRequestResponse response = executor.execute()) {
-            retVal = RadarObjectMapper.mapJsonToObject(response.getBody(), RatingTemplate.class);
+            retVal = InstrumentedObjectMapper.mapJsonToObject(response, RatingTemplate.class);
         }
         return retVal;
     }
@@ -79,11 +79,23 @@ public final class RatingTemplateController {
                 .get()
                 .withMediaType(ACCEPT_HEADER_V2);
         try (HttpRequestResponse response = executor.execute()) {
-            retVal = RadarObjectMapper.mapJsonToObject(response.getBody(), RatingTemplates.class);
+            retVal = InstrumentedObjectMapper.mapJsonToObject(response, RatingTemplates.class);
         }
         return retVal;
     }
 
+    /**
+     * Publish Rating Templates page by page, fetching the next page as the subscriber requests more.
+     *
+     * @param apiConnectionInfo - connection info
+     * @param input             - rating template id mask and office, its page is advanced as pages are fetched
+     * @return single subscriber publisher of the RatingTemplates for input
+     */
+    public Publisher<RatingTemplate> publishRatingTemplates(ApiConnectionInfo apiConnectionInfo, RatingTemplateEndpointInput.GetAll input) {
+        return new PagedPublisher<>(cursor -> retrieveRatingTemplates(apiConnectionInfo, cursor == null ? input : input.atPage(cursor)),
+            RatingTemplates::getNextPage, RatingTemplates::getTemplates);
+    }
+
     /**
      * Store Rating Template.
      *
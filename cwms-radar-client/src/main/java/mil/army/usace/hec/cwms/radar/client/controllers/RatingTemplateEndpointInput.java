@@ -115,6 +115,18 @@ public final class RatingTemplateEndpointInput {
             return this;
         }
 
+        /**
+         * @return copy of this input for the given page, leaving this input unchanged
+         */
+        GetAll atPage(String page) {
+            GetAll copy = new GetAll();
+            copy.templateIdMask = templateIdMask;
+            copy.officeId = officeId;
+            copy.page = page;
+            copy.pageSize = pageSize;
+            return copy;
+        }
+
         @Override
         protected HttpRequestBuilder addInputParameters(HttpRequestBuilder httpRequestBuilder) {
             String pageSizeString = Optional.ofNullable(pageSize).map(Object::toString).orElse(null);
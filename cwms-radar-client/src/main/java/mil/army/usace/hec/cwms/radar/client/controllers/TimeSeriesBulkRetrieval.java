@@ -0,0 +1,86 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.radar.client.controllers;
+
+import java.time.Duration;
+import java.util.Objects;
+import mil.army.usace.hec.cwms.http.client.Deadline;
+
+/**
+ * Settings for retrieving many time series in one call. Requests are sent asynchronously with at most
+ * maxConcurrency in flight, and a failed series is reported in its own result instead of failing the batch.
+ */
+public final class TimeSeriesBulkRetrieval {
+
+    static final int DEFAULT_MAX_CONCURRENCY = 8;
+    private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+    private Deadline deadline;
+    private Duration timeout;
+
+    /**
+     * @param maxConcurrency maximum number of requests in flight, limited further by
+     *                       cwms.http.client.dispatcher.max.requests.per.host
+     * @return these settings
+     */
+    public TimeSeriesBulkRetrieval maxConcurrency(int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("At least one request must be in flight, requested: " + maxConcurrency);
+        }
+        this.maxConcurrency = maxConcurrency;
+        return this;
+    }
+
+    /**
+     * @param deadline deadline for the whole batch, series not retrieved by then fail with a DeadlineExceededException
+     * @return these settings
+     */
+    public TimeSeriesBulkRetrieval deadline(Deadline deadline) {
+        this.deadline = Objects.requireNonNull(deadline, "Missing required deadline");
+        return this;
+    }
+
+    /**
+     * @param timeout time allowed for the whole batch, counted from when the retrieval starts
+     * @return these settings
+     */
+    public TimeSeriesBulkRetrieval timeout(Duration timeout) {
+        this.timeout = Objects.requireNonNull(timeout, "Missing required timeout");
+        return this;
+    }
+
+    int maxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * @return the batch deadline starting now, or null without one
+     */
+    Deadline startDeadline() {
+        if (timeout == null) {
+            return deadline;
+        }
+        return Deadline.after(timeout).earlierOf(deadline);
+    }
+}
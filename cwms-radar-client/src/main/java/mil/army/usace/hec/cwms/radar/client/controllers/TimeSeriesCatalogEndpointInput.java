@@ -54,6 +54,21 @@ public final class TimeSeriesCatalogEndpointInput extends EndpointInput {
         return this;
     }
 
+    /**
+     * @return copy of this input for the given cursor, leaving this input unchanged
+     */
+    TimeSeriesCatalogEndpointInput atCursor(String cursor) {
+        TimeSeriesCatalogEndpointInput copy = new TimeSeriesCatalogEndpointInput();
+        copy.cursor = cursor;
+        copy.pageSize = pageSize;
+        copy.unitSystem = unitSystem;
+        copy.officeId = officeId;
+        copy.timeSeriesIdFilter = timeSeriesIdFilter;
+        copy.categoryIdFilter = categoryIdFilter;
+        copy.groupIdFilter = groupIdFilter;
+        return copy;
+    }
+
     public TimeSeriesCatalogEndpointInput pageSize(int pageSize) {
         this.pageSize = pageSize;
         return this;
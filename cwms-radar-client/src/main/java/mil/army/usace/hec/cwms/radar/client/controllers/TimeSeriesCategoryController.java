@@ -28,7 +28,6 @@ import mil.army.usace.hec.cwms.http.client.ApiConnectionInfo;
 import mil.army.usace.hec.cwms.http.client.HttpRequestBuilderImpl;
 import mil.army.usace.hec.cwms.http.client.HttpRequestResponse;
 import mil.army.usace.hec.cwms.http.client.request.HttpRequestExecutor;
-import mil.army.usace.hec.cwms.radar.client.model.RadarObjectMapper;
 import mil.army.usace.hec.cwms.radar.client.model.TimeSeriesCategory;
 
 import java.io.IOException;
@@ -50,7 +49,7 @@ public final class TimeSeriesCategoryController {
                 .get()
                 .withMediaType(ACCEPT_HEADER_V1);
         try (HttpRequestResponse response = executor.execute()) {
-            retVal = RadarObjectMapper.mapJsonToObject(response.getBody(), TimeSeriesCategory.class);
+            retVal = InstrumentedObjectMapper.mapJsonToObject(response, TimeSeriesCategory.class);
         }
         return retVal;
     }
@@ -64,7 +63,7 @@ public final class TimeSeriesCategoryController {
                 .get()
                 .withMediaType(ACCEPT_HEADER_V1);
         try (HttpRequestResponse response = executor.execute()) {
-            retVal = RadarObjectMapper.mapJsonToListOfObjects(response.getBody(), TimeSeriesCategory.class);
+            retVal = InstrumentedObjectMapper.mapJsonToListOfObjects(response, TimeSeriesCategory.class);
         }
         return retVal;
     }
@@ -72,7 +71,7 @@ public final class TimeSeriesCategoryController {
     public void storeTimeSeriesCategory(ApiConnectionInfo apiConnectionInfo,
                                         TimeSeriesCategoryEndpointInput.Post input)
             throws IOException {
-        String body = RadarObjectMapper.mapObjectToJson(input.timeSeriesCategory());
+        String body = InstrumentedObjectMapper.mapObjectToJson(input.timeSeriesCategory());
         new HttpRequestBuilderImpl(apiConnectionInfo, TIME_SERIES_CATEGORY_ENDPOINT)
                 .addEndpointInput(input)
                 .post()
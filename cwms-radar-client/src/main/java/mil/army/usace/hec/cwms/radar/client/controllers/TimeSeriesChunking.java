@@ -0,0 +1,147 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.radar.client.controllers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Settings for retrieving a long time series as several time windows fetched in parallel. Windows are sized so a
+ * regular series has at most maxValuesPerWindow values per window, using the interval part of the time series
+ * identifier. Irregular series are split into windows of irregularWindow.
+ */
+public final class TimeSeriesChunking {
+
+    static final int DEFAULT_MAX_VALUES_PER_WINDOW = 20_000;
+    static final Duration DEFAULT_IRREGULAR_WINDOW = Duration.ofDays(30);
+    static final int DEFAULT_MAX_CONCURRENCY = 4;
+    private static final Pattern INTERVAL = Pattern.compile("(\\d+)(Minute|Hour|Day|Week|Month|Year|Decade)s?");
+    private int maxValuesPerWindow = DEFAULT_MAX_VALUES_PER_WINDOW;
+    private Duration irregularWindow = DEFAULT_IRREGULAR_WINDOW;
+    private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+
+    /**
+     * @param maxValuesPerWindow most values a window of a regular time series may hold
+     * @return these settings
+     */
+    public TimeSeriesChunking maxValuesPerWindow(int maxValuesPerWindow) {
+        if (maxValuesPerWindow < 1) {
+            throw new IllegalArgumentException("Windows must hold at least one value, requested: " + maxValuesPerWindow);
+        }
+        this.maxValuesPerWindow = maxValuesPerWindow;
+        return this;
+    }
+
+    /**
+     * @param irregularWindow window length for irregular time series
+     * @return these settings
+     */
+    public TimeSeriesChunking irregularWindow(Duration irregularWindow) {
+        Objects.requireNonNull(irregularWindow, "Cannot chunk irregular time series without a window length");
+        if (irregularWindow.isZero() || irregularWindow.isNegative()) {
+            throw new IllegalArgumentException("Irregular window must be positive, requested: " + irregularWindow);
+        }
+        this.irregularWindow = irregularWindow;
+        return this;
+    }
+
+    /**
+     * @param maxConcurrency maximum number of windows retrieved at the same time
+     * @return these settings
+     */
+    public TimeSeriesChunking maxConcurrency(int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("At least one window must be retrieved at a time, requested: " + maxConcurrency);
+        }
+        this.maxConcurrency = maxConcurrency;
+        return this;
+    }
+
+    int maxValuesPerWindow() {
+        return maxValuesPerWindow;
+    }
+
+    int maxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * @return boundaries of consecutive windows covering [begin, end], window i runs from boundary i to boundary i + 1
+     */
+    List<Instant> windowBoundaries(String timeSeriesId, Instant begin, Instant end) {
+        Duration interval = intervalOf(timeSeriesId);
+        Duration window = interval == null ? irregularWindow : interval.multipliedBy(maxValuesPerWindow);
+        List<Instant> boundaries = new ArrayList<>();
+        Instant boundary = begin;
+        boundaries.add(boundary);
+        while (boundary.isBefore(end)) {
+            Instant next = boundary.plus(window);
+            boundary = next.isAfter(end) ? end : next;
+            boundaries.add(boundary);
+        }
+        return boundaries;
+    }
+
+    /**
+     * Calendar intervals use their shortest span, so a window never holds more than the value limit.
+     *
+     * @return the shortest time a regular interval can span, or null for irregular or unrecognized intervals
+     */
+    static Duration intervalOf(String timeSeriesId) {
+        String[] parts = timeSeriesId.split("\\.");
+        if (parts.length != 6) {
+            return null;
+        }
+        Matcher matcher = INTERVAL.matcher(parts[3]);
+        if (!matcher.matches()) {
+            return null;
+        }
+        long count = Long.parseLong(matcher.group(1));
+        if (count == 0) {
+            return null;
+        }
+        switch (matcher.group(2)) {
+            case "Minute":
+                return Duration.ofMinutes(count);
+            case "Hour":
+                return Duration.ofHours(count);
+            case "Day":
+                return Duration.ofDays(count);
+            case "Week":
+                return Duration.ofDays(7 * count);
+            case "Month":
+                return Duration.ofDays(28 * count);
+            case "Year":
+                return Duration.ofDays(365 * count);
+            default:
+                return Duration.ofDays(3652 * count);
+        }
+    }
+}
@@ -28,18 +28,47 @@ import static mil.army.usace.hec.cwms.radar.client.controllers.RadarEndpointCons
 import static mil.army.usace.hec.cwms.radar.client.controllers.RadarEndpointConstants.ACCEPT_QUERY_HEADER;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import mil.army.usace.hec.cwms.http.client.ApiConnectionInfo;
 import mil.army.usace.hec.cwms.http.client.HttpRequestBuilderImpl;
 import mil.army.usace.hec.cwms.http.client.HttpRequestResponse;
 import mil.army.usace.hec.cwms.http.client.request.HttpRequestExecutor;
-import mil.army.usace.hec.cwms.radar.client.model.RadarObjectMapper;
 import mil.army.usace.hec.cwms.radar.client.model.TimeSeries;
+import org.reactivestreams.Publisher;
 
 public final class TimeSeriesController {
 
     private static final String TIME_SERIES_ENDPOINT = "timeseries";
 
+    /**
+     * Retrieves the requested page of the time series, or every page when the input follows the next page.
+     */
     public TimeSeries retrieveTimeSeries(ApiConnectionInfo apiConnectionInfo, TimeSeriesEndpointInput.GetOne timeSeriesEndpointInput)
+        throws IOException {
+        if (timeSeriesEndpointInput.followsNextPage()) {
+            return new TimeSeriesPageFollower(this, apiConnectionInfo, timeSeriesEndpointInput).retrieveAll();
+        }
+        return retrieveTimeSeriesPage(apiConnectionInfo, timeSeriesEndpointInput);
+    }
+
+    /**
+     * Retrieves every page of the time series, handing each page to the consumer as it arrives. The next page is
+     * requested before the current page is handed over.
+     */
+    public void retrieveTimeSeriesPages(ApiConnectionInfo apiConnectionInfo, TimeSeriesEndpointInput.GetOne timeSeriesEndpointInput,
+                                        Consumer<TimeSeries> pageConsumer) throws IOException {
+        Objects.requireNonNull(pageConsumer, "Cannot retrieve time series pages without a page consumer");
+        new TimeSeriesPageFollower(this, apiConnectionInfo, timeSeriesEndpointInput).forEachPage(pageConsumer);
+    }
+
+    TimeSeries retrieveTimeSeriesPage(ApiConnectionInfo apiConnectionInfo, TimeSeriesEndpointInput.GetOne timeSeriesEndpointInput)
         throws IOException {
         TimeSeries retVal;
         HttpRequestExecutor executor = new HttpRequestBuilderImpl(apiConnectionInfo, TIME_SERIES_ENDPOINT)
@@ -48,13 +77,119 @@ public final class TimeSeriesController {
             .get()
             .withMediaType(ACCEPT_HEADER_V2);
         try (HttpRequestResponse response = executor.execute()) {
-            retVal = RadarObjectMapper.mapJsonToObject(response.getBody(), TimeSeries.class);
+            retVal = InstrumentedObjectMapper.mapJsonToObject(response, TimeSeries.class);
+        }
+        return retVal;
+    }
+
+    public TimeSeries retrieveTimeSeries(ApiConnectionInfo apiConnectionInfo, TimeSeriesEndpointInput.GetOne timeSeriesEndpointInput,
+                                         TimeSeriesChunking chunking) throws IOException {
+        Objects.requireNonNull(chunking, "Cannot retrieve a chunked time series without chunking settings");
+        return new ChunkedTimeSeriesRetriever(this, apiConnectionInfo, chunking).retrieve(timeSeriesEndpointInput);
+    }
+
+    /**
+     * Retrieves the time series without blocking the calling thread.
+     *
+     * @return future completed with the time series, or exceptionally with the IOException, for example a NoDataFoundException
+     */
+    public CompletableFuture<TimeSeries> retrieveTimeSeriesAsync(ApiConnectionInfo apiConnectionInfo,
+                                                                 TimeSeriesEndpointInput.GetOne timeSeriesEndpointInput) {
+        if (timeSeriesEndpointInput.followsNextPage()) {
+            return new TimeSeriesPageFollower(this, apiConnectionInfo, timeSeriesEndpointInput).retrieveAllAsync();
+        }
+        return retrieveTimeSeriesPageAsync(apiConnectionInfo, timeSeriesEndpointInput);
+    }
+
+    CompletableFuture<TimeSeries> retrieveTimeSeriesPageAsync(ApiConnectionInfo apiConnectionInfo,
+                                                              TimeSeriesEndpointInput.GetOne timeSeriesEndpointInput) {
+        HttpRequestExecutor executor;
+        try {
+            executor = new HttpRequestBuilderImpl(apiConnectionInfo, TIME_SERIES_ENDPOINT)
+                .addQueryHeader(ACCEPT_QUERY_HEADER, ACCEPT_HEADER_V2)
+                .addEndpointInput(timeSeriesEndpointInput)
+                .get()
+                .withMediaType(ACCEPT_HEADER_V2);
+        } catch (IOException | RuntimeException ex) {
+            CompletableFuture<TimeSeries> failed = new CompletableFuture<>();
+            failed.completeExceptionally(ex);
+            return failed;
         }
+        CompletableFuture<HttpRequestResponse> call = executor.executeAsync();
+        CompletableFuture<TimeSeries> retVal = new CompletableFuture<>();
+        call.whenComplete((response, error) -> {
+            if (error != null) {
+                retVal.completeExceptionally(error);
+                return;
+            }
+            //always closed, even when retVal was cancelled before the response arrived
+            try (HttpRequestResponse closeable = response) {
+                if (!retVal.isDone()) {
+                    retVal.complete(InstrumentedObjectMapper.mapJsonToObject(closeable, TimeSeries.class));
+                }
+            } catch (IOException | RuntimeException ex) {
+                retVal.completeExceptionally(ex);
+            }
+        });
+        //a dependent future does not cancel its source, cancel the http call explicitly
+        retVal.whenComplete((timeSeries, error) -> {
+            if (retVal.isCancelled()) {
+                call.cancel(true);
+            }
+        });
         return retVal;
     }
 
+    /**
+     * Retrieves many time series concurrently with the default {@link TimeSeriesBulkRetrieval} settings.
+     *
+     * @return one result per input in input order, failures are captured per series
+     */
+    public List<TimeSeriesRetrievalResult> retrieveTimeSeries(ApiConnectionInfo apiConnectionInfo,
+                                                              Collection<TimeSeriesEndpointInput.GetOne> timeSeriesEndpointInputs)
+        throws IOException {
+        return retrieveTimeSeries(apiConnectionInfo, timeSeriesEndpointInputs, new TimeSeriesBulkRetrieval());
+    }
+
+    /**
+     * Retrieves many time series concurrently.
+     *
+     * @return one result per input in input order, failures are captured per series
+     */
+    public List<TimeSeriesRetrievalResult> retrieveTimeSeries(ApiConnectionInfo apiConnectionInfo,
+                                                              Collection<TimeSeriesEndpointInput.GetOne> timeSeriesEndpointInputs,
+                                                              TimeSeriesBulkRetrieval bulkRetrieval) throws IOException {
+        return newBulkRetriever(apiConnectionInfo, timeSeriesEndpointInputs, bulkRetrieval).retrieveAll();
+    }
+
+    /**
+     * Retrieves many time series concurrently, closing the stream cancels the series not yet retrieved.
+     *
+     * @return one result per input in completion order, failures are captured per series
+     */
+    public Stream<TimeSeriesRetrievalResult> streamTimeSeries(ApiConnectionInfo apiConnectionInfo,
+                                                              Collection<TimeSeriesEndpointInput.GetOne> timeSeriesEndpointInputs,
+                                                              TimeSeriesBulkRetrieval bulkRetrieval) {
+        return newBulkRetriever(apiConnectionInfo, timeSeriesEndpointInputs, bulkRetrieval).streamCompleted();
+    }
+
+    private BulkTimeSeriesRetriever newBulkRetriever(ApiConnectionInfo apiConnectionInfo,
+                                                     Collection<TimeSeriesEndpointInput.GetOne> timeSeriesEndpointInputs,
+                                                     TimeSeriesBulkRetrieval bulkRetrieval) {
+        Objects.requireNonNull(timeSeriesEndpointInputs, "Cannot retrieve time series without endpoint inputs");
+        Objects.requireNonNull(bulkRetrieval, "Cannot retrieve time series without bulk retrieval settings");
+        return new BulkTimeSeriesRetriever(this, apiConnectionInfo, new ArrayList<>(timeSeriesEndpointInputs), bulkRetrieval);
+    }
+
+    public Publisher<TimeSeries> publishTimeSeriesPages(ApiConnectionInfo apiConnectionInfo,
+                                                        TimeSeriesEndpointInput.GetOne timeSeriesEndpointInput) {
+        return new PagedPublisher<>(cursor -> retrieveTimeSeriesPage(apiConnectionInfo,
+            cursor == null ? timeSeriesEndpointInput : timeSeriesEndpointInput.atPage(cursor)),
+            TimeSeries::getNextPage, Collections::singletonList);
+    }
+
     public void storeTimeSeries(ApiConnectionInfo apiConnectionInfo, TimeSeriesEndpointInput.Post timeSeriesEndpointInput) throws IOException {
-        String body = RadarObjectMapper.mapObjectToJson(timeSeriesEndpointInput.timeSeries());
+        String body = InstrumentedObjectMapper.mapObjectToJson(timeSeriesEndpointInput.timeSeries());
         new HttpRequestBuilderImpl(apiConnectionInfo, TIME_SERIES_ENDPOINT)
             .addQueryHeader(ACCEPT_QUERY_HEADER, ACCEPT_HEADER_V2)
             .addEndpointInput(timeSeriesEndpointInput)
@@ -65,6 +200,18 @@ public final class TimeSeriesController {
             .close();
     }
 
+    /**
+     * Stores the time series as chunks of consecutive values posted in parallel, for series too large for one request.
+     *
+     * @return the committed chunks in time order
+     * @throws TimeSeriesStoreException if a chunk could not be committed, reporting which time ranges were
+     */
+    public TimeSeriesStoreResult storeTimeSeries(ApiConnectionInfo apiConnectionInfo, TimeSeriesEndpointInput.Post timeSeriesEndpointInput,
+                                                 TimeSeriesStoreChunking chunking) throws IOException {
+        Objects.requireNonNull(chunking, "Cannot store a chunked time series without chunking settings");
+        return new ChunkedTimeSeriesStorer(this, apiConnectionInfo, chunking).store(timeSeriesEndpointInput);
+    }
+
     public void deleteTimeSeries(ApiConnectionInfo apiConnectionInfo, TimeSeriesEndpointInput.Delete timeSeriesEndpointInput) throws IOException {
         String endpoint = TIME_SERIES_ENDPOINT + "/" + timeSeriesEndpointInput.timeSeriesId();
         new HttpRequestBuilderImpl(apiConnectionInfo, endpoint)
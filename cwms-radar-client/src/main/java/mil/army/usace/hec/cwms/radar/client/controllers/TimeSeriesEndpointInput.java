@@ -74,11 +74,50 @@ public final class TimeSeriesEndpointInput {
         private String page;
         private Integer pageSize;
         private Instant end;
+        private boolean followNextPage;
 
         private GetOne(String timeSeriesId) {
             this.timeSeriesId = Objects.requireNonNull(timeSeriesId, "Cannot access the timeseries GET endpoint without a time series identifier");
         }
 
+        String timeSeriesId() {
+            return timeSeriesId;
+        }
+
+        Instant begin() {
+            return begin;
+        }
+
+        Instant end() {
+            return end;
+        }
+
+        /**
+         * @return copy of this input for the first page of [windowBegin, windowEnd]
+         */
+        GetOne window(Instant windowBegin, Instant windowEnd) {
+            GetOne window = new GetOne(timeSeriesId);
+            window.officeId = officeId;
+            window.unit = unit;
+            window.zoneId = zoneId;
+            window.verticalDatum = verticalDatum;
+            window.pageSize = pageSize;
+            window.begin = windowBegin;
+            window.end = windowEnd;
+            return window;
+        }
+
+        /**
+         * @return copy of this input for the given page
+         */
+        GetOne atPage(String page) {
+            return window(begin, end).page(page);
+        }
+
+        boolean followsNextPage() {
+            return followNextPage;
+        }
+
         public GetOne officeId(String officeId) {
             this.officeId = officeId;
             return this;
@@ -124,6 +163,15 @@ public final class TimeSeriesEndpointInput {
             return this;
         }
 
+        /**
+         * @param followNextPage true to retrieve every page of the time series instead of only the requested page
+         * @return this input
+         */
+        public GetOne followNextPage(boolean followNextPage) {
+            this.followNextPage = followNextPage;
+            return this;
+        }
+
         @Override
         protected HttpRequestBuilder addInputParameters(HttpRequestBuilder httpRequestBuilder) {
             String pageSizeString = Optional.ofNullable(pageSize).map(Object::toString).orElse(null);
@@ -148,6 +196,7 @@ public final class TimeSeriesEndpointInput {
         static final String CREATE_AS_LRTS_QUERY_PARAMETER = "create-as-lrts";
         static final String STORE_RULE_PARAMETER = "store-rule";
         static final String OVERRIDE_PROTECTION_PARAMETER = "override-protection";
+        static final String DELETE_INSERT_STORE_RULE = "DELETE_INSERT";
         private final TimeSeries timeSeries;
         private Instant version;
         private boolean createAsLrts = false;
@@ -162,6 +211,25 @@ public final class TimeSeriesEndpointInput {
             return timeSeries;
         }
 
+        /**
+         * @return copy of this input, with the same store settings, for part of the time series
+         */
+        Post withTimeSeries(TimeSeries part) {
+            Post post = new Post(part);
+            post.version = version;
+            post.createAsLrts = createAsLrts;
+            post.overrideProtection = overrideProtection;
+            post.storeRule = storeRule;
+            return post;
+        }
+
+        /**
+         * @return true if the store rule replaces every existing value between the first and last value stored
+         */
+        boolean isDeleteInsert() {
+            return storeRule != null && DELETE_INSERT_STORE_RULE.equalsIgnoreCase(storeRule.trim().replace(' ', '_'));
+        }
+
         public Post versionDate(Instant version) {
             this.version = version;
             return this;
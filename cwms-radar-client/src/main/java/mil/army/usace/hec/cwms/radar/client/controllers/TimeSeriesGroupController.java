@@ -28,7 +28,6 @@ import mil.army.usace.hec.cwms.http.client.ApiConnectionInfo;
 import mil.army.usace.hec.cwms.http.client.HttpRequestBuilderImpl;
 import mil.army.usace.hec.cwms.http.client.HttpRequestResponse;
 import mil.army.usace.hec.cwms.http.client.request.HttpRequestExecutor;
-import mil.army.usace.hec.cwms.radar.client.model.RadarObjectMapper;
 import mil.army.usace.hec.cwms.radar.client.model.TimeSeriesGroup;
 
 import java.io.IOException;
@@ -50,7 +49,7 @@ public final class TimeSeriesGroupController {
                 .get()
                 .withMediaType(ACCEPT_HEADER_V1);
         try (HttpRequestResponse response = executor.execute()) {
-            retVal = RadarObjectMapper.mapJsonToObject(response.getBody(), TimeSeriesGroup.class);
+            retVal = InstrumentedObjectMapper.mapJsonToObject(response, TimeSeriesGroup.class);
         }
         return retVal;
     }
@@ -64,14 +63,14 @@ public final class TimeSeriesGroupController {
                 .get()
                 .withMediaType(ACCEPT_HEADER_V1);
         try (HttpRequestResponse response = executor.execute()) {
-            retVal = RadarObjectMapper.mapJsonToListOfObjects(response.getBody(), TimeSeriesGroup.class);
+            retVal = InstrumentedObjectMapper.mapJsonToListOfObjects(response, TimeSeriesGroup.class);
         }
         return retVal;
     }
 
     public void storeGroup(ApiConnectionInfo apiConnectionInfo, TimeSeriesGroupEndpointInput.Post input)
             throws IOException {
-        String body = RadarObjectMapper.mapObjectToJson(input.timeSeriesGroup());
+        String body = InstrumentedObjectMapper.mapObjectToJson(input.timeSeriesGroup());
         new HttpRequestBuilderImpl(apiConnectionInfo, TIME_SERIES_GROUP_ENDPOINT)
                 .addEndpointInput(input)
                 .post()
@@ -83,7 +82,7 @@ public final class TimeSeriesGroupController {
 
     public void updateGroup(ApiConnectionInfo apiConnectionInfo, TimeSeriesGroupEndpointInput.Patch input)
             throws IOException {
-        String body = RadarObjectMapper.mapObjectToJson(input.timeSeriesGroup());
+        String body = InstrumentedObjectMapper.mapObjectToJson(input.timeSeriesGroup());
         new HttpRequestBuilderImpl(apiConnectionInfo, TIME_SERIES_GROUP_ENDPOINT + "/" + input.originalLocationId())
                 .addEndpointInput(input)
                 .patch()
@@ -35,7 +35,6 @@ import mil.army.usace.hec.cwms.http.client.HttpRequestResponse;
 import mil.army.usace.hec.cwms.http.client.NoDataFoundException;
 import mil.army.usace.hec.cwms.http.client.UnauthorizedException;
 import mil.army.usace.hec.cwms.http.client.request.HttpRequestExecutor;
-import mil.army.usace.hec.cwms.radar.client.model.RadarObjectMapper;
 import mil.army.usace.hec.cwms.radar.client.model.TimeSeriesIdentifierDescriptor;
 
 public final class TimeSeriesIdentifierController {
@@ -60,7 +59,7 @@ public final class TimeSeriesIdentifierController {
             .get()
             .withMediaType(ACCEPT_HEADER_V2);
         try (HttpRequestResponse response = executor.execute()) {
-            retVal = RadarObjectMapper.mapJsonToObject(response.getBody(), TimeSeriesIdentifierDescriptor.class);
+            retVal = InstrumentedObjectMapper.mapJsonToObject(response, TimeSeriesIdentifierDescriptor.class);
         }
         return retVal;
     }
@@ -77,7 +76,7 @@ public final class TimeSeriesIdentifierController {
      * Such as if the stored identifier is invalid.
      */
     public void storeTimeSeriesIdentifier(ApiConnectionInfo apiConnectionInfo, TimeSeriesIdentifierEndpointInput.Post input) throws IOException {
-        String body = RadarObjectMapper.mapObjectToJson(input.timeSeriesIdentifierDescriptor());
+        String body = InstrumentedObjectMapper.mapObjectToJson(input.timeSeriesIdentifierDescriptor());
         new HttpRequestBuilderImpl(apiConnectionInfo, TIME_SERIES_ENDPOINT)
             .addQueryHeader(ACCEPT_QUERY_HEADER, ACCEPT_HEADER_V2)
             .addEndpointInput(input)
@@ -0,0 +1,188 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.radar.client.controllers;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import mil.army.usace.hec.cwms.http.client.ApiConnectionInfo;
+import mil.army.usace.hec.cwms.radar.client.model.TimeSeries;
+import mil.army.usace.hec.cwms.radar.client.model.TimeSeriesValues;
+
+/**
+ * Follows the nextPage cursor of a time series. The request for the next page is sent as soon as a page is parsed, so
+ * it is in flight while the current page is consumed.
+ */
+final class TimeSeriesPageFollower {
+
+    //a bogus total should not allocate more than this up front, the buffer still grows past it
+    private static final int MAX_PRESIZED_VALUES = 1 << 22;
+    private final TimeSeriesController timeSeriesController;
+    private final ApiConnectionInfo apiConnectionInfo;
+    private final TimeSeriesEndpointInput.GetOne input;
+
+    TimeSeriesPageFollower(TimeSeriesController timeSeriesController, ApiConnectionInfo apiConnectionInfo,
+                           TimeSeriesEndpointInput.GetOne input) {
+        this.timeSeriesController = timeSeriesController;
+        this.apiConnectionInfo = apiConnectionInfo;
+        this.input = input;
+    }
+
+    /**
+     * @return the first page holding the values of every page
+     */
+    TimeSeries retrieveAll() throws IOException {
+        ValuesBuffer buffer = new ValuesBuffer();
+        forEachPage(buffer);
+        return buffer.merged();
+    }
+
+    void forEachPage(Consumer<TimeSeries> pageConsumer) throws IOException {
+        TimeSeries page = timeSeriesController.retrieveTimeSeriesPage(apiConnectionInfo, input);
+        while (page != null) {
+            CompletableFuture<TimeSeries> next = requestNextPage(page);
+            try {
+                pageConsumer.accept(page);
+            } catch (RuntimeException ex) {
+                if (next != null) {
+                    next.cancel(true);
+                }
+                throw ex;
+            }
+            page = next == null ? null : await(next);
+        }
+    }
+
+    /**
+     * @return future completed with the first page holding the values of every page, cancelling it stops following
+     */
+    CompletableFuture<TimeSeries> retrieveAllAsync() {
+        CompletableFuture<TimeSeries> result = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<TimeSeries>> inFlight = new AtomicReference<>();
+        result.whenComplete((timeSeries, error) -> {
+            CompletableFuture<TimeSeries> current = inFlight.get();
+            if (result.isCancelled() && current != null) {
+                current.cancel(true);
+            }
+        });
+        follow(timeSeriesController.retrieveTimeSeriesPageAsync(apiConnectionInfo, input), new ValuesBuffer(), inFlight, result);
+        return result;
+    }
+
+    private void follow(CompletableFuture<TimeSeries> pageFuture, ValuesBuffer buffer,
+                        AtomicReference<CompletableFuture<TimeSeries>> inFlight, CompletableFuture<TimeSeries> result) {
+        inFlight.set(pageFuture);
+        if (result.isCancelled()) {
+            //cancelled before this page was tracked
+            pageFuture.cancel(true);
+            return;
+        }
+        pageFuture.whenComplete((page, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+                return;
+            }
+            if (result.isDone()) {
+                return;
+            }
+            CompletableFuture<TimeSeries> next = requestNextPage(page);
+            try {
+                buffer.accept(page);
+            } catch (RuntimeException ex) {
+                if (next != null) {
+                    next.cancel(true);
+                }
+                result.completeExceptionally(ex);
+                return;
+            }
+            if (next == null) {
+                result.complete(buffer.merged());
+            } else {
+                follow(next, buffer, inFlight, result);
+            }
+        });
+    }
+
+    private CompletableFuture<TimeSeries> requestNextPage(TimeSeries page) {
+        String nextPage = page.getNextPage();
+        if (nextPage == null) {
+            return null;
+        }
+        return timeSeriesController.retrieveTimeSeriesPageAsync(apiConnectionInfo, input.atPage(nextPage));
+    }
+
+    private static TimeSeries await(CompletableFuture<TimeSeries> next) throws IOException {
+        try {
+            return next.get();
+        } catch (InterruptedException e) {
+            next.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted retrieving the next time series page");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException && e.getCause().getCause() != null
+                ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Failed to retrieve the next time series page", cause);
+        }
+    }
+
+    /**
+     * Appends the values of each page to one list, sized from the total reported with the first page.
+     */
+    private static final class ValuesBuffer implements Consumer<TimeSeries> {
+
+        private TimeSeries first;
+        private List<TimeSeriesValues> values;
+
+        @Override
+        public void accept(TimeSeries page) {
+            List<TimeSeriesValues> pageValues = page.getValues() == null ? new ArrayList<>() : page.getValues();
+            if (first == null) {
+                first = page;
+                Integer total = page.getTotal();
+                int capacity = total == null ? pageValues.size() : Math.max(Math.min(total, MAX_PRESIZED_VALUES), pageValues.size());
+                values = new ArrayList<>(capacity);
+            }
+            values.addAll(pageValues);
+        }
+
+        TimeSeries merged() {
+            first.setValues(values);
+            first.setTotal(values.size());
+            first.setPageSize(values.size());
+            first.setPage(null);
+            first.setNextPage(null);
+            return first;
+        }
+    }
+}
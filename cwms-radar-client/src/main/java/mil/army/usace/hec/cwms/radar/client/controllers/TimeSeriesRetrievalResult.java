@@ -0,0 +1,86 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.radar.client.controllers;
+
+import java.io.IOException;
+import mil.army.usace.hec.cwms.radar.client.model.TimeSeries;
+
+/**
+ * Outcome of retrieving one time series of a bulk retrieval, either the time series or the failure.
+ */
+public final class TimeSeriesRetrievalResult {
+
+    private final int index;
+    private final TimeSeriesEndpointInput.GetOne input;
+    private final TimeSeries timeSeries;
+    private final IOException error;
+
+    TimeSeriesRetrievalResult(int index, TimeSeriesEndpointInput.GetOne input, TimeSeries timeSeries, IOException error) {
+        this.index = index;
+        this.input = input;
+        this.timeSeries = timeSeries;
+        this.error = error;
+    }
+
+    /**
+     * @return position of the input in the requested collection
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public TimeSeriesEndpointInput.GetOne getInput() {
+        return input;
+    }
+
+    public boolean isSuccessful() {
+        return error == null;
+    }
+
+    /**
+     * @return the retrieved time series, null if the retrieval failed
+     */
+    public TimeSeries getTimeSeries() {
+        return timeSeries;
+    }
+
+    /**
+     * @return the failure, for example a NoDataFoundException or DeadlineExceededException, null if retrieved
+     */
+    public IOException getError() {
+        return error;
+    }
+
+    /**
+     * @return the retrieved time series
+     * @throws IOException the failure if the retrieval failed
+     */
+    public TimeSeries getTimeSeriesOrThrow() throws IOException {
+        if (error != null) {
+            throw error;
+        }
+        return timeSeries;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.radar.client.controllers;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Settings for storing a large time series as several POSTs of at most maxValuesPerChunk consecutive values, sent in
+ * parallel. A chunk that fails with a connection problem, a timeout or a 408, 429 or 5xx response is retried up to
+ * maxAttempts times, waiting retryBackoff before the first retry and doubling the wait after each one.
+ * <p>
+ * Every chunk is stored with the version date, store rule and override protection of the original request. With the
+ * Delete Insert store rule each chunk would only replace the span of its own values, keeping existing values between
+ * the last value of one chunk and the first value of the next, so such a time series is stored in a single request.
+ */
+public final class TimeSeriesStoreChunking {
+
+    static final int DEFAULT_MAX_VALUES_PER_CHUNK = 10_000;
+    static final int DEFAULT_MAX_CONCURRENCY = 4;
+    static final int DEFAULT_MAX_ATTEMPTS = 3;
+    static final Duration DEFAULT_RETRY_BACKOFF = Duration.ofMillis(500);
+    private int maxValuesPerChunk = DEFAULT_MAX_VALUES_PER_CHUNK;
+    private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+    private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+    private Duration retryBackoff = DEFAULT_RETRY_BACKOFF;
+
+    /**
+     * @param maxValuesPerChunk most values sent in one request
+     * @return these settings
+     */
+    public TimeSeriesStoreChunking maxValuesPerChunk(int maxValuesPerChunk) {
+        if (maxValuesPerChunk < 1) {
+            throw new IllegalArgumentException("Chunks must hold at least one value, requested: " + maxValuesPerChunk);
+        }
+        this.maxValuesPerChunk = maxValuesPerChunk;
+        return this;
+    }
+
+    /**
+     * @param maxConcurrency maximum number of chunks stored at the same time
+     * @return these settings
+     */
+    public TimeSeriesStoreChunking maxConcurrency(int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("At least one chunk must be stored at a time, requested: " + maxConcurrency);
+        }
+        this.maxConcurrency = maxConcurrency;
+        return this;
+    }
+
+    /**
+     * @param maxAttempts most times one chunk is sent, including the first attempt
+     * @return these settings
+     */
+    public TimeSeriesStoreChunking maxAttempts(int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Chunks must be sent at least once, requested: " + maxAttempts);
+        }
+        this.maxAttempts = maxAttempts;
+        return this;
+    }
+
+    /**
+     * @param retryBackoff wait before the first retry of a chunk, doubled after each retry
+     * @return these settings
+     */
+    public TimeSeriesStoreChunking retryBackoff(Duration retryBackoff) {
+        Objects.requireNonNull(retryBackoff, "Cannot retry chunks without a backoff");
+        if (retryBackoff.isNegative()) {
+            throw new IllegalArgumentException("Retry backoff cannot be negative, requested: " + retryBackoff);
+        }
+        this.retryBackoff = retryBackoff;
+        return this;
+    }
+
+    int maxValuesPerChunk() {
+        return maxValuesPerChunk;
+    }
+
+    int maxConcurrency() {
+        return maxConcurrency;
+    }
+
+    int maxAttempts() {
+        return maxAttempts;
+    }
+
+    Duration retryBackoff() {
+        return retryBackoff;
+    }
+}
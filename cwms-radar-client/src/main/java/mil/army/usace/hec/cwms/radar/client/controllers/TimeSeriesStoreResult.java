@@ -0,0 +1,129 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.radar.client.controllers;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Outcome of a chunked time series store, one {@link Chunk} per request in time order.
+ */
+public final class TimeSeriesStoreResult {
+
+    private final List<Chunk> chunks;
+
+    TimeSeriesStoreResult(List<Chunk> chunks) {
+        this.chunks = Collections.unmodifiableList(chunks);
+    }
+
+    public List<Chunk> getChunks() {
+        return chunks;
+    }
+
+    /**
+     * @return chunks the server accepted
+     */
+    public List<Chunk> getCommittedChunks() {
+        return chunks.stream().filter(Chunk::isCommitted).collect(Collectors.toList());
+    }
+
+    /**
+     * @return chunks that failed or were not sent after another chunk failed
+     */
+    public List<Chunk> getUncommittedChunks() {
+        return chunks.stream().filter(chunk -> !chunk.isCommitted()).collect(Collectors.toList());
+    }
+
+    public boolean isComplete() {
+        return chunks.stream().allMatch(Chunk::isCommitted);
+    }
+
+    /**
+     * Consecutive values of the time series stored with one request.
+     */
+    public static final class Chunk {
+
+        private final Instant begin;
+        private final Instant end;
+        private final int valueCount;
+        private final int attempts;
+        private final boolean committed;
+        private final IOException error;
+
+        Chunk(Instant begin, Instant end, int valueCount, int attempts, boolean committed, IOException error) {
+            this.begin = begin;
+            this.end = end;
+            this.valueCount = valueCount;
+            this.attempts = attempts;
+            this.committed = committed;
+            this.error = error;
+        }
+
+        /**
+         * @return time of the first value of the chunk
+         */
+        public Instant getBegin() {
+            return begin;
+        }
+
+        /**
+         * @return time of the last value of the chunk
+         */
+        public Instant getEnd() {
+            return end;
+        }
+
+        public int getValueCount() {
+            return valueCount;
+        }
+
+        /**
+         * @return number of requests sent for the chunk, zero if it was never sent
+         */
+        public int getAttempts() {
+            return attempts;
+        }
+
+        public boolean isCommitted() {
+            return committed;
+        }
+
+        /**
+         * @return failure of the last attempt, null if committed or never sent
+         */
+        public IOException getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + begin + ", " + end + "] " + valueCount + " values " + (committed ? "committed" : "not committed")
+                + " after " + attempts + " attempt(s)" + (error == null ? "" : ": " + error);
+        }
+    }
+}
@@ -25,10 +25,13 @@
 package mil.army.usace.hec.cwms.radar.client.controllers;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import mil.army.usace.hec.cwms.http.client.Deadline;
 import mil.army.usace.hec.cwms.http.client.EndpointInput;
 import mil.army.usace.hec.cwms.http.client.HttpRequestBuilder;
+import mil.army.usace.hec.cwms.http.client.RequestPriority;
 import mil.army.usace.hec.cwms.http.client.request.HttpPostRequest;
 import mil.army.usace.hec.cwms.http.client.request.HttpRequestMediaType;
 
@@ -59,6 +62,21 @@ public class MockHttpRequestBuilder implements HttpRequestBuilder {
         return this;
     }
 
+    @Override
+    public MockHttpRequestBuilder withTimeout(Duration timeout) {
+        return this;
+    }
+
+    @Override
+    public MockHttpRequestBuilder withDeadline(Deadline deadline) {
+        return this;
+    }
+
+    @Override
+    public MockHttpRequestBuilder withPriority(RequestPriority priority) {
+        return this;
+    }
+
     @Override
     public HttpPostRequest post() {
         return null;
@@ -0,0 +1,105 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.radar.client.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import mil.army.usace.hec.cwms.radar.client.model.LocationCatalogEntry;
+import org.junit.jupiter.api.Test;
+
+class TestLocationCatalogCrawler extends TestController {
+
+    @Test
+    void testCrawlAllOffices() throws IOException {
+        mockHttpServer.enqueue(readJsonFile("radar/v2/json/offices_swd.json"));
+        mockHttpServer.enqueue(readJsonFile("radar/v2/json/catalog_loc_lastpage.json"));
+        mockHttpServer.enqueue(readJsonFile("radar/v2/json/catalog_loc_lastpage.json"));
+        mockHttpServer.start();
+        AtomicReference<CrawlProgress> progress = new AtomicReference<>();
+        List<String> names;
+        try (Stream<LocationCatalogEntry> entries = new LocationCatalogCrawler()
+            .maxConcurrency(2)
+            .progressListener(progress::set)
+            .crawl(buildConnectionInfo())) {
+            names = entries.map(LocationCatalogEntry::getName).sorted().collect(Collectors.toList());
+        }
+        //both offices were answered with the same page, the second copy is dropped
+        assertEquals(Arrays.asList("AARK", "ALTU"), names);
+        CrawlProgress last = progress.get();
+        assertEquals(2, last.getOfficeCount());
+        assertEquals(2, last.getShardCount());
+        assertEquals(2, last.getPageCount());
+        assertEquals(2, last.getEntryCount());
+        assertEquals(2, last.getDuplicateCount());
+    }
+
+    @Test
+    void testCrawlShardedOffice() throws IOException {
+        mockHttpServer.enqueue(readJsonFile("radar/v2/json/catalog_loc_lastpage.json"));
+        mockHttpServer.enqueue(readJsonFile("radar/v2/json/catalog_loc_lastpage.json"));
+        mockHttpServer.enqueue(readJsonFile("radar/v2/json/catalog_loc_lastpage.json"));
+        mockHttpServer.start();
+        AtomicReference<CrawlProgress> progress = new AtomicReference<>();
+        long count;
+        try (Stream<LocationCatalogEntry> entries = new LocationCatalogCrawler()
+            .officeIds("SWT")
+            .shardLocationIdFilters("^A.*", "^B.*", "^C.*")
+            .maxConcurrency(1)
+            .progressListener(progress::set)
+            .crawl(buildConnectionInfo())) {
+            count = entries.count();
+        }
+        assertEquals(2, count);
+        assertEquals(1, progress.get().getOfficeCount());
+        assertEquals(3, progress.get().getShardCount());
+        assertEquals(4, progress.get().getDuplicateCount());
+    }
+
+    @Test
+    void testCrawlFailure() throws IOException {
+        mockHttpServer.enqueue(readJsonFile("radar/v2/json/catalog_loc_lastpage.json"));
+        mockHttpServer.enqueue(500, "{\"message\":\"catalog unavailable\"}");
+        mockHttpServer.start();
+        try (Stream<LocationCatalogEntry> entries = new LocationCatalogCrawler()
+            .officeIds("SWT", "SWL")
+            .maxConcurrency(1)
+            .crawl(buildConnectionInfo())) {
+            assertThrows(UncheckedIOException.class, entries::count);
+        }
+    }
+
+    @Test
+    void testInvalidConcurrency() {
+        assertThrows(IllegalArgumentException.class, () -> new LocationCatalogCrawler().maxConcurrency(0));
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.radar.client.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import mil.army.usace.hec.cwms.radar.client.model.LocationCatalogEntry;
+import mil.army.usace.hec.cwms.radar.client.model.TimeSeriesCatalogEntry;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+class TestPagedPublisher extends TestController {
+
+    private static final List<Page> PAGES = Arrays.asList(
+        new Page(Arrays.asList("a", "b"), "1"),
+        new Page(Collections.emptyList(), "2"),
+        new Page(Arrays.asList("c", "d"), "3"),
+        new Page(Collections.singletonList("e"), null));
+
+    @Test
+    void testPublishesAllPagesInOrder() throws InterruptedException {
+        List<String> cursors = new CopyOnWriteArrayList<>();
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<>();
+        publisher(cursors).subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertTrue(subscriber.terminated.await(10, TimeUnit.SECONDS));
+        assertNull(subscriber.error);
+        assertEquals(Arrays.asList("a", "b", "c", "d", "e"), subscriber.items);
+        assertEquals(Arrays.asList("first", "1", "2", "3"), cursors);
+    }
+
+    @Test
+    void testPagesFetchedOnDemand() throws InterruptedException {
+        List<String> cursors = new CopyOnWriteArrayList<>();
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<>();
+        publisher(cursors).subscribe(subscriber);
+        Thread.sleep(100);
+        assertTrue(cursors.isEmpty());
+        subscriber.subscription.request(1);
+        awaitSize(subscriber.items, 1);
+        awaitSize(cursors, 2);
+        Thread.sleep(100);
+        //first page emitted, second page prefetched
+        assertEquals(Arrays.asList("first", "1"), cursors);
+        subscriber.subscription.request(2);
+        awaitSize(subscriber.items, 3);
+        assertEquals(Arrays.asList("a", "b", "c"), subscriber.items);
+        subscriber.subscription.cancel();
+        Thread.sleep(100);
+        assertEquals(1, subscriber.terminated.getCount());
+    }
+
+    @Test
+    void testFetchFailure() throws InterruptedException {
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<>();
+        new PagedPublisher<Page, String>(cursor -> {
+            if (cursor != null) {
+                throw new IOException("page " + cursor + " unavailable");
+            }
+            return PAGES.get(0);
+        }, page -> page.next, page -> page.entries).subscribe(subscriber);
+        subscriber.subscription.request(10);
+        assertTrue(subscriber.terminated.await(10, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("a", "b"), subscriber.items);
+        assertInstanceOf(IOException.class, subscriber.error);
+    }
+
+    @Test
+    void testInvalidRequestAndSecondSubscriber() throws InterruptedException {
+        Publisher<String> publisher = publisher(new CopyOnWriteArrayList<>());
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<>();
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(0);
+        assertTrue(subscriber.terminated.await(10, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalArgumentException.class, subscriber.error);
+        RecordingSubscriber<String> secondSubscriber = new RecordingSubscriber<>();
+        publisher.subscribe(secondSubscriber);
+        assertTrue(secondSubscriber.terminated.await(10, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, secondSubscriber.error);
+    }
+
+    @Test
+    void testPublishTimeSeriesCatalog() throws IOException, InterruptedException {
+        mockHttpServer.enqueue(readJsonFile("radar/v2/json/catalog_ts_idfilter.json"));
+        mockHttpServer.start();
+        TimeSeriesCatalogEndpointInput input = new TimeSeriesCatalogEndpointInput()
+            .officeId("SWT")
+            .timeSeriesIdFilter("ACSO2.Irrad.Ave.1Hour.1Hour.Raw-Mesonet");
+        RecordingSubscriber<TimeSeriesCatalogEntry> subscriber = new RecordingSubscriber<>();
+        new CatalogController().publishTimeSeriesCatalog(buildConnectionInfo(), input).subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertTrue(subscriber.terminated.await(10, TimeUnit.SECONDS));
+        assertNull(subscriber.error);
+        assertEquals(1, subscriber.items.size());
+        assertEquals("ACSO2.Irrad.Ave.1Hour.1Hour.Raw-Mesonet", subscriber.items.get(0).getTimeSeriesId());
+    }
+
+    @Test
+    void testPublishTwiceFromSameInput() throws IOException, InterruptedException {
+        for (int i = 0; i < 2; i++) {
+            mockHttpServer.enqueue(readJsonFile("radar/v2/json/catalog_locpage1.json"));
+            mockHttpServer.enqueue(readJsonFile("radar/v2/json/catalog_loc_lastpage.json"));
+        }
+        mockHttpServer.start();
+        LocationCatalogEndpointInput input = new LocationCatalogEndpointInput().officeId("SWT");
+        CatalogController catalogController = new CatalogController();
+        List<List<String>> walks = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            RecordingSubscriber<LocationCatalogEntry> subscriber = new RecordingSubscriber<>();
+            catalogController.publishLocationCatalog(buildConnectionInfo(), input).subscribe(subscriber);
+            subscriber.subscription.request(Long.MAX_VALUE);
+            assertTrue(subscriber.terminated.await(10, TimeUnit.SECONDS));
+            assertNull(subscriber.error);
+            walks.add(subscriber.items.stream().map(LocationCatalogEntry::getName).collect(Collectors.toList()));
+        }
+        assertEquals(502, walks.get(0).size());
+        assertEquals(walks.get(0), walks.get(1));
+        //each walk starts from the first page, the input is not left at the previous walk's last cursor
+        for (int i = 0; i < 2; i++) {
+            assertFalse(mockHttpServer.takeRequestPath().contains("cursor="));
+            assertTrue(mockHttpServer.takeRequestPath().contains("cursor="));
+        }
+    }
+
+    private static Publisher<String> publisher(List<String> cursors) {
+        return new PagedPublisher<Page, String>(cursor -> {
+            cursors.add(cursor == null ? "first" : cursor);
+            return PAGES.get(cursor == null ? 0 : Integer.parseInt(cursor));
+        }, page -> page.next, page -> page.entries);
+    }
+
+    private static void awaitSize(List<?> list, int size) throws InterruptedException {
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (list.size() < size && System.nanoTime() < end) {
+            Thread.sleep(5);
+        }
+        assertEquals(size, list.size());
+    }
+
+    private static final class Page {
+        private final List<String> entries;
+        private final String next;
+
+        private Page(List<String> entries, String next) {
+            this.entries = entries;
+            this.next = next;
+        }
+    }
+
+    private static final class RecordingSubscriber<T> implements Subscriber<T> {
+        private final List<T> items = new CopyOnWriteArrayList<>();
+        private final CountDownLatch terminated = new CountDownLatch(1);
+        private volatile Subscription subscription;
+        private volatile Throwable error;
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(T item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            terminated.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            terminated.countDown();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.radar.client.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import mil.army.usace.hec.cwms.radar.client.model.TimeSeriesCatalogEntry;
+import org.junit.jupiter.api.Test;
+
+class TestPrefetchingPageIterator extends TestController {
+
+    private static final int PAGE_COUNT = 6;
+
+    @Test
+    void testIteratesAllPagesInOrder() {
+        List<String> cursors = new CopyOnWriteArrayList<>();
+        List<String> entries;
+        try (Stream<String> stream = iterator(cursors, 2).stream()) {
+            entries = stream.collect(Collectors.toList());
+        }
+        List<String> expected = new ArrayList<>();
+        IntStream.range(0, PAGE_COUNT).forEach(i -> {
+            expected.add(i + "a");
+            expected.add(i + "b");
+        });
+        assertEquals(expected, entries);
+        assertEquals(Arrays.asList("first", "1", "2", "3", "4", "5"), cursors);
+    }
+
+    @Test
+    void testPrefetchDepth() throws InterruptedException {
+        List<String> cursors = new CopyOnWriteArrayList<>();
+        try (PrefetchingPageIterator<List<String>, String> iterator = iterator(cursors, 2)) {
+            assertEquals("0a", iterator.next());
+            awaitSize(cursors, 3);
+            Thread.sleep(100);
+            //first page being consumed, the next two fetched ahead of it
+            assertEquals(Arrays.asList("first", "1", "2"), cursors);
+        }
+        cursors.clear();
+        try (PrefetchingPageIterator<List<String>, String> iterator = iterator(cursors, 1)) {
+            assertEquals("0a", iterator.next());
+            awaitSize(cursors, 2);
+            Thread.sleep(100);
+            assertEquals(Arrays.asList("first", "1"), cursors);
+        }
+    }
+
+    @Test
+    void testCloseStopsFetching() throws InterruptedException {
+        List<String> cursors = new CopyOnWriteArrayList<>();
+        PrefetchingPageIterator<List<String>, String> iterator = iterator(cursors, 1);
+        try (Stream<String> stream = iterator.stream()) {
+            assertEquals(Collections.singletonList("0a"), stream.limit(1).collect(Collectors.toList()));
+        }
+        Thread.sleep(100);
+        int fetched = cursors.size();
+        Thread.sleep(100);
+        assertEquals(fetched, cursors.size());
+        assertTrue(fetched < PAGE_COUNT);
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    void testFetchFailure() {
+        PrefetchingPageIterator<List<String>, String> iterator = new PrefetchingPageIterator<>(cursor -> {
+            if (cursor != null) {
+                throw new IOException("page " + cursor + " unavailable");
+            }
+            return Collections.singletonList("0a");
+        }, page -> "1", page -> page, 2);
+        assertEquals("0a", iterator.next());
+        UncheckedIOException exception = assertThrows(UncheckedIOException.class, iterator::hasNext);
+        assertEquals("page 1 unavailable", exception.getCause().getMessage());
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    void testInvalidPrefetchDepth() {
+        assertThrows(IllegalArgumentException.class, () -> iterator(new ArrayList<>(), 0));
+    }
+
+    @Test
+    void testStreamTimeSeriesCatalog() throws IOException {
+        mockHttpServer.enqueue(readJsonFile("radar/v2/json/catalog_ts_idfilter.json"));
+        mockHttpServer.start();
+        TimeSeriesCatalogEndpointInput input = new TimeSeriesCatalogEndpointInput()
+            .officeId("SWT")
+            .timeSeriesIdFilter("ACSO2.Irrad.Ave.1Hour.1Hour.Raw-Mesonet");
+        List<String> ids;
+        try (Stream<TimeSeriesCatalogEntry> entries = new CatalogController().streamTimeSeriesCatalog(buildConnectionInfo(), input, 3)) {
+            ids = entries.map(TimeSeriesCatalogEntry::getTimeSeriesId).collect(Collectors.toList());
+        }
+        assertEquals(Collections.singletonList("ACSO2.Irrad.Ave.1Hour.1Hour.Raw-Mesonet"), ids);
+    }
+
+    @Test
+    void testStreamSameInputTwice() throws IOException, InterruptedException {
+        for (int i = 0; i < 2; i++) {
+            mockHttpServer.enqueue(readJsonFile("radar/v2/json/catalog_tspage1.json"));
+            mockHttpServer.enqueue(readJsonFile("radar/v2/json/catalog_ts_idfilter.json"));
+        }
+        mockHttpServer.start();
+        TimeSeriesCatalogEndpointInput input = new TimeSeriesCatalogEndpointInput().officeId("SWT");
+        CatalogController catalogController = new CatalogController();
+        List<List<String>> walks = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            try (Stream<TimeSeriesCatalogEntry> entries = catalogController.streamTimeSeriesCatalog(buildConnectionInfo(), input, 1)) {
+                walks.add(entries.map(TimeSeriesCatalogEntry::getTimeSeriesId).collect(Collectors.toList()));
+            }
+        }
+        assertEquals(501, walks.get(0).size());
+        assertEquals(walks.get(0), walks.get(1));
+        //the background fetches did not leave a cursor on the input, each stream starts from the first page
+        for (int i = 0; i < 2; i++) {
+            assertFalse(mockHttpServer.takeRequestPath().contains("cursor="));
+            assertTrue(mockHttpServer.takeRequestPath().contains("cursor="));
+        }
+    }
+
+    private static PrefetchingPageIterator<List<String>, String> iterator(List<String> cursors, int prefetchPages) {
+        //pages are the entries, with the page number as the first character of each
+        return new PrefetchingPageIterator<>(cursor -> {
+            cursors.add(cursor == null ? "first" : cursor);
+            int page = cursor == null ? 0 : Integer.parseInt(cursor);
+            return Arrays.asList(page + "a", page + "b");
+        }, page -> {
+            int next = Integer.parseInt(page.get(0).substring(0, 1)) + 1;
+            return next < PAGE_COUNT ? Integer.toString(next) : null;
+        }, page -> page, prefetchPages);
+    }
+
+    private static void awaitSize(List<?> list, int size) throws InterruptedException {
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (list.size() < size && System.nanoTime() < end) {
+            Thread.sleep(5);
+        }
+        assertEquals(size, list.size());
+    }
+}
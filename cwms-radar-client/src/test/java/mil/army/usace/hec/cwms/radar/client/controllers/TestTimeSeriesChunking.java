@@ -0,0 +1,90 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mil.army.usace.hec.cwms.radar.client.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class TestTimeSeriesChunking {
+
+    private static final Instant BEGIN = Instant.parse("2018-01-05T00:00:00Z");
+
+    @Test
+    void testIntervalOf() {
+        assertEquals(Duration.ofHours(1), TimeSeriesChunking.intervalOf("ARBU.Elev.Inst.1Hour.0.Ccp-Rev"));
+        assertEquals(Duration.ofMinutes(15), TimeSeriesChunking.intervalOf("ARBU.Elev.Inst.15Minutes.0.Ccp-Rev"));
+        assertEquals(Duration.ofDays(28), TimeSeriesChunking.intervalOf("ARBU.Flow.Ave.1Month.1Month.Ccp-Rev"));
+        assertEquals(Duration.ofDays(365), TimeSeriesChunking.intervalOf("ARBU.Flow.Ave.1Year.1Year.Ccp-Rev"));
+        assertNull(TimeSeriesChunking.intervalOf("ARBU.Elev.Inst.0.0.Ccp-Rev"));
+        assertNull(TimeSeriesChunking.intervalOf("ARBU.Elev.Inst.~1Day.0.Ccp-Rev"));
+        assertNull(TimeSeriesChunking.intervalOf("not a time series id"));
+    }
+
+    @Test
+    void testRegularWindows() {
+        List<Instant> boundaries = new TimeSeriesChunking()
+            .maxValuesPerWindow(24)
+            .windowBoundaries("ARBU.Elev.Inst.1Hour.0.Ccp-Rev", BEGIN, BEGIN.plus(Duration.ofHours(60)));
+        assertEquals(Arrays.asList(BEGIN, BEGIN.plus(Duration.ofHours(24)), BEGIN.plus(Duration.ofHours(48)),
+            BEGIN.plus(Duration.ofHours(60))), boundaries);
+    }
+
+    @Test
+    void testMonthlyWindowsStayUnderLimit() {
+        Instant end = Instant.parse("2020-01-05T00:00:00Z");
+        List<Instant> boundaries = new TimeSeriesChunking()
+            .maxValuesPerWindow(12)
+            .windowBoundaries("ARBU.Flow.Ave.1Month.1Month.Ccp-Rev", BEGIN, end);
+        assertEquals(Arrays.asList(BEGIN, BEGIN.plus(Duration.ofDays(336)), BEGIN.plus(Duration.ofDays(672)), end), boundaries);
+        for (int i = 1; i < boundaries.size(); i++) {
+            //twelve months always span more than 336 days, so a window never covers a thirteenth value
+            assertTrue(boundaries.get(i - 1).atZone(ZoneOffset.UTC).plusMonths(12).toInstant().isAfter(boundaries.get(i)));
+        }
+    }
+
+    @Test
+    void testIrregularWindows() {
+        List<Instant> boundaries = new TimeSeriesChunking()
+            .irregularWindow(Duration.ofDays(10))
+            .windowBoundaries("ARBU.Elev.Inst.0.0.Ccp-Rev", BEGIN, BEGIN.plus(Duration.ofDays(20)));
+        assertEquals(Arrays.asList(BEGIN, BEGIN.plus(Duration.ofDays(10)), BEGIN.plus(Duration.ofDays(20))), boundaries);
+    }
+
+    @Test
+    void testInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new TimeSeriesChunking().maxValuesPerWindow(0));
+        assertThrows(IllegalArgumentException.class, () -> new TimeSeriesChunking().maxConcurrency(0));
+        assertThrows(IllegalArgumentException.class, () -> new TimeSeriesChunking().irregularWindow(Duration.ZERO));
+    }
+}
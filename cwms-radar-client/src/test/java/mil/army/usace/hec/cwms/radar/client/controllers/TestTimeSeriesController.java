@@ -26,6 +26,7 @@ package mil.army.usace.hec.cwms.radar.client.controllers;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -38,13 +39,18 @@ import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import mil.army.usace.hec.cwms.http.client.ApiConnectionInfo;
 import mil.army.usace.hec.cwms.http.client.ApiConnectionInfoBuilder;
+import mil.army.usace.hec.cwms.http.client.Deadline;
+import mil.army.usace.hec.cwms.http.client.DeadlineExceededException;
 import mil.army.usace.hec.cwms.http.client.MockHttpServer;
 import mil.army.usace.hec.cwms.http.client.NoDataFoundException;
 import mil.army.usace.hec.cwms.http.client.ServerNotFoundException;
@@ -169,6 +175,211 @@ class TestTimeSeriesController extends TestController {
         assertTrue(start.isBefore(newFirstTime));
     }
 
+    @Test
+    void testRetrieveTimeSeriesFollowNextPage() throws IOException {
+        mockHttpServer.enqueue(readJsonFile("radar/v2/json/timeseries_page1.json"));
+        mockHttpServer.enqueue(readJsonFile("radar/v2/json/timeseries_page2.json"));
+        mockHttpServer.start();
+        Instant start = ZonedDateTime.of(2018, 1, 5, 0, 0, 0, 0, ZoneId.of("UTC")).toInstant();
+        Instant end = ZonedDateTime.of(2018, 2, 5, 0, 0, 0, 0, ZoneId.of("UTC")).toInstant();
+        TimeSeriesEndpointInput.GetOne input = TimeSeriesEndpointInput.getOne("arbu.Elev.Inst.1Hour.0.Ccp-Rev")
+            .officeId("SWT")
+            .begin(start)
+            .end(end)
+            .pageSize(500)
+            .followNextPage(true);
+        TimeSeries timeSeries = new TimeSeriesController().retrieveTimeSeries(buildConnectionInfo(), input);
+        List<TimeSeriesValues> values = timeSeries.getValues();
+        assertEquals(745, values.size());
+        assertEquals(745, timeSeries.getTotal());
+        assertNull(timeSeries.getNextPage());
+        assertEquals(start, Instant.ofEpochMilli(values.get(0).getDateTime()));
+        assertEquals(end, Instant.ofEpochMilli(values.get(values.size() - 1).getDateTime()));
+        for (int i = 1; i < values.size(); i++) {
+            assertTrue(values.get(i - 1).getDateTime() < values.get(i).getDateTime());
+        }
+    }
+
+    @Test
+    void testRetrieveTimeSeriesPages() throws IOException {
+        mockHttpServer.enqueue(readJsonFile("radar/v2/json/timeseries_page1.json"));
+        mockHttpServer.enqueue(readJsonFile("radar/v2/json/timeseries_page2.json"));
+        mockHttpServer.start();
+        TimeSeriesEndpointInput.GetOne input = TimeSeriesEndpointInput.getOne("arbu.Elev.Inst.1Hour.0.Ccp-Rev")
+            .officeId("SWT")
+            .pageSize(500);
+        List<TimeSeries> pages = new ArrayList<>();
+        new TimeSeriesController().retrieveTimeSeriesPages(buildConnectionInfo(), input, pages::add);
+        assertEquals(2, pages.size());
+        assertEquals(500, pages.get(0).getValues().size());
+        assertNotNull(pages.get(0).getNextPage());
+        assertEquals(245, pages.get(1).getValues().size());
+        assertNull(pages.get(1).getNextPage());
+    }
+
+    @Test
+    void testRetrieveTimeSeriesAsyncFollowNextPage() throws Exception {
+        mockHttpServer.enqueue(readJsonFile("radar/v2/json/timeseries_page1.json"));
+        mockHttpServer.enqueue(readJsonFile("radar/v2/json/timeseries_page2.json"));
+        mockHttpServer.start();
+        TimeSeriesEndpointInput.GetOne input = TimeSeriesEndpointInput.getOne("arbu.Elev.Inst.1Hour.0.Ccp-Rev")
+            .officeId("SWT")
+            .pageSize(500)
+            .followNextPage(true);
+        TimeSeries timeSeries = new TimeSeriesController().retrieveTimeSeriesAsync(buildConnectionInfo(), input).get();
+        assertEquals(745, timeSeries.getValues().size());
+        assertNull(timeSeries.getNextPage());
+    }
+
+    @Test
+    void testRetrieveTimeSeriesPagesConsumerFailureCancelsNextPage() throws IOException, InterruptedException {
+        mockHttpServer.enqueue(readJsonFile("radar/v2/json/timeseries_page1.json"));
+        mockHttpServer.enqueueDelayed(readJsonFile("radar/v2/json/timeseries_page2.json"), Duration.ofSeconds(4));
+        mockHttpServer.start();
+        TimeSeriesEndpointInput.GetOne input = TimeSeriesEndpointInput.getOne("arbu.Elev.Inst.1Hour.0.Ccp-Rev")
+            .officeId("SWT")
+            .pageSize(500);
+        TimeSeriesController timeSeriesController = new TimeSeriesController();
+        ApiConnectionInfo apiConnectionInfo = buildConnectionInfo();
+        assertThrows(IllegalStateException.class, () -> timeSeriesController.retrieveTimeSeriesPages(apiConnectionInfo, input, page -> {
+            throw new IllegalStateException("Consumer failed");
+        }));
+        assertTrue(awaitNoRunningAsyncCalls());
+    }
+
+    @Test
+    void testRetrieveTimeSeriesAsyncFollowNextPageCancel() throws IOException, InterruptedException {
+        mockHttpServer.enqueue(readJsonFile("radar/v2/json/timeseries_page1.json"));
+        mockHttpServer.enqueueDelayed(readJsonFile("radar/v2/json/timeseries_page2.json"), Duration.ofSeconds(4));
+        mockHttpServer.start();
+        TimeSeriesEndpointInput.GetOne input = TimeSeriesEndpointInput.getOne("arbu.Elev.Inst.1Hour.0.Ccp-Rev")
+            .officeId("SWT")
+            .pageSize(500)
+            .followNextPage(true);
+        CompletableFuture<TimeSeries> future = new TimeSeriesController().retrieveTimeSeriesAsync(buildConnectionInfo(), input);
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (mockHttpServer.getRequestCount() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(2, mockHttpServer.getRequestCount());
+        assertTrue(future.cancel(true));
+        assertTrue(awaitNoRunningAsyncCalls());
+    }
+
+    @Test
+    void testRetrieveTimeSeriesChunked() throws IOException {
+        mockHttpServer.enqueue(readJsonFile("radar/v2/json/timeseries_window1_page1.json"));
+        mockHttpServer.enqueue(readJsonFile("radar/v2/json/timeseries_window1_page2.json"));
+        mockHttpServer.enqueue(readJsonFile("radar/v2/json/timeseries_window2.json"));
+        mockHttpServer.start();
+        Instant start = ZonedDateTime.of(2018, 1, 5, 0, 0, 0, 0, ZoneId.of("UTC")).toInstant();
+        Instant end = ZonedDateTime.of(2018, 1, 5, 6, 0, 0, 0, ZoneId.of("UTC")).toInstant();
+        TimeSeriesEndpointInput.GetOne input = TimeSeriesEndpointInput.getOne("ARBU.Elev.Inst.1Hour.0.Ccp-Rev")
+            .officeId("SWT")
+            .begin(start)
+            .end(end);
+        //one window at a time so the responses are served in window order
+        TimeSeriesChunking chunking = new TimeSeriesChunking()
+            .maxValuesPerWindow(3)
+            .maxConcurrency(1);
+        TimeSeries timeSeries = new TimeSeriesController().retrieveTimeSeries(buildConnectionInfo(), input, chunking);
+        List<TimeSeriesValues> values = timeSeries.getValues();
+        //the first window spans two pages and the 03:00 boundary value is returned by both windows
+        assertEquals(7, values.size());
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals(start.plus(Duration.ofHours(i)).toEpochMilli(), values.get(i).getDateTime());
+        }
+        assertEquals(7, timeSeries.getTotal());
+        assertNull(timeSeries.getNextPage());
+        assertEquals("m", timeSeries.getUnits());
+        assertEquals(start, timeSeries.getBegin().toInstant());
+        assertEquals(end, timeSeries.getEnd().toInstant());
+        assertEquals("NGVD-29", timeSeries.getVerticalDatumInfo().getNativeDatum());
+    }
+
+    @Test
+    void testRetrieveTimeSeriesBulk() throws IOException {
+        mockHttpServer.enqueue(readJsonFile("radar/v2/json/timeseries.json"));
+        mockHttpServer.enqueue(404, readJsonFile("radar/v2/json/timeseries_notfound.json"));
+        mockHttpServer.enqueue(readJsonFile("radar/v2/json/timeseries.json"));
+        mockHttpServer.start();
+        List<TimeSeriesEndpointInput.GetOne> inputs = Arrays.asList(
+            TimeSeriesEndpointInput.getOne("arbu.Elev.Inst.1Hour.0.Ccp-Rev").officeId("SWT"),
+            TimeSeriesEndpointInput.getOne("arbu.Elev.Inst.1Hour.0.bogus").officeId("SWT"),
+            TimeSeriesEndpointInput.getOne("arbu.Elev.Inst.1Hour.0.Ccp-Rev").officeId("SWT"));
+        //one request at a time so the responses are served in input order
+        TimeSeriesBulkRetrieval bulkRetrieval = new TimeSeriesBulkRetrieval().maxConcurrency(1);
+        List<TimeSeriesRetrievalResult> results = new TimeSeriesController().retrieveTimeSeries(buildConnectionInfo(), inputs, bulkRetrieval);
+        assertEquals(3, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i, results.get(i).getIndex());
+            assertEquals(inputs.get(i), results.get(i).getInput());
+        }
+        assertTrue(results.get(0).isSuccessful());
+        assertEquals(500, results.get(0).getTimeSeries().getValues().size());
+        assertFalse(results.get(1).isSuccessful());
+        assertNull(results.get(1).getTimeSeries());
+        assertTrue(results.get(1).getError() instanceof NoDataFoundException);
+        assertThrows(NoDataFoundException.class, results.get(1)::getTimeSeriesOrThrow);
+        assertEquals("ARBU.Elev.Inst.1Hour.0.Ccp-Rev", results.get(2).getTimeSeriesOrThrow().getName());
+    }
+
+    @Test
+    void testStreamTimeSeriesBulk() throws IOException {
+        String collect = readJsonFile("radar/v2/json/timeseries.json");
+        List<TimeSeriesEndpointInput.GetOne> inputs = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            mockHttpServer.enqueue(collect);
+            inputs.add(TimeSeriesEndpointInput.getOne("arbu.Elev.Inst.1Hour.0.Ccp-Rev").officeId("SWT"));
+        }
+        mockHttpServer.start();
+        TimeSeriesBulkRetrieval bulkRetrieval = new TimeSeriesBulkRetrieval().maxConcurrency(3);
+        try (Stream<TimeSeriesRetrievalResult> stream = new TimeSeriesController()
+            .streamTimeSeries(buildConnectionInfo(), inputs, bulkRetrieval)) {
+            List<TimeSeriesRetrievalResult> results = stream.collect(Collectors.toList());
+            assertEquals(5, results.size());
+            assertEquals(Arrays.asList(0, 1, 2, 3, 4), results.stream()
+                .map(TimeSeriesRetrievalResult::getIndex)
+                .sorted()
+                .collect(Collectors.toList()));
+            assertTrue(results.stream().allMatch(TimeSeriesRetrievalResult::isSuccessful));
+        }
+    }
+
+    @Test
+    void testStreamTimeSeriesBulkCloseCancelsCalls() throws IOException, InterruptedException {
+        String collect = readJsonFile("radar/v2/json/timeseries.json");
+        List<TimeSeriesEndpointInput.GetOne> inputs = new ArrayList<>();
+        mockHttpServer.enqueue(collect);
+        for (int i = 0; i < 3; i++) {
+            mockHttpServer.enqueueDelayed(collect, Duration.ofSeconds(4));
+        }
+        for (int i = 0; i < 4; i++) {
+            inputs.add(TimeSeriesEndpointInput.getOne("arbu.Elev.Inst.1Hour.0.Ccp-Rev").officeId("SWT"));
+        }
+        mockHttpServer.start();
+        TimeSeriesBulkRetrieval bulkRetrieval = new TimeSeriesBulkRetrieval().maxConcurrency(2);
+        try (Stream<TimeSeriesRetrievalResult> stream = new TimeSeriesController()
+            .streamTimeSeries(buildConnectionInfo(), inputs, bulkRetrieval)) {
+            assertTrue(stream.iterator().next().isSuccessful());
+        }
+        //the delayed responses would keep their calls running for 4 seconds unless closing cancelled them
+        assertTrue(awaitNoRunningAsyncCalls());
+        assertTrue(mockHttpServer.getRequestCount() <= 3);
+    }
+
+    @Test
+    void testRetrieveTimeSeriesBulkDeadlineExceeded() throws IOException {
+        mockHttpServer.start();
+        List<TimeSeriesEndpointInput.GetOne> inputs = Arrays.asList(
+            TimeSeriesEndpointInput.getOne("arbu.Elev.Inst.1Hour.0.Ccp-Rev").officeId("SWT"),
+            TimeSeriesEndpointInput.getOne("arbu.Flow.Inst.1Hour.0.Ccp-Rev").officeId("SWT"));
+        TimeSeriesBulkRetrieval bulkRetrieval = new TimeSeriesBulkRetrieval().deadline(Deadline.after(Duration.ZERO));
+        List<TimeSeriesRetrievalResult> results = new TimeSeriesController().retrieveTimeSeries(buildConnectionInfo(), inputs, bulkRetrieval);
+        assertEquals(2, results.size());
+        assertTrue(results.stream().allMatch(r -> r.getError() instanceof DeadlineExceededException));
+    }
+
     @Test
     void testCwmsRadarDown() throws IOException {
         String collect = readJsonFile("radar/v2/json/timeseries.json");
@@ -254,6 +465,93 @@ class TestTimeSeriesController extends TestController {
         assertDoesNotThrow(() -> timeSeriesController.storeTimeSeries(buildConnectionInfo(cookieJarSupplier), input));
     }
 
+    @Test
+    void testStoreTimeSeriesChunked() throws IOException {
+        String collect = readJsonFile("radar/v2/json/timeseries.json");
+        for (int i = 0; i < 3; i++) {
+            mockHttpServer.enqueue("");
+        }
+        mockHttpServer.start();
+        TimeSeries timeSeries = RadarObjectMapper.mapJsonToObject(collect, TimeSeries.class);
+        TimeSeriesEndpointInput.Post input = TimeSeriesEndpointInput.post(timeSeries).storeRule("REPLACE_ALL");
+        TimeSeriesStoreChunking chunking = new TimeSeriesStoreChunking()
+            .maxValuesPerChunk(200)
+            .maxConcurrency(2);
+        TimeSeriesStoreResult result = new TimeSeriesController().storeTimeSeries(buildConnectionInfo(), input, chunking);
+        assertTrue(result.isComplete());
+        List<TimeSeriesStoreResult.Chunk> chunks = result.getCommittedChunks();
+        assertEquals(3, chunks.size());
+        assertEquals(Arrays.asList(200, 200, 100), chunks.stream()
+            .map(TimeSeriesStoreResult.Chunk::getValueCount)
+            .collect(Collectors.toList()));
+        List<TimeSeriesValues> values = timeSeries.getValues();
+        assertEquals(Instant.ofEpochMilli(values.get(0).getDateTime()), chunks.get(0).getBegin());
+        assertEquals(Instant.ofEpochMilli(values.get(199).getDateTime()), chunks.get(0).getEnd());
+        assertEquals(Instant.ofEpochMilli(values.get(values.size() - 1).getDateTime()), chunks.get(2).getEnd());
+        assertTrue(chunks.get(0).getEnd().isBefore(chunks.get(1).getBegin()));
+        assertTrue(chunks.stream().allMatch(chunk -> chunk.getAttempts() == 1));
+    }
+
+    @Test
+    void testStoreTimeSeriesChunkedDeleteInsert() throws IOException {
+        String collect = readJsonFile("radar/v2/json/timeseries.json");
+        mockHttpServer.enqueue("");
+        mockHttpServer.start();
+        TimeSeries timeSeries = RadarObjectMapper.mapJsonToObject(collect, TimeSeries.class);
+        TimeSeriesEndpointInput.Post input = TimeSeriesEndpointInput.post(timeSeries).storeRule("Delete Insert");
+        TimeSeriesStoreChunking chunking = new TimeSeriesStoreChunking().maxValuesPerChunk(200);
+        TimeSeriesStoreResult result = new TimeSeriesController().storeTimeSeries(buildConnectionInfo(), input, chunking);
+        //chunks would keep existing values between them, so the whole span is replaced in one request
+        assertTrue(result.isComplete());
+        assertEquals(1, result.getChunks().size());
+        assertEquals(500, result.getChunks().get(0).getValueCount());
+        assertEquals(1, mockHttpServer.getRequestCount());
+    }
+
+    @Test
+    void testStoreTimeSeriesChunkedRetry() throws IOException {
+        String collect = readJsonFile("radar/v2/json/timeseries.json");
+        mockHttpServer.enqueue(503, "");
+        mockHttpServer.enqueue("");
+        mockHttpServer.start();
+        TimeSeries timeSeries = RadarObjectMapper.mapJsonToObject(collect, TimeSeries.class);
+        TimeSeriesStoreChunking chunking = new TimeSeriesStoreChunking().retryBackoff(Duration.ZERO);
+        TimeSeriesStoreResult result = new TimeSeriesController()
+            .storeTimeSeries(buildConnectionInfo(), TimeSeriesEndpointInput.post(timeSeries), chunking);
+        assertTrue(result.isComplete());
+        assertEquals(1, result.getChunks().size());
+        assertEquals(2, result.getChunks().get(0).getAttempts());
+        assertEquals(500, result.getChunks().get(0).getValueCount());
+    }
+
+    @Test
+    void testStoreTimeSeriesChunkedFailure() throws IOException {
+        String collect = readJsonFile("radar/v2/json/timeseries.json");
+        mockHttpServer.enqueue("");
+        mockHttpServer.enqueue(400, "");
+        mockHttpServer.start();
+        TimeSeries timeSeries = RadarObjectMapper.mapJsonToObject(collect, TimeSeries.class);
+        //one chunk at a time so the responses are served in chunk order
+        TimeSeriesStoreChunking chunking = new TimeSeriesStoreChunking()
+            .maxValuesPerChunk(200)
+            .maxConcurrency(1)
+            .retryBackoff(Duration.ZERO);
+        TimeSeriesController timeSeriesController = new TimeSeriesController();
+        TimeSeriesEndpointInput.Post input = TimeSeriesEndpointInput.post(timeSeries);
+        TimeSeriesStoreException exception = assertThrows(TimeSeriesStoreException.class,
+            () -> timeSeriesController.storeTimeSeries(buildConnectionInfo(), input, chunking));
+        TimeSeriesStoreResult result = exception.getResult();
+        assertFalse(result.isComplete());
+        assertEquals(1, result.getCommittedChunks().size());
+        List<TimeSeriesStoreResult.Chunk> uncommitted = result.getUncommittedChunks();
+        assertEquals(2, uncommitted.size());
+        //client errors are not retried and no further chunks are started
+        assertEquals(1, uncommitted.get(0).getAttempts());
+        assertNotNull(uncommitted.get(0).getError());
+        assertEquals(0, uncommitted.get(1).getAttempts());
+        assertNull(uncommitted.get(1).getError());
+    }
+
     @Test
     void testDeleteTimeSeries() throws IOException {
         String collect = readJsonFile("radar/v2/json/timeseries.json");
@@ -267,4 +565,12 @@ class TestTimeSeriesController extends TestController {
         TimeSeriesEndpointInput.Delete input = TimeSeriesEndpointInput.delete(timeSeries.getName(), timeSeries.getOfficeId());
         assertDoesNotThrow(() -> timeSeriesController.deleteTimeSeries(buildConnectionInfo(cookieJarSupplier), input));
     }
+
+    private static boolean awaitNoRunningAsyncCalls() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 1_000;
+        while (MockHttpServer.getRunningAsyncCallCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        return MockHttpServer.getRunningAsyncCallCount() == 0;
+    }
 }
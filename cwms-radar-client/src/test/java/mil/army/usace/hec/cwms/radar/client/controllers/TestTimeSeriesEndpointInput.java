@@ -50,6 +50,7 @@ import static mil.army.usace.hec.cwms.radar.client.controllers.TimeSeriesEndpoin
 import static mil.army.usace.hec.cwms.radar.client.controllers.TimeSeriesEndpointInput.Post.VERSION_DATE_QUERY_PARAMETER;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.IOException;
@@ -128,6 +129,27 @@ class TestTimeSeriesEndpointInput {
         assertEquals(ACCEPT_HEADER_V2, mockHttpRequestBuilder.getQueryHeader(ACCEPT_QUERY_HEADER));
     }
 
+    @Test
+    void testPostWithTimeSeriesKeepsStoreSettings() throws IOException {
+        MockHttpRequestBuilder mockHttpRequestBuilder = new MockHttpRequestBuilder();
+        String collect = readJsonFile("radar/v2/json/timeseries.json");
+        TimeSeries timeSeries = RadarObjectMapper.mapJsonToObject(collect, TimeSeries.class);
+        Instant now = Instant.now();
+        TimeSeries part = new TimeSeries().name(timeSeries.getName()).values(timeSeries.getValues().subList(0, 10));
+        TimeSeriesEndpointInput.Post input = TimeSeriesEndpointInput.post(timeSeries)
+            .createAsLrts(true)
+            .storeRule("REPLACE_ALL")
+            .overrideProtection(true)
+            .versionDate(now)
+            .withTimeSeries(part);
+        input.addInputParameters(mockHttpRequestBuilder);
+        assertSame(part, input.timeSeries());
+        assertEquals(now.toString(), mockHttpRequestBuilder.getQueryParameter(VERSION_DATE_QUERY_PARAMETER));
+        assertEquals("true", mockHttpRequestBuilder.getQueryParameter(CREATE_AS_LRTS_QUERY_PARAMETER));
+        assertEquals("REPLACE_ALL", mockHttpRequestBuilder.getQueryParameter(STORE_RULE_PARAMETER));
+        assertEquals("true", mockHttpRequestBuilder.getQueryParameter(OVERRIDE_PROTECTION_PARAMETER));
+    }
+
     @Test
     void testPostNullTimeSeries() {
         assertThrows(NullPointerException.class, () -> TimeSeriesEndpointInput.post(null));